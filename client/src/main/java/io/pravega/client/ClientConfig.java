@@ -11,6 +11,7 @@ package io.pravega.client;
 
 import com.google.common.annotations.Beta;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
 import io.pravega.client.stream.impl.Credentials;
 import java.net.URI;
 import java.util.Collections;
@@ -54,6 +55,20 @@ public class ClientConfig {
      */
     private boolean validateHostName;
 
+    /**
+     * The maximum number of connections that are opened to a single segment store and shared by the segment
+     * writers and readers of this client. When this is zero (the default) every writer and reader opens a
+     * dedicated connection.
+     */
+    private final int maxConnectionsPerSegmentStore;
+
+    /**
+     * If true, updates to the state of reader groups are written using the versioned format. Readers running a client
+     * version that predates this format cannot read such updates, so this should only be enabled once every reader in
+     * the reader group has been upgraded. Both formats are always read. Defaults to false.
+     */
+    private final boolean writeVersionedReaderGroupUpdates;
+
     public boolean isEnableTls() {
         return this.controllerURI.getScheme().equals("tls") || this.controllerURI.getScheme().equals("ssl")
                 || this.controllerURI.getScheme().equals("pravegas");
@@ -67,13 +82,18 @@ public class ClientConfig {
         private static final String AUTH_PROPS_START_ENV = "pravega_client_auth_";
 
         private boolean validateHostName = true;
+        private int maxConnectionsPerSegmentStore = 0;
+        private boolean writeVersionedReaderGroupUpdates = false;
 
         public ClientConfig build() {
             if (controllerURI == null) {
                 controllerURI = URI.create("tcp://localhost");
             }
+            Preconditions.checkArgument(maxConnectionsPerSegmentStore >= 0,
+                    "maxConnectionsPerSegmentStore must be a non-negative number.");
             extractCredentials();
-            return new ClientConfig(controllerURI, credentials, trustStore, validateHostName);
+            return new ClientConfig(controllerURI, credentials, trustStore, validateHostName, maxConnectionsPerSegmentStore,
+                    writeVersionedReaderGroupUpdates);
         }
 
         /**
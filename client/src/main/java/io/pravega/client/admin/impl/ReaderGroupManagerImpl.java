@@ -24,8 +24,9 @@ import io.pravega.client.stream.impl.ClientFactoryImpl;
 import io.pravega.client.stream.impl.Controller;
 import io.pravega.client.stream.impl.ControllerImpl;
 import io.pravega.client.stream.impl.ControllerImplConfig;
-import io.pravega.client.stream.impl.JavaSerializer;
 import io.pravega.client.stream.impl.ReaderGroupImpl;
+import io.pravega.client.stream.impl.ReaderGroupState.ReaderGroupStateInitSerializer;
+import io.pravega.client.stream.impl.ReaderGroupState.ReaderGroupStateUpdatesSerializer;
 import io.pravega.client.stream.impl.StreamImpl;
 import io.pravega.shared.NameUtils;
 import java.util.Arrays;
@@ -45,6 +46,7 @@ public class ReaderGroupManagerImpl implements ReaderGroupManager {
     private final ClientFactory clientFactory;
     private final Controller controller;
     private final ConnectionFactory connectionFactory;
+    private final boolean writeVersionedUpdates;
 
     public ReaderGroupManagerImpl(String scope, ClientConfig config, ConnectionFactory connectionFactory) {
         this.scope = scope;
@@ -52,7 +54,8 @@ public class ReaderGroupManagerImpl implements ReaderGroupManager {
                 connectionFactory.getInternalExecutor());
 
         this.connectionFactory = connectionFactory;
-        this.clientFactory = new ClientFactoryImpl(scope, this.controller, connectionFactory);
+        this.clientFactory = new ClientFactoryImpl(scope, this.controller, connectionFactory, config);
+        this.writeVersionedUpdates = config.isWriteVersionedReaderGroupUpdates();
     }
 
     public ReaderGroupManagerImpl(String scope, Controller controller, ClientFactory clientFactory, ConnectionFactory connectionFactory) {
@@ -60,6 +63,7 @@ public class ReaderGroupManagerImpl implements ReaderGroupManager {
         this.clientFactory = clientFactory;
         this.controller = controller;
         this.connectionFactory = connectionFactory;
+        this.writeVersionedUpdates = false;
     }
 
     private Stream createStreamHelper(String streamName, StreamConfiguration config) {
@@ -83,8 +87,9 @@ public class ReaderGroupManagerImpl implements ReaderGroupManager {
                                                                                   .scalingPolicy(ScalingPolicy.fixed(1))
                                                                                   .build());
         SynchronizerConfig synchronizerConfig = SynchronizerConfig.builder().build();
-        ReaderGroupImpl result = new ReaderGroupImpl(scope, groupName, synchronizerConfig, new JavaSerializer<>(),
-                new JavaSerializer<>(), clientFactory, controller, connectionFactory);
+        ReaderGroupImpl result = new ReaderGroupImpl(scope, groupName, synchronizerConfig,
+                new ReaderGroupStateInitSerializer(writeVersionedUpdates), new ReaderGroupStateUpdatesSerializer(writeVersionedUpdates),
+                clientFactory, controller, connectionFactory);
         result.initializeGroup(config);
         return result;
     }
@@ -109,7 +114,8 @@ public class ReaderGroupManagerImpl implements ReaderGroupManager {
     @Override
     public ReaderGroup getReaderGroup(String groupName) {
         SynchronizerConfig synchronizerConfig = SynchronizerConfig.builder().build();
-        return new ReaderGroupImpl(scope, groupName, synchronizerConfig, new JavaSerializer<>(), new JavaSerializer<>(),
+        return new ReaderGroupImpl(scope, groupName, synchronizerConfig, new ReaderGroupStateInitSerializer(writeVersionedUpdates),
+                                   new ReaderGroupStateUpdatesSerializer(writeVersionedUpdates),
                                    clientFactory, controller, connectionFactory);
     }
 
@@ -9,6 +9,7 @@
  */
 package io.pravega.client.netty.impl;
 
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 
@@ -30,6 +31,23 @@ public interface ConnectionFactory extends AutoCloseable {
      */
     CompletableFuture<ClientConnection> establishConnection(PravegaNodeUri endpoint, ReplyProcessor rp);
 
+    /**
+     * Establishes a session for operations on a single segment. Implementations that pool connections may share
+     * the underlying connection with other sessions, in which case only the replies that belong to the given
+     * segment (or writer) are passed to the reply processor. Closing the returned connection ends the session.
+     * By default this establishes a dedicated connection.
+     *
+     * @param endpoint The Pravega Node URI.
+     * @param segment  The fully qualified name of the segment the session operates on.
+     * @param writerId The id of the writer appending to the segment, or null if the session does not append.
+     * @param rp       Reply Processor instance.
+     * @return An instance of client connection.
+     */
+    default CompletableFuture<ClientConnection> establishSession(PravegaNodeUri endpoint, String segment, UUID writerId,
+                                                                 ReplyProcessor rp) {
+        return establishConnection(endpoint, rp);
+    }
+
     /**
      * Get the internal executor which is used by the client.
      * @return A ScheduledExecutorService.
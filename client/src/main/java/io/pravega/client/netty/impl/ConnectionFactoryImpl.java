@@ -47,9 +47,11 @@ import io.pravega.shared.protocol.netty.ReplyProcessor;
 import io.pravega.shared.protocol.netty.WireCommands;
 import java.io.File;
 import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.concurrent.GuardedBy;
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLException;
 import javax.net.ssl.SSLParameters;
@@ -64,6 +66,9 @@ public final class ConnectionFactoryImpl implements ConnectionFactory {
     private final AtomicBoolean closed = new AtomicBoolean(false);
     private final ScheduledExecutorService executor;
     private final ChannelGroup allChannels = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+    private final ConnectionPool connectionPool;
+    @GuardedBy("this")
+    private SslContext sslContext;
 
     /**
      * Actual implementation of ConnectionFactory interface.
@@ -77,6 +82,11 @@ public final class ConnectionFactoryImpl implements ConnectionFactory {
     public ConnectionFactoryImpl(ClientConfig clientConfig, Integer numThreadsInPool) {
         executor = ExecutorServiceHelpers.newScheduledThreadPool(getNumThreads(numThreadsInPool), "clientInternal");
         this.clientConfig = clientConfig;
+        if (clientConfig.getMaxConnectionsPerSegmentStore() > 0) {
+            this.connectionPool = new ConnectionPool(clientConfig.getMaxConnectionsPerSegmentStore(), this::establishConnection);
+        } else {
+            this.connectionPool = null;
+        }
         try {
             this.group = new EpollEventLoopGroup();
         } catch (ExceptionInInitializerError | UnsatisfiedLinkError | NoClassDefFoundError e) {
@@ -101,24 +111,7 @@ public final class ConnectionFactoryImpl implements ConnectionFactory {
     public CompletableFuture<ClientConnection> establishConnection(PravegaNodeUri location, ReplyProcessor rp) {
         Preconditions.checkNotNull(location);
         Exceptions.checkNotClosed(closed.get(), this);
-        final SslContext sslCtx;
-        if (clientConfig.isEnableTls()) {
-            try {
-                SslContextBuilder sslCtxFactory = SslContextBuilder.forClient();
-                if (Strings.isNullOrEmpty(clientConfig.getTrustStore())) {
-                    sslCtxFactory = sslCtxFactory.trustManager(FingerprintTrustManagerFactory
-                                                      .getInstance(FingerprintTrustManagerFactory.getDefaultAlgorithm()));
-                } else {
-                    sslCtxFactory = SslContextBuilder.forClient()
-                                              .trustManager(new File(clientConfig.getTrustStore()));
-                }
-                sslCtx = sslCtxFactory.build();
-            } catch (SSLException | NoSuchAlgorithmException e) {
-                throw new RuntimeException(e);
-            }
-        } else {
-            sslCtx = null;
-        }
+        final SslContext sslCtx = getSslContext();
         AppendBatchSizeTracker batchSizeTracker = new AppendBatchSizeTrackerImpl();
         ClientConnectionInboundHandler handler = new ClientConnectionInboundHandler(location.getEndpoint(), rp, batchSizeTracker);
         Bootstrap b = new Bootstrap();
@@ -177,6 +170,39 @@ public final class ConnectionFactoryImpl implements ConnectionFactory {
         return connectionComplete.thenCombine(channelRegisteredFuture, (clientConnection, v) -> clientConnection);
     }
 
+    @Override
+    public CompletableFuture<ClientConnection> establishSession(PravegaNodeUri location, String segment, UUID writerId,
+                                                                ReplyProcessor rp) {
+        if (connectionPool == null) {
+            return establishConnection(location, rp);
+        }
+        Exceptions.checkNotClosed(closed.get(), this);
+        return connectionPool.establishSession(location, segment, writerId, rp);
+    }
+
+    /**
+     * The SSL context only depends on the client config, so it is built once and shared by all connections.
+     */
+    private synchronized SslContext getSslContext() {
+        if (!clientConfig.isEnableTls() || sslContext != null) {
+            return sslContext;
+        }
+        try {
+            SslContextBuilder sslCtxFactory = SslContextBuilder.forClient();
+            if (Strings.isNullOrEmpty(clientConfig.getTrustStore())) {
+                sslCtxFactory = sslCtxFactory.trustManager(FingerprintTrustManagerFactory
+                                                  .getInstance(FingerprintTrustManagerFactory.getDefaultAlgorithm()));
+            } else {
+                sslCtxFactory = SslContextBuilder.forClient()
+                                          .trustManager(new File(clientConfig.getTrustStore()));
+            }
+            sslContext = sslCtxFactory.build();
+        } catch (SSLException | NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        return sslContext;
+    }
+
     @Override
     public ScheduledExecutorService getInternalExecutor() {
         return executor;
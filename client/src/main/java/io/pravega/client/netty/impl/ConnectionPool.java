@@ -0,0 +1,336 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.client.netty.impl;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import io.pravega.common.concurrent.Futures;
+import io.pravega.shared.protocol.netty.Append;
+import io.pravega.shared.protocol.netty.ConnectionFailedException;
+import io.pravega.shared.protocol.netty.FailingReplyProcessor;
+import io.pravega.shared.protocol.netty.PravegaNodeUri;
+import io.pravega.shared.protocol.netty.Reply;
+import io.pravega.shared.protocol.netty.ReplyProcessor;
+import io.pravega.shared.protocol.netty.WireCommand;
+import io.pravega.shared.protocol.netty.WireCommands;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import javax.annotation.concurrent.GuardedBy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Multiplexes segment sessions over a small number of connections per segment store.
+ *
+ * Each session operates on a single segment, so replies are routed back to the session that owns the writer id
+ * (for append related replies) or the segment (for everything else) they refer to. To keep this unambiguous a
+ * connection never carries two sessions for the same segment; if every pooled connection to an endpoint already
+ * has a session for the segment an additional connection is opened. A connection is closed once its last session
+ * is closed.
+ */
+@Slf4j
+final class ConnectionPool {
+
+    private final int maxConnectionsPerEndpoint;
+    private final BiFunction<PravegaNodeUri, ReplyProcessor, CompletableFuture<ClientConnection>> connector;
+    private final Object lock = new Object();
+    @GuardedBy("lock")
+    private final Map<PravegaNodeUri, List<SharedConnection>> connections = new HashMap<>();
+
+    /**
+     * Creates a new pool.
+     *
+     * @param maxConnectionsPerEndpoint The number of connections to open to an endpoint before sessions start sharing them.
+     * @param connector                 Establishes a new (dedicated) connection to an endpoint.
+     */
+    ConnectionPool(int maxConnectionsPerEndpoint,
+                   BiFunction<PravegaNodeUri, ReplyProcessor, CompletableFuture<ClientConnection>> connector) {
+        Preconditions.checkArgument(maxConnectionsPerEndpoint > 0, "maxConnectionsPerEndpoint must be a positive number.");
+        this.maxConnectionsPerEndpoint = maxConnectionsPerEndpoint;
+        this.connector = Preconditions.checkNotNull(connector, "connector");
+    }
+
+    /**
+     * Establishes a session for the given segment on one of the connections to the given endpoint.
+     *
+     * @param endpoint The Pravega Node URI.
+     * @param segment  The segment the session operates on.
+     * @param writerId The id of the writer appending to the segment, or null.
+     * @param rp       The reply processor for the replies that belong to this session.
+     * @return A future that completes with the session once the underlying connection is established.
+     */
+    CompletableFuture<ClientConnection> establishSession(PravegaNodeUri endpoint, String segment, UUID writerId,
+                                                        ReplyProcessor rp) {
+        Preconditions.checkNotNull(endpoint, "endpoint");
+        Preconditions.checkNotNull(segment, "segment");
+        Preconditions.checkNotNull(rp, "rp");
+        SharedConnection shared;
+        Session session;
+        synchronized (lock) {
+            List<SharedConnection> pooled = connections.computeIfAbsent(endpoint, k -> new ArrayList<>());
+            shared = null;
+            if (pooled.size() >= maxConnectionsPerEndpoint) {
+                for (SharedConnection candidate : pooled) {
+                    if (!candidate.sessionsBySegment.containsKey(segment)
+                            && (shared == null || candidate.sessionsBySegment.size() < shared.sessionsBySegment.size())) {
+                        shared = candidate;
+                    }
+                }
+            }
+            if (shared == null) {
+                shared = new SharedConnection(endpoint);
+                pooled.add(shared);
+            }
+            session = new Session(shared, segment, writerId, rp);
+            shared.sessionsBySegment.put(segment, session);
+            if (writerId != null) {
+                shared.sessionsByWriter.put(writerId, session);
+            }
+        }
+        if (shared.connection == null) {
+            // The connection is established outside of the lock, as the connector may invoke callbacks inline.
+            shared.connect();
+        }
+        return shared.connection.thenApply(c -> session);
+    }
+
+    @VisibleForTesting
+    int getConnectionCount(PravegaNodeUri endpoint) {
+        synchronized (lock) {
+            List<SharedConnection> pooled = connections.get(endpoint);
+            return pooled == null ? 0 : pooled.size();
+        }
+    }
+
+    private void remove(SharedConnection shared) {
+        synchronized (lock) {
+            List<SharedConnection> pooled = connections.get(shared.endpoint);
+            if (pooled != null) {
+                pooled.remove(shared);
+                if (pooled.isEmpty()) {
+                    connections.remove(shared.endpoint);
+                }
+            }
+        }
+    }
+
+    //region SharedConnection
+
+    /**
+     * A connection to a segment store that demultiplexes the replies it receives to the sessions using it.
+     */
+    private final class SharedConnection extends FailingReplyProcessor {
+        private final PravegaNodeUri endpoint;
+        private final Map<String, Session> sessionsBySegment = new ConcurrentHashMap<>();
+        private final Map<UUID, Session> sessionsByWriter = new ConcurrentHashMap<>();
+        private volatile CompletableFuture<ClientConnection> connection;
+
+        SharedConnection(PravegaNodeUri endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        private synchronized void connect() {
+            if (connection == null) {
+                connection = connector.apply(endpoint, this);
+                connection.whenComplete((c, e) -> {
+                    if (e != null) {
+                        remove(this);
+                    }
+                });
+            }
+        }
+
+        @Override
+        public void process(Reply reply) {
+            Session target;
+            if (reply instanceof WireCommands.AppendSetup) {
+                target = sessionsByWriter.get(((WireCommands.AppendSetup) reply).getWriterId());
+            } else if (reply instanceof WireCommands.DataAppended) {
+                target = sessionsByWriter.get(((WireCommands.DataAppended) reply).getWriterId());
+            } else if (reply instanceof WireCommands.ConditionalCheckFailed) {
+                target = sessionsByWriter.get(((WireCommands.ConditionalCheckFailed) reply).getWriterId());
+            } else if (reply instanceof WireCommands.InvalidEventNumber) {
+                target = sessionsByWriter.get(((WireCommands.InvalidEventNumber) reply).getWriterId());
+            } else if (reply instanceof WireCommands.SegmentRead) {
+                target = sessionsBySegment.get(((WireCommands.SegmentRead) reply).getSegment());
+            } else if (reply instanceof WireCommands.SegmentIsSealed) {
+                target = sessionsBySegment.get(((WireCommands.SegmentIsSealed) reply).getSegment());
+            } else if (reply instanceof WireCommands.SegmentIsTruncated) {
+                target = sessionsBySegment.get(((WireCommands.SegmentIsTruncated) reply).getSegment());
+            } else if (reply instanceof WireCommands.NoSuchSegment) {
+                target = sessionsBySegment.get(((WireCommands.NoSuchSegment) reply).getSegment());
+            } else if (reply instanceof WireCommands.WrongHost) {
+                target = sessionsBySegment.get(((WireCommands.WrongHost) reply).getSegment());
+            } else if (reply instanceof WireCommands.Hello || reply instanceof WireCommands.KeepAlive) {
+                reply.process(this);
+                return;
+            } else {
+                // Replies that cannot be attributed to a single session (such as a failed auth token check) are
+                // passed to all of them.
+                for (Session session : new ArrayList<>(sessionsBySegment.values())) {
+                    session.process(reply);
+                }
+                return;
+            }
+            if (target == null) {
+                log.debug("Dropping reply {} on connection to {} as its session is closed.", reply, endpoint);
+            } else {
+                target.process(reply);
+            }
+        }
+
+        @Override
+        public void keepAlive(WireCommands.KeepAlive keepAlive) {
+            log.debug("Received KeepAlive on connection to {}", endpoint);
+        }
+
+        @Override
+        public void connectionDropped() {
+            for (Session session : detachAll()) {
+                session.processor.connectionDropped();
+            }
+        }
+
+        @Override
+        public void processingFailure(Exception error) {
+            log.warn("Processing failure on connection to {}: ", endpoint, error);
+            List<Session> sessions = detachAll();
+            for (Session session : sessions) {
+                session.processor.processingFailure(error);
+            }
+            closeConnection();
+        }
+
+        /**
+         * Removes this connection from the pool so no new sessions are assigned to it and returns the sessions
+         * that were using it.
+         */
+        private List<Session> detachAll() {
+            remove(this);
+            List<Session> sessions;
+            synchronized (lock) {
+                sessions = new ArrayList<>(sessionsBySegment.values());
+                sessionsBySegment.clear();
+                sessionsByWriter.clear();
+            }
+            sessions.forEach(s -> s.closed.set(true));
+            return sessions;
+        }
+
+        private void closeConnection() {
+            CompletableFuture<ClientConnection> c = connection;
+            if (c != null && Futures.isSuccessful(c)) {
+                c.getNow(null).close();
+            }
+        }
+
+        private ClientConnection getConnection() throws ConnectionFailedException {
+            CompletableFuture<ClientConnection> c = connection;
+            if (c == null || !Futures.isSuccessful(c)) {
+                throw new ConnectionFailedException("Connection to " + endpoint + " is not established.");
+            }
+            return c.getNow(null);
+        }
+    }
+
+    //endregion
+
+    //region Session
+
+    /**
+     * A view of a shared connection used by a single segment writer or reader.
+     */
+    private final class Session implements ClientConnection {
+        private final SharedConnection shared;
+        private final String segment;
+        private final UUID writerId;
+        private final ReplyProcessor processor;
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+
+        Session(SharedConnection shared, String segment, UUID writerId, ReplyProcessor processor) {
+            this.shared = shared;
+            this.segment = segment;
+            this.writerId = writerId;
+            this.processor = processor;
+        }
+
+        private void process(Reply reply) {
+            try {
+                processor.process(reply);
+            } catch (Exception e) {
+                processor.processingFailure(e);
+            }
+        }
+
+        @Override
+        public void send(WireCommand cmd) throws ConnectionFailedException {
+            getConnection().send(cmd);
+        }
+
+        @Override
+        public void send(Append append) throws ConnectionFailedException {
+            getConnection().send(append);
+        }
+
+        @Override
+        public void sendAsync(WireCommand cmd) throws ConnectionFailedException {
+            getConnection().sendAsync(cmd);
+        }
+
+        @Override
+        public void sendAsync(List<Append> appends, CompletedCallback callback) {
+            ClientConnection connection;
+            try {
+                connection = getConnection();
+            } catch (ConnectionFailedException e) {
+                callback.complete(e);
+                return;
+            }
+            connection.sendAsync(appends, callback);
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            boolean lastSession;
+            synchronized (lock) {
+                shared.sessionsBySegment.remove(segment, this);
+                if (writerId != null) {
+                    shared.sessionsByWriter.remove(writerId, this);
+                }
+                lastSession = shared.sessionsBySegment.isEmpty();
+                if (lastSession) {
+                    remove(shared);
+                }
+            }
+            if (lastSession) {
+                shared.closeConnection();
+            }
+        }
+
+        private ClientConnection getConnection() throws ConnectionFailedException {
+            if (closed.get()) {
+                throw new ConnectionFailedException("Session for " + segment + " on connection to " + shared.endpoint
+                        + " is closed.");
+            }
+            return shared.getConnection();
+        }
+    }
+
+    //endregion
+}
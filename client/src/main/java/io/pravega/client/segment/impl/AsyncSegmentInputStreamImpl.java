@@ -219,7 +219,7 @@ class AsyncSegmentInputStreamImpl extends AsyncSegmentInputStream {
         return controller.getEndpointForSegment(segmentId.getScopedName()).thenCompose((PravegaNodeUri uri) -> {
             synchronized (lock) {
                 if (connection == null) {
-                    connection = connectionFactory.establishConnection(uri, responseProcessor);
+                    connection = connectionFactory.establishSession(uri, segmentId.getScopedName(), null, responseProcessor);
                 }
                 return connection;
             }
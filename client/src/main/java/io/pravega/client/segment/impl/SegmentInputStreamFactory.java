@@ -11,6 +11,7 @@ package io.pravega.client.segment.impl;
 
 import io.pravega.client.stream.EventPointer;
 import io.pravega.client.stream.EventStreamReader;
+import io.pravega.client.stream.ReaderConfig;
 
 /**
  * Creates {@link SegmentInputStream} for reading from existing segments.
@@ -44,4 +45,17 @@ public interface SegmentInputStreamFactory {
      * @return A segment input stream.
      */
     SegmentInputStream createInputStreamForSegment(Segment segment, int bufferSize);
+
+    /**
+     * Opens an existing segment for reading. This operation will fail if the
+     * segment does not exist.
+     * This operation additionally takes a reader configuration, which
+     * determines how many read requests may be outstanding at any given time
+     * (see {@link ReaderConfig#getReadPipelineDepth()}).
+     *
+     * @param segment The segment to create an input for.
+     * @param config  The configuration of the reader the input is created for.
+     * @return A segment input stream.
+     */
+    SegmentInputStream createInputStreamForSegment(Segment segment, ReaderConfig config);
 }
@@ -11,6 +11,7 @@ package io.pravega.client.segment.impl;
 
 import com.google.common.annotations.VisibleForTesting;
 import io.pravega.client.netty.impl.ConnectionFactory;
+import io.pravega.client.stream.ReaderConfig;
 import io.pravega.client.stream.impl.Controller;
 import io.pravega.common.Exceptions;
 import io.pravega.common.concurrent.Futures;
@@ -33,6 +34,15 @@ public class SegmentInputStreamFactoryImpl implements SegmentInputStreamFactory
 
     @Override
     public SegmentInputStream createInputStreamForSegment(Segment segment, int bufferSize) {
+        return createInputStreamForSegment(segment, bufferSize, SegmentInputStreamImpl.DEFAULT_READ_PIPELINE_DEPTH);
+    }
+
+    @Override
+    public SegmentInputStream createInputStreamForSegment(Segment segment, ReaderConfig config) {
+        return createInputStreamForSegment(segment, SegmentInputStreamImpl.DEFAULT_BUFFER_SIZE, config.getReadPipelineDepth());
+    }
+
+    private SegmentInputStream createInputStreamForSegment(Segment segment, int bufferSize, int readPipelineDepth) {
         String delegationToken = Futures.getAndHandleExceptions(controller.getOrRefreshDelegationTokenFor(segment.getScope(), segment.getStream().getStreamName()), RuntimeException::new);
     AsyncSegmentInputStreamImpl result = new AsyncSegmentInputStreamImpl(controller, cf, segment, delegationToken);
         try {
@@ -40,6 +50,6 @@ public class SegmentInputStreamFactoryImpl implements SegmentInputStreamFactory
         } catch (ExecutionException e) {
             log.warn("Initial connection attempt failure. Suppressing.", e);
         }
-        return new SegmentInputStreamImpl(result, 0, bufferSize);
+        return new SegmentInputStreamImpl(result, 0, bufferSize, readPipelineDepth);
     }
 }
@@ -10,6 +10,7 @@
 package io.pravega.client.segment.impl;
 
 import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
 import io.pravega.common.Exceptions;
 import io.pravega.common.concurrent.Futures;
 import io.pravega.common.util.CircularBuffer;
@@ -18,8 +19,10 @@ import io.pravega.shared.protocol.netty.WireCommandType;
 import io.pravega.shared.protocol.netty.WireCommands;
 import io.pravega.shared.protocol.netty.WireCommands.SegmentRead;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.concurrent.CompletableFuture;
 import javax.annotation.concurrent.GuardedBy;
+import lombok.Data;
 import lombok.Synchronized;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +31,15 @@ import static com.google.common.base.Preconditions.checkState;
 
 /**
  * Manages buffering and provides a synchronus to {@link AsyncSegmentInputStream}
+ *
+ * Up to readPipelineDepth read requests may be outstanding at any given time, as long as the buffer has room for all of
+ * their replies. Replies are consumed in the order of their offsets. Additional requests are only issued while the
+ * reader is catching up, which is when the last reply returned everything that was requested and the server did not
+ * indicate that it reached the tail or the end of the segment; during that time the read length is also doubled after
+ * every reply, up to a share of the buffer. Any reply that is short, at the tail or at the end of the segment means that
+ * the requests after it may be beyond the segment's length (which would fail if the segment is sealed, or wait for
+ * new data if it is not), so they are discarded, a single request is kept outstanding and the read length goes back to
+ * its initial value.
  * 
  * @see SegmentInputStream
  */
@@ -35,10 +47,14 @@ import static com.google.common.base.Preconditions.checkState;
 @ToString
 class SegmentInputStreamImpl implements SegmentInputStream {
     private static final int DEFAULT_READ_LENGTH = 64 * 1024;
+    private static final int MAX_READ_LENGTH = 1024 * 1024;
     static final int DEFAULT_BUFFER_SIZE = 2 * SegmentInputStreamImpl.DEFAULT_READ_LENGTH;
+    static final int DEFAULT_READ_PIPELINE_DEPTH = 1;
 
     private final AsyncSegmentInputStream asyncInput;
     private final int readLength;
+    private final int maxReadLength;
+    private final int readPipelineDepth;
     @GuardedBy("$lock")
     private final CircularBuffer buffer;
     @GuardedBy("$lock")
@@ -50,17 +66,44 @@ class SegmentInputStreamImpl implements SegmentInputStream {
     @GuardedBy("$lock")
     private boolean receivedTruncated = false;
     @GuardedBy("$lock")
-    private CompletableFuture<SegmentRead> outstandingRequest = null;
+    private boolean catchingUp = false;
+    /**
+     * Outstanding read requests, in the order of their offsets. Only the first one is ever consumed.
+     */
+    @GuardedBy("$lock")
+    private final ArrayDeque<OutstandingRead> outstandingRequests = new ArrayDeque<>();
+    /**
+     * The offset right after the last byte that has been requested.
+     */
+    @GuardedBy("$lock")
+    private long nextRequestOffset;
+    @GuardedBy("$lock")
+    private int currentReadLength;
 
     SegmentInputStreamImpl(AsyncSegmentInputStream asyncInput, long offset) {
         this(asyncInput, offset, DEFAULT_BUFFER_SIZE);
     }
 
     SegmentInputStreamImpl(AsyncSegmentInputStream asyncInput, long offset, int bufferSize) {
+        this(asyncInput, offset, bufferSize, DEFAULT_READ_PIPELINE_DEPTH);
+    }
+
+    /**
+     * Creates a new instance of the SegmentInputStreamImpl class.
+     *
+     * @param asyncInput        The AsyncSegmentInputStream to issue reads to.
+     * @param offset            The offset to start reading at.
+     * @param bufferSize        The size of the read buffer, per outstanding read request.
+     * @param readPipelineDepth The maximum number of read requests that may be outstanding at any given time.
+     */
+    SegmentInputStreamImpl(AsyncSegmentInputStream asyncInput, long offset, int bufferSize, int readPipelineDepth) {
         Preconditions.checkArgument(offset >= 0);
         Preconditions.checkNotNull(asyncInput);
+        Preconditions.checkArgument(readPipelineDepth > 0, "readPipelineDepth must be a positive number.");
         this.asyncInput = asyncInput;
         this.offset = offset;
+        this.nextRequestOffset = offset;
+        this.readPipelineDepth = readPipelineDepth;
         /*
          * The logic for determining the read length and buffer size are as follows.
          * If we are reading a single event, then we set the read length to be the size
@@ -70,9 +113,15 @@ class SegmentInputStreamImpl implements SegmentInputStream {
          * we set the read length to be equal to the max write size and the buffer
          * size to be twice that. We do it so that we can have at least two events
          * buffered for next event reads.
+         *
+         * If multiple requests may be outstanding, the buffer is scaled accordingly, and the read length may grow up to
+         * the share of the buffer that leaves room for the reader to consume data while all requests are outstanding.
          */
         this.readLength = Math.min(DEFAULT_READ_LENGTH, bufferSize);
-        this.buffer = new CircularBuffer(Math.max(bufferSize, readLength + 1));
+        int bufferCapacity = Math.max(bufferSize * readPipelineDepth, readLength + 1);
+        this.buffer = new CircularBuffer(bufferCapacity);
+        this.maxReadLength = Math.max(readLength, Math.min(MAX_READ_LENGTH, bufferCapacity / (readPipelineDepth + 1)));
+        this.currentReadLength = readLength;
         issueRequestIfNeeded();
     }
 
@@ -87,7 +136,8 @@ class SegmentInputStreamImpl implements SegmentInputStream {
             buffer.clear();
             receivedEndOfSegment = false;
             receivedTruncated = false;
-            outstandingRequest = null;        
+            catchingUp = false;
+            clearOutstandingRequests();
         }
     }
 
@@ -113,9 +163,9 @@ class SegmentInputStreamImpl implements SegmentInputStream {
             return result;
         } finally {
             if (!success) {
-                outstandingRequest = null;
                 offset = originalOffset;
                 buffer.clear();
+                clearOutstandingRequests();
             }
         }
     }
@@ -129,6 +179,7 @@ class SegmentInputStreamImpl implements SegmentInputStream {
             if (buffer.dataAvailable() == 0 && receivedEndOfSegment) {
                 throw new EndOfSegmentException();
             }
+            CompletableFuture<SegmentRead> outstandingRequest = outstandingRequests.peekFirst().getResult();
             Futures.await(outstandingRequest, timeout);
             if (!outstandingRequest.isDone()) {
                 return null;
@@ -158,15 +209,17 @@ class SegmentInputStreamImpl implements SegmentInputStream {
     }
 
     private boolean dataWaitingToGoInBuffer() {
-        return outstandingRequest != null && Futures.isSuccessful(outstandingRequest) && buffer.capacityAvailable() > 0;
+        OutstandingRead outstandingRequest = outstandingRequests.peekFirst();
+        return outstandingRequest != null && Futures.isSuccessful(outstandingRequest.getResult()) && buffer.capacityAvailable() > 0;
     }
 
     private void handleRequest() throws SegmentTruncatedException {
+        OutstandingRead outstandingRequest = outstandingRequests.peekFirst();
         SegmentRead segmentRead;
         try {
-            segmentRead = outstandingRequest.join();
+            segmentRead = outstandingRequest.getResult().join();
         } catch (Exception e) {
-            outstandingRequest = null;
+            clearOutstandingRequests();
             if (Exceptions.unwrap(e) instanceof SegmentTruncatedException) {
                 receivedTruncated = true;
                 throw new SegmentTruncatedException(e);
@@ -174,31 +227,69 @@ class SegmentInputStreamImpl implements SegmentInputStream {
             throw e;
         }
         verifyIsAtCorrectOffset(segmentRead);
-        if (segmentRead.getData().hasRemaining()) {
-            buffer.fill(segmentRead.getData());
+        ByteBuf data = segmentRead.getData();
+        if (data.isReadable()) {
+            data.skipBytes(buffer.fill(data.nioBuffer()));
         }
         if (segmentRead.isEndOfSegment()) {
             receivedEndOfSegment = true;
         }
-        if (!segmentRead.getData().hasRemaining()) {
-            outstandingRequest = null;
+        if (!data.isReadable()) {
+            outstandingRequests.removeFirst();
+            boolean filled = offset + buffer.dataAvailable() - outstandingRequest.getOffset() >= outstandingRequest.getLength();
+            catchingUp = filled && !segmentRead.isAtTail() && !receivedEndOfSegment;
+            currentReadLength = catchingUp ? Math.min(maxReadLength, currentReadLength * 2) : readLength;
+            alignOutstandingRequests();
             issueRequestIfNeeded();
         }
     }
 
+    /**
+     * Makes sure the next outstanding request (if any) starts exactly where the data in the buffer ends. If we are no
+     * longer catching up (the requests after the last reply may be beyond the segment's length) or the server returned
+     * more data than requested, all outstanding requests are discarded and will be re-issued as needed.
+     */
+    private void alignOutstandingRequests() {
+        long expectedOffset = offset + buffer.dataAvailable();
+        OutstandingRead next = outstandingRequests.peekFirst();
+        if (next == null) {
+            nextRequestOffset = expectedOffset;
+        } else if (!catchingUp || next.getOffset() != expectedOffset) {
+            log.trace("Discarding {} outstanding read requests for segment {}", outstandingRequests.size(), asyncInput.getSegmentId());
+            clearOutstandingRequests();
+        }
+    }
+
+    private void clearOutstandingRequests() {
+        outstandingRequests.forEach(r -> r.getResult().cancel(true));
+        outstandingRequests.clear();
+        nextRequestOffset = offset + buffer.dataAvailable();
+    }
+
     private void verifyIsAtCorrectOffset(WireCommands.SegmentRead segmentRead) {
-        long offsetRead = segmentRead.getOffset() + segmentRead.getData().position();
+        long offsetRead = segmentRead.getOffset() + segmentRead.getData().readerIndex();
         long expectedOffset = offset + buffer.dataAvailable();
         checkState(offsetRead == expectedOffset, "ReadSegment returned data for the wrong offset %s vs %s", offsetRead,
                    expectedOffset);
     }
 
     /**
-     * Issues a request if there is enough room for another request, and we aren't already waiting on one
+     * Issues requests while there is enough room in the buffer for another request (in addition to the ones that are
+     * already outstanding), and we aren't already waiting on the maximum number of them.
      */
     private void issueRequestIfNeeded() {
-        if (!receivedEndOfSegment && !receivedTruncated && buffer.capacityAvailable() >= readLength && outstandingRequest == null) {
-            outstandingRequest = asyncInput.read(offset + buffer.dataAvailable(), readLength);
+        if (receivedEndOfSegment || receivedTruncated) {
+            return;
+        }
+        int maxOutstanding = catchingUp ? readPipelineDepth : 1;
+        while (outstandingRequests.size() < maxOutstanding) {
+            long requestedBytes = nextRequestOffset - (offset + buffer.dataAvailable());
+            if (buffer.capacityAvailable() - requestedBytes < currentReadLength) {
+                break;
+            }
+            outstandingRequests.addLast(new OutstandingRead(nextRequestOffset, currentReadLength,
+                    asyncInput.read(nextRequestOffset, currentReadLength)));
+            nextRequestOffset += currentReadLength;
         }
     }
 
@@ -206,9 +297,9 @@ class SegmentInputStreamImpl implements SegmentInputStream {
     @Synchronized
     public void close() {
         log.trace("Closing {}", this);
-        if (outstandingRequest != null) {
-            log.trace("Cancel outstanding read request for segment {}", asyncInput.getSegmentId());
-            outstandingRequest.cancel(true);
+        if (!outstandingRequests.isEmpty()) {
+            log.trace("Cancel outstanding read requests for segment {}", asyncInput.getSegmentId());
+            outstandingRequests.forEach(r -> r.getResult().cancel(true));
         }
         asyncInput.close();
     }
@@ -231,8 +322,9 @@ class SegmentInputStreamImpl implements SegmentInputStream {
     @Override
     @Synchronized
     public boolean canReadWithoutBlocking() {
-        boolean result = buffer.dataAvailable() > 0 || (outstandingRequest != null && Futures.isSuccessful(outstandingRequest)
-                && outstandingRequest.join().getData().hasRemaining());
+        OutstandingRead outstandingRequest = outstandingRequests.peekFirst();
+        boolean result = buffer.dataAvailable() > 0 || (outstandingRequest != null && Futures.isSuccessful(outstandingRequest.getResult())
+                && outstandingRequest.getResult().join().getData().isReadable());
         log.trace("canReadWithoutBlocking {}", result);
         return result;
     }
@@ -242,4 +334,10 @@ class SegmentInputStreamImpl implements SegmentInputStream {
         return asyncInput.getSegmentId();
     }
 
+    @Data
+    private static class OutstandingRead {
+        private final long offset;
+        private final int length;
+        private final CompletableFuture<SegmentRead> result;
+    }
 }
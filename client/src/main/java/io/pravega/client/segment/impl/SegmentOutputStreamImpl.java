@@ -11,7 +11,7 @@ package io.pravega.client.segment.impl;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBuf;
 import io.pravega.client.netty.impl.ClientConnection;
 import io.pravega.client.netty.impl.ConnectionFactory;
 import io.pravega.client.stream.impl.Controller;
@@ -327,6 +327,7 @@ class SegmentOutputStreamImpl implements SegmentOutputStream {
             for (PendingEvent toAck : state.removeInflightBelow(Long.MAX_VALUE)) {
                 if (toAck != null) {
                     toAck.getAckFuture().completeExceptionally(exception);
+                    toAck.release();
                 }
             }
             state.releaseIfEmptyInflight();
@@ -357,23 +358,26 @@ class SegmentOutputStreamImpl implements SegmentOutputStream {
             log.info("Received AppendSetup {}", appendSetup);
             long ackLevel = appendSetup.getLastEventNumber();
             ackUpTo(ackLevel);
+            // Each retransmitted Append holds its own reference to the event's data, since the event may be acked
+            // (and release its reference) before the Append is written out.
             List<Append> toRetransmit = state.getAllInflight()
                                              .stream()
                                              .map(entry -> new Append(segmentName, writerId, entry.getKey(),
-                                                                      Unpooled.wrappedBuffer(entry.getValue()
-                                                                                                  .getData()),
+                                                                      entry.getValue().getData().retainedDuplicate(),
                                                                       entry.getValue().getExpectedOffset()))
                                              .collect(Collectors.toList());
             ClientConnection connection = state.getConnection();
             if (connection == null) {
                 log.warn("Connection setup could not be completed because connection is already failed.", writerId);
+                toRetransmit.forEach(append -> append.getData().release());
                 return;
             }
-            if (toRetransmit == null || toRetransmit.isEmpty()) {
+            if (toRetransmit.isEmpty()) {
                 log.info("Connection setup complete for writer {}", writerId);
                 state.connectionSetupComplete(connection);
             } else {
                 connection.sendAsync(toRetransmit, e -> {
+                    toRetransmit.forEach(append -> append.getData().release());
                     if (e == null) {
                         state.connectionSetupComplete(connection);
                     } else {
@@ -387,6 +391,7 @@ class SegmentOutputStreamImpl implements SegmentOutputStream {
             for (PendingEvent toAck : state.removeInflightBelow(ackLevel)) {
                 if (toAck != null) {
                     toAck.getAckFuture().complete(true);
+                    toAck.release();
                 }
             }
             state.releaseIfEmptyInflight();
@@ -407,6 +412,7 @@ class SegmentOutputStreamImpl implements SegmentOutputStream {
             PendingEvent toAck = state.removeSingleInflight(eventNumber);
             if (toAck != null) {
                 toAck.getAckFuture().complete(false);
+                toAck.release();
             }
             state.releaseIfEmptyInflight();
         }
@@ -442,12 +448,18 @@ class SegmentOutputStreamImpl implements SegmentOutputStream {
                 return;
             }
             long eventNumber = state.addToInflight(event);
+            // The event keeps its reference to the data until it is acked or failed, since it may need to be
+            // retransmitted. The Append holds a separate reference, as a reply (such as NoSuchSegment) may release the
+            // event while the Append is still queued for writing. That reference is released once send() returns,
+            // which it only does after the write completed (or failed).
+            ByteBuf data = event.getData().retainedDuplicate();
             try {
-                Append append = new Append(segmentName, writerId, eventNumber, Unpooled.wrappedBuffer(event.getData()),
-                        event.getExpectedOffset());
+                Append append = new Append(segmentName, writerId, eventNumber, data, event.getExpectedOffset());
                 log.trace("Sending append request: {}", append);
                 connection.send(append);
+                data.release();
             } catch (ConnectionFailedException e) {
+                data.release();
                 log.warn("Connection " + writerId + " failed due to: ", e);
                 reconnect(); // As the message is inflight, this will perform the retransmission.
             }
@@ -535,7 +547,7 @@ class SegmentOutputStreamImpl implements SegmentOutputStream {
                      log.info("Fetching endpoint for segment {}, writerID: {}", segmentName, writerId);
                      return controller.getEndpointForSegment(segmentName).thenComposeAsync((PravegaNodeUri uri) -> {
                          log.info("Establishing connection to {} for {}, writerID: {}", uri, segmentName, writerId);
-                         return connectionFactory.establishConnection(uri, responseProcessor);
+                         return connectionFactory.establishSession(uri, segmentName, writerId, responseProcessor);
                      }, connectionFactory.getInternalExecutor()).thenComposeAsync(connection -> {
                          CompletableFuture<Void> connectionSetupFuture = state.newConnection(connection);
                          SetupAppend cmd = new SetupAppend(requestIdGenerator.get(), writerId, segmentName, delegationToken);
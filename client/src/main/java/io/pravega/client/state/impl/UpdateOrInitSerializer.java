@@ -34,7 +34,7 @@ public final class UpdateOrInitSerializer<StateT extends Revisioned, UpdateT ext
     public ByteBuffer serialize(UpdateOrInit<StateT> value) {
         if (value.isInit()) {
             ByteBuffer buffer = initSerializer.serialize((InitT) value.getInit());
-            ByteBuffer result = ByteBuffer.allocate(buffer.capacity() + Integer.BYTES );
+            ByteBuffer result = ByteBuffer.allocate(buffer.remaining() + Integer.BYTES);
             result.putInt(INITIALIZATION);
             result.put(buffer);
             result.rewind();
@@ -10,6 +10,7 @@
 package io.pravega.client.stream;
 
 import io.pravega.client.segment.impl.NoSuchEventException;
+import java.util.List;
 
 /**
  * A reader for a stream.
@@ -38,6 +39,27 @@ public interface EventStreamReader<T> extends AutoCloseable {
      */
     EventRead<T> readNextEvent(long timeout) throws ReinitializationRequiredException, TruncatedDataException;
 
+    /**
+     * Gets a batch of the next events in the stream. The first element of the batch is exactly what
+     * {@link #readNextEvent(long)} would have returned for the same timeout (including empty reads and checkpoints).
+     * If it is an event, it is followed by up to maxEvents - 1 further events from the same segment, as long as these
+     * can be read without waiting for data to arrive from the server.
+     * <p>
+     * This amortizes the per-call bookkeeping of the reader over all the events in the batch. The position of each
+     * event in the batch is only computed if {@link EventRead#getPosition()} is invoked on it.
+     *
+     * @param maxEvents The maximum number of events to return.
+     * @param timeout   An upper bound on how long the call may block waiting for the first event.
+     * @return A non-empty list of {@link EventRead}s, in the order in which they were read.
+     * @throws ReinitializationRequiredException Is thrown in the event that
+     *             {@link ReaderGroup#resetReadersToCheckpoint(Checkpoint)} or
+     *             {@link ReaderGroup#resetReaderGroup(ReaderGroupConfig)} was called
+     *             which requires readers to be reinitialized.
+     * @throws TruncatedDataException if the data that would be read next has been truncated away
+     *             and can no longer be read.
+     */
+    List<EventRead<T>> readNextEvents(int maxEvents, long timeout) throws ReinitializationRequiredException, TruncatedDataException;
+
     /**
      * Gets the configuration that this reader was created with.
      *
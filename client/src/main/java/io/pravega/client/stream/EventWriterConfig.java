@@ -31,6 +31,18 @@ public class EventWriterConfig implements Serializable {
      * The maximum amount of time, in milliseconds after a scale operation has been initiated before a transaction is timed out. 
      */
     private final long transactionTimeoutScaleGracePeriod;
+    /**
+     * If true, events are serialized directly into pooled, reference-counted buffers which are returned to the pool
+     * once the event has been acknowledged, instead of allocating a new ByteBuffer for every event. This reduces
+     * allocation rates (and GC pressure) for writers with high rates of small events.
+     */
+    private final boolean enablePooledBuffers;
+    /**
+     * If true, application threads sharing this writer may write concurrently: events routed to different segments
+     * are written in parallel rather than being serialized on a single writer-wide lock. The order of events with the
+     * same routing key that are written by the same thread is preserved, including when segments are sealed.
+     */
+    private final boolean enableConcurrentWrites;
     
     public static final class EventWriterConfigBuilder {
         private int initalBackoffMillis = 1;
@@ -39,6 +51,8 @@ public class EventWriterConfig implements Serializable {
         private int backoffMultiple = 10;
         private long transactionTimeoutTime = 60 * 60 * 1000;
         private long transactionTimeoutScaleGracePeriod = -1;
+        private boolean enablePooledBuffers = false;
+        private boolean enableConcurrentWrites = false;
     }
     
     
@@ -20,9 +20,16 @@ public class ReaderConfig implements Serializable {
 
     private static final long serialVersionUID = 1L;
     private final long initialAllocationDelay;
+    /**
+     * The maximum number of read requests that may be outstanding for a segment at any given time. Values greater than
+     * 1 allow a reader that is catching up to have multiple reads in flight, so its throughput is not bounded by the
+     * round-trip time to the server. The read buffer of each segment is scaled accordingly.
+     */
+    private final int readPipelineDepth;
     
     public static class ReaderConfigBuilder {
         private long initialAllocationDelay = 0;
+        private int readPipelineDepth = 1;
     }
     
 }
@@ -9,6 +9,8 @@
  */
 package io.pravega.client.stream;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 
 /**
@@ -35,6 +37,27 @@ public interface Serializer<T> {
      */
     ByteBuffer serialize(T value);
 
+    /**
+     * Serializes the given event directly into the given OutputStream. This is used by writers that serialize into
+     * their own (pooled) buffers, and allows implementations to avoid allocating a new ByteBuffer for every event.
+     * The default implementation invokes {@link #serialize(Object)} and copies its result into the stream.
+     *
+     * @param value  The event to be serialized.
+     * @param stream The OutputStream to write the serialized form of the event to. This stream should not be closed.
+     * @throws IOException If an exception occurred while writing to the stream.
+     * NOTE: the serialized form of the event should not exceed {@link #MAX_EVENT_SIZE}.
+     */
+    default void serialize(T value, OutputStream stream) throws IOException {
+        ByteBuffer buffer = serialize(value);
+        if (buffer.hasArray()) {
+            stream.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        } else {
+            byte[] contents = new byte[buffer.remaining()];
+            buffer.duplicate().get(contents);
+            stream.write(contents);
+        }
+    }
+
     /**
      * Deserializes the given ByteBuffer into an event.
      *
@@ -11,6 +11,8 @@ package io.pravega.client.stream.impl;
 
 import io.pravega.client.stream.Serializer;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
 
@@ -23,6 +25,11 @@ public class ByteArraySerializer implements Serializer<byte[]>, Serializable {
         return ByteBuffer.wrap(value);
     }
 
+    @Override
+    public void serialize(byte[] value, OutputStream stream) throws IOException {
+        stream.write(value);
+    }
+
     @Override
     public byte[] deserialize(ByteBuffer serializedValue) {
         byte[] result = new byte[serializedValue.remaining()];
@@ -11,6 +11,13 @@ package io.pravega.client.stream.impl;
 
 import com.google.common.base.Preconditions;
 import io.pravega.client.segment.impl.Segment;
+import io.pravega.common.ObjectBuilder;
+import io.pravega.common.io.serialization.RevisionDataInput;
+import io.pravega.common.io.serialization.RevisionDataOutput;
+import io.pravega.common.io.serialization.VersionedSerializer;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -22,12 +29,14 @@ import java.util.OptionalInt;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.concurrent.NotThreadSafe;
+import lombok.Builder;
 
 @NotThreadSafe
 public class CheckpointState implements Serializable {
 
+    static final CheckpointStateSerializer SERIALIZER = new CheckpointStateSerializer();
     private static final long serialVersionUID = 1L;
-    
+
     private final List<String> checkpoints;
     /**
      * Maps CheckpointId to remaining hosts.
@@ -45,6 +54,7 @@ public class CheckpointState implements Serializable {
         this(new ArrayList<>(), new HashMap<>(), new HashMap<>(), null);
     }
     
+    @Builder
     private CheckpointState(List<String> checkpoints, Map<String, List<String>> uncheckpointedHosts,
             Map<String, Map<Segment, Long>> checkpointPositions, Map<Segment, Long> lastCheckpointPosition) {
         Preconditions.checkNotNull(checkpoints);
@@ -159,5 +169,55 @@ public class CheckpointState implements Serializable {
         sb.append(uncheckpointedHosts.toString());
         sb.append(" }");
         return sb.toString();
-    }    
+    }
+
+    static class CheckpointStateBuilder implements ObjectBuilder<CheckpointState> {
+    }
+
+    static class CheckpointStateSerializer extends VersionedSerializer.WithBuilder<CheckpointState, CheckpointStateBuilder> {
+        @Override
+        protected CheckpointStateBuilder newBuilder() {
+            return builder();
+        }
+
+        @Override
+        protected byte getWriteVersion() {
+            return 0;
+        }
+
+        @Override
+        protected void declareVersions() {
+            version(0).revision(0, this::write00, this::read00);
+        }
+
+        private void read00(RevisionDataInput in, CheckpointStateBuilder builder) throws IOException {
+            builder.checkpoints(in.readCollection(DataInput::readUTF, ArrayList::new));
+            builder.uncheckpointedHosts(in.readMap(DataInput::readUTF,
+                                                   i -> i.readCollection(DataInput::readUTF, ArrayList::new),
+                                                   HashMap::new));
+            builder.checkpointPositions(in.readMap(DataInput::readUTF, CheckpointStateSerializer::readPositions, HashMap::new));
+            if (in.readBoolean()) {
+                builder.lastCheckpointPosition(readPositions(in));
+            }
+        }
+
+        private void write00(CheckpointState object, RevisionDataOutput out) throws IOException {
+            out.writeCollection(object.checkpoints, DataOutput::writeUTF);
+            out.writeMap(object.uncheckpointedHosts, DataOutput::writeUTF,
+                         (o, hosts) -> o.writeCollection(hosts, DataOutput::writeUTF));
+            out.writeMap(object.checkpointPositions, DataOutput::writeUTF, CheckpointStateSerializer::writePositions);
+            out.writeBoolean(object.lastCheckpointPosition != null);
+            if (object.lastCheckpointPosition != null) {
+                writePositions(out, object.lastCheckpointPosition);
+            }
+        }
+
+        private static Map<Segment, Long> readPositions(RevisionDataInput in) throws IOException {
+            return in.readMap(i -> Segment.fromScopedName(i.readUTF()), DataInput::readLong, HashMap::new);
+        }
+
+        private static void writePositions(RevisionDataOutput out, Map<Segment, Long> positions) throws IOException {
+            out.writeMap(positions, (o, segment) -> o.writeUTF(segment.getScopedName()), DataOutput::writeLong);
+        }
+    }
 }
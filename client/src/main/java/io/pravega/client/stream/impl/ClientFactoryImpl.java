@@ -43,6 +43,8 @@ import io.pravega.client.stream.InvalidStreamException;
 import io.pravega.client.stream.ReaderConfig;
 import io.pravega.client.stream.Serializer;
 import io.pravega.client.stream.Stream;
+import io.pravega.client.stream.impl.ReaderGroupState.ReaderGroupStateInitSerializer;
+import io.pravega.client.stream.impl.ReaderGroupState.ReaderGroupStateUpdatesSerializer;
 import io.pravega.common.concurrent.ExecutorServiceHelpers;
 import io.pravega.common.concurrent.Futures;
 import io.pravega.shared.NameUtils;
@@ -61,6 +63,7 @@ public class ClientFactoryImpl implements ClientFactory {
     private final SegmentOutputStreamFactory outFactory;
     private final SegmentMetadataClientFactory metaFactory;
     private final ConnectionFactory connectionFactory;
+    private final ClientConfig clientConfig;
 
     /**
      * Creates a new instance of ClientFactory class.
@@ -73,7 +76,8 @@ public class ClientFactoryImpl implements ClientFactory {
         Preconditions.checkNotNull(controller);
         this.scope = scope;
         this.controller = controller;
-        this.connectionFactory = new ConnectionFactoryImpl(ClientConfig.builder().build());
+        this.clientConfig = ClientConfig.builder().build();
+        this.connectionFactory = new ConnectionFactoryImpl(clientConfig);
         this.inFactory = new SegmentInputStreamFactoryImpl(controller, connectionFactory);
         this.outFactory = new SegmentOutputStreamFactoryImpl(controller, connectionFactory);
         this.metaFactory = new SegmentMetadataClientFactoryImpl(controller, connectionFactory);
@@ -88,7 +92,19 @@ public class ClientFactoryImpl implements ClientFactory {
      */
     @VisibleForTesting
     public ClientFactoryImpl(String scope, Controller controller, ConnectionFactory connectionFactory) {
-        this(scope, controller, connectionFactory, new SegmentInputStreamFactoryImpl(controller, connectionFactory),
+        this(scope, controller, connectionFactory, ClientConfig.builder().build());
+    }
+
+    /**
+     * Creates a new instance of the ClientFactory class.
+     *
+     * @param scope             The scope string.
+     * @param controller        The reference to Controller.
+     * @param connectionFactory The reference to Connection Factory impl.
+     * @param clientConfig      Configuration for the client.
+     */
+    public ClientFactoryImpl(String scope, Controller controller, ConnectionFactory connectionFactory, ClientConfig clientConfig) {
+        this(scope, controller, connectionFactory, clientConfig, new SegmentInputStreamFactoryImpl(controller, connectionFactory),
                 new SegmentOutputStreamFactoryImpl(controller, connectionFactory),
                 new SegmentMetadataClientFactoryImpl(controller, connectionFactory));
     }
@@ -96,14 +112,21 @@ public class ClientFactoryImpl implements ClientFactory {
     @VisibleForTesting
     public ClientFactoryImpl(String scope, Controller controller, ConnectionFactory connectionFactory,
                              SegmentInputStreamFactory inFactory, SegmentOutputStreamFactory outFactory, SegmentMetadataClientFactory metaFactory) {
+        this(scope, controller, connectionFactory, ClientConfig.builder().build(), inFactory, outFactory, metaFactory);
+    }
+
+    private ClientFactoryImpl(String scope, Controller controller, ConnectionFactory connectionFactory, ClientConfig clientConfig,
+                              SegmentInputStreamFactory inFactory, SegmentOutputStreamFactory outFactory, SegmentMetadataClientFactory metaFactory) {
         Preconditions.checkNotNull(scope);
         Preconditions.checkNotNull(controller);
+        Preconditions.checkNotNull(clientConfig);
         Preconditions.checkNotNull(inFactory);
         Preconditions.checkNotNull(outFactory);
         Preconditions.checkNotNull(metaFactory);
         this.scope = scope;
         this.controller = controller;
         this.connectionFactory = connectionFactory;
+        this.clientConfig = clientConfig;
         this.inFactory = inFactory;
         this.outFactory = outFactory;
         this.metaFactory = metaFactory;
@@ -133,8 +156,8 @@ public class ClientFactoryImpl implements ClientFactory {
         SynchronizerConfig synchronizerConfig = SynchronizerConfig.builder().build();
         StateSynchronizer<ReaderGroupState> sync = createStateSynchronizer(
                 NameUtils.getStreamForReaderGroup(readerGroup),
-                new JavaSerializer<>(),
-                new JavaSerializer<>(),
+                new ReaderGroupStateUpdatesSerializer(clientConfig.isWriteVersionedReaderGroupUpdates()),
+                new ReaderGroupStateInitSerializer(clientConfig.isWriteVersionedReaderGroupUpdates()),
                 synchronizerConfig);
         ReaderGroupStateManager stateManager = new ReaderGroupStateManager(readerId, sync, controller, nanoTime);
         stateManager.initializeReader(config.getInitialAllocationDelay());
@@ -124,14 +124,61 @@ public class EventStreamReaderImpl<Type> implements EventStreamReader<Type> {
         }
     }
 
+    @Override
+    public List<EventRead<Type>> readNextEvents(int maxEvents, long timeout) throws ReinitializationRequiredException, TruncatedDataException {
+        Preconditions.checkArgument(maxEvents > 0, "maxEvents must be a positive number.");
+        synchronized (readers) {
+            List<EventRead<Type>> result = new ArrayList<>();
+            EventRead<Type> first = readNextEvent(timeout);
+            result.add(first);
+            if (first.getEventPointer() == null) {
+                // Nothing was read, or we are at a checkpoint.
+                return result;
+            }
+
+            Segment segment = first.getEventPointer().asImpl().getSegment();
+            SegmentInputStream segmentReader = readers.stream().filter(r -> r.getSegmentId().equals(segment)).findAny().get();
+            // The offsets of the other segments do not change while the rest of the batch is read, so they are shared
+            // by the positions of all its events.
+            Map<Segment, Long> offsets = null;
+            while (result.size() < maxEvents && segmentReader.canReadWithoutBlocking()) {
+                long offset = segmentReader.getOffset();
+                ByteBuffer buffer;
+                try {
+                    buffer = segmentReader.read(0);
+                } catch (EndOfSegmentException | SegmentTruncatedException e) {
+                    // The segment is left at the same offset, so this will be handled by the next read.
+                    break;
+                }
+                if (buffer == null) {
+                    break;
+                }
+                if (offsets == null) {
+                    offsets = getOffsets();
+                }
+                lastRead = Sequence.create(segment.getSegmentNumber(), offset);
+                int length = buffer.remaining() + WireCommands.TYPE_PLUS_LENGTH_SIZE;
+                result.add(new EventReadImpl<>(lastRead,
+                        deserializer.deserialize(buffer),
+                        PositionImpl.createLazyPosition(offsets, segment, segmentReader.getOffset()),
+                        new EventPointerImpl(segment, offset, length),
+                        null));
+            }
+            return result;
+        }
+    }
+
     private EventRead<Type> createEmptyEvent(String checkpoint) {
         return new EventReadImpl<>(lastRead, null, getPosition(), null, checkpoint);
     }
 
     private PositionInternal getPosition() {
-        Map<Segment, Long> positions = readers.stream()
+        return new PositionImpl(getOffsets());
+    }
+
+    private Map<Segment, Long> getOffsets() {
+        return readers.stream()
                 .collect(Collectors.toMap(e -> e.getSegmentId(), e -> e.getOffset()));
-        return new PositionImpl(positions);
     }
     
     /**
@@ -189,7 +236,7 @@ public class EventStreamReaderImpl<Type> implements EventStreamReader<Type> {
         if (!newSegments.isEmpty()) {
             log.info("{} acquiring segments {}", this, newSegments);
             for (Entry<Segment, Long> newSegment : newSegments.entrySet()) {
-                SegmentInputStream in = inputStreamFactory.createInputStreamForSegment(newSegment.getKey());
+                SegmentInputStream in = inputStreamFactory.createInputStreamForSegment(newSegment.getKey(), config);
                 in.setOffset(newSegment.getValue());
                 readers.add(in);
             }
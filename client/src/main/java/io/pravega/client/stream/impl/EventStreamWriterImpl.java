@@ -10,6 +10,9 @@
 package io.pravega.client.stream.impl;
 
 import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.pravega.client.segment.impl.Segment;
 import io.pravega.client.segment.impl.SegmentOutputStream;
 import io.pravega.client.segment.impl.SegmentOutputStreamFactory;
@@ -22,7 +25,7 @@ import io.pravega.client.stream.Transaction;
 import io.pravega.client.stream.Transaction.Status;
 import io.pravega.client.stream.TxnFailedException;
 import io.pravega.common.Exceptions;
-import java.nio.ByteBuffer;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -31,11 +34,13 @@ import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 import javax.annotation.concurrent.GuardedBy;
+import lombok.SneakyThrows;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
@@ -56,14 +61,22 @@ public class EventStreamWriterImpl<Type> implements EventStreamWriter<Type> {
      *
      * a. When a Write is happening, segmentSealedCallback cannot be executed concurrently, this is used to handle
      * missing event.
-     * b. When a Write is happening, a newer write cannot be executed concurrently.
-     * c. When a Write is happening, flush cannot be executed concurrently.
+     * b. When a Write is happening, a newer write cannot be executed concurrently (unless concurrent writes are enabled).
+     * c. When a Write is happening, flush cannot be executed concurrently (unless concurrent writes are enabled).
      * d. When a Flush is being invoked, segmentSealedCallback can be executed concurrently.
-     * e. When a Flush is being invoked, write cannot be executed concurrently.
-     * f. When a Close is being invoked, write cannot be executed concurrently.
+     * e. When a Flush is being invoked, write cannot be executed concurrently (unless concurrent writes are enabled).
+     * f. When a Close is being invoked, write cannot be executed concurrently (unless concurrent writes are enabled).
      * g. When a Close is being invoked, Flush and segmentSealedCallback can be executed concurrently.
+     *
+     * If concurrent writes are enabled, writes only acquire the read lock and (a) is enforced by routingLock instead.
      */
     private final ReadWriteLock writeFlushLock = new ReentrantReadWriteLock();
+    /*
+     * Writes hold the read lock of this lock while routing an event to its segment's writer. The write lock is held
+     * while the set of segments is being refreshed and the unacked events of the removed segments are being resent, so
+     * that a write cannot overtake an earlier event with the same routing key that is being moved to a successor.
+     */
+    private final ReadWriteLock routingLock = new ReentrantReadWriteLock();
     /*
      * This lock is to ensure two segmentSealed Callbacks (for different segments) are not invoked simultaneously.
      */
@@ -75,7 +88,7 @@ public class EventStreamWriterImpl<Type> implements EventStreamWriter<Type> {
     private final Controller controller;
     private final AtomicBoolean closed = new AtomicBoolean(false);
     private final EventWriterConfig config;
-    @GuardedBy("writeFlushLock")
+    @GuardedBy("routingLock")
     private final SegmentSelector selector;
     private final Consumer<Segment> segmentSealedCallBack;
     private final ExecutorService retransmitPool;
@@ -114,19 +127,23 @@ public class EventStreamWriterImpl<Type> implements EventStreamWriter<Type> {
     private CompletableFuture<Void> writeEventInternal(String routingKey, Type event) {
         Preconditions.checkNotNull(event);
         Exceptions.checkNotClosed(closed.get(), this);
-        ByteBuffer data = serializer.serialize(event);
         CompletableFuture<Boolean> ackFuture = new CompletableFuture<Boolean>();
-        writeFlushLock.writeLock().lock();
+        PendingEvent pendingEvent = createPendingEvent(routingKey, event, ackFuture);
+        boolean written = false;
+        Lock writeLock = config.isEnableConcurrentWrites() ? writeFlushLock.readLock() : writeFlushLock.writeLock();
+        writeLock.lock();
         try {
-            SegmentOutputStream segmentWriter = selector.getSegmentOutputStreamForKey(routingKey);
-            while (segmentWriter == null) {
+            while (!tryWrite(routingKey, pendingEvent)) {
                 log.info("Don't have a writer for segment: {}", selector.getSegmentForEvent(routingKey));
                 handleMissingLog();
-                segmentWriter = selector.getSegmentOutputStreamForKey(routingKey);
             }
-            segmentWriter.write(new PendingEvent(routingKey, data, ackFuture));
+            written = true;
         } finally {
-            writeFlushLock.writeLock().unlock();
+            writeLock.unlock();
+            if (!written) {
+                // The SegmentOutputStream never took ownership of the event's data.
+                pendingEvent.release();
+            }
         }
 
         CompletableFuture<Void> result = new CompletableFuture<>();
@@ -146,10 +163,54 @@ public class EventStreamWriterImpl<Type> implements EventStreamWriter<Type> {
         return result;
     }
     
-    @GuardedBy("writeFlushLock")
+    /**
+     * Serializes the given event into a new PendingEvent. If pooled buffers are enabled, the event is serialized directly
+     * into a buffer obtained from the pooled allocator, which will be released by the SegmentOutputStream once the event
+     * is acknowledged.
+     */
+    @SneakyThrows(IOException.class)
+    private PendingEvent createPendingEvent(String routingKey, Type event, CompletableFuture<Boolean> ackFuture) {
+        if (!config.isEnablePooledBuffers()) {
+            return new PendingEvent(routingKey, serializer.serialize(event), ackFuture);
+        }
+
+        ByteBuf data = PooledByteBufAllocator.DEFAULT.heapBuffer();
+        try {
+            serializer.serialize(event, new ByteBufOutputStream(data));
+            return new PendingEvent(routingKey, data, ackFuture);
+        } catch (IOException | RuntimeException e) {
+            data.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the given event to the SegmentOutputStream of the segment its routing key currently maps to.
+     *
+     * @return False if there is no writer for that segment, in which case the caller needs to refresh the segments.
+     */
+    private boolean tryWrite(String routingKey, PendingEvent pendingEvent) {
+        routingLock.readLock().lock();
+        try {
+            SegmentOutputStream segmentWriter = selector.getSegmentOutputStreamForKey(routingKey);
+            if (segmentWriter == null) {
+                return false;
+            }
+            segmentWriter.write(pendingEvent);
+            return true;
+        } finally {
+            routingLock.readLock().unlock();
+        }
+    }
+
     private void handleMissingLog() {
-        List<PendingEvent> toResend = selector.refreshSegmentEventWriters(segmentSealedCallBack);
-        resend(toResend);
+        routingLock.writeLock().lock();
+        try {
+            List<PendingEvent> toResend = selector.refreshSegmentEventWriters(segmentSealedCallBack);
+            resend(toResend);
+        } finally {
+            routingLock.writeLock().unlock();
+        }
     }
 
     /**
@@ -165,17 +226,19 @@ public class EventStreamWriterImpl<Type> implements EventStreamWriter<Type> {
                This ensures that resend() would be invoked again if we observe a segment sealed exception.
              */
             segmentSealedLock.lock();
+            routingLock.writeLock().lock();
             try {
                 List<PendingEvent> toResend = selector.refreshSegmentEventWritersUponSealed(segment, segmentSealedCallBack);
                 resend(toResend);
             } finally {
+                routingLock.writeLock().unlock();
                 segmentSealedLock.unlock();
                 writeFlushLock.readLock().unlock();
             }
         });
     }
 
-    @GuardedBy("writeFlushLock")
+    @GuardedBy("routingLock")
     private void resend(List<PendingEvent> toResend) {
         while (!toResend.isEmpty()) {
             List<PendingEvent> unsent = new ArrayList<>();
@@ -14,6 +14,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
 
@@ -41,11 +42,19 @@ public class JavaSerializer<T extends Serializable> implements Serializer<T>, Se
         return ByteBuffer.wrap(bout.toByteArray());
     }
 
+    @Override
+    public void serialize(T value, OutputStream stream) throws IOException {
+        // Do not close the ObjectOutputStream, as that would close the caller's stream as well.
+        ObjectOutputStream oout = new ObjectOutputStream(stream);
+        oout.writeObject(value);
+        oout.flush();
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public T deserialize(ByteBuffer serializedValue) {
         ByteArrayInputStream bin = new ByteArrayInputStream(serializedValue.array(),
-                serializedValue.position(),
+                serializedValue.arrayOffset() + serializedValue.position(),
                 serializedValue.remaining());
         ObjectInputStream oin;
         try {
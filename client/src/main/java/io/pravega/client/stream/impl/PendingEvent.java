@@ -9,6 +9,8 @@
  */
 package io.pravega.client.stream.impl;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.pravega.client.stream.Serializer;
 import com.google.common.base.Preconditions;
 import java.nio.ByteBuffer;
@@ -19,6 +21,10 @@ import lombok.Data;
 /**
  * This is a internal wrapper object used in the writer to pass along the routing key and the future
  * with the actual event during write.
+ * <p>
+ * A PendingEvent owns one reference to its data. Events created from a ByteBuffer wrap it in a buffer that ignores
+ * {@link #release()}; events created from a (possibly pooled) ByteBuf must be released exactly once, after the event
+ * has been acknowledged or failed. Until then the data must not be modified, as it may need to be retransmitted.
  */
 @Data
 public class PendingEvent {
@@ -30,7 +36,7 @@ public class PendingEvent {
     /**
      * The data to be written. Note this is limited to {@value #MAX_WRITE_SIZE} bytes.
      */
-    private final ByteBuffer data;
+    private final ByteBuf data;
     /**
      * Callback to be invoked when the data is written.
      */
@@ -45,12 +51,28 @@ public class PendingEvent {
     }
     
     public PendingEvent(String routingKey, ByteBuffer data, CompletableFuture<Boolean> ackFuture, Long expectedOffset) {
+        this(routingKey, Unpooled.unreleasableBuffer(Unpooled.wrappedBuffer(Preconditions.checkNotNull(data))), ackFuture, expectedOffset);
+    }
+
+    public PendingEvent(String routingKey, ByteBuf data, CompletableFuture<Boolean> ackFuture) {
+        this(routingKey, data, ackFuture, null);
+    }
+
+    public PendingEvent(String routingKey, ByteBuf data, CompletableFuture<Boolean> ackFuture, Long expectedOffset) {
         Preconditions.checkNotNull(data);
         Preconditions.checkNotNull(ackFuture);
-        Preconditions.checkArgument(data.remaining() <= MAX_WRITE_SIZE, "Write size too large: %s", data.remaining());
+        Preconditions.checkArgument(data.readableBytes() <= MAX_WRITE_SIZE, "Write size too large: %s", data.readableBytes());
         this.routingKey = routingKey;
         this.data = data;
         this.ackFuture = ackFuture;
         this.expectedOffset = expectedOffset;
     }
+
+    /**
+     * Releases the reference this event holds on its data. This should be invoked once the event has been acknowledged
+     * or has definitively failed; it is a no-op for events created from a ByteBuffer.
+     */
+    public void release() {
+        this.data.release();
+    }
 }
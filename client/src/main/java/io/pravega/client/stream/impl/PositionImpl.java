@@ -10,20 +10,30 @@
 package io.pravega.client.stream.impl;
 
 import io.pravega.client.segment.impl.Segment;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import javax.annotation.concurrent.GuardedBy;
 import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 
 @EqualsAndHashCode(callSuper = false)
-@ToString
+@ToString(exclude = "lazyOffsets")
 public class PositionImpl extends PositionInternal {
 
     private static final long serialVersionUID = 1L;
-    private final Map<Segment, Long> ownedSegments;
+    @GuardedBy("this")
+    private Map<Segment, Long> ownedSegments;
+    /**
+     * For positions created using createLazyPosition(), what ownedSegments is built from when first needed.
+     */
+    @GuardedBy("this")
+    private transient LazyOffsets lazyOffsets;
 
     /**
      * Instantiates Position with current and future owned segments.
@@ -34,23 +44,41 @@ public class PositionImpl extends PositionInternal {
         this.ownedSegments = new HashMap<>(ownedSegments);
     }
 
+    private PositionImpl(LazyOffsets lazyOffsets) {
+        this.lazyOffsets = lazyOffsets;
+    }
+
     static PositionImpl createEmptyPosition() {
         return new PositionImpl(new HashMap<>());
     }
 
+    /**
+     * Creates a Position with the given offset for the given segment and the given offsets for all other segments,
+     * without copying them until the Position is used. This allows the events of a batch (which all share the offsets
+     * of the segments they were not read from) to have their positions built only if needed.
+     *
+     * @param sharedOffsets The offsets of all the segments owned by the reader. This may be shared with other positions
+     *                      and must not be modified.
+     * @param segment       The segment the event was read from.
+     * @param offset        The offset in that segment.
+     */
+    static PositionImpl createLazyPosition(Map<Segment, Long> sharedOffsets, Segment segment, long offset) {
+        return new PositionImpl(new LazyOffsets(sharedOffsets, segment, offset));
+    }
+
     @Override
     public Set<Segment> getOwnedSegments() {
-        return Collections.unmodifiableSet(ownedSegments.keySet());
+        return Collections.unmodifiableSet(getOwnedSegmentsMap().keySet());
     }
 
     @Override
     public Map<Segment, Long> getOwnedSegmentsWithOffsets() {
-        return Collections.unmodifiableMap(ownedSegments);
+        return Collections.unmodifiableMap(getOwnedSegmentsMap());
     }
 
     @Override
     public Set<Segment> getCompletedSegments() {
-        return ownedSegments.entrySet()
+        return getOwnedSegmentsMap().entrySet()
             .stream()
             .filter(x -> x.getValue() < 0)
             .map(Map.Entry::getKey)
@@ -59,7 +87,7 @@ public class PositionImpl extends PositionInternal {
 
     @Override
     public Long getOffsetForOwnedSegment(Segment segmentId) {
-        return ownedSegments.get(segmentId);
+        return getOwnedSegmentsMap().get(segmentId);
     }
 
     @Override
@@ -67,4 +95,26 @@ public class PositionImpl extends PositionInternal {
         return this;
     }
 
+    private synchronized Map<Segment, Long> getOwnedSegmentsMap() {
+        if (ownedSegments == null) {
+            ownedSegments = new HashMap<>(lazyOffsets.sharedOffsets);
+            ownedSegments.put(lazyOffsets.segment, lazyOffsets.offset);
+            lazyOffsets = null;
+        }
+        return ownedSegments;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        synchronized (this) {
+            getOwnedSegmentsMap();
+            out.defaultWriteObject();
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class LazyOffsets {
+        private final Map<Segment, Long> sharedOffsets;
+        private final Segment segment;
+        private final long offset;
+    }
 }
@@ -17,8 +17,10 @@ import io.pravega.client.segment.impl.Segment;
 import io.pravega.client.segment.impl.SegmentMetadataClient;
 import io.pravega.client.segment.impl.SegmentMetadataClientFactory;
 import io.pravega.client.segment.impl.SegmentMetadataClientFactoryImpl;
+import io.pravega.client.state.InitialUpdate;
 import io.pravega.client.state.StateSynchronizer;
 import io.pravega.client.state.SynchronizerConfig;
+import io.pravega.client.state.Update;
 import io.pravega.client.stream.Checkpoint;
 import io.pravega.client.stream.InvalidStreamException;
 import io.pravega.client.stream.Position;
@@ -31,7 +33,6 @@ import io.pravega.client.stream.StreamCut;
 import io.pravega.client.stream.impl.ReaderGroupState.ClearCheckpoints;
 import io.pravega.client.stream.impl.ReaderGroupState.CreateCheckpoint;
 import io.pravega.client.stream.impl.ReaderGroupState.ReaderGroupStateInit;
-import io.pravega.client.stream.impl.ReaderGroupState.ReaderGroupStateUpdate;
 import io.pravega.client.stream.notifications.EndOfDataNotification;
 import io.pravega.client.stream.notifications.NotificationSystem;
 import io.pravega.client.stream.notifications.NotifierFactory;
@@ -67,8 +68,8 @@ public class ReaderGroupImpl implements ReaderGroup, ReaderGroupMetrics {
     private final String scope;
     private final String groupName;
     private final SynchronizerConfig synchronizerConfig;
-    private final Serializer<ReaderGroupStateInit> initSerializer;
-    private final Serializer<ReaderGroupStateUpdate> updateSerializer;
+    private final Serializer<InitialUpdate<ReaderGroupState>> initSerializer;
+    private final Serializer<Update<ReaderGroupState>> updateSerializer;
     private final ClientFactory clientFactory;
     private final Controller controller;
     private final ConnectionFactory connectionFactory;
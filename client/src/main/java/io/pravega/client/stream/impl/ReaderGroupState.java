@@ -11,15 +11,31 @@ package io.pravega.client.stream.impl;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.Unpooled;
 import io.pravega.client.segment.impl.Segment;
 import io.pravega.client.state.InitialUpdate;
 import io.pravega.client.state.Revision;
 import io.pravega.client.state.Revisioned;
 import io.pravega.client.state.Update;
+import io.pravega.client.state.impl.CorruptedStateException;
 import io.pravega.client.stream.ReaderGroupConfig;
+import io.pravega.client.stream.Serializer;
 import io.pravega.client.stream.Stream;
+import io.pravega.client.stream.StreamCut;
 import io.pravega.common.Exceptions;
+import io.pravega.common.ObjectBuilder;
+import io.pravega.common.io.serialization.RevisionDataInput;
+import io.pravega.common.io.serialization.RevisionDataOutput;
+import io.pravega.common.io.serialization.VersionedSerializer;
+import io.pravega.common.util.ByteArraySegment;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectStreamConstants;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -33,8 +49,10 @@ import java.util.stream.Collectors;
 import javax.annotation.concurrent.GuardedBy;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
 import lombok.Synchronized;
 import lombok.val;
 
@@ -46,6 +64,8 @@ import lombok.val;
 public class ReaderGroupState implements Revisioned {
 
     private static final long ASSUMED_LAG_MILLIS = 30000;
+    private static final ReaderGroupUpdateSerializer UPDATE_SERIALIZER = new ReaderGroupUpdateSerializer();
+    private static final JavaSerializer<Serializable> LEGACY_SERIALIZER = new JavaSerializer<>();
     private final String scopedSynchronizerStream;
     @Getter
     private final ReaderGroupConfig config;
@@ -263,10 +283,10 @@ public class ReaderGroupState implements Revisioned {
         return sb.toString();
     }
     
+    @Builder
     @RequiredArgsConstructor
     static class ReaderGroupStateInit implements InitialUpdate<ReaderGroupState>, Serializable {
         private static final long serialVersionUID = 1L;
-
         private final ReaderGroupConfig config;
         private final Map<Segment, Long> segments;
         
@@ -274,11 +294,43 @@ public class ReaderGroupState implements Revisioned {
         public ReaderGroupState create(String scopedStreamName, Revision revision) {
             return new ReaderGroupState(scopedStreamName, revision, config, segments);
         }
+
+        static class ReaderGroupStateInitBuilder implements ObjectBuilder<ReaderGroupStateInit> {
+        }
+
+        static class ReaderGroupStateInitSerializer
+                extends VersionedSerializer.WithBuilder<ReaderGroupStateInit, ReaderGroupStateInitBuilder> {
+            @Override
+            protected ReaderGroupStateInitBuilder newBuilder() {
+                return builder();
+            }
+
+            @Override
+            protected byte getWriteVersion() {
+                return 0;
+            }
+
+            @Override
+            protected void declareVersions() {
+                version(0).revision(0, this::write00, this::read00);
+            }
+
+            private void read00(RevisionDataInput in, ReaderGroupStateInitBuilder builder) throws IOException {
+                builder.config(readConfig(in));
+                builder.segments(in.readMap(ReaderGroupState::readSegment, DataInput::readLong, LinkedHashMap::new));
+            }
+
+            private void write00(ReaderGroupStateInit object, RevisionDataOutput out) throws IOException {
+                writeConfig(out, object.config);
+                out.writeMap(object.segments, ReaderGroupState::writeSegment, DataOutput::writeLong);
+            }
+        }
     }
     
+    @Builder
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
     static class CompactReaderGroupState implements InitialUpdate<ReaderGroupState>, Serializable {
         private static final long serialVersionUID = 1L;
-
         private final ReaderGroupConfig config;
         private final CheckpointState checkpointState;
         private final Map<String, Long> distanceToTail;
@@ -308,6 +360,51 @@ public class ReaderGroupState implements Revisioned {
             return new ReaderGroupState(scopedStreamName, config, revision, checkpointState, distanceToTail,
                                         futureSegments, assignedSegments, unassignedSegments);
         }
+
+        static class CompactReaderGroupStateBuilder implements ObjectBuilder<CompactReaderGroupState> {
+        }
+
+        static class CompactReaderGroupStateSerializer
+                extends VersionedSerializer.WithBuilder<CompactReaderGroupState, CompactReaderGroupStateBuilder> {
+            @Override
+            protected CompactReaderGroupStateBuilder newBuilder() {
+                return builder();
+            }
+
+            @Override
+            protected byte getWriteVersion() {
+                return 0;
+            }
+
+            @Override
+            protected void declareVersions() {
+                version(0).revision(0, this::write00, this::read00);
+            }
+
+            private void read00(RevisionDataInput in, CompactReaderGroupStateBuilder builder) throws IOException {
+                builder.config(readConfig(in));
+                builder.checkpointState(CheckpointState.SERIALIZER.deserialize(in));
+                builder.distanceToTail(in.readMap(DataInput::readUTF, DataInput::readLong, HashMap::new));
+                builder.futureSegments(in.readMap(ReaderGroupState::readSegment,
+                                                  i -> i.readCollection(RevisionDataInput::readCompactInt, HashSet::new),
+                                                  HashMap::new));
+                builder.assignedSegments(in.readMap(DataInput::readUTF,
+                                                    i -> i.readMap(ReaderGroupState::readSegment, DataInput::readLong, HashMap::new),
+                                                    HashMap::new));
+                builder.unassignedSegments(in.readMap(ReaderGroupState::readSegment, DataInput::readLong, LinkedHashMap::new));
+            }
+
+            private void write00(CompactReaderGroupState object, RevisionDataOutput out) throws IOException {
+                writeConfig(out, object.config);
+                CheckpointState.SERIALIZER.serialize(out, object.checkpointState);
+                out.writeMap(object.distanceToTail, DataOutput::writeUTF, DataOutput::writeLong);
+                out.writeMap(object.futureSegments, ReaderGroupState::writeSegment,
+                             (o, predecessors) -> o.writeCollection(predecessors, RevisionDataOutput::writeCompactInt));
+                out.writeMap(object.assignedSegments, DataOutput::writeUTF,
+                             (o, segments) -> o.writeMap(segments, ReaderGroupState::writeSegment, DataOutput::writeLong));
+                out.writeMap(object.unassignedSegments, ReaderGroupState::writeSegment, DataOutput::writeLong);
+            }
+        }
     }
     
     /**
@@ -337,6 +434,7 @@ public class ReaderGroupState implements Revisioned {
     /**
      * Adds a reader to the reader group. (No segments are initially assigned to it)
      */
+    @Builder
     @RequiredArgsConstructor
     static class AddReader extends ReaderGroupStateUpdate {
         private static final long serialVersionUID = 1L;
@@ -353,11 +451,40 @@ public class ReaderGroupState implements Revisioned {
             }
             state.distanceToTail.putIfAbsent(readerId, Long.MAX_VALUE);
         }
+
+        static class AddReaderBuilder implements ObjectBuilder<AddReader> {
+        }
+
+        static class AddReaderSerializer extends VersionedSerializer.WithBuilder<AddReader, AddReaderBuilder> {
+            @Override
+            protected AddReaderBuilder newBuilder() {
+                return builder();
+            }
+
+            @Override
+            protected byte getWriteVersion() {
+                return 0;
+            }
+
+            @Override
+            protected void declareVersions() {
+                version(0).revision(0, this::write00, this::read00);
+            }
+
+            private void read00(RevisionDataInput in, AddReaderBuilder builder) throws IOException {
+                builder.readerId(in.readUTF());
+            }
+
+            private void write00(AddReader object, RevisionDataOutput out) throws IOException {
+                out.writeUTF(object.readerId);
+            }
+        }
     }
     
     /**
      * Remove a reader from reader group, releasing all segments it owned.
      */
+    @Builder
     @RequiredArgsConstructor
     static class RemoveReader extends ReaderGroupStateUpdate {
         private static final long serialVersionUID = 1L;
@@ -392,11 +519,48 @@ public class ReaderGroupState implements Revisioned {
             state.distanceToTail.remove(readerId);
             state.checkpointState.removeReader(readerId, finalPositions);
         }
+
+        static class RemoveReaderBuilder implements ObjectBuilder<RemoveReader> {
+        }
+
+        static class RemoveReaderSerializer extends VersionedSerializer.WithBuilder<RemoveReader, RemoveReaderBuilder> {
+            @Override
+            protected RemoveReaderBuilder newBuilder() {
+                return builder();
+            }
+
+            @Override
+            protected byte getWriteVersion() {
+                return 0;
+            }
+
+            @Override
+            protected void declareVersions() {
+                version(0).revision(0, this::write00, this::read00);
+            }
+
+            private void read00(RevisionDataInput in, RemoveReaderBuilder builder) throws IOException {
+                builder.readerId(in.readUTF());
+                if (in.readBoolean()) {
+                    builder.lastPosition(new PositionImpl(in.readMap(ReaderGroupState::readSegment, DataInput::readLong)));
+                }
+            }
+
+            private void write00(RemoveReader object, RevisionDataOutput out) throws IOException {
+                out.writeUTF(object.readerId);
+                out.writeBoolean(object.lastPosition != null);
+                if (object.lastPosition != null) {
+                    out.writeMap(object.lastPosition.getOwnedSegmentsWithOffsets(), ReaderGroupState::writeSegment,
+                                 DataOutput::writeLong);
+                }
+            }
+        }
     }
 
     /**
      * Release a currently owned segment.
      */
+    @Builder
     @RequiredArgsConstructor
     static class ReleaseSegment extends ReaderGroupStateUpdate {
         private static final long serialVersionUID = 1L;
@@ -417,11 +581,44 @@ public class ReaderGroupState implements Revisioned {
             }
             state.unassignedSegments.put(segment, offset);
         }
+
+        static class ReleaseSegmentBuilder implements ObjectBuilder<ReleaseSegment> {
+        }
+
+        static class ReleaseSegmentSerializer extends VersionedSerializer.WithBuilder<ReleaseSegment, ReleaseSegmentBuilder> {
+            @Override
+            protected ReleaseSegmentBuilder newBuilder() {
+                return builder();
+            }
+
+            @Override
+            protected byte getWriteVersion() {
+                return 0;
+            }
+
+            @Override
+            protected void declareVersions() {
+                version(0).revision(0, this::write00, this::read00);
+            }
+
+            private void read00(RevisionDataInput in, ReleaseSegmentBuilder builder) throws IOException {
+                builder.readerId(in.readUTF());
+                builder.segment(readSegment(in));
+                builder.offset(in.readLong());
+            }
+
+            private void write00(ReleaseSegment object, RevisionDataOutput out) throws IOException {
+                out.writeUTF(object.readerId);
+                writeSegment(out, object.segment);
+                out.writeLong(object.offset);
+            }
+        }
     }
 
     /**
      * Acquire a currently unassigned segment.
      */
+    @Builder
     @RequiredArgsConstructor
     static class AcquireSegment extends ReaderGroupStateUpdate {
         private static final long serialVersionUID = 1L;
@@ -441,11 +638,42 @@ public class ReaderGroupState implements Revisioned {
             }
             assigned.put(segment, offset);
         }
+
+        static class AcquireSegmentBuilder implements ObjectBuilder<AcquireSegment> {
+        }
+
+        static class AcquireSegmentSerializer extends VersionedSerializer.WithBuilder<AcquireSegment, AcquireSegmentBuilder> {
+            @Override
+            protected AcquireSegmentBuilder newBuilder() {
+                return builder();
+            }
+
+            @Override
+            protected byte getWriteVersion() {
+                return 0;
+            }
+
+            @Override
+            protected void declareVersions() {
+                version(0).revision(0, this::write00, this::read00);
+            }
+
+            private void read00(RevisionDataInput in, AcquireSegmentBuilder builder) throws IOException {
+                builder.readerId(in.readUTF());
+                builder.segment(readSegment(in));
+            }
+
+            private void write00(AcquireSegment object, RevisionDataOutput out) throws IOException {
+                out.writeUTF(object.readerId);
+                writeSegment(out, object.segment);
+            }
+        }
     }
     
     /**
      * Update the size of this reader's backlog for load balancing purposes. 
      */
+    @Builder
     @RequiredArgsConstructor
     static class UpdateDistanceToTail extends ReaderGroupStateUpdate {
         private static final long serialVersionUID = 1L;
@@ -459,11 +687,43 @@ public class ReaderGroupState implements Revisioned {
         void update(ReaderGroupState state) {
             state.distanceToTail.put(readerId, Math.max(ASSUMED_LAG_MILLIS, distanceToTail));
         }
+
+        static class UpdateDistanceToTailBuilder implements ObjectBuilder<UpdateDistanceToTail> {
+        }
+
+        static class UpdateDistanceToTailSerializer
+                extends VersionedSerializer.WithBuilder<UpdateDistanceToTail, UpdateDistanceToTailBuilder> {
+            @Override
+            protected UpdateDistanceToTailBuilder newBuilder() {
+                return builder();
+            }
+
+            @Override
+            protected byte getWriteVersion() {
+                return 0;
+            }
+
+            @Override
+            protected void declareVersions() {
+                version(0).revision(0, this::write00, this::read00);
+            }
+
+            private void read00(RevisionDataInput in, UpdateDistanceToTailBuilder builder) throws IOException {
+                builder.readerId(in.readUTF());
+                builder.distanceToTail(in.readLong());
+            }
+
+            private void write00(UpdateDistanceToTail object, RevisionDataOutput out) throws IOException {
+                out.writeUTF(object.readerId);
+                out.writeLong(object.distanceToTail);
+            }
+        }
     }
     
     /**
      * Updates a position object when the reader has completed a segment.
      */
+    @Builder
     @RequiredArgsConstructor
     static class SegmentCompleted extends ReaderGroupStateUpdate {
         private static final long serialVersionUID = 1L;
@@ -500,8 +760,44 @@ public class ReaderGroupState implements Revisioned {
                 }
             }
         }
+
+        static class SegmentCompletedBuilder implements ObjectBuilder<SegmentCompleted> {
+        }
+
+        static class SegmentCompletedSerializer extends VersionedSerializer.WithBuilder<SegmentCompleted, SegmentCompletedBuilder> {
+            @Override
+            protected SegmentCompletedBuilder newBuilder() {
+                return builder();
+            }
+
+            @Override
+            protected byte getWriteVersion() {
+                return 0;
+            }
+
+            @Override
+            protected void declareVersions() {
+                version(0).revision(0, this::write00, this::read00);
+            }
+
+            private void read00(RevisionDataInput in, SegmentCompletedBuilder builder) throws IOException {
+                builder.readerId(in.readUTF());
+                builder.segmentCompleted(readSegment(in));
+                builder.successorsMappedToTheirPredecessors(
+                        in.readMap(ReaderGroupState::readSegment,
+                                   i -> i.readCollection(RevisionDataInput::readCompactInt, ArrayList::new)));
+            }
+
+            private void write00(SegmentCompleted object, RevisionDataOutput out) throws IOException {
+                out.writeUTF(object.readerId);
+                writeSegment(out, object.segmentCompleted);
+                out.writeMap(object.successorsMappedToTheirPredecessors, ReaderGroupState::writeSegment,
+                             (o, predecessors) -> o.writeCollection(predecessors, RevisionDataOutput::writeCompactInt));
+            }
+        }
     }
     
+    @Builder
     @RequiredArgsConstructor
     static class CheckpointReader extends ReaderGroupStateUpdate {
         private static final long serialVersionUID = 1L;
@@ -516,8 +812,41 @@ public class ReaderGroupState implements Revisioned {
         void update(ReaderGroupState state) {
             state.checkpointState.readerCheckpointed(checkpointId, readerId, positions);
         }
+
+        static class CheckpointReaderBuilder implements ObjectBuilder<CheckpointReader> {
+        }
+
+        static class CheckpointReaderSerializer extends VersionedSerializer.WithBuilder<CheckpointReader, CheckpointReaderBuilder> {
+            @Override
+            protected CheckpointReaderBuilder newBuilder() {
+                return builder();
+            }
+
+            @Override
+            protected byte getWriteVersion() {
+                return 0;
+            }
+
+            @Override
+            protected void declareVersions() {
+                version(0).revision(0, this::write00, this::read00);
+            }
+
+            private void read00(RevisionDataInput in, CheckpointReaderBuilder builder) throws IOException {
+                builder.checkpointId(in.readUTF());
+                builder.readerId(in.readUTF());
+                builder.positions(in.readMap(ReaderGroupState::readSegment, DataInput::readLong));
+            }
+
+            private void write00(CheckpointReader object, RevisionDataOutput out) throws IOException {
+                out.writeUTF(object.checkpointId);
+                out.writeUTF(object.readerId);
+                out.writeMap(object.positions, ReaderGroupState::writeSegment, DataOutput::writeLong);
+            }
+        }
     }
     
+    @Builder
     @RequiredArgsConstructor
     static class CreateCheckpoint extends ReaderGroupStateUpdate {
         private static final long serialVersionUID = 1L;
@@ -534,8 +863,37 @@ public class ReaderGroupState implements Revisioned {
         void update(ReaderGroupState state) {
             state.checkpointState.beginNewCheckpoint(checkpointId, state.getOnlineReaders(), state.getUnassignedSegments());
         }
+
+        static class CreateCheckpointBuilder implements ObjectBuilder<CreateCheckpoint> {
+        }
+
+        static class CreateCheckpointSerializer extends VersionedSerializer.WithBuilder<CreateCheckpoint, CreateCheckpointBuilder> {
+            @Override
+            protected CreateCheckpointBuilder newBuilder() {
+                return builder();
+            }
+
+            @Override
+            protected byte getWriteVersion() {
+                return 0;
+            }
+
+            @Override
+            protected void declareVersions() {
+                version(0).revision(0, this::write00, this::read00);
+            }
+
+            private void read00(RevisionDataInput in, CreateCheckpointBuilder builder) throws IOException {
+                builder.checkpointId(in.readUTF());
+            }
+
+            private void write00(CreateCheckpoint object, RevisionDataOutput out) throws IOException {
+                out.writeUTF(object.checkpointId);
+            }
+        }
     }
     
+    @Builder
     @RequiredArgsConstructor
     static class ClearCheckpoints extends ReaderGroupStateUpdate {
         private static final long serialVersionUID = 1L;
@@ -548,7 +906,197 @@ public class ReaderGroupState implements Revisioned {
         void update(ReaderGroupState state) {
             state.checkpointState.clearCheckpointsThrough(clearUpThroughCheckpoint);
         }
+
+        static class ClearCheckpointsBuilder implements ObjectBuilder<ClearCheckpoints> {
+        }
+
+        static class ClearCheckpointsSerializer extends VersionedSerializer.WithBuilder<ClearCheckpoints, ClearCheckpointsBuilder> {
+            @Override
+            protected ClearCheckpointsBuilder newBuilder() {
+                return builder();
+            }
+
+            @Override
+            protected byte getWriteVersion() {
+                return 0;
+            }
+
+            @Override
+            protected void declareVersions() {
+                version(0).revision(0, this::write00, this::read00);
+            }
+
+            private void read00(RevisionDataInput in, ClearCheckpointsBuilder builder) throws IOException {
+                builder.clearUpThroughCheckpoint(in.readUTF());
+            }
+
+            private void write00(ClearCheckpoints object, RevisionDataOutput out) throws IOException {
+                out.writeUTF(object.clearUpThroughCheckpoint);
+            }
+        }
     }
 
+    //region Serialization
+
+    /**
+     * Serializer for all updates to the reader group state, including the initial (and compacted) states, as these
+     * can also be written as regular updates.
+     */
+    static class ReaderGroupUpdateSerializer extends VersionedSerializer.MultiType<Update<ReaderGroupState>> {
+        @Override
+        protected void declareSerializers(Builder b) {
+            // Unused values (Do not repurpose!):
+            // - 0: Unsupported Serializer.
+            b.serializer(ReaderGroupStateInit.class, 1, new ReaderGroupStateInit.ReaderGroupStateInitSerializer())
+             .serializer(CompactReaderGroupState.class, 2, new CompactReaderGroupState.CompactReaderGroupStateSerializer())
+             .serializer(AddReader.class, 3, new AddReader.AddReaderSerializer())
+             .serializer(RemoveReader.class, 4, new RemoveReader.RemoveReaderSerializer())
+             .serializer(ReleaseSegment.class, 5, new ReleaseSegment.ReleaseSegmentSerializer())
+             .serializer(AcquireSegment.class, 6, new AcquireSegment.AcquireSegmentSerializer())
+             .serializer(UpdateDistanceToTail.class, 7, new UpdateDistanceToTail.UpdateDistanceToTailSerializer())
+             .serializer(SegmentCompleted.class, 8, new SegmentCompleted.SegmentCompletedSerializer())
+             .serializer(CheckpointReader.class, 9, new CheckpointReader.CheckpointReaderSerializer())
+             .serializer(CreateCheckpoint.class, 10, new CreateCheckpoint.CreateCheckpointSerializer())
+             .serializer(ClearCheckpoints.class, 11, new ClearCheckpoints.ClearCheckpointsSerializer());
+        }
+    }
+
+    /**
+     * Serializes the updates to a reader group's state for its state synchronizer. Both formats are always read, but
+     * updates are only written using the versioned format if requested, as readers that predate it cannot read it.
+     */
+    public static class ReaderGroupStateUpdatesSerializer implements Serializer<Update<ReaderGroupState>> {
+        private final boolean writeVersioned;
+
+        /**
+         * Creates a new instance of the ReaderGroupStateUpdatesSerializer class which writes using Java serialization.
+         */
+        public ReaderGroupStateUpdatesSerializer() {
+            this(false);
+        }
+
+        /**
+         * Creates a new instance of the ReaderGroupStateUpdatesSerializer class.
+         *
+         * @param writeVersioned If true, updates are written using the versioned format, otherwise Java serialization.
+         */
+        public ReaderGroupStateUpdatesSerializer(boolean writeVersioned) {
+            this.writeVersioned = writeVersioned;
+        }
+
+        @Override
+        public ByteBuffer serialize(Update<ReaderGroupState> value) {
+            return serializeUpdate(value, writeVersioned);
+        }
+
+        @Override
+        public Update<ReaderGroupState> deserialize(ByteBuffer serializedValue) {
+            return deserializeUpdate(serializedValue);
+        }
+    }
+
+    /**
+     * Serializes the initial (or compacted) state of a reader group for its state synchronizer. See
+     * {@link ReaderGroupStateUpdatesSerializer} for how the format is chosen.
+     */
+    public static class ReaderGroupStateInitSerializer implements Serializer<InitialUpdate<ReaderGroupState>> {
+        private final boolean writeVersioned;
+
+        /**
+         * Creates a new instance of the ReaderGroupStateInitSerializer class which writes using Java serialization.
+         */
+        public ReaderGroupStateInitSerializer() {
+            this(false);
+        }
+
+        /**
+         * Creates a new instance of the ReaderGroupStateInitSerializer class.
+         *
+         * @param writeVersioned If true, the state is written using the versioned format, otherwise Java serialization.
+         */
+        public ReaderGroupStateInitSerializer(boolean writeVersioned) {
+            this.writeVersioned = writeVersioned;
+        }
+
+        @Override
+        public ByteBuffer serialize(InitialUpdate<ReaderGroupState> value) {
+            return serializeUpdate(value, writeVersioned);
+        }
+
+        @Override
+        public InitialUpdate<ReaderGroupState> deserialize(ByteBuffer serializedValue) {
+            Update<ReaderGroupState> update = deserializeUpdate(serializedValue);
+            if (!(update instanceof InitialUpdate)) {
+                throw new CorruptedStateException("Expected an initial update but found: " + update);
+            }
+            return (InitialUpdate<ReaderGroupState>) update;
+        }
+    }
+
+    @SneakyThrows(IOException.class)
+    private static ByteBuffer serializeUpdate(Update<ReaderGroupState> value, boolean writeVersioned) {
+        if (!writeVersioned) {
+            return LEGACY_SERIALIZER.serialize((Serializable) value);
+        }
+        ByteArraySegment serialized = UPDATE_SERIALIZER.serialize(value);
+        return ByteBuffer.wrap(serialized.array(), serialized.arrayOffset(), serialized.getLength());
+    }
+
+    @SneakyThrows(IOException.class)
+    @SuppressWarnings("unchecked")
+    private static Update<ReaderGroupState> deserializeUpdate(ByteBuffer serializedValue) {
+        if (serializedValue.remaining() >= Short.BYTES
+                && serializedValue.getShort(serializedValue.position()) == ObjectStreamConstants.STREAM_MAGIC) {
+            // Written (using Java serialization) by a client that predates UPDATE_SERIALIZER. Serializations made by
+            // UPDATE_SERIALIZER always begin with its (zero) serializer version, so they can never be mistaken for this.
+            return (Update<ReaderGroupState>) LEGACY_SERIALIZER.deserialize(serializedValue);
+        }
+        return UPDATE_SERIALIZER.deserialize(new ByteBufInputStream(Unpooled.wrappedBuffer(serializedValue)));
+    }
+
+    private static void writeSegment(RevisionDataOutput out, Segment segment) throws IOException {
+        out.writeUTF(segment.getScopedName());
+    }
+
+    private static Segment readSegment(RevisionDataInput in) throws IOException {
+        return Segment.fromScopedName(in.readUTF());
+    }
+
+    private static void writeConfig(RevisionDataOutput out, ReaderGroupConfig config) throws IOException {
+        out.writeLong(config.getGroupRefreshTimeMillis());
+        out.writeLong(config.getAutomaticCheckpointIntervalMillis());
+        out.writeMap(config.getStartingStreamCuts(), (o, stream) -> o.writeUTF(stream.getScopedName()),
+                     ReaderGroupState::writeStreamCut);
+    }
+
+    private static ReaderGroupConfig readConfig(RevisionDataInput in) throws IOException {
+        long groupRefreshTimeMillis = in.readLong();
+        long automaticCheckpointIntervalMillis = in.readLong();
+        Map<Stream, StreamCut> startingStreamCuts = in.readMap(i -> Stream.of(i.readUTF()), ReaderGroupState::readStreamCut);
+        return ReaderGroupConfig.builder()
+                                .groupRefreshTimeMillis(groupRefreshTimeMillis)
+                                .automaticCheckpointIntervalMillis(automaticCheckpointIntervalMillis)
+                                .startFromStreamCuts(startingStreamCuts)
+                                .build();
+    }
+
+    private static void writeStreamCut(RevisionDataOutput out, StreamCut streamCut) throws IOException {
+        StreamCutInternal impl = streamCut.asImpl();
+        // StreamCut.UNBOUNDED has no implementation.
+        out.writeBoolean(impl != null);
+        if (impl != null) {
+            out.writeUTF(impl.getStream().getScopedName());
+            out.writeMap(impl.getPositions(), ReaderGroupState::writeSegment, DataOutput::writeLong);
+        }
+    }
+
+    private static StreamCut readStreamCut(RevisionDataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return StreamCut.UNBOUNDED;
+        }
+        Stream stream = Stream.of(in.readUTF());
+        return new StreamCutImpl(stream, in.readMap(ReaderGroupState::readSegment, DataInput::readLong));
+    }
 
+    //endregion
 }
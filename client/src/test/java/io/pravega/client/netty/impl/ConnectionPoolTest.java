@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.client.netty.impl;
+
+import io.netty.buffer.Unpooled;
+import io.pravega.shared.protocol.netty.ConnectionFailedException;
+import io.pravega.shared.protocol.netty.PravegaNodeUri;
+import io.pravega.shared.protocol.netty.ReplyProcessor;
+import io.pravega.shared.protocol.netty.WireCommands;
+import io.pravega.test.common.AssertExtensions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class ConnectionPoolTest {
+
+    private final PravegaNodeUri endpoint = new PravegaNodeUri("localhost", 12345);
+    private final List<ReplyProcessor> connectionProcessors = new ArrayList<>();
+    private final List<ClientConnection> connections = new ArrayList<>();
+    private ConnectionPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new ConnectionPool(1, (uri, rp) -> {
+            ClientConnection connection = mock(ClientConnection.class);
+            connectionProcessors.add(rp);
+            connections.add(connection);
+            return CompletableFuture.completedFuture(connection);
+        });
+    }
+
+    @Test
+    public void testRepliesAreRoutedToSessions() throws ConnectionFailedException {
+        UUID writerId = UUID.randomUUID();
+        ReplyProcessor writer = mock(ReplyProcessor.class);
+        ReplyProcessor reader = mock(ReplyProcessor.class);
+        ClientConnection writerSession = pool.establishSession(endpoint, "scope/stream/0", writerId, writer).join();
+        ClientConnection readerSession = pool.establishSession(endpoint, "scope/stream/1", null, reader).join();
+        assertEquals(1, connections.size());
+        assertEquals(1, pool.getConnectionCount(endpoint));
+
+        WireCommands.ReadSegment readSegment = new WireCommands.ReadSegment("scope/stream/1", 0, 10, "");
+        readerSession.sendAsync(readSegment);
+        verify(connections.get(0)).sendAsync(readSegment);
+
+        ReplyProcessor demux = connectionProcessors.get(0);
+        WireCommands.AppendSetup appendSetup = new WireCommands.AppendSetup(1, "scope/stream/0", writerId, 0);
+        demux.process(appendSetup);
+        WireCommands.DataAppended dataAppended = new WireCommands.DataAppended(writerId, 1, 0);
+        demux.process(dataAppended);
+        WireCommands.SegmentRead segmentRead = new WireCommands.SegmentRead("scope/stream/1", 0, false, false,
+                                                                            Unpooled.wrappedBuffer(new byte[10]));
+        demux.process(segmentRead);
+        WireCommands.SegmentIsSealed sealed = new WireCommands.SegmentIsSealed(2, "scope/stream/0");
+        demux.process(sealed);
+
+        verify(writer).process(appendSetup);
+        verify(writer).process(dataAppended);
+        verify(writer).process(sealed);
+        verify(writer, never()).process(segmentRead);
+        verify(reader).process(segmentRead);
+        verify(reader, never()).process(appendSetup);
+        verify(reader, never()).process(dataAppended);
+        verify(reader, never()).process(sealed);
+
+        WireCommands.AuthTokenCheckFailed authFailed = new WireCommands.AuthTokenCheckFailed(3);
+        demux.process(authFailed);
+        verify(writer).process(authFailed);
+        verify(reader).process(authFailed);
+
+        writerSession.close();
+        verify(connections.get(0), never()).close();
+        AssertExtensions.assertThrows("Closed session should not send.",
+                () -> writerSession.send(new WireCommands.KeepAlive()),
+                e -> e instanceof ConnectionFailedException);
+        readerSession.close();
+        verify(connections.get(0)).close();
+        assertEquals(0, pool.getConnectionCount(endpoint));
+    }
+
+    @Test
+    public void testSessionsForSameSegmentUseSeparateConnections() {
+        ReplyProcessor first = mock(ReplyProcessor.class);
+        ReplyProcessor second = mock(ReplyProcessor.class);
+        ReplyProcessor third = mock(ReplyProcessor.class);
+        pool.establishSession(endpoint, "scope/stream/0", UUID.randomUUID(), first).join();
+        ClientConnection secondSession = pool.establishSession(endpoint, "scope/stream/0", null, second).join();
+        assertEquals(2, pool.getConnectionCount(endpoint));
+        // The next session shares one of the existing connections.
+        pool.establishSession(endpoint, "scope/stream/1", null, third).join();
+        assertEquals(2, pool.getConnectionCount(endpoint));
+
+        WireCommands.NoSuchSegment noSuchSegment = new WireCommands.NoSuchSegment(0, "scope/stream/0");
+        connectionProcessors.get(0).process(noSuchSegment);
+        verify(first).process(noSuchSegment);
+        verify(second, never()).process(noSuchSegment);
+
+        // Once its only session is closed the overflow connection goes away.
+        secondSession.close();
+        verify(connections.get(1)).close();
+        verify(connections.get(0), never()).close();
+        assertEquals(1, pool.getConnectionCount(endpoint));
+    }
+
+    @Test
+    public void testConnectionDropped() {
+        ReplyProcessor first = mock(ReplyProcessor.class);
+        ReplyProcessor second = mock(ReplyProcessor.class);
+        ClientConnection firstSession = pool.establishSession(endpoint, "scope/stream/0", UUID.randomUUID(), first).join();
+        pool.establishSession(endpoint, "scope/stream/1", null, second).join();
+        connectionProcessors.get(0).connectionDropped();
+        verify(first).connectionDropped();
+        verify(second).connectionDropped();
+        assertEquals(0, pool.getConnectionCount(endpoint));
+        AssertExtensions.assertThrows("Dropped session should not send.",
+                () -> firstSession.sendAsync(new WireCommands.KeepAlive()),
+                e -> e instanceof ConnectionFailedException);
+
+        // A new session gets a new connection.
+        pool.establishSession(endpoint, "scope/stream/0", UUID.randomUUID(), first).join();
+        assertEquals(2, connections.size());
+        assertEquals(1, pool.getConnectionCount(endpoint));
+    }
+}
@@ -9,6 +9,7 @@
  */
 package io.pravega.client.segment.impl;
 
+import io.netty.buffer.Unpooled;
 import io.pravega.client.netty.impl.ClientConnection;
 import io.pravega.client.stream.impl.ConnectionClosedException;
 import io.pravega.client.stream.mock.MockConnectionFactoryImpl;
@@ -148,7 +149,7 @@ public class AsyncSegmentInputStreamTest {
         });
         verify(c).sendAsync(new WireCommands.ReadSegment(segment.getScopedName(), 1234,  5678, ""));
         assertTrue(Futures.isSuccessful(readFuture));
-        assertEquals(ByteBuffer.wrap(good), readFuture.join().getData());
+        assertEquals(Unpooled.wrappedBuffer(good), readFuture.join().getData());
         verifyNoMoreInteractions(c);
     }
 
@@ -38,6 +38,8 @@ public class SegmentInputStreamTest {
         AtomicBoolean closed = new AtomicBoolean(false);
         private final Vector<CompletableFuture<WireCommands.SegmentRead>> readResults;
         private final AtomicInteger readIndex = new AtomicInteger(-1);
+        private final Vector<Long> readOffsets = new Vector<>();
+        private final Vector<Integer> readLengths = new Vector<>();
 
         TestAsyncSegmentInputStream(Segment segment, int expectedReads) {
             super(segment);
@@ -49,6 +51,8 @@ public class SegmentInputStreamTest {
 
         @Override
         public CompletableFuture<SegmentRead> read(long offset, int length) {
+            readOffsets.add(offset);
+            readLengths.add(length);
             int i = readIndex.incrementAndGet();
             return readResults.get(i);
         }
@@ -136,6 +140,105 @@ public class SegmentInputStreamTest {
         assertEquals(ByteBuffer.wrap(data), read);
     }
 
+    @Test(timeout = 10000)
+    public void testPipelinedReads() throws EndOfSegmentException, SegmentTruncatedException {
+        byte[] data = new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        int eventLength = data.length + WireCommands.TYPE_PLUS_LENGTH_SIZE;
+        int readLength = 1024;
+        int depth = 3;
+        int numEntries = readLength * depth / eventLength;
+        ByteBuffer wireData = ByteBuffer.allocate(readLength * depth);
+        for (int i = 0; i < numEntries; i++) {
+            wireData.put(createEventFromData(data));
+        }
+        wireData.position(0);
+        TestAsyncSegmentInputStream fakeNetwork = new TestAsyncSegmentInputStream(segment, 10);
+        @Cleanup
+        SegmentInputStreamImpl stream = new SegmentInputStreamImpl(fakeNetwork, 0, readLength, depth);
+
+        // Until we know that we are catching up, only a single request is issued.
+        assertEquals(1, fakeNetwork.readOffsets.size());
+        fakeNetwork.complete(0, new WireCommands.SegmentRead(segment.getScopedName(), 0, false, false,
+                ByteBufferUtils.slice(wireData, 0, readLength)));
+        assertEquals(ByteBuffer.wrap(data), stream.read());
+        int entriesRead = 1;
+
+        // The reply was complete, so more requests are issued without waiting for any of them to complete.
+        assertEquals(depth, fakeNetwork.readOffsets.size());
+        for (int i = 0; i < depth; i++) {
+            assertEquals(i * readLength, (long) fakeNetwork.readOffsets.get(i));
+            assertEquals(readLength, (int) fakeNetwork.readLengths.get(i));
+        }
+
+        // Replies may arrive out of order. A short reply discards the requests after it and issues a single one.
+        int shortLength = 500;
+        fakeNetwork.complete(2, new WireCommands.SegmentRead(segment.getScopedName(), 2 * readLength, false, false,
+                ByteBufferUtils.slice(wireData, 2 * readLength, readLength)));
+        fakeNetwork.complete(1, new WireCommands.SegmentRead(segment.getScopedName(), readLength, false, false,
+                ByteBufferUtils.slice(wireData, readLength, shortLength)));
+        for (; entriesRead < (readLength + shortLength) / eventLength; entriesRead++) {
+            assertEquals(ByteBuffer.wrap(data), stream.read());
+        }
+        assertEquals(depth + 1, fakeNetwork.readOffsets.size());
+        assertEquals(readLength + shortLength, (long) fakeNetwork.readOffsets.get(depth));
+        assertEquals(readLength, (int) fakeNetwork.readLengths.get(depth));
+
+        // A complete reply resumes pipelining.
+        long resumeOffset = readLength + shortLength;
+        ByteBuffer read = testBlocking(() -> stream.read(), () -> fakeNetwork.complete(depth,
+                new WireCommands.SegmentRead(segment.getScopedName(), resumeOffset, false, false,
+                        ByteBufferUtils.slice(wireData, (int) resumeOffset, readLength))));
+        assertEquals(ByteBuffer.wrap(data), read);
+        entriesRead++;
+        assertEquals(depth + 3, fakeNetwork.readOffsets.size());
+        assertEquals(resumeOffset + readLength, (long) fakeNetwork.readOffsets.get(depth + 1));
+        assertEquals(resumeOffset + 2 * readLength, (long) fakeNetwork.readOffsets.get(depth + 2));
+
+        // A reply at the tail discards the request after it (which would otherwise wait for new data to be appended).
+        long tailOffset = resumeOffset + readLength;
+        fakeNetwork.complete(depth + 1, new WireCommands.SegmentRead(segment.getScopedName(), tailOffset, true, false,
+                ByteBufferUtils.slice(wireData, (int) tailOffset, wireData.capacity() - (int) tailOffset)));
+        for (; entriesRead < numEntries; entriesRead++) {
+            assertEquals(ByteBuffer.wrap(data), stream.read());
+        }
+        assertTrue(fakeNetwork.readResults.get(depth + 2).isCancelled());
+        assertEquals(depth + 4, fakeNetwork.readOffsets.size());
+        assertEquals(wireData.capacity(), (long) fakeNetwork.readOffsets.get(depth + 3));
+    }
+
+    @Test(timeout = 10000)
+    public void testPipelinedReadsSealedSegment() throws EndOfSegmentException, SegmentTruncatedException {
+        byte[] data = new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        int eventLength = data.length + WireCommands.TYPE_PLUS_LENGTH_SIZE;
+        int readLength = 1024;
+        int depth = 3;
+        int numEntries = readLength / eventLength + 5;
+        ByteBuffer wireData = ByteBuffer.allocate(numEntries * eventLength);
+        for (int i = 0; i < numEntries; i++) {
+            wireData.put(createEventFromData(data));
+        }
+        wireData.position(0);
+        TestAsyncSegmentInputStream fakeNetwork = new TestAsyncSegmentInputStream(segment, 10);
+        @Cleanup
+        SegmentInputStreamImpl stream = new SegmentInputStreamImpl(fakeNetwork, 0, readLength, depth);
+        fakeNetwork.complete(0, new WireCommands.SegmentRead(segment.getScopedName(), 0, false, false,
+                ByteBufferUtils.slice(wireData, 0, readLength)));
+        assertEquals(ByteBuffer.wrap(data), stream.read());
+        assertEquals(depth, fakeNetwork.readOffsets.size());
+
+        // The segment ends within the second request; the one after it is beyond the segment's length.
+        fakeNetwork.complete(1, new WireCommands.SegmentRead(segment.getScopedName(), readLength, false, true,
+                ByteBufferUtils.slice(wireData, readLength, wireData.capacity() - readLength)));
+        for (int i = 1; i < numEntries; i++) {
+            assertEquals(ByteBuffer.wrap(data), stream.read());
+        }
+
+        // The request beyond the end is discarded (never waited on) and no more requests are issued.
+        assertTrue(fakeNetwork.readResults.get(2).isCancelled());
+        AssertExtensions.assertThrows(EndOfSegmentException.class, () -> stream.read());
+        assertEquals(depth, fakeNetwork.readOffsets.size());
+    }
+
     @Test(timeout = 10000)
     public void testTimeout() throws EndOfSegmentException, SegmentTruncatedException {
         byte[] data = new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
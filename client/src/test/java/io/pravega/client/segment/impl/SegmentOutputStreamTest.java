@@ -10,6 +10,8 @@
 package io.pravega.client.segment.impl;
 
 import com.google.common.collect.ImmutableList;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import io.pravega.client.netty.impl.ClientConnection;
 import io.pravega.client.netty.impl.ClientConnection.CompletedCallback;
@@ -41,6 +43,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import lombok.Cleanup;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
@@ -92,6 +95,44 @@ public class SegmentOutputStreamTest {
         verifyNoMoreInteractions(connection);
     }
 
+    @Test(timeout = 10000)
+    public void testPooledBufferReleasedOnAck() throws SegmentSealedException, ConnectionFailedException {
+        UUID cid = UUID.randomUUID();
+        PravegaNodeUri uri = new PravegaNodeUri("endpoint", SERVICE_PORT);
+        MockConnectionFactoryImpl cf = new MockConnectionFactoryImpl();
+        @Cleanup("shutdown")
+        InlineExecutor inlineExecutor = new InlineExecutor();
+        cf.setExecutor(inlineExecutor);
+        MockController controller = new MockController(uri.getEndpoint(), uri.getPort(), cf);
+        ClientConnection connection = mock(ClientConnection.class);
+        cf.provideConnection(uri, connection);
+        SegmentOutputStreamImpl output = new SegmentOutputStreamImpl(SEGMENT, controller, cf, cid, segmentSealedCallback, RETRY_SCHEDULE, "");
+        output.reconnect();
+        cf.getProcessor(uri).appendSetup(new AppendSetup(1, SEGMENT, cid, 0));
+
+        ByteBuf data = PooledByteBufAllocator.DEFAULT.heapBuffer();
+        data.writeBytes("test".getBytes());
+        CompletableFuture<Boolean> acked = new CompletableFuture<>();
+        output.write(new PendingEvent(null, data, acked));
+        verify(connection).send(new Append(SEGMENT, cid, 1, Unpooled.wrappedBuffer("test".getBytes()), null));
+        assertEquals("Data released before being acked.", 1, data.refCnt());
+        assertEquals("Append should not consume the event's data.", 4, data.readableBytes());
+
+        // Reconnect: the event must be retransmitted using the same buffer, which stays referenced until sent.
+        cf.getProcessor(uri).connectionDropped();
+        cf.getProcessor(uri).appendSetup(new AppendSetup(2, SEGMENT, cid, 0));
+        ArgumentCaptor<CompletedCallback> sent = ArgumentCaptor.forClass(CompletedCallback.class);
+        verify(connection).sendAsync(eq(Collections.singletonList(new Append(SEGMENT, cid, 1,
+                Unpooled.wrappedBuffer("test".getBytes()), null))), sent.capture());
+        assertEquals("Retransmission does not hold a reference to the data.", 2, data.refCnt());
+        sent.getValue().complete(null);
+        assertEquals("Data released before being acked.", 1, data.refCnt());
+
+        cf.getProcessor(uri).dataAppended(new WireCommands.DataAppended(cid, 1, 0));
+        assertTrue(Futures.await(acked));
+        assertEquals("Data not released after being acked.", 0, data.refCnt());
+    }
+
     @Test(timeout = 10000)
     public void testConnectAndConnectionDrop() throws Exception {
         UUID cid = UUID.randomUUID();
@@ -803,5 +844,38 @@ public class SegmentOutputStreamTest {
         assertTrue(ack.isCompletedExceptionally());
         assertTrue(Futures.getException(ack) instanceof NoSuchSegmentException);
     }
-    
+
+    @Test(timeout = 10000)
+    public void testNoSuchSegmentWhileSending() throws Exception {
+        UUID cid = UUID.randomUUID();
+        PravegaNodeUri uri = new PravegaNodeUri("endpoint", SERVICE_PORT);
+        MockConnectionFactoryImpl cf = new MockConnectionFactoryImpl();
+        @Cleanup("shutdown")
+        InlineExecutor inlineExecutor = new InlineExecutor();
+        cf.setExecutor(inlineExecutor);
+        MockController controller = new MockController(uri.getEndpoint(), uri.getPort(), cf);
+        ClientConnection connection = mock(ClientConnection.class);
+        cf.provideConnection(uri, connection);
+        SegmentOutputStreamImpl output = new SegmentOutputStreamImpl(SEGMENT, controller, cf, cid, segmentSealedCallback, RETRY_SCHEDULE, "");
+        output.reconnect();
+        cf.getProcessor(uri).appendSetup(new AppendSetup(1, SEGMENT, cid, 0));
+
+        // The reply arrives (and fails the event) before the Append has been written out; its data must stay intact.
+        AtomicBoolean intactWhenWritten = new AtomicBoolean();
+        doAnswer(invocation -> {
+            Append append = invocation.getArgument(0);
+            cf.getProcessor(uri).noSuchSegment(new NoSuchSegment(1, SEGMENT));
+            intactWhenWritten.set(append.getData().refCnt() > 0
+                    && append.getData().equals(Unpooled.wrappedBuffer("test".getBytes())));
+            return null;
+        }).when(connection).send(any(Append.class));
+
+        ByteBuf data = PooledByteBufAllocator.DEFAULT.heapBuffer();
+        data.writeBytes("test".getBytes());
+        CompletableFuture<Boolean> ack = new CompletableFuture<>();
+        output.write(new PendingEvent(null, data, ack));
+        assertTrue(Futures.getException(ack) instanceof NoSuchSegmentException);
+        assertTrue("Data released while the Append was being written.", intactWhenWritten.get());
+        assertEquals("Data not released after the Append was written.", 0, data.refCnt());
+    }
 }
@@ -22,6 +22,7 @@ import io.pravega.client.stream.ReaderConfig;
 import io.pravega.client.stream.ReinitializationRequiredException;
 import io.pravega.client.stream.TruncatedDataException;
 import io.pravega.client.stream.mock.MockSegmentStreamFactory;
+import io.pravega.shared.protocol.netty.WireCommands;
 import io.pravega.test.common.AssertExtensions;
 import java.nio.ByteBuffer;
 import java.util.Collections;
@@ -93,6 +94,42 @@ public class EventStreamReaderTest {
         reader.close();
     }
 
+    @Test(timeout = 10000)
+    public void testReadNextEvents() throws SegmentSealedException, ReinitializationRequiredException {
+        AtomicLong clock = new AtomicLong();
+        MockSegmentStreamFactory segmentStreamFactory = new MockSegmentStreamFactory();
+        Orderer orderer = new Orderer();
+        ReaderGroupStateManager groupState = Mockito.mock(ReaderGroupStateManager.class);
+        EventStreamReaderImpl<byte[]> reader = new EventStreamReaderImpl<>(segmentStreamFactory, segmentStreamFactory,
+                                                                           new ByteArraySerializer(), groupState,
+                                                                           orderer, clock::get,
+                                                                           ReaderConfig.builder().build());
+        Segment segment = Segment.fromScopedName("Foo/Bar/0");
+        Mockito.when(groupState.acquireNewSegmentsIfNeeded(0L)).thenReturn(ImmutableMap.of(segment, 0L)).thenReturn(Collections.emptyMap());
+        SegmentOutputStream stream = segmentStreamFactory.createOutputStreamForSegment(segment, segmentSealedCallback, writerConfig, "");
+        ByteBuffer buffer1 = writeInt(stream, 1);
+        ByteBuffer buffer2 = writeInt(stream, 2);
+        ByteBuffer buffer3 = writeInt(stream, 3);
+        long eventLength = buffer1.remaining() + WireCommands.TYPE_PLUS_LENGTH_SIZE;
+
+        List<EventRead<byte[]>> batch = reader.readNextEvents(2, 0);
+        assertEquals(2, batch.size());
+        assertEquals(buffer1, ByteBuffer.wrap(batch.get(0).getEvent()));
+        assertEquals(buffer2, ByteBuffer.wrap(batch.get(1).getEvent()));
+        assertEquals(new PositionImpl(ImmutableMap.of(segment, eventLength)), batch.get(0).getPosition());
+        assertEquals(new PositionImpl(ImmutableMap.of(segment, 2 * eventLength)), batch.get(1).getPosition());
+        assertEquals(batch.get(1).getPosition(), new PositionImpl(ImmutableMap.of(segment, 2 * eventLength)));
+
+        // The batch stops at the end of the segment; the next call handles it.
+        batch = reader.readNextEvents(10, 0);
+        assertEquals(1, batch.size());
+        assertEquals(buffer3, ByteBuffer.wrap(batch.get(0).getEvent()));
+        batch = reader.readNextEvents(10, 0);
+        assertEquals(1, batch.size());
+        assertNull(batch.get(0).getEvent());
+        reader.close();
+    }
+
     @Test(timeout = 10000)
     public void testReleaseSegment() throws SegmentSealedException, ReinitializationRequiredException {
         AtomicLong clock = new AtomicLong();
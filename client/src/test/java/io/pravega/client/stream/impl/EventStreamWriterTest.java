@@ -21,6 +21,7 @@ import io.pravega.client.stream.Transaction;
 import io.pravega.client.stream.TxnFailedException;
 import io.pravega.client.stream.mock.MockSegmentIoStreams;
 import io.pravega.common.Exceptions;
+import io.pravega.common.concurrent.ExecutorServiceHelpers;
 import io.pravega.common.util.ReusableLatch;
 import io.pravega.test.common.Async;
 import io.pravega.test.common.InlineExecutor;
@@ -33,6 +34,7 @@ import java.util.NavigableMap;
 import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Consumer;
 import javax.annotation.concurrent.NotThreadSafe;
 import lombok.Cleanup;
@@ -42,6 +44,7 @@ import org.junit.Test;
 import org.mockito.Mockito;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
@@ -74,6 +77,99 @@ public class EventStreamWriterTest {
         }
     }
 
+    @Test
+    public void testWriteWithPooledBuffers() {
+        String scope = "scope";
+        String streamName = "stream";
+        StreamImpl stream = new StreamImpl(scope, streamName);
+        Segment segment = new Segment(scope, streamName, 0);
+        EventWriterConfig config = EventWriterConfig.builder().enablePooledBuffers(true).build();
+        SegmentOutputStreamFactory streamFactory = Mockito.mock(SegmentOutputStreamFactory.class);
+        Controller controller = Mockito.mock(Controller.class);
+        Mockito.when(controller.getCurrentSegments(scope, streamName)).thenReturn(getSegmentsFuture(segment));
+        FakeSegmentOutputStream outputStream = new FakeSegmentOutputStream(segment);
+        Mockito.when(streamFactory.createOutputStreamForSegment(eq(segment), any(), any(), any())).thenReturn(outputStream);
+        JavaSerializer<String> serializer = new JavaSerializer<>();
+        @Cleanup
+        EventStreamWriter<String> writer = new EventStreamWriterImpl<>(stream, controller, streamFactory, serializer,
+                config, new InlineExecutor());
+        writer.writeEvent("Foo");
+        writer.writeEvent("Bar");
+
+        List<PendingEvent> written = outputStream.getUnackedEventsOnSeal();
+        assertEquals(2, written.size());
+        assertEquals("Foo", serializer.deserialize(written.get(0).getData().nioBuffer()));
+        assertEquals("Bar", serializer.deserialize(written.get(1).getData().nioBuffer()));
+        assertEquals(serializer.serialize("Foo"), written.get(0).getData().nioBuffer());
+        for (PendingEvent event : written) {
+            // Ownership of the (single) reference is handed over to the SegmentOutputStream.
+            assertEquals(1, event.getData().refCnt());
+            event.release();
+            assertEquals(0, event.getData().refCnt());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testConcurrentWritesToDifferentSegments() throws Exception {
+        String scope = "scope";
+        String streamName = "stream";
+        StreamImpl stream = new StreamImpl(scope, streamName);
+        Segment segment1 = new Segment(scope, streamName, 0);
+        Segment segment2 = new Segment(scope, streamName, 1);
+        NavigableMap<Double, Segment> segmentMap = new TreeMap<>();
+        segmentMap.put(0.5, segment1);
+        segmentMap.put(1.0, segment2);
+        StreamSegments segments = new StreamSegments(segmentMap, "");
+        EventWriterConfig config = EventWriterConfig.builder().enableConcurrentWrites(true).build();
+        SegmentOutputStreamFactory streamFactory = Mockito.mock(SegmentOutputStreamFactory.class);
+        Controller controller = Mockito.mock(Controller.class);
+        Mockito.when(controller.getCurrentSegments(scope, streamName)).thenReturn(CompletableFuture.completedFuture(segments));
+
+        // Writes to the first segment block until released.
+        ReusableLatch writeStarted = new ReusableLatch();
+        ReusableLatch releaseWrite = new ReusableLatch();
+        SegmentOutputStream outputStream1 = Mockito.mock(SegmentOutputStream.class);
+        Mockito.doAnswer(invocation -> {
+            writeStarted.release();
+            releaseWrite.await();
+            return null;
+        }).when(outputStream1).write(any());
+        FakeSegmentOutputStream outputStream2 = new FakeSegmentOutputStream(segment2);
+        Mockito.when(streamFactory.createOutputStreamForSegment(eq(segment1), any(), any(), any())).thenReturn(outputStream1);
+        Mockito.when(streamFactory.createOutputStreamForSegment(eq(segment2), any(), any(), any())).thenReturn(outputStream2);
+
+        String routingKey1 = getRoutingKey(segments, segment1);
+        String routingKey2 = getRoutingKey(segments, segment2);
+        JavaSerializer<String> serializer = new JavaSerializer<>();
+        @Cleanup("shutdown")
+        ScheduledExecutorService executor = ExecutorServiceHelpers.newScheduledThreadPool(1, "test");
+        @Cleanup
+        EventStreamWriter<String> writer = new EventStreamWriterImpl<>(stream, controller, streamFactory, serializer,
+                config, new InlineExecutor());
+
+        CompletableFuture<Void> blockedWrite = CompletableFuture.runAsync(() -> writer.writeEvent(routingKey1, "Foo"), executor);
+        writeStarted.await();
+
+        // The write to the second segment must not wait for the (blocked) write to the first one.
+        writer.writeEvent(routingKey2, "Bar");
+        assertEquals(1, outputStream2.getUnackedEventsOnSeal().size());
+        assertEquals("Bar", serializer.deserialize(outputStream2.getUnackedEventsOnSeal().get(0).getData().nioBuffer()));
+        assertFalse(blockedWrite.isDone());
+
+        releaseWrite.release();
+        blockedWrite.join();
+        Mockito.verify(outputStream1).write(any());
+    }
+
+    private String getRoutingKey(StreamSegments segments, Segment segment) {
+        for (int i = 0;; i++) {
+            String routingKey = "RoutingKey" + i;
+            if (segments.getSegmentForKey(routingKey).equals(segment)) {
+                return routingKey;
+            }
+        }
+    }
+
     private StreamSegments getSegments(Segment segment) {
         NavigableMap<Double, Segment> segments = new TreeMap<>();
         segments.put(1.0, segment);
@@ -250,8 +346,8 @@ public class EventStreamWriterTest {
         Mockito.verify(controller, Mockito.times(1)).getCurrentSegments(any(), any());
 
         assertEquals(2, outputStream2.getUnackedEventsOnSeal().size());
-        assertEquals("Foo", serializer.deserialize(outputStream2.getUnackedEventsOnSeal().get(0).getData()));
-        assertEquals("Bar", serializer.deserialize(outputStream2.getUnackedEventsOnSeal().get(1).getData()));
+        assertEquals("Foo", serializer.deserialize(outputStream2.getUnackedEventsOnSeal().get(0).getData().nioBuffer()));
+        assertEquals("Bar", serializer.deserialize(outputStream2.getUnackedEventsOnSeal().get(1).getData().nioBuffer()));
     }
 
     @Test
@@ -297,16 +393,16 @@ public class EventStreamWriterTest {
         Mockito.verify(controller, Mockito.times(1)).getCurrentSegments(any(), any());
 
         assertEquals(2, outputStream1.getUnackedEventsOnSeal().size());
-        assertEquals("Foo", serializer.deserialize(outputStream1.getUnackedEventsOnSeal().get(0).getData()));
-        assertEquals("Bar", serializer.deserialize(outputStream1.getUnackedEventsOnSeal().get(1).getData()));
+        assertEquals("Foo", serializer.deserialize(outputStream1.getUnackedEventsOnSeal().get(0).getData().nioBuffer()));
+        assertEquals("Bar", serializer.deserialize(outputStream1.getUnackedEventsOnSeal().get(1).getData().nioBuffer()));
 
         outputStream1.invokeSealedCallBack(); // simulate a segment sealed callback.
         writer.writeEvent(routingKey, "TestData");
         //This time the actual handleLogSealed is invoked and the resend method resends data to outputStream2.
         assertEquals(3, outputStream2.getUnackedEventsOnSeal().size());
-        assertEquals("Foo", serializer.deserialize(outputStream2.getUnackedEventsOnSeal().get(0).getData()));
-        assertEquals("Bar", serializer.deserialize(outputStream2.getUnackedEventsOnSeal().get(1).getData()));
-        assertEquals("TestData", serializer.deserialize(outputStream2.getUnackedEventsOnSeal().get(2).getData()));
+        assertEquals("Foo", serializer.deserialize(outputStream2.getUnackedEventsOnSeal().get(0).getData().nioBuffer()));
+        assertEquals("Bar", serializer.deserialize(outputStream2.getUnackedEventsOnSeal().get(1).getData().nioBuffer()));
+        assertEquals("TestData", serializer.deserialize(outputStream2.getUnackedEventsOnSeal().get(2).getData().nioBuffer()));
 
     }
 
@@ -628,9 +724,9 @@ public class EventStreamWriterTest {
         Mockito.verify(controller, Mockito.times(1)).getCurrentSegments(any(), any());
 
         assertEquals(1, outputStream2.getUnackedEventsOnSeal().size());
-        assertEquals("Foo", serializer.deserialize(outputStream2.getUnackedEventsOnSeal().get(0).getData()));
+        assertEquals("Foo", serializer.deserialize(outputStream2.getUnackedEventsOnSeal().get(0).getData().nioBuffer()));
         assertEquals(2, outputStream3.getUnackedEventsOnSeal().size());
-        assertEquals("Foo", serializer.deserialize(outputStream3.getUnackedEventsOnSeal().get(0).getData()));
-        assertEquals("Bar", serializer.deserialize(outputStream3.getUnackedEventsOnSeal().get(1).getData()));
+        assertEquals("Foo", serializer.deserialize(outputStream3.getUnackedEventsOnSeal().get(0).getData().nioBuffer()));
+        assertEquals("Bar", serializer.deserialize(outputStream3.getUnackedEventsOnSeal().get(1).getData().nioBuffer()));
     }
 }
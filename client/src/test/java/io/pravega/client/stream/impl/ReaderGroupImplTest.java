@@ -13,6 +13,7 @@ import com.google.common.collect.ImmutableMap;
 import io.pravega.client.ClientFactory;
 import io.pravega.client.netty.impl.ConnectionFactory;
 import io.pravega.client.segment.impl.Segment;
+import io.pravega.client.state.InitialUpdate;
 import io.pravega.client.state.StateSynchronizer;
 import io.pravega.client.state.SynchronizerConfig;
 import io.pravega.client.state.Update;
@@ -55,8 +56,8 @@ public class ReaderGroupImplTest {
     @Mock
     private ReaderGroupState state;
 
-    private Serializer<ReaderGroupState.ReaderGroupStateInit> initSerializer = new JavaSerializer<>();
-    private Serializer<ReaderGroupState.ReaderGroupStateUpdate> updateSerializer = new JavaSerializer<>();
+    private Serializer<InitialUpdate<ReaderGroupState>> initSerializer = new ReaderGroupState.ReaderGroupStateInitSerializer();
+    private Serializer<Update<ReaderGroupState>> updateSerializer = new ReaderGroupState.ReaderGroupStateUpdatesSerializer();
 
     @Before
     public void setUp() throws Exception {
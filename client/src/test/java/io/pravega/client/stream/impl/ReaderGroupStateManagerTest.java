@@ -21,6 +21,8 @@ import io.pravega.client.stream.ReaderGroupConfig;
 import io.pravega.client.stream.ReinitializationRequiredException;
 import io.pravega.client.stream.Stream;
 import io.pravega.client.stream.impl.ReaderGroupState.CreateCheckpoint;
+import io.pravega.client.stream.impl.ReaderGroupState.ReaderGroupStateInitSerializer;
+import io.pravega.client.stream.impl.ReaderGroupState.ReaderGroupStateUpdatesSerializer;
 import io.pravega.client.stream.mock.MockConnectionFactoryImpl;
 import io.pravega.client.stream.mock.MockController;
 import io.pravega.client.stream.mock.MockSegmentStreamFactory;
@@ -123,7 +125,8 @@ public class ReaderGroupStateManagerTest {
 
     private StateSynchronizer<ReaderGroupState> createState(String stream, ClientFactory clientFactory,
                                                             SynchronizerConfig config) {
-        return clientFactory.createStateSynchronizer(stream, new JavaSerializer<>(), new JavaSerializer<>(), config);
+        return clientFactory.createStateSynchronizer(stream, new ReaderGroupStateUpdatesSerializer(),
+                                                     new ReaderGroupStateInitSerializer(), config);
     }
     
     @Test(timeout = 20000)
@@ -317,8 +320,8 @@ public class ReaderGroupStateManagerTest {
         SynchronizerConfig config = SynchronizerConfig.builder().build();
         @Cleanup
         StateSynchronizer<ReaderGroupState> state = clientFactory.createStateSynchronizer(stream,
-                                                                                          new JavaSerializer<>(),
-                                                                                          new JavaSerializer<>(),
+                                                                                          new ReaderGroupStateUpdatesSerializer(),
+                                                                                          new ReaderGroupStateInitSerializer(),
                                                                                           config);
         AtomicLong clock = new AtomicLong();
         Map<Segment, Long> segments = new HashMap<>();
@@ -373,13 +376,13 @@ public class ReaderGroupStateManagerTest {
         SynchronizerConfig config = SynchronizerConfig.builder().build();
         @Cleanup
         StateSynchronizer<ReaderGroupState> state1 = clientFactory.createStateSynchronizer(stream,
-                                                                                          new JavaSerializer<>(),
-                                                                                          new JavaSerializer<>(),
+                                                                                          new ReaderGroupStateUpdatesSerializer(),
+                                                                                          new ReaderGroupStateInitSerializer(),
                                                                                           config);
         @Cleanup
         StateSynchronizer<ReaderGroupState> state2 = clientFactory.createStateSynchronizer(stream,
-                                                                                          new JavaSerializer<>(),
-                                                                                          new JavaSerializer<>(),
+                                                                                          new ReaderGroupStateUpdatesSerializer(),
+                                                                                          new ReaderGroupStateInitSerializer(),
                                                                                           config);
         AtomicLong clock = new AtomicLong();
         Map<Segment, Long> segments = new HashMap<>();
@@ -11,10 +11,18 @@ package io.pravega.client.stream.impl;
 
 import com.google.common.collect.ImmutableSet;
 import io.pravega.client.segment.impl.Segment;
+import io.pravega.client.state.InitialUpdate;
 import io.pravega.client.state.Revision;
+import io.pravega.client.state.Update;
 import io.pravega.client.stream.ReaderGroupConfig;
 import io.pravega.client.stream.Stream;
+import io.pravega.client.stream.StreamCut;
 import io.pravega.client.stream.impl.ReaderGroupState.AddReader;
+import io.pravega.client.stream.impl.ReaderGroupState.ReaderGroupStateInitSerializer;
+import io.pravega.client.stream.impl.ReaderGroupState.ReaderGroupStateUpdatesSerializer;
+import java.io.ObjectStreamConstants;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -30,6 +38,8 @@ import org.mockito.junit.MockitoJUnitRunner;
 import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -115,6 +125,134 @@ public class ReaderGroupStateTest {
         assertEquals(3L, latestPosition.get().get(getStream("S2")).get(getSegment("S2")).longValue());
     }
 
+    @Test
+    public void testSerializeUpdates() {
+        ReaderGroupStateInitSerializer initSerializer = new ReaderGroupStateInitSerializer(true);
+        ReaderGroupStateUpdatesSerializer updateSerializer = new ReaderGroupStateUpdatesSerializer(true);
+        ReaderGroupConfig config = ReaderGroupConfig.builder()
+                                                    .stream(getStream("S1"), new StreamCutImpl(getStream("S1"),
+                                                                                               getOffsetMap(1L, singletonList("S1"))))
+                                                    .stream(getStream("S2"), StreamCut.UNBOUNDED)
+                                                    .build();
+        InitialUpdate<ReaderGroupState> init = initSerializer.deserialize(initSerializer.serialize(
+                new ReaderGroupState.ReaderGroupStateInit(config, getOffsetMap(-1L, Arrays.asList("S1", "S2")))));
+        ReaderGroupState state = init.create("stream", revision);
+        assertEquals(config, state.getConfig());
+        assertEquals(getOffsetMap(-1L, Arrays.asList("S1", "S2")), state.getUnassignedSegments());
+
+        Map<Segment, List<Integer>> successors = Collections.singletonMap(new Segment(SCOPE, "S1", 2), Arrays.asList(0, 1));
+        List<Update<ReaderGroupState>> updates = Arrays.asList(
+                new ReaderGroupState.AddReader("r1"),
+                new ReaderGroupState.AddReader("r2"),
+                new ReaderGroupState.AcquireSegment("r1", getSegment("S1")),
+                new ReaderGroupState.AcquireSegment("r2", getSegment("S2")),
+                new ReaderGroupState.UpdateDistanceToTail("r1", 5),
+                new ReaderGroupState.ReleaseSegment("r2", getSegment("S2"), 7),
+                new ReaderGroupState.CreateCheckpoint("chk1"),
+                new ReaderGroupState.CheckpointReader("chk1", "r1", getOffsetMap(3L, singletonList("S1"))),
+                new ReaderGroupState.CheckpointReader("chk1", "r2", Collections.emptyMap()),
+                new ReaderGroupState.SegmentCompleted("r1", getSegment("S1"), successors),
+                new ReaderGroupState.RemoveReader("r2", new PositionImpl(Collections.emptyMap())),
+                new ReaderGroupState.CreateCheckpoint("chk2"),
+                new ReaderGroupState.ClearCheckpoints("chk1"));
+        for (Update<ReaderGroupState> update : updates) {
+            Update<ReaderGroupState> deserialized = updateSerializer.deserialize(updateSerializer.serialize(update));
+            assertEquals(update.getClass(), deserialized.getClass());
+            state = deserialized.applyTo(state, revision);
+        }
+        Map<Segment, Long> checkpointPositions = new HashMap<>();
+        checkpointPositions.put(getSegment("S1"), 3L);
+        checkpointPositions.put(getSegment("S2"), 7L);
+        assertEquals(Collections.singleton("r1"), state.getOnlineReaders());
+        assertTrue(state.getSegments("r1").isEmpty());
+        assertEquals(Collections.singletonMap(getSegment("S2"), 7L), state.getUnassignedSegments());
+        assertEquals("chk2", state.getCheckpointForReader("r1"));
+        assertEquals(checkpointPositions, state.getCheckpointState().getPositionsForLatestCompletedCheckpoint().get());
+
+        // Compacted states may be written either as an initial update or as a regular update.
+        InitialUpdate<ReaderGroupState> compacted = new ReaderGroupState.CompactReaderGroupState(state);
+        Update<ReaderGroupState> asUpdate = updateSerializer.deserialize(updateSerializer.serialize(compacted));
+        assertTrue(asUpdate instanceof InitialUpdate);
+        ReaderGroupState restored = initSerializer.deserialize(initSerializer.serialize(compacted)).create("stream", revision);
+        assertNotSame(state, restored);
+        assertEquals(config, restored.getConfig());
+        assertEquals(state.getOnlineReaders(), restored.getOnlineReaders());
+        assertEquals(state.getUnassignedSegments(), restored.getUnassignedSegments());
+        assertEquals(state.getRanking("r1"), restored.getRanking("r1"));
+        assertEquals("chk2", restored.getCheckpointForReader("r1"));
+        assertEquals(checkpointPositions, restored.getCheckpointState().getPositionsForLatestCompletedCheckpoint().get());
+        assertFalse(restored.isEndOfData());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSerializeUpdatesForOlderClients() {
+        // Unless the versioned format is requested, everything must still be readable by clients that only know Java
+        // serialization, as these may be part of the same reader group during an upgrade.
+        JavaSerializer<Serializable> javaSerializer = new JavaSerializer<>();
+        ReaderGroupStateInitSerializer initSerializer = new ReaderGroupStateInitSerializer();
+        ReaderGroupStateUpdatesSerializer updateSerializer = new ReaderGroupStateUpdatesSerializer();
+        ReaderGroupConfig config = ReaderGroupConfig.builder()
+                                                    .stream(getStream("S1"), StreamCut.UNBOUNDED)
+                                                    .build();
+        InitialUpdate<ReaderGroupState> init = new ReaderGroupState.ReaderGroupStateInit(config,
+                getOffsetMap(1L, singletonList("S1")));
+        ReaderGroupState state = ((InitialUpdate<ReaderGroupState>) javaSerializer.deserialize(initSerializer.serialize(init)))
+                .create("stream", revision);
+        assertEquals(config, state.getConfig());
+
+        Update<ReaderGroupState> update = new AddReader("r1");
+        ByteBuffer serialized = updateSerializer.serialize(update);
+        Update<ReaderGroupState> deserialized = (Update<ReaderGroupState>) javaSerializer.deserialize(serialized.duplicate());
+        assertEquals(update.getClass(), deserialized.getClass());
+        state = deserialized.applyTo(state, revision);
+        assertEquals(Collections.singleton("r1"), state.getOnlineReaders());
+
+        // Newer clients read either format.
+        assertEquals(update.getClass(), updateSerializer.deserialize(serialized).getClass());
+        ByteBuffer versioned = new ReaderGroupStateUpdatesSerializer(true).serialize(update);
+        assertNotEquals(ObjectStreamConstants.STREAM_MAGIC, versioned.getShort(versioned.position()));
+        assertEquals(update.getClass(), updateSerializer.deserialize(versioned).getClass());
+    }
+
+    @Test
+    public void testDeserializeJavaSerializedUpdates() {
+        // Clients that predate ReaderGroupStateUpdatesSerializer wrote the state and its updates using Java serialization.
+        JavaSerializer<Serializable> javaSerializer = new JavaSerializer<>();
+        ReaderGroupStateInitSerializer initSerializer = new ReaderGroupStateInitSerializer();
+        ReaderGroupStateUpdatesSerializer updateSerializer = new ReaderGroupStateUpdatesSerializer();
+        ReaderGroupConfig config = ReaderGroupConfig.builder()
+                                                    .stream(getStream("S1"), new StreamCutImpl(getStream("S1"),
+                                                                                               getOffsetMap(1L, singletonList("S1"))))
+                                                    .build();
+        InitialUpdate<ReaderGroupState> init = initSerializer.deserialize(javaSerializer.serialize(
+                new ReaderGroupState.ReaderGroupStateInit(config, getOffsetMap(1L, singletonList("S1")))));
+        ReaderGroupState state = init.create("stream", revision);
+        assertEquals(config, state.getConfig());
+
+        List<Update<ReaderGroupState>> updates = Arrays.asList(
+                new ReaderGroupState.AddReader("r1"),
+                new ReaderGroupState.AcquireSegment("r1", getSegment("S1")),
+                new ReaderGroupState.CreateCheckpoint("chk1"));
+        for (Update<ReaderGroupState> update : updates) {
+            Update<ReaderGroupState> deserialized = updateSerializer.deserialize(javaSerializer.serialize((Serializable) update));
+            assertEquals(update.getClass(), deserialized.getClass());
+            state = deserialized.applyTo(state, revision);
+        }
+        assertEquals(Collections.singleton("r1"), state.getOnlineReaders());
+        assertEquals(Collections.singleton(getSegment("S1")), state.getSegments("r1"));
+        assertEquals("chk1", state.getCheckpointForReader("r1"));
+
+        // Compacted states are read the same way, whether as initial updates or as regular ones.
+        ByteBuffer compacted = javaSerializer.serialize(new ReaderGroupState.CompactReaderGroupState(state));
+        assertTrue(updateSerializer.deserialize(compacted.duplicate()) instanceof ReaderGroupState.CompactReaderGroupState);
+        ReaderGroupState restored = initSerializer.deserialize(compacted).create("stream", revision);
+        assertEquals(config, restored.getConfig());
+        assertEquals(state.getOnlineReaders(), restored.getOnlineReaders());
+        assertEquals(state.getSegments("r1"), restored.getSegments("r1"));
+        assertEquals("chk1", restored.getCheckpointForReader("r1"));
+    }
+
     private Segment getSegment(String streamName) {
         return new Segment(SCOPE, streamName, 0);
     }
@@ -100,10 +100,10 @@ public class MockSegmentIoStreams implements SegmentOutputStream, SegmentInputSt
     @Synchronized
     public void write(PendingEvent event) {
         if (event.getExpectedOffset() == null || event.getExpectedOffset() == writeOffset) {
-            dataWritten.add(event.getData().slice());
+            dataWritten.add(event.getData().nioBuffer());
             offsetList.add(writeOffset);
             eventsWritten++;
-            writeOffset += event.getData().remaining() + WireCommands.TYPE_PLUS_LENGTH_SIZE;
+            writeOffset += event.getData().readableBytes() + WireCommands.TYPE_PLUS_LENGTH_SIZE;
             event.getAckFuture().complete(true);
         } else {
             event.getAckFuture().complete(false);
@@ -17,6 +17,7 @@ import io.pravega.client.segment.impl.SegmentMetadataClientFactory;
 import io.pravega.client.segment.impl.SegmentOutputStream;
 import io.pravega.client.segment.impl.SegmentOutputStreamFactory;
 import io.pravega.client.stream.EventWriterConfig;
+import io.pravega.client.stream.ReaderConfig;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -49,6 +50,11 @@ public class MockSegmentStreamFactory implements SegmentInputStreamFactory, Segm
         return createInputStreamForSegment(segment);
     }
 
+    @Override
+    public SegmentInputStream createInputStreamForSegment(Segment segment, ReaderConfig config) {
+        return createInputStreamForSegment(segment);
+    }
+
     @Override
     public SegmentInputStream createInputStreamForSegment(Segment segment) {
         return getMockStream(segment);
@@ -22,9 +22,10 @@ import io.pravega.client.stream.ScalingPolicy;
 import io.pravega.client.stream.Stream;
 import io.pravega.client.stream.StreamConfiguration;
 import io.pravega.client.stream.StreamCut;
-import io.pravega.client.stream.impl.JavaSerializer;
 import io.pravega.client.stream.impl.PositionImpl;
 import io.pravega.client.stream.impl.ReaderGroupImpl;
+import io.pravega.client.stream.impl.ReaderGroupState.ReaderGroupStateInitSerializer;
+import io.pravega.client.stream.impl.ReaderGroupState.ReaderGroupStateUpdatesSerializer;
 import io.pravega.client.stream.impl.StreamImpl;
 import io.pravega.common.concurrent.Futures;
 import io.pravega.shared.NameUtils;
@@ -135,8 +136,8 @@ public class MockStreamManager implements StreamManager, ReaderGroupManager {
                                    .streamName(NameUtils.getStreamForReaderGroup(groupName))
                                    .scalingPolicy(ScalingPolicy.fixed(1)).build());
         SynchronizerConfig synchronizerConfig = SynchronizerConfig.builder().build();
-        ReaderGroupImpl result = new ReaderGroupImpl(scope, groupName, synchronizerConfig, new JavaSerializer<>(),
-                new JavaSerializer<>(), clientFactory, controller, connectionFactory);
+        ReaderGroupImpl result = new ReaderGroupImpl(scope, groupName, synchronizerConfig, new ReaderGroupStateInitSerializer(),
+                new ReaderGroupStateUpdatesSerializer(), clientFactory, controller, connectionFactory);
         result.initializeGroup(config);
         return result;
     }
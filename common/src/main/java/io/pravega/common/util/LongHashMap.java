@@ -0,0 +1,317 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.common.util;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A Map with primitive long Keys, implemented using open addressing (linear probing) over two parallel arrays. Unlike
+ * HashMap&lt;Long, V&gt;, this does not box the Keys or allocate an object for each entry.
+ * <p>
+ * Null values are not supported (a null value in the internal array denotes an empty slot). Removals use backward-shift
+ * deletion, so there are no tombstones and lookup performance does not degrade over time.
+ *
+ * @param <V> Type of the values.
+ */
+@NotThreadSafe
+public class LongHashMap<V> {
+    //region Members
+
+    private static final int MIN_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.6f;
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int resizeThreshold;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the LongHashMap class.
+     */
+    public LongHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates a new instance of the LongHashMap class.
+     *
+     * @param expectedSize The expected number of entries in the map. The map will not need to be resized until it
+     *                     exceeds this number of entries.
+     */
+    public LongHashMap(int expectedSize) {
+        Preconditions.checkArgument(expectedSize >= 0, "expectedSize must be a non-negative number.");
+        allocate(capacityFor(expectedSize));
+    }
+
+    //endregion
+
+    //region Operations
+
+    /**
+     * Gets the number of entries in the map.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets a value indicating whether the map is empty.
+     *
+     * @return True if empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Gets the value associated with the given key.
+     *
+     * @param key The key to look up.
+     * @return The value, or null if no such key exists.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int index = indexOf(key);
+        return index < 0 ? null : (V) this.values[index];
+    }
+
+    /**
+     * Gets a value indicating whether the given key exists in the map.
+     *
+     * @param key The key to look up.
+     * @return True if the key exists, false otherwise.
+     */
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Associates the given value with the given key.
+     *
+     * @param key   The key.
+     * @param value The value. Cannot be null.
+     * @return The previous value associated with the key, or null if none.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        Preconditions.checkNotNull(value, "value");
+        int mask = this.keys.length - 1;
+        int index = hash(key) & mask;
+        while (this.values[index] != null) {
+            if (this.keys[index] == key) {
+                V oldValue = (V) this.values[index];
+                this.values[index] = value;
+                return oldValue;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        this.keys[index] = key;
+        this.values[index] = value;
+        this.size++;
+        if (this.size > this.resizeThreshold) {
+            resize(this.keys.length * 2);
+        }
+
+        return null;
+    }
+
+    /**
+     * Removes the given key from the map.
+     *
+     * @param key The key to remove.
+     * @return The value that was associated with the key, or null if none.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+
+        V oldValue = (V) this.values[index];
+        this.size--;
+
+        // Backward-shift deletion: move subsequent entries in the same probe sequence into the freed slot, so that
+        // every remaining entry is still reachable from its home slot.
+        int mask = this.keys.length - 1;
+        int free = index;
+        int next = (free + 1) & mask;
+        while (this.values[next] != null) {
+            int home = hash(this.keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                this.keys[free] = this.keys[next];
+                this.values[free] = this.values[next];
+                free = next;
+            }
+
+            next = (next + 1) & mask;
+        }
+
+        this.values[free] = null;
+        return oldValue;
+    }
+
+    /**
+     * Removes all entries from the map.
+     */
+    public void clear() {
+        Arrays.fill(this.values, null);
+        this.size = 0;
+    }
+
+    /**
+     * Invokes the given consumer for every entry in the map, in no particular order. The map must not be modified while
+     * this is executing.
+     *
+     * @param consumer A LongObjectConsumer that will be invoked with every key and its value.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(LongObjectConsumer<? super V> consumer) {
+        for (int i = 0; i < this.values.length; i++) {
+            if (this.values[i] != null) {
+                consumer.accept(this.keys[i], (V) this.values[i]);
+            }
+        }
+    }
+
+    /**
+     * Gets a new array containing all the keys in the map, in no particular order.
+     *
+     * @return The keys.
+     */
+    public long[] keys() {
+        long[] result = new long[this.size];
+        int index = 0;
+        for (int i = 0; i < this.values.length; i++) {
+            if (this.values[i] != null) {
+                result[index++] = this.keys[i];
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets a new List containing all the values in the map, in no particular order.
+     *
+     * @return The values.
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> result = new ArrayList<>(this.size);
+        for (Object value : this.values) {
+            if (value != null) {
+                result.add((V) value);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Size = %d, Capacity = %d", this.size, this.keys.length);
+    }
+
+    //endregion
+
+    //region Helpers
+
+    private int indexOf(long key) {
+        int mask = this.keys.length - 1;
+        int index = hash(key) & mask;
+        while (this.values[index] != null) {
+            if (this.keys[index] == key) {
+                return index;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    private void resize(int newCapacity) {
+        long[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        allocate(newCapacity);
+        int mask = newCapacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int index = hash(oldKeys[i]) & mask;
+                while (this.values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+
+                this.keys[index] = oldKeys[i];
+                this.values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+
+    private static int hash(long key) {
+        // Segment Ids (and most other long keys) are not uniformly distributed, so we need to mix all the bits before
+        // using them with a power-of-two mask (this is the finalizer of MurmurHash3).
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    //endregion
+
+    //region LongObjectConsumer
+
+    /**
+     * A consumer that accepts a primitive long and an object.
+     *
+     * @param <V> Type of the object.
+     */
+    @FunctionalInterface
+    public interface LongObjectConsumer<V> {
+        /**
+         * Performs this operation on the given arguments.
+         *
+         * @param key   The key.
+         * @param value The value.
+         */
+        void accept(long key, V value);
+    }
+
+    //endregion
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.common.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * SortedIndex backed by a Skip List (java.util.concurrent.ConcurrentSkipListMap).
+ * <p>
+ * Notes:
+ * <ul>
+ * <li> This class is thread-safe. All single-item operations are atomic and they can be executed concurrently with
+ * each other without any external synchronization.
+ * <li> forEach() is weakly consistent: it does not throw ConcurrentModificationException if the index is modified while
+ * it is executing, and it may or may not reflect such modifications.
+ * <li> size() is not a constant-time operation.
+ * </ul>
+ *
+ * @param <V> The type of the IndexEntries.
+ */
+@ThreadSafe
+public class SkipListIndex<V extends SortedIndex.IndexEntry> implements SortedIndex<V> {
+    // region Members
+
+    private final ConcurrentSkipListMap<Long, V> map;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the SkipListIndex class.
+     */
+    public SkipListIndex() {
+        this.map = new ConcurrentSkipListMap<>(Long::compare);
+    }
+
+    //endregion
+
+    //region SortedIndex implementation
+
+    @Override
+    public void clear() {
+        this.map.clear();
+    }
+
+    @Override
+    public V put(V item) {
+        return this.map.put(item.key(), item);
+    }
+
+    @Override
+    public V remove(long key) {
+        return this.map.remove(key);
+    }
+
+    @Override
+    public int size() {
+        return this.map.size();
+    }
+
+    @Override
+    public V get(long key) {
+        return this.map.get(key);
+    }
+
+    @Override
+    public V getCeiling(long key) {
+        return getValue(this.map.ceilingEntry(key));
+    }
+
+    @Override
+    public V getFloor(long key) {
+        return getValue(this.map.floorEntry(key));
+    }
+
+    @Override
+    public V getFirst() {
+        return getValue(this.map.firstEntry());
+    }
+
+    @Override
+    public V getLast() {
+        return getValue(this.map.lastEntry());
+    }
+
+    @Override
+    public void forEach(Consumer<V> consumer) {
+        this.map.values().forEach(consumer);
+    }
+
+    private V getValue(Map.Entry<Long, V> e) {
+        return e == null ? null : e.getValue();
+    }
+
+    //endregion
+}
@@ -17,7 +17,7 @@ import java.util.function.Consumer;
  * Notes:
  * <ul>
  * <li> Implementations of this interface are not necessarily thread-safe and no assumptions should be made about
- * multi-thread consistency.
+ * multi-thread consistency, unless otherwise specified by the implementation (see SkipListIndex).
  * <li> No implementation of this class should be able to index null values. As such, for all the retrieval methods,
  * a null value can be safely interpreted as no result found.
  * </ul>
@@ -95,7 +95,9 @@ public interface SortedIndex<V extends SortedIndex.IndexEntry> {
      * Iterates through each item in the Index, in natural order, and calls the given consumer on all of them.
      *
      * @param consumer The consumer to invoke.
-     * @throws java.util.ConcurrentModificationException If the Index is modified while this method is executing.
+     * @throws java.util.ConcurrentModificationException If the Index is modified while this method is executing (only
+     *                                                    for those implementations that do not support concurrent
+     *                                                    modifications).
      */
     void forEach(Consumer<V> consumer);
 
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.common.util;
+
+import io.pravega.test.common.AssertExtensions;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import lombok.val;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the LongHashMap class.
+ */
+public class LongHashMapTests {
+    private static final int ITEM_COUNT = 10000;
+
+    /**
+     * Tests the put(), get(), remove() and containsKey() methods against a HashMap, using random operations on a small
+     * key space (which causes a lot of collisions, removals and re-insertions).
+     */
+    @Test
+    public void testRandomOperations() {
+        val rnd = new Random(0);
+        val map = new LongHashMap<String>();
+        val expected = new HashMap<Long, String>();
+        for (int i = 0; i < ITEM_COUNT * 10; i++) {
+            long key = rnd.nextInt(ITEM_COUNT) * 17L;
+            if (rnd.nextInt(3) == 0) {
+                Assert.assertEquals("Unexpected result from remove().", expected.remove(key), map.remove(key));
+            } else {
+                String value = Integer.toString(i);
+                Assert.assertEquals("Unexpected result from put().", expected.put(key, value), map.put(key, value));
+            }
+
+            Assert.assertEquals("Unexpected size.", expected.size(), map.size());
+        }
+
+        for (long key = -1; key < ITEM_COUNT * 17L + 1; key++) {
+            Assert.assertEquals("Unexpected result from get().", expected.get(key), map.get(key));
+            Assert.assertEquals("Unexpected result from containsKey().", expected.containsKey(key), map.containsKey(key));
+        }
+
+        AssertExtensions.assertContainsSameElements("Unexpected result from keys().",
+                expected.keySet(), LongStream.of(map.keys()).boxed().collect(Collectors.toSet()));
+        AssertExtensions.assertContainsSameElements("Unexpected result from values().", expected.values(), new HashSet<>(map.values()));
+        val iterated = new HashMap<Long, String>();
+        map.forEach(iterated::put);
+        AssertExtensions.assertMapEquals("Unexpected result from forEach().", expected, iterated);
+    }
+
+    /**
+     * Tests keys at the extremes of the long range, as well as the clear() method.
+     */
+    @Test
+    public void testExtremeKeysAndClear() {
+        val map = new LongHashMap<Long>(0);
+        val keys = new long[]{Long.MIN_VALUE, -1, 0, 1, Long.MAX_VALUE};
+        for (long key : keys) {
+            map.put(key, key);
+        }
+
+        for (long key : keys) {
+            Assert.assertEquals("Unexpected value.", key, (long) map.get(key));
+        }
+
+        map.clear();
+        Assert.assertTrue("Expected map to be empty after clear().", map.isEmpty());
+        for (long key : keys) {
+            Assert.assertNull("Not expecting any value after clear().", map.get(key));
+        }
+
+        AssertExtensions.assertThrows("put() accepted a null value.", () -> map.put(1, null), ex -> ex instanceof NullPointerException);
+    }
+}
@@ -54,6 +54,54 @@ abstract class SortedIndexTestBase {
         }
     }
 
+    /**
+     * Unit tests for the SkipListIndex class.
+     */
+    public static class SkipListIndexTests extends SortedIndexTestBase {
+        @Override
+        protected SortedIndex<TestEntry> createIndex() {
+            return new SkipListIndex<>();
+        }
+
+        @Override
+        protected boolean supportsConcurrentModification() {
+            return true;
+        }
+
+        /**
+         * Tests the ability to perform concurrent modifications and lookups on the index.
+         */
+        @Test
+        public void testConcurrentAccess() throws Exception {
+            final int writeCount = 10000;
+            val index = createIndex();
+            index.put(new TestEntry(-1)); // Sentinel; this ensures getFloor() always has something to return.
+            val writer = new Thread(() -> {
+                for (int key = 0; key < writeCount; key++) {
+                    index.put(new TestEntry(key));
+                    if (key % 2 == 1) {
+                        index.remove(key - 1);
+                    }
+                }
+            });
+            writer.start();
+
+            // Keep looking up entries while the writer is running; every non-null result must be a valid one.
+            while (writer.isAlive()) {
+                val last = index.getLast();
+                if (last != null) {
+                    val floor = index.getFloor(last.key());
+                    Assert.assertNotNull("Unexpected null value from getFloor() for an existing key.", floor);
+                    AssertExtensions.assertLessThanOrEqual("Unexpected value from getFloor().", last.key(), floor.key());
+                }
+            }
+
+            writer.join();
+            Assert.assertEquals("Unexpected final size.", writeCount / 2 + 1, index.size());
+            index.forEach(e -> Assert.assertTrue("Unexpected key remaining in the index.", e.key() < 0 || e.key() % 2 == 1));
+        }
+    }
+
     //endregion
 
     //region Test Definitions
@@ -245,6 +293,13 @@ abstract class SortedIndexTestBase {
         // Order the inserted keys using the same comparator we used for the index.
         validKeys.sort(KEY_COMPARATOR);
 
+        if (supportsConcurrentModification()) {
+            // Verify that modifying the index while looping through it is allowed.
+            index.forEach(e -> index.remove(e.key()));
+            Assert.assertEquals("Expected the index to be empty after removing all items during enumeration.", 0, index.size());
+            return;
+        }
+
         // Verify that modifying the index while looping through it does throw an exception.
         AssertExtensions.assertThrows(
                 "forEach did not throw when a new item was added during enumeration.",
@@ -297,6 +352,14 @@ abstract class SortedIndexTestBase {
 
     abstract SortedIndex<TestEntry> createIndex();
 
+    /**
+     * Gets a value indicating whether the SortedIndex implementation being tested allows modifications while forEach()
+     * is executing.
+     */
+    protected boolean supportsConcurrentModification() {
+        return false;
+    }
+
     private ArrayList<Long> populate(SortedIndex<TestEntry> index) {
         return populate(index, ITEM_COUNT, Integer.MAX_VALUE);
     }
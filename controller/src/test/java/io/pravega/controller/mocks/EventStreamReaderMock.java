@@ -18,6 +18,8 @@ import io.pravega.client.stream.ReinitializationRequiredException;
 import io.pravega.client.stream.impl.EventReadImpl;
 import lombok.SneakyThrows;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 
@@ -38,6 +40,11 @@ public class EventStreamReaderMock<T> implements EventStreamReader<T> {
         return new EventReadImpl<>(null, event, null, null, null);
     }
 
+    @Override
+    public List<EventRead<T>> readNextEvents(int maxEvents, long timeout) throws ReinitializationRequiredException {
+        return Collections.singletonList(readNextEvent(timeout));
+    }
+
     @Override
     public ReaderConfig getConfig() {
         return null;
@@ -0,0 +1,33 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.contracts;
+
+import lombok.Data;
+
+/**
+ * Describes a single Read from a StreamSegment, as part of a batched read (see StreamSegmentStore.read(List, Duration)).
+ */
+@Data
+public class ReadRequest {
+    /**
+     * The name of the StreamSegment to read from.
+     */
+    private final String streamSegmentName;
+
+    /**
+     * The offset within the StreamSegment to start reading at.
+     */
+    private final long offset;
+
+    /**
+     * The maximum number of bytes to read.
+     */
+    private final int maxLength;
+}
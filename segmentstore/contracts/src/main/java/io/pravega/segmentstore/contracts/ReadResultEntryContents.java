@@ -9,7 +9,13 @@
  */
 package io.pravega.segmentstore.contracts;
 
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
+import io.pravega.common.util.ArrayView;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Contents for a ReadResultEntry.
@@ -17,6 +23,7 @@ import java.io.InputStream;
 public class ReadResultEntryContents {
     private final int length;
     private final InputStream data;
+    private final List<ArrayView> buffers;
 
     /**
      * Creates a new instance of the ReadResultEntryContents class.
@@ -27,6 +34,30 @@ public class ReadResultEntryContents {
     public ReadResultEntryContents(InputStream data, int length) {
         this.data = data;
         this.length = length;
+        this.buffers = null;
+    }
+
+    /**
+     * Creates a new instance of the ReadResultEntryContents class, backed by the given ArrayView.
+     *
+     * @param data An ArrayView containing the retrieved data.
+     */
+    public ReadResultEntryContents(ArrayView data) {
+        this(Collections.singletonList(data));
+    }
+
+    /**
+     * Creates a new instance of the ReadResultEntryContents class, backed by the given (ordered) list of ArrayViews.
+     *
+     * @param buffers The ArrayViews which, when concatenated, make up the retrieved data.
+     */
+    public ReadResultEntryContents(List<ArrayView> buffers) {
+        Preconditions.checkNotNull(buffers, "buffers");
+        this.buffers = buffers;
+        this.length = buffers.stream().mapToInt(ArrayView::getLength).sum();
+        this.data = buffers.size() == 1
+                ? buffers.get(0).getReader()
+                : new SequenceInputStream(Iterators.asEnumeration(buffers.stream().map(ArrayView::getReader).iterator()));
     }
 
     /**
@@ -43,6 +74,16 @@ public class ReadResultEntryContents {
         return this.data;
     }
 
+    /**
+     * Gets an ordered list of ArrayViews which, when concatenated, make up the Data that was retrieved. This can be used
+     * to access the data without copying it. The result is not affected by any reads performed on getData().
+     *
+     * @return The list of ArrayViews, or null if the Data is only available as an InputStream.
+     */
+    public List<ArrayView> getBuffers() {
+        return this.buffers;
+    }
+
     @Override
     public String toString() {
         return String.format("Length = %d", getLength());
@@ -11,6 +11,8 @@ package io.pravega.segmentstore.contracts;
 
 import java.time.Duration;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -72,6 +74,25 @@ public interface StreamSegmentStore {
      */
     CompletableFuture<Void> updateAttributes(String streamSegmentName, Collection<AttributeUpdate> attributeUpdates, Duration timeout);
 
+    /**
+     * Gets the values of the given Attributes for the given StreamSegment. Unlike getStreamSegmentInfo(), which only
+     * returns those Attributes that are currently loaded in memory, this will also look up any Attributes that have been
+     * persisted to the Segment's Attribute Index.
+     *
+     * @param streamSegmentName The name of the StreamSegment for which to get attributes.
+     * @param attributeIds      A Collection of Attribute Ids to fetch.
+     * @param waitForPendingOps If true, it waits for all operations that are currently pending to complete before
+     *                          returning the result (see getStreamSegmentInfo() for more details).
+     * @param timeout           Timeout for the operation.
+     * @return A CompletableFuture that, when completed normally, will contain a Map of Attribute Ids to their latest
+     * values. Any Attribute that does not have a value will not be included in this Map. If the operation failed, the
+     * future will be failed with the causing exception.
+     * @throws NullPointerException     If any of the arguments are null.
+     * @throws IllegalArgumentException If the StreamSegment Name is invalid (NOTE: this doesn't check if the StreamSegment
+     *                                  does not exist - that exception will be set in the returned CompletableFuture).
+     */
+    CompletableFuture<Map<UUID, Long>> getAttributes(String streamSegmentName, Collection<UUID> attributeIds, boolean waitForPendingOps, Duration timeout);
+
     /**
      * Initiates a Read operation on a particular StreamSegment and returns a ReadResult which can be used to consume the
      * read data.
@@ -87,6 +108,22 @@ public interface StreamSegmentStore {
      */
     CompletableFuture<ReadResult> read(String streamSegmentName, long offset, int maxLength, Duration timeout);
 
+    /**
+     * Initiates Read operations on multiple StreamSegments at once. This is equivalent to invoking
+     * read(String, long, int, Duration) for each of the given requests, except that the Segment Container for each
+     * StreamSegment is only looked up once per call (which makes this more efficient when most of the StreamSegments
+     * are owned by the same Segment Container).
+     *
+     * @param reads   A List of ReadRequests describing the reads to perform.
+     * @param timeout Timeout for the operation.
+     * @return A List of CompletableFutures, one for each item in reads (in the same order). Each such future will, when
+     * completed normally, contain a ReadResult instance that can be used to consume the read data for that request. If
+     * one of the reads failed, only its corresponding future will be failed with the causing exception.
+     * @throws NullPointerException     If any of the arguments are null.
+     * @throws IllegalArgumentException If any of the arguments are invalid.
+     */
+    List<CompletableFuture<ReadResult>> read(List<ReadRequest> reads, Duration timeout);
+
     /**
      * Gets information about a StreamSegment.
      *
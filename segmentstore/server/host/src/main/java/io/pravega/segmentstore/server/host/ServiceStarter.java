@@ -22,6 +22,8 @@ import io.pravega.segmentstore.server.store.ServiceBuilderConfig;
 import io.pravega.segmentstore.server.store.ServiceConfig;
 import io.pravega.segmentstore.storage.impl.bookkeeper.BookKeeperConfig;
 import io.pravega.segmentstore.storage.impl.bookkeeper.BookKeeperLogFactory;
+import io.pravega.segmentstore.storage.impl.directmemory.DirectMemoryCacheConfig;
+import io.pravega.segmentstore.storage.impl.directmemory.DirectMemoryCacheFactory;
 import io.pravega.segmentstore.storage.impl.extendeds3.ExtendedS3StorageConfig;
 import io.pravega.segmentstore.storage.impl.extendeds3.ExtendedS3StorageFactory;
 import io.pravega.segmentstore.storage.impl.filesystem.FileSystemStorageConfig;
@@ -32,6 +34,7 @@ import io.pravega.segmentstore.storage.impl.rocksdb.RocksDBCacheFactory;
 import io.pravega.segmentstore.storage.impl.rocksdb.RocksDBConfig;
 import io.pravega.segmentstore.storage.mocks.InMemoryDurableDataLogFactory;
 import io.pravega.segmentstore.storage.mocks.InMemoryStorageFactory;
+import io.pravega.segmentstore.storage.rolling.RollingStorageConfig;
 import io.pravega.shared.metrics.MetricsConfig;
 import io.pravega.shared.metrics.MetricsProvider;
 import io.pravega.shared.metrics.StatsProvider;
@@ -70,7 +73,7 @@ public final class ServiceStarter {
     private ServiceBuilder createServiceBuilder() {
         ServiceBuilder builder = ServiceBuilder.newInMemoryBuilder(this.builderConfig);
         attachDataLogFactory(builder);
-        attachRocksDB(builder);
+        attachCache(builder);
         attachStorage(builder);
         attachZKSegmentManager(builder);
         return builder;
@@ -153,22 +156,32 @@ public final class ServiceStarter {
         });
     }
 
-    private void attachRocksDB(ServiceBuilder builder) {
-        builder.withCacheFactory(setup -> new RocksDBCacheFactory(setup.getConfig(RocksDBConfig::builder)));
+    private void attachCache(ServiceBuilder builder) {
+        builder.withCacheFactory(setup -> {
+            switch (this.serviceConfig.getCacheImplementation()) {
+                case ROCKSDB:
+                    return new RocksDBCacheFactory(setup.getConfig(RocksDBConfig::builder));
+                case DIRECTMEMORY:
+                    return new DirectMemoryCacheFactory(setup.getConfig(DirectMemoryCacheConfig::builder));
+                default:
+                    throw new IllegalStateException("Unsupported cache implementation: " + this.serviceConfig.getCacheImplementation());
+            }
+        });
     }
 
     private void attachStorage(ServiceBuilder builder) {
         builder.withStorageFactory(setup -> {
+            RollingStorageConfig rollingConfig = setup.getConfig(RollingStorageConfig::builder);
             switch (this.serviceConfig.getStorageImplementation()) {
                 case HDFS:
                     HDFSStorageConfig hdfsConfig = setup.getConfig(HDFSStorageConfig::builder);
-                    return new HDFSStorageFactory(hdfsConfig, setup.getStorageExecutor());
+                    return new HDFSStorageFactory(hdfsConfig, rollingConfig, setup.getStorageExecutor());
                 case FILESYSTEM:
                     FileSystemStorageConfig fsConfig = setup.getConfig(FileSystemStorageConfig::builder);
-                    return new FileSystemStorageFactory(fsConfig, setup.getStorageExecutor());
+                    return new FileSystemStorageFactory(fsConfig, rollingConfig, setup.getStorageExecutor());
                 case EXTENDEDS3:
                     ExtendedS3StorageConfig extendedS3Config = setup.getConfig(ExtendedS3StorageConfig::builder);
-                    return new ExtendedS3StorageFactory(extendedS3Config, setup.getStorageExecutor());
+                    return new ExtendedS3StorageFactory(extendedS3Config, rollingConfig, setup.getStorageExecutor());
                 case INMEMORY:
                     return new InMemoryStorageFactory(setup.getStorageExecutor());
                 default:
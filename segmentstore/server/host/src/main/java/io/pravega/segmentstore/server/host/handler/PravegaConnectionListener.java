@@ -153,7 +153,7 @@ public final class PravegaConnectionListener implements AutoCloseable {
                          lsh);
                  lsh.setRequestProcessor(new AppendProcessor(store,
                          lsh,
-                         new PravegaRequestProcessor(store, lsh, statsRecorder, tokenVerifier),
+                         new PravegaRequestProcessor(store, lsh, statsRecorder, tokenVerifier, ch.eventLoop()),
                          statsRecorder,
                          tokenVerifier));
              }
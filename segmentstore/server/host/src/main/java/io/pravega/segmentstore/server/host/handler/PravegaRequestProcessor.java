@@ -11,18 +11,23 @@ package io.pravega.segmentstore.server.host.handler;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.pravega.auth.AuthHandler;
 import io.pravega.common.Exceptions;
 import io.pravega.common.LoggerHelpers;
 import io.pravega.common.Timer;
 import io.pravega.common.auth.AuthenticationException;
+import io.pravega.common.concurrent.Futures;
 import io.pravega.common.io.StreamHelpers;
+import io.pravega.common.util.ArrayView;
 import io.pravega.segmentstore.contracts.AttributeUpdate;
 import io.pravega.segmentstore.contracts.AttributeUpdateType;
 import io.pravega.segmentstore.contracts.Attributes;
 import io.pravega.segmentstore.contracts.BadAttributeUpdateException;
 import io.pravega.segmentstore.contracts.BadOffsetException;
 import io.pravega.segmentstore.contracts.ContainerNotFoundException;
+import io.pravega.segmentstore.contracts.ReadRequest;
 import io.pravega.segmentstore.contracts.ReadResult;
 import io.pravega.segmentstore.contracts.ReadResultEntry;
 import io.pravega.segmentstore.contracts.ReadResultEntryContents;
@@ -53,6 +58,7 @@ import io.pravega.shared.protocol.netty.WireCommands.GetTransactionInfo;
 import io.pravega.shared.protocol.netty.WireCommands.NoSuchSegment;
 import io.pravega.shared.protocol.netty.WireCommands.OperationUnsupported;
 import io.pravega.shared.protocol.netty.WireCommands.ReadSegment;
+import io.pravega.shared.protocol.netty.WireCommands.ReadSegments;
 import io.pravega.shared.protocol.netty.WireCommands.SealSegment;
 import io.pravega.shared.protocol.netty.WireCommands.SegmentAlreadyExists;
 import io.pravega.shared.protocol.netty.WireCommands.SegmentAttribute;
@@ -64,6 +70,7 @@ import io.pravega.shared.protocol.netty.WireCommands.SegmentIsTruncated;
 import io.pravega.shared.protocol.netty.WireCommands.SegmentPolicyUpdated;
 import io.pravega.shared.protocol.netty.WireCommands.SegmentRead;
 import io.pravega.shared.protocol.netty.WireCommands.SegmentSealed;
+import io.pravega.shared.protocol.netty.WireCommands.SegmentsRead;
 import io.pravega.shared.protocol.netty.WireCommands.SegmentTruncated;
 import io.pravega.shared.protocol.netty.WireCommands.StreamSegmentInfo;
 import io.pravega.shared.protocol.netty.WireCommands.TransactionAborted;
@@ -76,17 +83,23 @@ import io.pravega.shared.protocol.netty.WireCommands.UpdateSegmentPolicy;
 import io.pravega.shared.protocol.netty.WireCommands.WrongHost;
 import io.pravega.shared.segment.StreamSegmentNameUtils;
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import javax.annotation.concurrent.GuardedBy;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.SneakyThrows;
@@ -108,6 +121,7 @@ import static io.pravega.shared.MetricsNames.SEGMENT_READ_LATENCY;
 import static io.pravega.shared.MetricsNames.SEGMENT_WRITE_BYTES;
 import static io.pravega.shared.MetricsNames.SEGMENT_WRITE_EVENTS;
 import static io.pravega.shared.MetricsNames.nameFromSegment;
+import static io.pravega.shared.protocol.netty.WireCommands.MAX_WIRECOMMAND_SIZE;
 import static io.pravega.shared.protocol.netty.WireCommands.TYPE_PLUS_LENGTH_SIZE;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
@@ -132,6 +146,7 @@ public class PravegaRequestProcessor extends FailingRequestProcessor implements
     private final ServerConnection connection;
     private final SegmentStatsRecorder statsRecorder;
     private final DelegationTokenVerifier tokenVerifier;
+    private final ScheduledExecutorService longPollScheduler;
 
     //endregion
 
@@ -157,10 +172,26 @@ public class PravegaRequestProcessor extends FailingRequestProcessor implements
      * @param tokenVerifier  Verifier class that verifies delegation token.
      */
     PravegaRequestProcessor(StreamSegmentStore segmentStore, ServerConnection connection, SegmentStatsRecorder statsRecorder, DelegationTokenVerifier tokenVerifier) {
+        this(segmentStore, connection, statsRecorder, tokenVerifier, null);
+    }
+
+    /**
+     * Creates a new instance of the PravegaRequestProcessor class.
+     *
+     * @param segmentStore      The StreamSegmentStore to attach to (and issue requests to).
+     * @param connection        The ServerConnection to attach to (and send responses to).
+     * @param statsRecorder     (Optional) A StatsRecorder for Metrics.
+     * @param tokenVerifier     Verifier class that verifies delegation token.
+     * @param longPollScheduler (Optional) A ScheduledExecutorService to use for long-poll read deadlines. If not provided,
+     *                          long-poll reads will be served as regular reads.
+     */
+    PravegaRequestProcessor(StreamSegmentStore segmentStore, ServerConnection connection, SegmentStatsRecorder statsRecorder,
+                            DelegationTokenVerifier tokenVerifier, ScheduledExecutorService longPollScheduler) {
         this.segmentStore = Preconditions.checkNotNull(segmentStore, "segmentStore");
         this.connection = Preconditions.checkNotNull(connection, "connection");
         this.tokenVerifier = Preconditions.checkNotNull(tokenVerifier, "tokenVerifier");
         this.statsRecorder = statsRecorder;
+        this.longPollScheduler = longPollScheduler;
     }
 
     //endregion
@@ -188,6 +219,51 @@ public class PravegaRequestProcessor extends FailingRequestProcessor implements
                 .exceptionally(ex -> handleException(readSegment.getOffset(), segment, "Read segment", ex));
     }
 
+    @Override
+    public void readSegments(ReadSegments readSegments) {
+        Timer timer = new Timer();
+        final List<ReadSegment> requests = readSegments.getReads();
+        for (ReadSegment request : requests) {
+            if (!verifyToken(request.getSegment(), request.getOffset(), request.getDelegationToken(), READ, "Read Segments")) {
+                return;
+            }
+        }
+
+        // All the data must fit in a single SegmentsRead reply, so each read gets an equal share of what is left of
+        // MAX_WIRECOMMAND_SIZE after accounting for the reply's own overhead.
+        long overhead = SegmentsRead.getOverhead(requests.stream().map(ReadSegment::getSegment).collect(Collectors.toList()));
+        int maxReadLength = requests.isEmpty() ? 0 : (int) ((MAX_WIRECOMMAND_SIZE - overhead) / requests.size());
+        Preconditions.checkArgument(requests.isEmpty() || maxReadLength > 0,
+                "Too many reads (%s) in ReadSegments request %s to fit in a single reply.", requests.size(), readSegments.getRequestId());
+
+        long trace = LoggerHelpers.traceEnter(log, "readSegments", readSegments.getRequestId(), requests.size());
+        List<ReadRequest> reads = requests
+                .stream()
+                .map(r -> new ReadRequest(r.getSegment(), r.getOffset(),
+                        min(maxReadLength, min(MAX_READ_SIZE, max(TYPE_PLUS_LENGTH_SIZE, r.getSuggestedLength())))))
+                .collect(Collectors.toList());
+        List<CompletableFuture<ReadResult>> readResults = segmentStore.read(reads, TIMEOUT);
+        List<CompletableFuture<SegmentRead>> replies = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            ReadSegment request = requests.get(i);
+            replies.add(readResults.get(i)
+                    .thenCompose(readResult -> handleBatchedReadResult(request, readResult))
+                    .exceptionally(ex -> {
+                        handleException(request.getOffset(), request.getSegment(), "Read segments", ex);
+                        return null;
+                    }));
+        }
+
+        Futures.allOfWithResults(replies)
+               .thenAccept(results -> {
+                   // Those reads that failed (or were truncated) have already been replied to individually.
+                   List<SegmentRead> segmentReads = results.stream().filter(Objects::nonNull).collect(Collectors.toList());
+                   LoggerHelpers.traceLeave(log, "readSegments", trace, segmentReads.size());
+                   connection.send(new SegmentsRead(readSegments.getRequestId(), segmentReads));
+                   readStreamSegment.reportSuccessEvent(timer.getElapsed());
+               });
+    }
+
     private boolean verifyToken(String segment, long requestId, String delegationToken, AuthHandler.Permissions read, String operation) {
         if (!tokenVerifier.verifyToken(segment, delegationToken, READ)) {
             log.warn("Delegation token verification failed");
@@ -204,6 +280,8 @@ public class PravegaRequestProcessor extends FailingRequestProcessor implements
      * Otherwise the call will request the data and setup a callback to return the data when it is available.
      * If no data is available but it was detected that the Segment had been truncated beyond the current offset,
      * an appropriate message is sent back over the connection.
+     * If this is a long-poll read that reached the tail of the Segment before collecting the requested minimum amount
+     * of data, the reply is deferred until either more data is appended or the deadline expires (see LongPollRead).
      */
     private void handleReadResult(ReadSegment request, ReadResult result) {
         String segment = request.getSegment();
@@ -214,9 +292,11 @@ public class PravegaRequestProcessor extends FailingRequestProcessor implements
         boolean endOfSegment = nonCachedEntry != null && nonCachedEntry.getType() == EndOfStreamSegment;
         boolean atTail = nonCachedEntry != null && nonCachedEntry.getType() == Future;
 
-        if (!cachedEntries.isEmpty() || endOfSegment) {
+        if (atTail && isLongPoll(request) && getLength(cachedEntries) < request.getMinLength()) {
+            new LongPollRead(request, result, cachedEntries).start(nonCachedEntry);
+        } else if (!cachedEntries.isEmpty() || endOfSegment) {
             // We managed to collect some data. Send it.
-            ByteBuffer data = copyData(cachedEntries);
+            ByteBuf data = toByteBuf(cachedEntries);
             SegmentRead reply = new SegmentRead(segment, request.getOffset(), atTail, endOfSegment, data);
             connection.send(reply);
         } else if (truncated) {
@@ -231,7 +311,7 @@ public class PravegaRequestProcessor extends FailingRequestProcessor implements
             nonCachedEntry.requestContent(TIMEOUT);
             nonCachedEntry.getContent()
                     .thenAccept(contents -> {
-                        ByteBuffer data = copyData(Collections.singletonList(contents));
+                        ByteBuf data = toByteBuf(Collections.singletonList(contents));
                         connection.send(new SegmentRead(segment, nonCachedEntry.getStreamSegmentOffset(), false, endOfSegment, data));
                     })
                     .exceptionally(e -> {
@@ -248,6 +328,68 @@ public class PravegaRequestProcessor extends FailingRequestProcessor implements
         }
     }
 
+    private boolean isLongPoll(ReadSegment request) {
+        return this.longPollScheduler != null && request.getMinLength() > 0 && request.getMaxWaitMillis() > 0;
+    }
+
+    private static int getLength(List<ReadResultEntryContents> contents) {
+        int length = 0;
+        for (ReadResultEntryContents c : contents) {
+            length += c.getLength();
+        }
+
+        return length;
+    }
+
+    /**
+     * Handles a readResult that is part of a ReadSegments request.
+     * Similarly to handleReadResult, if there are cached entries that can be returned without blocking, only these are
+     * returned. Unlike it, if the read is at the tail of the Segment, an empty SegmentRead is returned right away (as
+     * opposed to waiting for more data to be appended), so that one idle Segment does not hold up the whole batch. In
+     * that case the ReadResult is closed, which cancels the pending read at the tail.
+     *
+     * @return A CompletableFuture that will contain the SegmentRead to include in the reply, or null if a reply has
+     * already been sent for this read (i.e., SegmentIsTruncated).
+     */
+    private CompletableFuture<SegmentRead> handleBatchedReadResult(ReadSegment request, ReadResult result) {
+        String segment = request.getSegment();
+        ArrayList<ReadResultEntryContents> cachedEntries = new ArrayList<>();
+        ReadResultEntry nonCachedEntry = collectCachedEntries(request.getOffset(), result, cachedEntries);
+        DYNAMIC_LOGGER.incCounterValue(nameFromSegment(SEGMENT_READ_BYTES, segment), result.getConsumedLength());
+
+        boolean truncated = nonCachedEntry != null && nonCachedEntry.getType() == Truncated;
+        boolean endOfSegment = nonCachedEntry != null && nonCachedEntry.getType() == EndOfStreamSegment;
+        boolean atTail = nonCachedEntry != null && nonCachedEntry.getType() == Future;
+
+        if (!cachedEntries.isEmpty() || endOfSegment || atTail) {
+            // We are not going to wait for the rest of the data. Close the ReadResult so that it cancels nonCachedEntry;
+            // a Future entry would otherwise remain registered with the ReadIndex until the next append.
+            result.close();
+            return CompletableFuture.completedFuture(new SegmentRead(segment, request.getOffset(), atTail, endOfSegment, toByteBuf(cachedEntries)));
+        } else if (truncated) {
+            return segmentStore.getStreamSegmentInfo(segment, false, TIMEOUT)
+                    .thenApply(info -> {
+                        connection.send(new SegmentIsTruncated(nonCachedEntry.getStreamSegmentOffset(), segment, info.getStartOffset()));
+                        return null;
+                    });
+        } else {
+            Preconditions.checkState(nonCachedEntry != null, "No ReadResultEntries returned from read!?");
+            nonCachedEntry.requestContent(TIMEOUT);
+            return nonCachedEntry.getContent()
+                    .thenApply(contents -> new SegmentRead(segment, nonCachedEntry.getStreamSegmentOffset(), false, false,
+                            toByteBuf(Collections.singletonList(contents))))
+                    .exceptionally(e -> {
+                        if (Exceptions.unwrap(e) instanceof StreamSegmentTruncatedException) {
+                            // See handleReadResult for why this may happen.
+                            connection.send(new SegmentIsTruncated(nonCachedEntry.getStreamSegmentOffset(), segment, nonCachedEntry.getStreamSegmentOffset()));
+                        } else {
+                            handleException(nonCachedEntry.getStreamSegmentOffset(), segment, "Read segments", e);
+                        }
+                        return null;
+                    });
+        }
+    }
+
     /**
      * Reads all of the cachedEntries from the ReadResult and puts their content into the cachedEntries list.
      * Upon encountering a non-cached entry, it stops iterating and returns it.
@@ -271,20 +413,27 @@ public class PravegaRequestProcessor extends FailingRequestProcessor implements
     }
 
     /**
-     * Copy all of the contents provided into a byteBuffer and return it.
+     * Wraps all of the contents provided into a (composite) ByteBuf and returns it. Contents that expose their backing
+     * buffers are wrapped without copying; all others are copied out of their InputStreams.
      */
     @SneakyThrows(IOException.class)
-    private ByteBuffer copyData(List<ReadResultEntryContents> contents) {
-        int totalSize = contents.stream().mapToInt(ReadResultEntryContents::getLength).sum();
-
-        ByteBuffer data = ByteBuffer.allocate(totalSize);
-        int bytesCopied = 0;
+    private ByteBuf toByteBuf(List<ReadResultEntryContents> contents) {
+        ArrayList<ByteBuf> components = new ArrayList<>(contents.size());
         for (ReadResultEntryContents content : contents) {
-            int copied = StreamHelpers.readAll(content.getData(), data.array(), bytesCopied, totalSize - bytesCopied);
-            Preconditions.checkState(copied == content.getLength(), "Read fewer bytes than available.");
-            bytesCopied += copied;
+            List<ArrayView> buffers = content.getBuffers();
+            if (buffers == null) {
+                byte[] data = new byte[content.getLength()];
+                int copied = StreamHelpers.readAll(content.getData(), data, 0, data.length);
+                Preconditions.checkState(copied == content.getLength(), "Read fewer bytes than available.");
+                components.add(Unpooled.wrappedBuffer(data));
+            } else {
+                for (ArrayView buffer : buffers) {
+                    components.add(Unpooled.wrappedBuffer(buffer.array(), buffer.arrayOffset(), buffer.getLength()));
+                }
+            }
         }
-        return data;
+
+        return Unpooled.wrappedBuffer(components.toArray(new ByteBuf[components.size()]));
     }
 
     @Override
@@ -331,13 +480,12 @@ public class PravegaRequestProcessor extends FailingRequestProcessor implements
         }
 
         long trace = LoggerHelpers.traceEnter(log, "getSegmentAttribute", getSegmentAttribute);
-        segmentStore.getStreamSegmentInfo(segmentName, false, TIMEOUT)
-                .thenAccept(properties -> {
-                    LoggerHelpers.traceLeave(log, "getSegmentAttribute", trace, properties);
-                    if (properties == null) {
+        segmentStore.getAttributes(segmentName, Collections.singleton(attributeId), false, TIMEOUT)
+                .thenAccept(attributes -> {
+                    LoggerHelpers.traceLeave(log, "getSegmentAttribute", trace, attributes);
+                    if (attributes == null) {
                         connection.send(new NoSuchSegment(requestId, segmentName));
                     } else {
-                        Map<UUID, Long> attributes = properties.getAttributes();
                         Long value = attributes.get(attributeId);
                         if (value == null) {
                             value = WireCommands.NULL_ATTRIBUTE_VALUE;
@@ -672,4 +820,134 @@ public class PravegaRequestProcessor extends FailingRequestProcessor implements
 
         return null;
     }
+
+    //region LongPollRead
+
+    /**
+     * A read at the tail of a Segment that accumulates newly appended data until either the requested minimum length has
+     * been collected or the deadline expires, whichever comes first. At that point, everything collected so far is sent
+     * back in a single SegmentRead (which may be empty if nothing was appended in the meantime).
+     * <p>
+     * The ReadResult is only accessed from the callbacks of its (sequentially requested) ReadResultEntries; the deadline
+     * never touches it directly, it just cancels the pending entry, which then causes the ReadResult to be closed.
+     */
+    private class LongPollRead {
+        private final ReadSegment request;
+        private final ReadResult result;
+        @GuardedBy("contents")
+        private final List<ReadResultEntryContents> contents;
+        @GuardedBy("contents")
+        private int length;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private final AtomicReference<ReadResultEntry> pendingEntry = new AtomicReference<>();
+        private volatile ScheduledFuture<?> deadline;
+
+        LongPollRead(ReadSegment request, ReadResult result, List<ReadResultEntryContents> contents) {
+            this.request = request;
+            this.result = result;
+            this.contents = new ArrayList<>(contents);
+            this.length = getLength(contents);
+        }
+
+        void start(ReadResultEntry futureEntry) {
+            long maxWaitMillis = Math.min(this.request.getMaxWaitMillis(), TIMEOUT.toMillis());
+            this.deadline = longPollScheduler.schedule(this::onDeadline, maxWaitMillis, TimeUnit.MILLISECONDS);
+            waitFor(futureEntry);
+        }
+
+        private void waitFor(ReadResultEntry entry) {
+            this.pendingEntry.set(entry);
+            if (this.done.get()) {
+                // The deadline expired before we got a chance to register this entry.
+                entry.getContent().cancel(true);
+            } else {
+                entry.requestContent(TIMEOUT);
+            }
+
+            entry.getContent().whenComplete((content, ex) -> {
+                if (ex == null) {
+                    onContent(entry, content);
+                } else {
+                    onFailure(entry, ex);
+                }
+            });
+        }
+
+        private void onContent(ReadResultEntry entry, ReadResultEntryContents content) {
+            // Pick up anything else that is readily available.
+            ArrayList<ReadResultEntryContents> newContents = new ArrayList<>();
+            newContents.add(content);
+            ReadResultEntry nextEntry = collectCachedEntries(entry.getStreamSegmentOffset() + content.getLength(), this.result, newContents);
+            int collectedLength;
+            synchronized (this.contents) {
+                if (this.done.get()) {
+                    // The deadline expired while we were collecting this; that data will be picked up by the next read.
+                    this.result.close();
+                    return;
+                }
+
+                this.contents.addAll(newContents);
+                this.length += getLength(newContents);
+                collectedLength = this.length;
+            }
+
+            if (collectedLength < this.request.getMinLength() && nextEntry != null && nextEntry.getType() == Future) {
+                waitFor(nextEntry);
+            } else if (this.done.compareAndSet(false, true)) {
+                this.deadline.cancel(false);
+                this.result.close();
+                boolean endOfSegment = nextEntry != null && nextEntry.getType() == EndOfStreamSegment;
+                boolean atTail = nextEntry != null && nextEntry.getType() == Future;
+                sendReply(atTail, endOfSegment);
+            } else {
+                this.result.close();
+            }
+        }
+
+        private void onFailure(ReadResultEntry entry, Throwable ex) {
+            this.result.close();
+            if (!this.done.compareAndSet(false, true)) {
+                // Cancelled by the deadline, which already took care of the reply.
+                return;
+            }
+
+            this.deadline.cancel(false);
+            boolean hasData;
+            synchronized (this.contents) {
+                hasData = !this.contents.isEmpty();
+            }
+
+            String segment = this.request.getSegment();
+            if (hasData) {
+                // Send what we have; the failure will resurface on the next read.
+                sendReply(false, false);
+            } else if (Exceptions.unwrap(ex) instanceof StreamSegmentTruncatedException) {
+                connection.send(new SegmentIsTruncated(entry.getStreamSegmentOffset(), segment, entry.getStreamSegmentOffset()));
+            } else {
+                handleException(entry.getStreamSegmentOffset(), segment, "Read segment", ex);
+            }
+        }
+
+        private void onDeadline() {
+            if (this.done.compareAndSet(false, true)) {
+                ReadResultEntry pending = this.pendingEntry.get();
+                if (pending != null) {
+                    pending.getContent().cancel(true);
+                }
+
+                sendReply(true, false);
+            }
+        }
+
+        private void sendReply(boolean atTail, boolean endOfSegment) {
+            ByteBuf data;
+            synchronized (this.contents) {
+                data = toByteBuf(this.contents);
+            }
+
+            connection.send(new SegmentRead(this.request.getSegment(), this.request.getOffset(), atTail, endOfSegment, data));
+        }
+    }
+
+    //endregion
 }
@@ -10,7 +10,9 @@
 package io.pravega.segmentstore.server.host.handler;
 
 import com.google.common.base.Preconditions;
+import io.pravega.common.concurrent.ExecutorServiceHelpers;
 import io.pravega.common.concurrent.Futures;
+import io.pravega.segmentstore.contracts.ReadRequest;
 import io.pravega.segmentstore.contracts.ReadResult;
 import io.pravega.segmentstore.contracts.ReadResultEntry;
 import io.pravega.segmentstore.contracts.ReadResultEntryContents;
@@ -19,6 +21,7 @@ import io.pravega.segmentstore.contracts.StreamSegmentInformation;
 import io.pravega.segmentstore.contracts.StreamSegmentMergedException;
 import io.pravega.segmentstore.contracts.StreamSegmentNotExistsException;
 import io.pravega.segmentstore.contracts.StreamSegmentStore;
+import io.pravega.segmentstore.server.host.delegationtoken.PassingTokenVerifier;
 import io.pravega.segmentstore.server.mocks.SynchronousStreamSegmentStore;
 import io.pravega.segmentstore.server.reading.ReadResultEntryBase;
 import io.pravega.segmentstore.server.store.ServiceBuilder;
@@ -35,18 +38,25 @@ import io.pravega.test.common.AssertExtensions;
 import io.pravega.test.common.InlineExecutor;
 import io.pravega.test.common.TestUtils;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
 import lombok.Cleanup;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mockito;
 
@@ -155,6 +165,72 @@ public class PravegaRequestProcessorTest {
         verifyNoMoreInteractions(store);
     }
 
+    @Test(timeout = 20000)
+    public void testReadSegmentLongPoll() {
+        // Set up PravegaRequestProcessor instance to execute a long-poll read segment request against.
+        String streamSegmentName = "testReadSegmentLongPoll";
+        byte[] data = new byte[]{1, 2, 3, 4, 6, 7, 8, 9};
+        int readLength = 1000;
+
+        StreamSegmentStore store = mock(StreamSegmentStore.class);
+        ServerConnection connection = mock(ServerConnection.class);
+        @Cleanup("shutdown")
+        ScheduledExecutorService scheduler = ExecutorServiceHelpers.newScheduledThreadPool(1, "test");
+        PravegaRequestProcessor processor = new PravegaRequestProcessor(store, connection, null, new PassingTokenVerifier(), scheduler);
+
+        TestReadResultEntry entry1 = new TestReadResultEntry(ReadResultEntryType.Cache, 0, readLength);
+        entry1.complete(new ReadResultEntryContents(new ByteArrayInputStream(data), data.length));
+        TestReadResultEntry entry2 = new TestReadResultEntry(ReadResultEntryType.Future, data.length, readLength);
+        TestReadResultEntry entry3 = new TestReadResultEntry(ReadResultEntryType.Future, 2 * data.length, readLength);
+
+        TestReadResult readResult = new TestReadResult(0, readLength, new ArrayList<>(Arrays.asList(entry1, entry2, entry3)));
+        when(store.read(streamSegmentName, 0, readLength, PravegaRequestProcessor.TIMEOUT)).thenReturn(CompletableFuture.completedFuture(readResult));
+
+        // We ask for twice the data we have; nothing should be sent back until more data is available.
+        processor.readSegment(new WireCommands.ReadSegment(streamSegmentName, 0, readLength, "", 2 * data.length, 20000));
+        verify(store).read(streamSegmentName, 0, readLength, PravegaRequestProcessor.TIMEOUT);
+        verifyNoMoreInteractions(connection);
+
+        // Once more data is available, both pieces of data should be sent back in one reply.
+        entry2.complete(new ReadResultEntryContents(new ByteArrayInputStream(data), data.length));
+        byte[] expectedData = new byte[2 * data.length];
+        System.arraycopy(data, 0, expectedData, 0, data.length);
+        System.arraycopy(data, 0, expectedData, data.length, data.length);
+        verify(connection).send(new WireCommands.SegmentRead(streamSegmentName, 0, true, false, ByteBuffer.wrap(expectedData)));
+        assertTrue("Expected the ReadResult to be closed.", readResult.isClosed());
+        verifyNoMoreInteractions(connection);
+        verifyNoMoreInteractions(store);
+    }
+
+    @Test(timeout = 20000)
+    public void testReadSegmentLongPollDeadline() {
+        // Set up PravegaRequestProcessor instance to execute a long-poll read segment request against.
+        String streamSegmentName = "testReadSegmentLongPollDeadline";
+        byte[] data = new byte[]{1, 2, 3, 4, 6, 7, 8, 9};
+        int readLength = 1000;
+
+        StreamSegmentStore store = mock(StreamSegmentStore.class);
+        ServerConnection connection = mock(ServerConnection.class);
+        @Cleanup("shutdown")
+        ScheduledExecutorService scheduler = ExecutorServiceHelpers.newScheduledThreadPool(1, "test");
+        PravegaRequestProcessor processor = new PravegaRequestProcessor(store, connection, null, new PassingTokenVerifier(), scheduler);
+
+        TestReadResultEntry entry1 = new TestReadResultEntry(ReadResultEntryType.Cache, 0, readLength);
+        entry1.complete(new ReadResultEntryContents(new ByteArrayInputStream(data), data.length));
+        TestReadResultEntry entry2 = new TestReadResultEntry(ReadResultEntryType.Future, data.length, readLength);
+        TestReadResult readResult = new TestReadResult(0, readLength, new ArrayList<>(Arrays.asList(entry1, entry2)));
+        when(store.read(streamSegmentName, 0, readLength, PravegaRequestProcessor.TIMEOUT)).thenReturn(CompletableFuture.completedFuture(readResult));
+
+        // Nothing else is going to be appended; we should get back whatever we have once the deadline expires.
+        processor.readSegment(new WireCommands.ReadSegment(streamSegmentName, 0, readLength, "", 2 * data.length, 100));
+        verify(connection, Mockito.timeout(10000)).send(new WireCommands.SegmentRead(streamSegmentName, 0, true, false, ByteBuffer.wrap(data)));
+        assertTrue("Expected the pending read to be cancelled.", entry2.getContent().isCancelled());
+        assertTrue("Expected the ReadResult to be closed.", readResult.isClosed());
+        verify(store).read(streamSegmentName, 0, readLength, PravegaRequestProcessor.TIMEOUT);
+        verifyNoMoreInteractions(connection);
+        verifyNoMoreInteractions(store);
+    }
+
     @Test(timeout = 20000)
     public void testReadSegmentEmptySealed() {
         // Set up PravegaRequestProcessor instance to execute read segment request against
@@ -182,6 +258,152 @@ public class PravegaRequestProcessorTest {
     }
 
 
+    @Test(timeout = 20000)
+    public void testReadSegments() {
+        // Set up PravegaRequestProcessor instance to execute a batched read request against.
+        String segmentWithData = "testReadSegments1";
+        String segmentAtTail = "testReadSegments2";
+        String truncatedSegment = "testReadSegments3";
+        byte[] data = new byte[]{1, 2, 3, 4, 6, 7, 8, 9};
+        int readLength = 1000;
+
+        StreamSegmentStore store = mock(StreamSegmentStore.class);
+        ServerConnection connection = mock(ServerConnection.class);
+        PravegaRequestProcessor processor = new PravegaRequestProcessor(store, connection);
+
+        // 1. Some data, followed by a tail read.
+        TestReadResultEntry dataEntry = new TestReadResultEntry(ReadResultEntryType.Cache, 0, readLength);
+        dataEntry.complete(new ReadResultEntryContents(new ByteArrayInputStream(data), data.length));
+        TestReadResultEntry dataTailEntry = new TestReadResultEntry(ReadResultEntryType.Future, data.length, readLength);
+        ReadResult dataResult = new TestReadResult(0, readLength, new ArrayList<>(Arrays.asList(dataEntry, dataTailEntry)));
+
+        // 2. A tail read only. This must not hold up the reply.
+        TestReadResultEntry tailEntry = new TestReadResultEntry(ReadResultEntryType.Future, 10, readLength);
+        ReadResult tailResult = new TestReadResult(10, readLength, new ArrayList<>(Collections.singletonList(tailEntry)));
+
+        // 3. A truncated read. This gets its own reply.
+        TestReadResultEntry truncatedEntry = new TestReadResultEntry(ReadResultEntryType.Truncated, 0, readLength);
+        ReadResult truncatedResult = new TestReadResult(0, readLength, new ArrayList<>(Collections.singletonList(truncatedEntry)));
+        StreamSegmentInformation info = StreamSegmentInformation.builder()
+                .name(truncatedSegment)
+                .length(1234)
+                .startOffset(123)
+                .build();
+        when(store.getStreamSegmentInfo(truncatedSegment, false, PravegaRequestProcessor.TIMEOUT))
+                .thenReturn(CompletableFuture.completedFuture(info));
+
+        List<ReadRequest> reads = Arrays.asList(
+                new ReadRequest(segmentWithData, 0, readLength),
+                new ReadRequest(segmentAtTail, 10, readLength),
+                new ReadRequest(truncatedSegment, 0, readLength));
+        when(store.read(reads, PravegaRequestProcessor.TIMEOUT)).thenReturn(Arrays.asList(
+                CompletableFuture.completedFuture(dataResult),
+                CompletableFuture.completedFuture(tailResult),
+                CompletableFuture.completedFuture(truncatedResult)));
+
+        // Execute and Verify readSegments calling stack in connection and store is executed as design.
+        processor.readSegments(new WireCommands.ReadSegments(1, Arrays.asList(
+                new WireCommands.ReadSegment(segmentWithData, 0, readLength, ""),
+                new WireCommands.ReadSegment(segmentAtTail, 10, readLength, ""),
+                new WireCommands.ReadSegment(truncatedSegment, 0, readLength, ""))));
+        verify(store).read(reads, PravegaRequestProcessor.TIMEOUT);
+        verify(store).getStreamSegmentInfo(truncatedSegment, false, PravegaRequestProcessor.TIMEOUT);
+        verify(connection).send(new WireCommands.SegmentIsTruncated(0, truncatedSegment, info.getStartOffset()));
+        verify(connection).send(new WireCommands.SegmentsRead(1, Arrays.asList(
+                new WireCommands.SegmentRead(segmentWithData, 0, true, false, ByteBuffer.wrap(data)),
+                new WireCommands.SegmentRead(segmentAtTail, 10, true, false, ByteBuffer.wrap(new byte[0])))));
+        verifyNoMoreInteractions(connection);
+        verifyNoMoreInteractions(store);
+    }
+
+    @Test(timeout = 20000)
+    public void testReadSegmentsLargePayload() throws Exception {
+        // Request more data than fits in a single reply and verify that the reply is still within MAX_WIRECOMMAND_SIZE.
+        int segmentCount = 8;
+        StreamSegmentStore store = mock(StreamSegmentStore.class);
+        ServerConnection connection = mock(ServerConnection.class);
+        PravegaRequestProcessor processor = new PravegaRequestProcessor(store, connection);
+
+        // Every read returns as much data as it was allowed to.
+        when(store.read(any(), any())).thenAnswer(invocation -> {
+            List<ReadRequest> reads = invocation.getArgument(0);
+            val results = new ArrayList<CompletableFuture<ReadResult>>();
+            for (ReadRequest r : reads) {
+                TestReadResultEntry entry = new TestReadResultEntry(ReadResultEntryType.Cache, r.getOffset(), r.getMaxLength());
+                entry.complete(new ReadResultEntryContents(new ByteArrayInputStream(new byte[r.getMaxLength()]), r.getMaxLength()));
+                TestReadResultEntry tailEntry = new TestReadResultEntry(ReadResultEntryType.Future,
+                        r.getOffset() + r.getMaxLength(), r.getMaxLength());
+                results.add(CompletableFuture.completedFuture(
+                        new TestReadResult(r.getOffset(), r.getMaxLength(), new ArrayList<>(Arrays.asList(entry, tailEntry)))));
+            }
+            return results;
+        });
+
+        val requests = new ArrayList<WireCommands.ReadSegment>();
+        for (int i = 0; i < segmentCount; i++) {
+            requests.add(new WireCommands.ReadSegment("testReadSegmentsLargePayload" + i, 0, Integer.MAX_VALUE, ""));
+        }
+
+        processor.readSegments(new WireCommands.ReadSegments(1, requests));
+        val replyCaptor = ArgumentCaptor.forClass(WireCommands.SegmentsRead.class);
+        verify(connection).send(replyCaptor.capture());
+        val reply = replyCaptor.getValue();
+        assertEquals(segmentCount, reply.getReads().size());
+
+        val encoded = new ByteArrayOutputStream();
+        reply.writeFields(new DataOutputStream(encoded));
+        int replyLength = WireCommands.TYPE_PLUS_LENGTH_SIZE + encoded.size();
+        long dataLength = reply.getReads().stream().mapToLong(r -> r.getData().readableBytes()).sum();
+        AssertExtensions.assertGreaterThan("Expected all reads to return data.", 0, reply.getReads().stream()
+                .mapToInt(r -> r.getData().readableBytes()).min().getAsInt());
+        val segmentNames = requests.stream().map(WireCommands.ReadSegment::getSegment).collect(Collectors.toList());
+        assertEquals("Unexpected reply overhead.", WireCommands.SegmentsRead.getOverhead(segmentNames), replyLength - dataLength);
+        AssertExtensions.assertLessThanOrEqual("Reply exceeds the maximum size of a WireCommand.",
+                WireCommands.MAX_WIRECOMMAND_SIZE, replyLength);
+    }
+
+    @Test(timeout = 20000)
+    public void testReadSegmentsIdlePolling() {
+        // Poll an idle Segment repeatedly and verify that no tail reads are left pending in between polls.
+        String segment = "testReadSegmentsIdlePolling";
+        int pollCount = 100;
+        int readLength = 1000;
+        long tailOffset = 10;
+        StreamSegmentStore store = mock(StreamSegmentStore.class);
+        ServerConnection connection = mock(ServerConnection.class);
+        PravegaRequestProcessor processor = new PravegaRequestProcessor(store, connection);
+
+        // Mimic the ReadIndex: every read registers a Future entry, which only goes away once it completes or is cancelled
+        // (StreamSegmentReadResult.close() cancels it).
+        val futureReads = new ArrayList<TestReadResultEntry>();
+        val readResults = new ArrayList<TestReadResult>();
+        when(store.read(any(), any())).thenAnswer(invocation -> {
+            TestReadResultEntry tailEntry = new TestReadResultEntry(ReadResultEntryType.Future, tailOffset, readLength);
+            futureReads.add(tailEntry);
+            TestReadResult result = new TestReadResult(tailOffset, readLength, new ArrayList<>(Collections.singletonList(tailEntry))) {
+                @Override
+                public void close() {
+                    super.close();
+                    tailEntry.getContent().cancel(true);
+                }
+            };
+            readResults.add(result);
+            return Collections.singletonList(CompletableFuture.completedFuture(result));
+        });
+
+        for (int i = 0; i < pollCount; i++) {
+            processor.readSegments(new WireCommands.ReadSegments(i, Collections.singletonList(
+                    new WireCommands.ReadSegment(segment, tailOffset, readLength, ""))));
+            assertEquals("Unexpected number of pending future reads after poll " + i,
+                    0, futureReads.stream().filter(e -> !e.getContent().isDone()).count());
+            verify(connection).send(new WireCommands.SegmentsRead(i, Collections.singletonList(
+                    new WireCommands.SegmentRead(segment, tailOffset, true, false, ByteBuffer.wrap(new byte[0])))));
+        }
+
+        assertEquals(pollCount, readResults.size());
+        assertTrue("Expected all ReadResults to be closed.", readResults.stream().allMatch(TestReadResult::isClosed));
+    }
+
     @Test(timeout = 20000)
     public void testReadSegmentTruncated() {
         // Set up PravegaRequestProcessor instance to execute read segment request against
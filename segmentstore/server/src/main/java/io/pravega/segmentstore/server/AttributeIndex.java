@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Defines a durable, sorted index of Segment Attributes, which is used to keep Attributes for a Segment outside of its
+ * in-memory metadata.
+ */
+public interface AttributeIndex extends AutoCloseable {
+    /**
+     * Looks up the values of the given Attributes for the given Segment.
+     *
+     * @param segmentName  The name of the Segment to look up Attributes for.
+     * @param attributeIds A Collection of Attribute Ids to look up.
+     * @param timeout      Timeout for the operation.
+     * @return A CompletableFuture that, when completed, will contain a Map of Attribute Ids to their values. Attributes
+     * that do not exist in the index will not be included in this Map. If the operation failed, the future will be failed
+     * with the causing exception.
+     */
+    CompletableFuture<Map<UUID, Long>> get(String segmentName, Collection<UUID> attributeIds, Duration timeout);
+
+    /**
+     * Inserts, updates or removes the given Attributes for the given Segment. Attributes with a value of
+     * SegmentMetadata.NULL_ATTRIBUTE_VALUE will be removed from the index. All updates are applied atomically.
+     *
+     * @param segmentName The name of the Segment to update Attributes for.
+     * @param values      A Map of Attribute Ids to their new values.
+     * @param timeout     Timeout for the operation.
+     * @return A CompletableFuture that, when completed, will indicate that the update has been durably persisted. If the
+     * operation failed, the future will be failed with the causing exception.
+     */
+    CompletableFuture<Void> put(String segmentName, Map<UUID, Long> values, Duration timeout);
+
+    /**
+     * Deletes all Attributes for the given Segment.
+     *
+     * @param segmentName The name of the Segment to delete Attributes for.
+     * @param timeout     Timeout for the operation.
+     * @return A CompletableFuture that, when completed, will indicate that the operation completed. If the operation
+     * failed, the future will be failed with the causing exception.
+     */
+    CompletableFuture<Void> delete(String segmentName, Duration timeout);
+
+    /**
+     * Removes all internal state (including cached pages) for the given Segments. This does not affect any Attributes
+     * that have already been persisted.
+     *
+     * @param segmentNames A Collection of names of the Segments to clean up.
+     */
+    void cleanup(Collection<String> segmentNames);
+
+    @Override
+    void close();
+}
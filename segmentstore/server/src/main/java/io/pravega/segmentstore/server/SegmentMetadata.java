@@ -12,14 +12,17 @@ package io.pravega.segmentstore.server;
 import io.pravega.segmentstore.contracts.SegmentProperties;
 import io.pravega.segmentstore.contracts.StreamSegmentInformation;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * Defines an immutable StreamSegment Metadata.
  */
 public interface SegmentMetadata extends SegmentProperties {
     /**
-     * The maximum number of attributes that a single Segment can have at any given time. Due to serialization constraints
-     * there needs to be a hard limit as to how many attributes each segment can have.
+     * The maximum number of core (non-dynamic) attributes that a single Segment can have at any given time. Due to
+     * serialization constraints there needs to be a hard limit as to how many attributes each segment can keep in memory.
+     * Dynamic attributes are not subject to this limit since they are offloaded to the Segment's AttributeIndex.
      */
     int MAXIMUM_ATTRIBUTE_COUNT = 1024;
 
@@ -74,6 +77,15 @@ public interface SegmentMetadata extends SegmentProperties {
      */
     boolean isActive();
 
+    /**
+     * Gets an unmodifiable Map of all the Attributes that are currently held in memory for this Segment. Unlike
+     * getAttributes(), this also includes dynamic Attributes which have been removed (these have a value of
+     * NULL_ATTRIBUTE_VALUE) until their removal has been persisted to the Segment's AttributeIndex.
+     *
+     * @return The Attributes.
+     */
+    Map<UUID, Long> getInMemoryAttributes();
+
     /**
      * Creates a new SegmentProperties instance with current information from this SegmentMetadata object.
      *
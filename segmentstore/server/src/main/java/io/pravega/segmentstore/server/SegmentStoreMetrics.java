@@ -45,16 +45,25 @@ public final class SegmentStoreMetrics {
     public final static class CacheManager implements AutoCloseable {
         private final OpStatsLogger totalSize = STATS_LOGGER.createStats(MetricsNames.CACHE_TOTAL_SIZE_BYTES);
         private final OpStatsLogger generationSpread = STATS_LOGGER.createStats(MetricsNames.CACHE_GENERATION_SPREAD);
+        private final OpStatsLogger usedBytes = STATS_LOGGER.createStats(MetricsNames.CACHE_USED_BYTES);
+        private final OpStatsLogger allocatedBytes = STATS_LOGGER.createStats(MetricsNames.CACHE_ALLOCATED_BYTES);
 
         public void report(long totalBytes, int generationSpread) {
             this.totalSize.reportSuccessValue(totalBytes);
             this.generationSpread.reportSuccessValue(generationSpread);
         }
 
+        public void reportCacheMemory(long usedBytes, long allocatedBytes) {
+            this.usedBytes.reportSuccessValue(usedBytes);
+            this.allocatedBytes.reportSuccessValue(allocatedBytes);
+        }
+
         @Override
         public void close()  {
             this.totalSize.close();
             this.generationSpread.close();
+            this.usedBytes.close();
+            this.allocatedBytes.close();
         }
     }
 
@@ -152,7 +161,20 @@ public final class SegmentStoreMetrics {
         private final OpStatsLogger processOperationsBatchSize;
         private final String operationLogSize;
 
+        /**
+         * Length of the DataFrames written to Tier1, and the reason why they were closed.
+         */
+        private final OpStatsLogger frameLength;
+        private final int containerId;
+
+        /**
+         * The current decisions of the adaptive batching policy (if any).
+         */
+        private final String targetFrameLength;
+        private final String lingerDelay;
+
         public OperationProcessor(int containerId) {
+            this.containerId = containerId;
             this.operationQueueSize = STATS_LOGGER.createStats(MetricsNames.nameFromContainer(MetricsNames.OPERATION_QUEUE_SIZE, containerId));
             this.operationsInFlight = STATS_LOGGER.createStats(MetricsNames.nameFromContainer(MetricsNames.OPERATION_PROCESSOR_IN_FLIGHT, containerId));
             this.operationQueueWaitTime = STATS_LOGGER.createStats(MetricsNames.nameFromContainer(MetricsNames.OPERATION_QUEUE_WAIT_TIME, containerId));
@@ -164,6 +186,9 @@ public final class SegmentStoreMetrics {
             this.processOperationsLatency = STATS_LOGGER.createStats(MetricsNames.nameFromContainer(MetricsNames.PROCESS_OPERATIONS_LATENCY, containerId));
             this.processOperationsBatchSize = STATS_LOGGER.createStats(MetricsNames.nameFromContainer(MetricsNames.PROCESS_OPERATIONS_BATCH_SIZE, containerId));
             this.operationLogSize = "segmentstore." + MetricsNames.nameFromContainer(MetricsNames.OPERATION_LOG_SIZE, containerId);
+            this.frameLength = STATS_LOGGER.createStats(MetricsNames.nameFromContainer(MetricsNames.OPERATION_PROCESSOR_FRAME_LENGTH, containerId));
+            this.targetFrameLength = MetricsNames.nameFromContainer(MetricsNames.OPERATION_PROCESSOR_TARGET_FRAME_LENGTH, containerId);
+            this.lingerDelay = MetricsNames.nameFromContainer(MetricsNames.OPERATION_PROCESSOR_LINGER_DELAY_MILLIS, containerId);
         }
 
         @Override
@@ -178,6 +203,7 @@ public final class SegmentStoreMetrics {
             this.metadataCommitTxnCount.close();
             this.processOperationsLatency.close();
             this.processOperationsBatchSize.close();
+            this.frameLength.close();
         }
 
         public void currentState(int queueSize, int inFlightCount) {
@@ -189,6 +215,16 @@ public final class SegmentStoreMetrics {
             this.operationProcessorDelay.reportSuccessValue(millis);
         }
 
+        public void frameClosed(String reason, int length) {
+            this.frameLength.reportSuccessValue(length);
+            DYNAMIC_LOGGER.recordMeterEvents(MetricsNames.nameFromContainer(MetricsNames.OPERATION_PROCESSOR_FRAME_CLOSED + "_" + reason, this.containerId), 1);
+        }
+
+        public void batchingPolicyUpdated(int targetFrameLength, int lingerDelayMillis) {
+            DYNAMIC_LOGGER.reportGaugeValue(this.targetFrameLength, targetFrameLength);
+            DYNAMIC_LOGGER.reportGaugeValue(this.lingerDelay, lingerDelayMillis);
+        }
+
         public void operationQueueWaitTime(long queueWaitTimeMillis) {
             this.operationQueueWaitTime.reportSuccessValue(queueWaitTimeMillis);
         }
@@ -266,6 +302,7 @@ public final class SegmentStoreMetrics {
         private final String updateAttributesCount;
         private final String readCount;
         private final String getInfoCount;
+        private final String getAttributesCount;
         private final String createSegmentCount;
         private final String deleteSegmentCount;
         private final String createTxnCount;
@@ -279,6 +316,7 @@ public final class SegmentStoreMetrics {
             this.updateAttributesCount = MetricsNames.nameFromContainer(MetricsNames.CONTAINER_UPDATE_ATTRIBUTES_COUNT, containerId);
             this.readCount = MetricsNames.nameFromContainer(MetricsNames.CONTAINER_READ_COUNT, containerId);
             this.getInfoCount = MetricsNames.nameFromContainer(MetricsNames.CONTAINER_GET_INFO_COUNT, containerId);
+            this.getAttributesCount = MetricsNames.nameFromContainer(MetricsNames.CONTAINER_GET_ATTRIBUTES_COUNT, containerId);
             this.createSegmentCount = MetricsNames.nameFromContainer(MetricsNames.CONTAINER_CREATE_SEGMENT_COUNT, containerId);
             this.deleteSegmentCount = MetricsNames.nameFromContainer(MetricsNames.CONTAINER_DELETE_SEGMENT_COUNT, containerId);
             this.createTxnCount = MetricsNames.nameFromContainer(MetricsNames.CONTAINER_CREATE_TXN_COUNT, containerId);
@@ -315,6 +353,10 @@ public final class SegmentStoreMetrics {
             DYNAMIC_LOGGER.recordMeterEvents(this.getInfoCount, 1);
         }
 
+        public void getAttributes() {
+            DYNAMIC_LOGGER.recordMeterEvents(this.getAttributesCount, 1);
+        }
+
         public void createTxn() {
             DYNAMIC_LOGGER.recordMeterEvents(this.createTxnCount, 1);
         }
@@ -10,6 +10,7 @@
 package io.pravega.segmentstore.server;
 
 import io.pravega.common.util.ImmutableDate;
+import java.util.Collection;
 import java.util.Map;
 import java.util.UUID;
 
@@ -65,12 +66,21 @@ public interface UpdateableSegmentMetadata extends SegmentMetadata {
     void markMerged();
 
     /**
-     * Sets/Updates the attributes for this StreamSegment to the exact values provided.
+     * Sets/Updates the attributes for this StreamSegment to the exact values provided. Dynamic Attributes with a value
+     * of SegmentMetadata.NULL_ATTRIBUTE_VALUE are kept in memory (and excluded from getAttributes()) until unloaded.
      *
      * @param attributeValues The values to set/update.
      */
     void updateAttributes(Map<UUID, Long> attributeValues);
 
+    /**
+     * Removes the given Attributes from memory. This should only be used for dynamic Attributes whose values have already
+     * been persisted to the StreamSegment's AttributeIndex.
+     *
+     * @param attributeIds The Ids of the Attributes to unload.
+     */
+    void unloadAttributes(Collection<UUID> attributeIds);
+
     /**
      * Sets the Last Modified date.
      *
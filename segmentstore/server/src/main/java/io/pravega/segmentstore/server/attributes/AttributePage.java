@@ -0,0 +1,295 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.attributes;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.util.BitConverter;
+import io.pravega.segmentstore.server.DataCorruptionException;
+import io.pravega.segmentstore.server.SegmentMetadata;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import lombok.Data;
+
+/**
+ * A page in a SegmentAttributeIndex. There are two types of pages:
+ * <ul>
+ * <li> Leaf Pages map Attribute Ids to Attribute Values.
+ * <li> Index Pages map Attribute Ids to pointers to other pages (PagePointers). Each entry's key is the smallest Attribute
+ * Id that may be found in the page it points to.
+ * </ul>
+ * In both cases, entries are sorted by key. Pages are immutable once created; any change to a page results in a new page.
+ * <p>
+ * Serialization format: Header (1 byte: page type; 4 bytes: entry count), followed by entries. Each Leaf entry is made of
+ * the Attribute Id (16 bytes) and Value (8 bytes), while each Index entry is made of the key (16 bytes), the page offset
+ * (8 bytes) and the page length (4 bytes).
+ */
+final class AttributePage {
+    //region Members
+
+    private static final byte LEAF_PAGE = 0;
+    private static final byte INDEX_PAGE = 1;
+    private static final int HEADER_LENGTH = Byte.BYTES + Integer.BYTES;
+    private static final int KEY_LENGTH = 2 * Long.BYTES;
+    private static final int LEAF_ENTRY_LENGTH = KEY_LENGTH + Long.BYTES;
+    private static final int INDEX_ENTRY_LENGTH = KEY_LENGTH + Long.BYTES + Integer.BYTES;
+
+    private final boolean indexPage;
+    private final UUID[] keys;
+    private final long[] values;
+    private final int[] lengths;
+
+    //endregion
+
+    //region Constructor
+
+    private AttributePage(boolean indexPage, UUID[] keys, long[] values, int[] lengths) {
+        this.indexPage = indexPage;
+        this.keys = keys;
+        this.values = values;
+        this.lengths = lengths;
+    }
+
+    /**
+     * Creates a new Leaf Page with the given entries.
+     *
+     * @param entries A List of Attribute Id-Value pairs, sorted by Attribute Id.
+     * @return A new AttributePage.
+     */
+    static AttributePage leaf(List<Map.Entry<UUID, Long>> entries) {
+        UUID[] keys = new UUID[entries.size()];
+        long[] values = new long[entries.size()];
+        for (int i = 0; i < keys.length; i++) {
+            Map.Entry<UUID, Long> e = entries.get(i);
+            keys[i] = e.getKey();
+            values[i] = e.getValue();
+            Preconditions.checkArgument(i == 0 || keys[i - 1].compareTo(keys[i]) < 0, "entries must be sorted by key.");
+        }
+
+        return new AttributePage(false, keys, values, null);
+    }
+
+    /**
+     * Creates a new Index Page with the given child page pointers.
+     *
+     * @param children A non-empty List of PagePointers, sorted by key.
+     * @return A new AttributePage.
+     */
+    static AttributePage index(List<PagePointer> children) {
+        Preconditions.checkArgument(children.size() > 0, "An Index Page must have at least one child.");
+        UUID[] keys = new UUID[children.size()];
+        long[] offsets = new long[children.size()];
+        int[] lengths = new int[children.size()];
+        for (int i = 0; i < keys.length; i++) {
+            PagePointer p = children.get(i);
+            keys[i] = p.getKey();
+            offsets[i] = p.getOffset();
+            lengths[i] = p.getLength();
+            Preconditions.checkArgument(i == 0 || keys[i - 1].compareTo(keys[i]) < 0, "children must be sorted by key.");
+        }
+
+        return new AttributePage(true, keys, offsets, lengths);
+    }
+
+    //endregion
+
+    //region Properties
+
+    /**
+     * Gets a value indicating whether this is an Index Page (true) or a Leaf Page (false).
+     */
+    boolean isIndexPage() {
+        return this.indexPage;
+    }
+
+    /**
+     * Gets the number of entries in this page.
+     */
+    int getCount() {
+        return this.keys.length;
+    }
+
+    /**
+     * Gets the key at the given position.
+     *
+     * @param position The position.
+     * @return The key.
+     */
+    UUID getKey(int position) {
+        return this.keys[position];
+    }
+
+    /**
+     * Gets the smallest key in this page, or null if the page is empty.
+     */
+    UUID getFirstKey() {
+        return this.keys.length == 0 ? null : this.keys[0];
+    }
+
+    /**
+     * Gets the value of the given Attribute Id. Only valid for Leaf Pages.
+     *
+     * @param attributeId The Attribute Id to look up.
+     * @return The value, or SegmentMetadata.NULL_ATTRIBUTE_VALUE if this page does not contain it.
+     */
+    long getValue(UUID attributeId) {
+        Preconditions.checkState(!this.indexPage, "Cannot look up values in an Index Page.");
+        int pos = Arrays.binarySearch(this.keys, attributeId);
+        return pos >= 0 ? this.values[pos] : SegmentMetadata.NULL_ATTRIBUTE_VALUE;
+    }
+
+    /**
+     * Invokes the given consumer for every Attribute Id-Value pair in this page, in order. Only valid for Leaf Pages.
+     *
+     * @param consumer The consumer to invoke.
+     */
+    void forEach(BiConsumer<UUID, Long> consumer) {
+        Preconditions.checkState(!this.indexPage, "Cannot enumerate values in an Index Page.");
+        for (int i = 0; i < this.keys.length; i++) {
+            consumer.accept(this.keys[i], this.values[i]);
+        }
+    }
+
+    /**
+     * Gets the position of the child page that may contain the given key. Only valid for Index Pages.
+     *
+     * @param key The key to look up.
+     * @return The position of the child page.
+     */
+    int getChildPosition(UUID key) {
+        Preconditions.checkState(this.indexPage, "Cannot look up child pages in a Leaf Page.");
+        int pos = Arrays.binarySearch(this.keys, key);
+        if (pos < 0) {
+            // Not an exact match: we need the entry right before the insertion point. Keys that are smaller than our
+            // first key still belong to the first child.
+            pos = Math.max(0, -pos - 2);
+        }
+
+        return pos;
+    }
+
+    /**
+     * Gets a PagePointer to the child page at the given position. Only valid for Index Pages.
+     *
+     * @param position The position.
+     * @return The PagePointer.
+     */
+    PagePointer getChild(int position) {
+        Preconditions.checkState(this.indexPage, "Cannot get child pages from a Leaf Page.");
+        return new PagePointer(this.keys[position], this.values[position], this.lengths[position]);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s, Count = %d", this.indexPage ? "Index" : "Leaf", this.keys.length);
+    }
+
+    //endregion
+
+    //region Serialization
+
+    /**
+     * Gets the number of bytes required to serialize this page.
+     */
+    int getSerializationLength() {
+        return HEADER_LENGTH + this.keys.length * (this.indexPage ? INDEX_ENTRY_LENGTH : LEAF_ENTRY_LENGTH);
+    }
+
+    /**
+     * Serializes this page into the given array.
+     *
+     * @param target The array to serialize into.
+     * @param offset The offset within the array to serialize at. There must be at least getSerializationLength() bytes
+     *               available in the array starting at this offset.
+     */
+    void serialize(byte[] target, int offset) {
+        target[offset++] = this.indexPage ? INDEX_PAGE : LEAF_PAGE;
+        offset += BitConverter.writeInt(target, offset, this.keys.length);
+        for (int i = 0; i < this.keys.length; i++) {
+            offset += BitConverter.writeLong(target, offset, this.keys[i].getMostSignificantBits());
+            offset += BitConverter.writeLong(target, offset, this.keys[i].getLeastSignificantBits());
+            offset += BitConverter.writeLong(target, offset, this.values[i]);
+            if (this.indexPage) {
+                offset += BitConverter.writeInt(target, offset, this.lengths[i]);
+            }
+        }
+    }
+
+    /**
+     * Deserializes an AttributePage from the given array.
+     *
+     * @param source The array to deserialize from.
+     * @param offset The offset within the array where the serialization begins.
+     * @param length The length of the serialization.
+     * @return The deserialized AttributePage.
+     * @throws DataCorruptionException If the given array does not contain a valid serialization.
+     */
+    static AttributePage deserialize(byte[] source, int offset, int length) throws DataCorruptionException {
+        if (length < HEADER_LENGTH) {
+            throw new DataCorruptionException(String.format("Attribute Page length (%d) is less than the minimum length (%d).", length, HEADER_LENGTH));
+        }
+
+        byte type = source[offset];
+        if (type != LEAF_PAGE && type != INDEX_PAGE) {
+            throw new DataCorruptionException(String.format("Unknown Attribute Page type (%d).", type));
+        }
+
+        boolean indexPage = type == INDEX_PAGE;
+        int count = BitConverter.readInt(source, offset + 1);
+        int expectedLength = HEADER_LENGTH + count * (indexPage ? INDEX_ENTRY_LENGTH : LEAF_ENTRY_LENGTH);
+        if (count < 0 || expectedLength != length) {
+            throw new DataCorruptionException(String.format("Attribute Page length mismatch. Expected %d, actual %d.", expectedLength, length));
+        }
+
+        UUID[] keys = new UUID[count];
+        long[] values = new long[count];
+        int[] lengths = indexPage ? new int[count] : null;
+        int pos = offset + HEADER_LENGTH;
+        for (int i = 0; i < count; i++) {
+            keys[i] = new UUID(BitConverter.readLong(source, pos), BitConverter.readLong(source, pos + Long.BYTES));
+            pos += KEY_LENGTH;
+            values[i] = BitConverter.readLong(source, pos);
+            pos += Long.BYTES;
+            if (indexPage) {
+                lengths[i] = BitConverter.readInt(source, pos);
+                pos += Integer.BYTES;
+            }
+        }
+
+        return new AttributePage(indexPage, keys, values, lengths);
+    }
+
+    //endregion
+
+    //region PagePointer
+
+    /**
+     * Points to an AttributePage in Storage.
+     */
+    @Data
+    static class PagePointer {
+        /**
+         * The smallest key that may be found in the page (or any of its descendants).
+         */
+        private final UUID key;
+        /**
+         * The offset in the Attribute Segment where the page begins.
+         */
+        private final long offset;
+        /**
+         * The serialization length of the page.
+         */
+        private final int length;
+    }
+
+    //endregion
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.attributes;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.Exceptions;
+import io.pravega.segmentstore.server.AttributeIndex;
+import io.pravega.segmentstore.storage.Storage;
+import io.pravega.shared.segment.StreamSegmentNameUtils;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * AttributeIndex implementation for a Segment Container. Each Segment's Attributes are stored in a separate B+Tree
+ * (see SegmentAttributeIndex), which is persisted in an auxiliary Segment in Storage. All the indices share a single,
+ * bounded PageCache.
+ */
+@Slf4j
+@ThreadSafe
+public class ContainerAttributeIndex implements AttributeIndex {
+    //region Members
+
+    private final int maxPageEntryCount;
+    private final int minCompactionLength;
+    private final PageCache cache;
+    private final Storage storage;
+    private final Executor executor;
+    private final AtomicLong nextIndexId;
+    @GuardedBy("indices")
+    private final HashMap<String, SegmentAttributeIndex> indices;
+    private final AtomicBoolean closed;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the ContainerAttributeIndex class.
+     *
+     * @param maxPageEntryCount   The maximum number of entries in each page of the index.
+     * @param maxCachedPageCount  The maximum number of pages (across all Segments) to keep in memory.
+     * @param minCompactionLength The minimum number of obsolete bytes in an index before it is compacted.
+     * @param storage             The Storage to persist the indices in.
+     * @param executor            An Executor for async operations.
+     */
+    public ContainerAttributeIndex(int maxPageEntryCount, int maxCachedPageCount, int minCompactionLength, Storage storage, Executor executor) {
+        Preconditions.checkArgument(maxPageEntryCount > 1, "maxPageEntryCount must be at least 2.");
+        Preconditions.checkArgument(minCompactionLength > 0, "minCompactionLength must be a positive number.");
+        this.maxPageEntryCount = maxPageEntryCount;
+        this.minCompactionLength = minCompactionLength;
+        this.cache = new PageCache(maxCachedPageCount);
+        this.storage = Preconditions.checkNotNull(storage, "storage");
+        this.executor = Preconditions.checkNotNull(executor, "executor");
+        this.nextIndexId = new AtomicLong();
+        this.indices = new HashMap<>();
+        this.closed = new AtomicBoolean();
+    }
+
+    //endregion
+
+    //region AutoCloseable Implementation
+
+    @Override
+    public void close() {
+        if (!this.closed.getAndSet(true)) {
+            synchronized (this.indices) {
+                this.indices.clear();
+            }
+        }
+    }
+
+    //endregion
+
+    //region AttributeIndex Implementation
+
+    @Override
+    public CompletableFuture<Map<UUID, Long>> get(String segmentName, Collection<UUID> attributeIds, Duration timeout) {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        Preconditions.checkNotNull(attributeIds, "attributeIds");
+        return getIndex(segmentName).get(attributeIds, timeout);
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String segmentName, Map<UUID, Long> values, Duration timeout) {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        Preconditions.checkNotNull(values, "values");
+        return getIndex(segmentName).put(values, timeout);
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String segmentName, Duration timeout) {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        SegmentAttributeIndex index = getIndex(segmentName);
+        return index.delete(timeout)
+                    .thenRun(() -> {
+                        synchronized (this.indices) {
+                            this.indices.remove(segmentName, index);
+                        }
+                    });
+    }
+
+    @Override
+    public void cleanup(Collection<String> segmentNames) {
+        int count = 0;
+        synchronized (this.indices) {
+            for (String segmentName : segmentNames) {
+                if (this.indices.remove(segmentName) != null) {
+                    count++;
+                }
+            }
+        }
+
+        // Any cached pages for these indices will be evicted from the PageCache in due time.
+        log.debug("AttributeIndex: Cleaned up {} Segment Attribute Index(es).", count);
+    }
+
+    //endregion
+
+    //region Helpers
+
+    private SegmentAttributeIndex getIndex(String segmentName) {
+        Preconditions.checkNotNull(segmentName, "segmentName");
+        synchronized (this.indices) {
+            return this.indices.computeIfAbsent(segmentName,
+                    name -> new SegmentAttributeIndex(this.nextIndexId.getAndIncrement(), StreamSegmentNameUtils.getAttributeSegmentName(name),
+                            this.maxPageEntryCount, this.minCompactionLength, this.cache, this.storage, this.executor));
+        }
+    }
+
+    //endregion
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.attributes;
+
+import com.google.common.base.Preconditions;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import lombok.Data;
+
+/**
+ * A bounded, Least-Recently-Used cache of AttributePages, shared by all the SegmentAttributeIndices in a Container.
+ * Since AttributePages are immutable once written to Storage, cached pages never need to be invalidated; they are simply
+ * evicted when they are no longer used.
+ */
+@ThreadSafe
+class PageCache {
+    //region Members
+
+    private final int maxPageCount;
+    @GuardedBy("this")
+    private final LinkedHashMap<PageKey, AttributePage> pages;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the PageCache class.
+     *
+     * @param maxPageCount The maximum number of pages to keep in the cache.
+     */
+    PageCache(int maxPageCount) {
+        Preconditions.checkArgument(maxPageCount > 0, "maxPageCount must be a positive integer.");
+        this.maxPageCount = maxPageCount;
+        this.pages = new LinkedHashMap<PageKey, AttributePage>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PageKey, AttributePage> eldest) {
+                return size() > PageCache.this.maxPageCount;
+            }
+        };
+    }
+
+    //endregion
+
+    //region Operations
+
+    /**
+     * Gets the page with the given offset from the given SegmentAttributeIndex.
+     *
+     * @param indexId The internal Id of the SegmentAttributeIndex.
+     * @param offset  The offset of the page.
+     * @return The page, or null if not cached.
+     */
+    synchronized AttributePage get(long indexId, long offset) {
+        return this.pages.get(new PageKey(indexId, offset));
+    }
+
+    /**
+     * Adds the given page to the cache.
+     *
+     * @param indexId The internal Id of the SegmentAttributeIndex.
+     * @param offset  The offset of the page.
+     * @param page    The page to add.
+     */
+    synchronized void put(long indexId, long offset, AttributePage page) {
+        this.pages.put(new PageKey(indexId, offset), page);
+    }
+
+    /**
+     * Removes all the pages belonging to the given SegmentAttributeIndex from the cache. This must be invoked whenever
+     * an Attribute Segment is deleted, since its offsets may be reused afterwards.
+     *
+     * @param indexId The internal Id of the SegmentAttributeIndex.
+     */
+    synchronized void removeAll(long indexId) {
+        this.pages.keySet().removeIf(key -> key.getIndexId() == indexId);
+    }
+
+    /**
+     * Gets the number of pages currently in the cache.
+     */
+    synchronized int size() {
+        return this.pages.size();
+    }
+
+    //endregion
+
+    @Data
+    private static class PageKey {
+        private final long indexId;
+        private final long offset;
+    }
+}
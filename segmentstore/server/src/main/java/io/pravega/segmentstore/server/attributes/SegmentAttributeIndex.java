@@ -0,0 +1,767 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.attributes;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import io.pravega.common.Exceptions;
+import io.pravega.common.TimeoutTimer;
+import io.pravega.common.concurrent.Futures;
+import io.pravega.common.util.BitConverter;
+import io.pravega.segmentstore.contracts.StreamSegmentExistsException;
+import io.pravega.segmentstore.contracts.StreamSegmentNotExistsException;
+import io.pravega.segmentstore.contracts.StreamSegmentTruncatedException;
+import io.pravega.segmentstore.server.DataCorruptionException;
+import io.pravega.segmentstore.server.SegmentMetadata;
+import io.pravega.segmentstore.storage.SegmentHandle;
+import io.pravega.segmentstore.storage.SegmentRollingPolicy;
+import io.pravega.segmentstore.storage.Storage;
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A B+Tree of Attributes for a single Segment, persisted in an auxiliary Segment (the Attribute Segment) in Storage.
+ * <p>
+ * The tree is append-only (copy-on-write): every update writes out new versions of all the pages it touches (and of
+ * their ancestors, up to the root), followed by a Footer which points to the new root. As such, the last Footer in the
+ * Attribute Segment always describes the latest version of the tree and pages, once written, never change. This allows
+ * reads to proceed concurrently with updates (they operate on whatever version of the tree was current when they began)
+ * and pages to be cached without any invalidation logic.
+ * <p>
+ * Updates are serialized (one at a time) and each update is written to Storage using a single write.
+ * <p>
+ * Since every update leaves the previous versions of the pages it touched behind, the Footer also records how many bytes
+ * in the Attribute Segment belong to the current version of the tree (the Live Length) and where the current generation
+ * of the tree begins (the Base Offset). Once the obsolete bytes exceed both the Live Length and the configured minimum
+ * compaction length, the entire tree is rewritten at the end of the Attribute Segment and everything before it is
+ * truncated away.
+ */
+@Slf4j
+@ThreadSafe
+class SegmentAttributeIndex {
+    //region Members
+
+    /**
+     * The Footer is made up of the Root Page Offset (8 bytes), the Root Page Length (4 bytes), the Base Offset (8 bytes)
+     * and the Live Length (8 bytes).
+     */
+    @VisibleForTesting
+    static final int FOOTER_LENGTH = 3 * Long.BYTES + Integer.BYTES;
+
+    private final long indexId;
+    private final String attributeSegmentName;
+    private final int maxPageEntryCount;
+    private final int minCompactionLength;
+    private final PageCache cache;
+    private final Storage storage;
+    private final Executor executor;
+    private final String traceObjectId;
+    @GuardedBy("this")
+    private CompletableFuture<IndexState> state;
+    @GuardedBy("this")
+    private CompletableFuture<Void> lastUpdate;
+    @GuardedBy("this")
+    private CompletableFuture<SegmentHandle> readHandle;
+    @GuardedBy("this")
+    private SegmentHandle writeHandle;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the SegmentAttributeIndex class.
+     *
+     * @param indexId              An internal Id for this index, unique within the Container. Used to key cached pages.
+     * @param attributeSegmentName The name of the Attribute Segment to store the index in.
+     * @param maxPageEntryCount    The maximum number of entries in a page.
+     * @param minCompactionLength  The minimum number of obsolete bytes in the Attribute Segment before it is compacted.
+     * @param cache                The PageCache to use.
+     * @param storage              The Storage to use.
+     * @param executor             An Executor for async operations.
+     */
+    SegmentAttributeIndex(long indexId, String attributeSegmentName, int maxPageEntryCount, int minCompactionLength, PageCache cache,
+                          Storage storage, Executor executor) {
+        Preconditions.checkArgument(maxPageEntryCount > 1, "maxPageEntryCount must be at least 2.");
+        Preconditions.checkArgument(minCompactionLength > 0, "minCompactionLength must be a positive number.");
+        this.indexId = indexId;
+        this.attributeSegmentName = Preconditions.checkNotNull(attributeSegmentName, "attributeSegmentName");
+        this.maxPageEntryCount = maxPageEntryCount;
+        this.minCompactionLength = minCompactionLength;
+        this.cache = Preconditions.checkNotNull(cache, "cache");
+        this.storage = Preconditions.checkNotNull(storage, "storage");
+        this.executor = Preconditions.checkNotNull(executor, "executor");
+        this.traceObjectId = String.format("AttributeIndex[%s]", attributeSegmentName);
+        this.lastUpdate = CompletableFuture.completedFuture(null);
+    }
+
+    //endregion
+
+    //region Operations
+
+    /**
+     * Looks up the values of the given Attributes.
+     *
+     * @param attributeIds A Collection of Attribute Ids to look up.
+     * @param timeout      Timeout for the operation.
+     * @return A CompletableFuture that, when completed, will contain a Map of Attribute Ids to values for those Attributes
+     * that exist in the index.
+     */
+    CompletableFuture<Map<UUID, Long>> get(Collection<UUID> attributeIds, Duration timeout) {
+        TimeoutTimer timer = new TimeoutTimer(timeout);
+        List<UUID> keys = attributeIds.stream().distinct().sorted().collect(Collectors.toList());
+        return retryIfTruncated(() -> getState(timer.getRemaining())
+                .thenComposeAsync(state -> {
+                    Map<UUID, Long> result = new ConcurrentHashMap<>();
+                    if (state.getRoot() == null || keys.isEmpty()) {
+                        return CompletableFuture.completedFuture(result);
+                    }
+
+                    return find(state.getRoot(), keys, result, timer).thenApply(v -> result);
+                }, this.executor));
+    }
+
+    /**
+     * Applies the given updates to the index. Attributes with a value of SegmentMetadata.NULL_ATTRIBUTE_VALUE are removed.
+     *
+     * @param values  A Map of Attribute Ids to values.
+     * @param timeout Timeout for the operation.
+     * @return A CompletableFuture that, when completed, will indicate that the updates have been persisted to Storage.
+     */
+    CompletableFuture<Void> put(Map<UUID, Long> values, Duration timeout) {
+        if (values.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        TimeoutTimer timer = new TimeoutTimer(timeout);
+        TreeMap<UUID, Long> updates = new TreeMap<>(values);
+        return runSequentially(() -> update(updates, timer));
+    }
+
+    /**
+     * Deletes the Attribute Segment (and thus all the Attributes in this index).
+     *
+     * @param timeout Timeout for the operation.
+     * @return A CompletableFuture that, when completed, will indicate that the operation completed.
+     */
+    CompletableFuture<Void> delete(Duration timeout) {
+        return runSequentially(() -> this.storage
+                .openWrite(this.attributeSegmentName)
+                .thenComposeAsync(handle -> this.storage.delete(handle, timeout), this.executor)
+                .exceptionally(ex -> {
+                    ex = Exceptions.unwrap(ex);
+                    if (ex instanceof StreamSegmentNotExistsException) {
+                        // Nothing to delete.
+                        return null;
+                    }
+
+                    throw new CompletionException(ex);
+                })
+                .thenRun(() -> {
+                    this.cache.removeAll(this.indexId);
+                    synchronized (this) {
+                        this.state = CompletableFuture.completedFuture(IndexState.EMPTY);
+                        this.readHandle = null;
+                        this.writeHandle = null;
+                    }
+
+                    log.debug("{}: Deleted.", this.traceObjectId);
+                }));
+    }
+
+    @Override
+    public String toString() {
+        return this.traceObjectId;
+    }
+
+    //endregion
+
+    //region Reading
+
+    /**
+     * Looks up the given keys in the subtree rooted at the given page.
+     *
+     * @param pointer A PagePointer to the root of the subtree.
+     * @param keys    A sorted List of keys to look up.
+     * @param result  A Map to collect the results into.
+     * @param timer   Timer for the operation.
+     */
+    private CompletableFuture<Void> find(AttributePage.PagePointer pointer, List<UUID> keys, Map<UUID, Long> result, TimeoutTimer timer) {
+        return getPage(pointer, timer.getRemaining())
+                .thenCompose(page -> {
+                    if (!page.isIndexPage()) {
+                        for (UUID key : keys) {
+                            long value = page.getValue(key);
+                            if (value != SegmentMetadata.NULL_ATTRIBUTE_VALUE) {
+                                result.put(key, value);
+                            }
+                        }
+
+                        return CompletableFuture.completedFuture(null);
+                    }
+
+                    // Group the keys by the child page they belong to, then search all the child pages in parallel.
+                    List<CompletableFuture<Void>> childSearches = new ArrayList<>();
+                    int start = 0;
+                    while (start < keys.size()) {
+                        int childPosition = page.getChildPosition(keys.get(start));
+                        int end = start + 1;
+                        while (end < keys.size() && page.getChildPosition(keys.get(end)) == childPosition) {
+                            end++;
+                        }
+
+                        childSearches.add(find(page.getChild(childPosition), keys.subList(start, end), result, timer));
+                        start = end;
+                    }
+
+                    return Futures.allOf(childSearches);
+                });
+    }
+
+    /**
+     * Collects all the entries in the subtree rooted at the given page.
+     *
+     * @param pointer A PagePointer to the root of the subtree.
+     * @param result  A Map to collect the results into.
+     * @param timer   Timer for the operation.
+     */
+    private CompletableFuture<Void> collect(AttributePage.PagePointer pointer, Map<UUID, Long> result, TimeoutTimer timer) {
+        return getPage(pointer, timer.getRemaining())
+                .thenCompose(page -> {
+                    if (!page.isIndexPage()) {
+                        page.forEach(result::put);
+                        return CompletableFuture.completedFuture(null);
+                    }
+
+                    List<CompletableFuture<Void>> childScans = new ArrayList<>();
+                    for (int i = 0; i < page.getCount(); i++) {
+                        childScans.add(collect(page.getChild(i), result, timer));
+                    }
+
+                    return Futures.allOf(childScans);
+                });
+    }
+
+    /**
+     * Executes the given read, and executes it once more if it failed because the Attribute Segment was truncated by a
+     * concurrent compaction (in which case the second attempt will use the compacted tree).
+     */
+    private <T> CompletableFuture<T> retryIfTruncated(Supplier<CompletableFuture<T>> read) {
+        return read.get()
+                   .handle((r, ex) -> {
+                       if (ex == null) {
+                           return CompletableFuture.completedFuture(r);
+                       } else if (Exceptions.unwrap(ex) instanceof StreamSegmentTruncatedException) {
+                           log.debug("{}: Read failed due to a concurrent compaction; retrying.", this.traceObjectId);
+                           return read.get();
+                       } else {
+                           return Futures.<T>failedFuture(Exceptions.unwrap(ex));
+                       }
+                   })
+                   .thenCompose(f -> f);
+    }
+
+    /**
+     * Gets the page pointed to by the given PagePointer, either from the PageCache or from Storage.
+     */
+    private CompletableFuture<AttributePage> getPage(AttributePage.PagePointer pointer, Duration timeout) {
+        AttributePage page = this.cache.get(this.indexId, pointer.getOffset());
+        if (page != null) {
+            return CompletableFuture.completedFuture(page);
+        }
+
+        byte[] contents = new byte[pointer.getLength()];
+        return read(pointer.getOffset(), contents, timeout)
+                .thenApply(v -> {
+                    AttributePage result;
+                    try {
+                        result = AttributePage.deserialize(contents, 0, contents.length);
+                    } catch (DataCorruptionException ex) {
+                        throw new CompletionException(ex);
+                    }
+
+                    this.cache.put(this.indexId, pointer.getOffset(), result);
+                    return result;
+                });
+    }
+
+    /**
+     * Gets the current state of the index, loading it from Storage if necessary.
+     */
+    private CompletableFuture<IndexState> getState(Duration timeout) {
+        synchronized (this) {
+            if (this.state == null || this.state.isCompletedExceptionally()) {
+                this.state = loadState(timeout);
+            }
+
+            return this.state;
+        }
+    }
+
+    private CompletableFuture<IndexState> loadState(Duration timeout) {
+        TimeoutTimer timer = new TimeoutTimer(timeout);
+        return this.storage
+                .getStreamSegmentInfo(this.attributeSegmentName, timer.getRemaining())
+                .thenComposeAsync(si -> {
+                    long length = si.getLength();
+                    if (length == 0) {
+                        // Empty Attribute Segments are treated the same as if they didn't exist.
+                        return CompletableFuture.completedFuture(IndexState.EMPTY);
+                    } else if (length < FOOTER_LENGTH) {
+                        throw new CompletionException(new DataCorruptionException(String.format(
+                                "%s: Attribute Segment length (%d) is smaller than the Footer length.", this.traceObjectId, length)));
+                    }
+
+                    byte[] footer = new byte[FOOTER_LENGTH];
+                    return read(length - FOOTER_LENGTH, footer, timer.getRemaining())
+                            .thenApply(v -> {
+                                long rootOffset = BitConverter.readLong(footer, 0);
+                                int rootLength = BitConverter.readInt(footer, Long.BYTES);
+                                long baseOffset = BitConverter.readLong(footer, Long.BYTES + Integer.BYTES);
+                                long liveLength = BitConverter.readLong(footer, 2 * Long.BYTES + Integer.BYTES);
+                                if (rootOffset < 0 || rootLength <= 0 || rootOffset + rootLength > length - FOOTER_LENGTH
+                                        || baseOffset < 0 || baseOffset > rootOffset || liveLength < rootLength
+                                        || baseOffset + liveLength > length - FOOTER_LENGTH) {
+                                    throw new CompletionException(new DataCorruptionException(String.format(
+                                            "%s: Invalid Footer (RootOffset = %d, RootLength = %d, BaseOffset = %d, LiveLength = %d, SegmentLength = %d).",
+                                            this.traceObjectId, rootOffset, rootLength, baseOffset, liveLength, length)));
+                                }
+
+                                return new IndexState(length, new AttributePage.PagePointer(null, rootOffset, rootLength), baseOffset, liveLength);
+                            });
+                }, this.executor)
+                .exceptionally(ex -> {
+                    ex = Exceptions.unwrap(ex);
+                    if (ex instanceof StreamSegmentNotExistsException) {
+                        // Nothing was ever written to this index.
+                        return IndexState.EMPTY;
+                    }
+
+                    throw new CompletionException(ex);
+                });
+    }
+
+    /**
+     * Reads exactly buffer.length bytes from the Attribute Segment, starting at the given offset.
+     */
+    private CompletableFuture<Void> read(long offset, byte[] buffer, Duration timeout) {
+        AtomicInteger bytesRead = new AtomicInteger();
+        return getReadHandle()
+                .thenCompose(handle -> Futures.loop(
+                        () -> bytesRead.get() < buffer.length,
+                        () -> this.storage.read(handle, offset + bytesRead.get(), buffer, bytesRead.get(), buffer.length - bytesRead.get(), timeout),
+                        count -> {
+                            if (count <= 0) {
+                                throw new CompletionException(new DataCorruptionException(String.format(
+                                        "%s: Unable to read %d bytes at offset %d.", this.traceObjectId, buffer.length, offset)));
+                            }
+
+                            bytesRead.addAndGet(count);
+                        },
+                        this.executor));
+    }
+
+    private CompletableFuture<SegmentHandle> getReadHandle() {
+        synchronized (this) {
+            if (this.readHandle == null || this.readHandle.isCompletedExceptionally()) {
+                this.readHandle = this.storage.openRead(this.attributeSegmentName);
+            }
+
+            return this.readHandle;
+        }
+    }
+
+    //endregion
+
+    //region Updating
+
+    /**
+     * Executes the given task after all previously initiated updates have completed (successfully or not).
+     */
+    private CompletableFuture<Void> runSequentially(Supplier<CompletableFuture<Void>> task) {
+        CompletableFuture<Void> result;
+        synchronized (this) {
+            result = this.lastUpdate
+                    .handle((r, ex) -> (Void) null)
+                    .thenCompose(v -> task.get());
+            this.lastUpdate = result;
+        }
+
+        return result;
+    }
+
+    private CompletableFuture<Void> update(NavigableMap<UUID, Long> updates, TimeoutTimer timer) {
+        return getState(timer.getRemaining())
+                .thenComposeAsync(state -> {
+                    // Load all the pages that we need to modify, then apply the updates to them in memory and write all the
+                    // modified pages (and the new root) to the Attribute Segment.
+                    Map<Long, AttributePage> pages = new ConcurrentHashMap<>();
+                    return loadPages(state.getRoot(), updates, pages, timer)
+                            .thenComposeAsync(v -> writeUpdates(state, updates, pages, timer), this.executor)
+                            .thenComposeAsync(v -> compactIfNeeded(timer), this.executor);
+                }, this.executor)
+                .whenComplete((r, ex) -> {
+                    if (ex != null) {
+                        // We do not know what made it to Storage. Force a reload of the state upon the next access.
+                        log.warn("{}: Update failed; resetting state.", this.traceObjectId, ex);
+                        synchronized (this) {
+                            this.state = null;
+                            this.writeHandle = null;
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Loads all the pages (in the subtree rooted at the given page) which will need to be modified in order to apply the
+     * given updates.
+     */
+    private CompletableFuture<Void> loadPages(AttributePage.PagePointer pointer, NavigableMap<UUID, Long> updates,
+                                              Map<Long, AttributePage> pages, TimeoutTimer timer) {
+        if (pointer == null) {
+            // Empty tree.
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return getPage(pointer, timer.getRemaining())
+                .thenCompose(page -> {
+                    pages.put(pointer.getOffset(), page);
+                    if (!page.isIndexPage()) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+
+                    List<CompletableFuture<Void>> childLoads = new ArrayList<>();
+                    for (int i = 0; i < page.getCount(); i++) {
+                        NavigableMap<UUID, Long> childUpdates = getChildUpdates(page, i, updates);
+                        if (!childUpdates.isEmpty()) {
+                            childLoads.add(loadPages(page.getChild(i), childUpdates, pages, timer));
+                        }
+                    }
+
+                    return Futures.allOf(childLoads);
+                });
+    }
+
+    private CompletableFuture<Void> writeUpdates(IndexState state, NavigableMap<UUID, Long> updates, Map<Long, AttributePage> pages, TimeoutTimer timer) {
+        PageWriter writer = new PageWriter(state.getLength());
+        List<AttributePage.PagePointer> top = applyUpdates(state.getRoot(), updates, pages, writer);
+        while (top.size() > 1) {
+            // The root was split; add a new level to the tree.
+            top = writer.writeIndexPages(top);
+        }
+
+        AttributePage.PagePointer newRoot = top.isEmpty()
+                ? writer.write(AttributePage.leaf(Collections.emptyList()))
+                : top.get(0);
+
+        // If the root is an Index Page with a single child, then that child can be the root. This keeps the tree from
+        // growing taller than necessary when Attributes are removed.
+        // Index Pages skipped over this way are still written out, but they are not part of the tree.
+        long skippedLength = 0;
+        AttributePage rootPage = writer.getPage(newRoot.getOffset());
+        while (rootPage != null && rootPage.isIndexPage() && rootPage.getCount() == 1) {
+            skippedLength += rootPage.getSerializationLength();
+            newRoot = rootPage.getChild(0);
+            rootPage = writer.getPage(newRoot.getOffset());
+            if (rootPage == null) {
+                rootPage = pages.get(newRoot.getOffset());
+            }
+        }
+
+        // Every page we loaded has been replaced by a new version of it (or removed altogether).
+        long replacedLength = pages.values().stream().mapToLong(AttributePage::getSerializationLength).sum();
+        long liveLength = state.getLiveLength() - replacedLength + writer.getLength() - skippedLength;
+        byte[] contents = writer.serialize(newRoot, state.getBaseOffset(), liveLength);
+        IndexState newState = new IndexState(state.getLength() + contents.length, newRoot, state.getBaseOffset(), liveLength);
+        return getWriteHandle(state, timer.getRemaining())
+                .thenComposeAsync(handle -> this.storage.write(handle, state.getLength(), new ByteArrayInputStream(contents),
+                        contents.length, timer.getRemaining()), this.executor)
+                .thenRun(() -> {
+                    // The pages we just wrote are likely to be needed again soon; cache them.
+                    writer.pages.forEach((offset, page) -> this.cache.put(this.indexId, offset, page));
+                    synchronized (this) {
+                        this.state = CompletableFuture.completedFuture(newState);
+                    }
+
+                    log.debug("{}: Updated {} Attribute(s); wrote {} page(s) ({} bytes).", this.traceObjectId, updates.size(),
+                            writer.pages.size(), contents.length);
+                });
+    }
+
+    /**
+     * Rewrites the entire tree at the end of the Attribute Segment (and truncates away everything before it) if the
+     * Attribute Segment contains enough obsolete data.
+     */
+    private CompletableFuture<Void> compactIfNeeded(TimeoutTimer timer) {
+        IndexState state;
+        synchronized (this) {
+            // This is always completed after a successful update.
+            state = this.state.join();
+        }
+
+        if (state.getRoot() == null || state.getObsoleteLength() < Math.max(this.minCompactionLength, state.getLiveLength())) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Map<UUID, Long> entries = new ConcurrentHashMap<>();
+        return collect(state.getRoot(), entries, timer)
+                .thenComposeAsync(v -> {
+                    PageWriter writer = new PageWriter(state.getLength());
+                    List<AttributePage.PagePointer> top = writer.writeLeafPages(new ArrayList<>(new TreeMap<>(entries).entrySet()));
+                    while (top.size() > 1) {
+                        top = writer.writeIndexPages(top);
+                    }
+
+                    AttributePage.PagePointer root = top.isEmpty() ? writer.write(AttributePage.leaf(Collections.emptyList())) : top.get(0);
+                    byte[] contents = writer.serialize(root, state.getLength(), writer.getLength());
+                    IndexState newState = new IndexState(state.getLength() + contents.length, root, state.getLength(), writer.getLength());
+                    return getWriteHandle(state, timer.getRemaining())
+                            .thenComposeAsync(handle -> this.storage
+                                    .write(handle, state.getLength(), new ByteArrayInputStream(contents), contents.length, timer.getRemaining())
+                                    .thenRun(() -> {
+                                        synchronized (this) {
+                                            this.state = CompletableFuture.completedFuture(newState);
+                                        }
+
+                                        log.info("{}: Compacted {} Attribute(s). Length = {}, ObsoleteLength = {}, BaseOffset = {}.",
+                                                this.traceObjectId, entries.size(), state.getLength(), state.getObsoleteLength(),
+                                                newState.getBaseOffset());
+                                    })
+                                    .thenCompose(v2 -> this.storage.supportsTruncation()
+                                            ? this.storage.truncate(handle, newState.getBaseOffset(), timer.getRemaining())
+                                            : CompletableFuture.completedFuture(null)), this.executor);
+                }, this.executor);
+    }
+
+    /**
+     * Applies the given updates to the subtree rooted at the given page and writes out the modified pages.
+     *
+     * @return A List of PagePointers which should replace the given page in its parent. This may be empty (if the page
+     * no longer has any entries), have one element (the new version of the page) or more than one element (if the page
+     * had to be split).
+     */
+    private List<AttributePage.PagePointer> applyUpdates(AttributePage.PagePointer pointer, NavigableMap<UUID, Long> updates,
+                                                         Map<Long, AttributePage> pages, PageWriter writer) {
+        AttributePage page = pointer == null ? null : pages.get(pointer.getOffset());
+        assert pointer == null || page != null : "page not loaded " + pointer;
+        if (page == null || !page.isIndexPage()) {
+            TreeMap<UUID, Long> entries = new TreeMap<>();
+            if (page != null) {
+                page.forEach(entries::put);
+            }
+
+            updates.forEach((key, value) -> {
+                if (value == SegmentMetadata.NULL_ATTRIBUTE_VALUE) {
+                    entries.remove(key);
+                } else {
+                    entries.put(key, value);
+                }
+            });
+
+            return writer.writeLeafPages(new ArrayList<>(entries.entrySet()));
+        }
+
+        List<AttributePage.PagePointer> children = new ArrayList<>();
+        for (int i = 0; i < page.getCount(); i++) {
+            NavigableMap<UUID, Long> childUpdates = getChildUpdates(page, i, updates);
+            if (childUpdates.isEmpty()) {
+                children.add(page.getChild(i));
+            } else {
+                children.addAll(applyUpdates(page.getChild(i), childUpdates, pages, writer));
+            }
+        }
+
+        return children.isEmpty() ? children : writer.writeIndexPages(children);
+    }
+
+    /**
+     * Gets the subset of the given updates that apply to the child page at the given position in the given Index Page.
+     */
+    private NavigableMap<UUID, Long> getChildUpdates(AttributePage indexPage, int position, NavigableMap<UUID, Long> updates) {
+        boolean first = position == 0;
+        boolean last = position == indexPage.getCount() - 1;
+        if (first && last) {
+            return updates;
+        } else if (first) {
+            return updates.headMap(indexPage.getKey(position + 1), false);
+        } else if (last) {
+            return updates.tailMap(indexPage.getKey(position), true);
+        } else {
+            return updates.subMap(indexPage.getKey(position), true, indexPage.getKey(position + 1), false);
+        }
+    }
+
+    private CompletableFuture<SegmentHandle> getWriteHandle(IndexState state, Duration timeout) {
+        synchronized (this) {
+            if (this.writeHandle != null) {
+                return CompletableFuture.completedFuture(this.writeHandle);
+            }
+        }
+
+        CompletableFuture<Void> createSegment;
+        if (state.getLength() == 0) {
+            // The Attribute Segment may not exist yet.
+            // Roll over the Attribute Segment so that truncating it after a compaction actually frees up space.
+            createSegment = this.storage
+                    .create(this.attributeSegmentName, new SegmentRollingPolicy(this.minCompactionLength), timeout)
+                    .handle((si, ex) -> {
+                        if (ex != null && !(Exceptions.unwrap(ex) instanceof StreamSegmentExistsException)) {
+                            throw new CompletionException(Exceptions.unwrap(ex));
+                        }
+
+                        return null;
+                    });
+        } else {
+            createSegment = CompletableFuture.completedFuture(null);
+        }
+
+        return createSegment
+                .thenComposeAsync(v -> this.storage.openWrite(this.attributeSegmentName), this.executor)
+                .thenApply(handle -> {
+                    synchronized (this) {
+                        this.writeHandle = handle;
+                    }
+
+                    return handle;
+                });
+    }
+
+    //endregion
+
+    //region Helper Classes
+
+    /**
+     * Describes the latest version of the index.
+     */
+    @Data
+    private static class IndexState {
+        static final IndexState EMPTY = new IndexState(0, null, 0, 0);
+
+        /**
+         * The length of the Attribute Segment.
+         */
+        private final long length;
+        /**
+         * A pointer to the root page, or null if the index is empty.
+         */
+        private final AttributePage.PagePointer root;
+        /**
+         * The offset at which the current generation of the tree begins. Nothing before it is referenced anymore.
+         */
+        private final long baseOffset;
+        /**
+         * The total length of all the pages in the current version of the tree.
+         */
+        private final long liveLength;
+
+        /**
+         * Gets the number of bytes after the Base Offset which are no longer referenced by the current version of the tree.
+         */
+        long getObsoleteLength() {
+            return this.length - this.baseOffset - this.liveLength;
+        }
+    }
+
+    /**
+     * Assigns Attribute Segment offsets to new pages and serializes them (along with a Footer) for a single update.
+     */
+    private class PageWriter {
+        private final LinkedHashMap<Long, AttributePage> pages;
+        private final long startOffset;
+        private long nextOffset;
+
+        PageWriter(long startOffset) {
+            this.pages = new LinkedHashMap<>();
+            this.startOffset = startOffset;
+            this.nextOffset = startOffset;
+        }
+
+        AttributePage.PagePointer write(AttributePage page) {
+            long offset = this.nextOffset;
+            int length = page.getSerializationLength();
+            this.pages.put(offset, page);
+            this.nextOffset += length;
+            return new AttributePage.PagePointer(page.getFirstKey(), offset, length);
+        }
+
+        AttributePage getPage(long offset) {
+            return this.pages.get(offset);
+        }
+
+        long getLength() {
+            return this.nextOffset - this.startOffset;
+        }
+
+        List<AttributePage.PagePointer> writeLeafPages(List<Map.Entry<UUID, Long>> entries) {
+            List<AttributePage.PagePointer> result = new ArrayList<>();
+            forEachPage(entries.size(), (from, to) -> result.add(write(AttributePage.leaf(entries.subList(from, to)))));
+            return result;
+        }
+
+        List<AttributePage.PagePointer> writeIndexPages(List<AttributePage.PagePointer> children) {
+            List<AttributePage.PagePointer> result = new ArrayList<>();
+            forEachPage(children.size(), (from, to) -> result.add(write(AttributePage.index(children.subList(from, to)))));
+            return result;
+        }
+
+        /**
+         * Splits the given number of entries into as few pages as possible, with entries evenly distributed among them.
+         */
+        private void forEachPage(int entryCount, BiConsumer<Integer, Integer> pageRange) {
+            if (entryCount == 0) {
+                return;
+            }
+
+            int pageCount = (entryCount + maxPageEntryCount - 1) / maxPageEntryCount;
+            int entriesPerPage = (entryCount + pageCount - 1) / pageCount;
+            for (int from = 0; from < entryCount; from += entriesPerPage) {
+                pageRange.accept(from, Math.min(entryCount, from + entriesPerPage));
+            }
+        }
+
+        byte[] serialize(AttributePage.PagePointer root, long baseOffset, long liveLength) {
+            byte[] result = new byte[(int) getLength() + FOOTER_LENGTH];
+            int offset = 0;
+            for (AttributePage page : this.pages.values()) {
+                page.serialize(result, offset);
+                offset += page.getSerializationLength();
+            }
+
+            offset += BitConverter.writeLong(result, offset, root.getOffset());
+            offset += BitConverter.writeInt(result, offset, root.getLength());
+            offset += BitConverter.writeLong(result, offset, baseOffset);
+            BitConverter.writeLong(result, offset, liveLength);
+            return result;
+        }
+    }
+
+    //endregion
+}
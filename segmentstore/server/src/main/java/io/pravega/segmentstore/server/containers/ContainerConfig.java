@@ -28,6 +28,11 @@ public class ContainerConfig {
             5 * MINIMUM_SEGMENT_METADATA_EXPIRATION_SECONDS);
     public static final Property<Integer> MAX_ACTIVE_SEGMENT_COUNT = Property.named("maxActiveSegmentCount", 10000);
     public static final Property<Integer> MAX_CONCURRENT_SEGMENT_EVICTION_COUNT = Property.named("maxConcurrentSegmentEvictionCount", 250);
+    public static final Property<Integer> ATTRIBUTE_INDEX_MAX_PAGE_ENTRY_COUNT = Property.named("attributeIndexMaxPageEntryCount", 256);
+    public static final Property<Integer> ATTRIBUTE_INDEX_MAX_CACHED_PAGE_COUNT = Property.named("attributeIndexMaxCachedPageCount", 2048);
+    public static final Property<Integer> ATTRIBUTE_INDEX_MIN_COMPACTION_LENGTH = Property.named("attributeIndexMinCompactionLength", 1024 * 1024);
+    public static final Property<Integer> MAX_CACHED_DYNAMIC_ATTRIBUTE_COUNT = Property.named("maxCachedDynamicAttributeCount", 1024);
+    public static final Property<Integer> METADATA_TABLE_MIN_COMPACTION_LENGTH = Property.named("metadataTableMinCompactionLength", 4 * 1024 * 1024);
     private static final String COMPONENT_CODE = "containers";
 
     /**
@@ -48,6 +53,37 @@ public class ContainerConfig {
     @Getter
     private int maxConcurrentSegmentEvictionCount;
 
+    /**
+     * The maximum number of entries in each page of a Segment Attribute Index.
+     */
+    @Getter
+    private int attributeIndexMaxPageEntryCount;
+
+    /**
+     * The maximum number of Attribute Index pages to keep in memory (across all Segments in the container).
+     */
+    @Getter
+    private int attributeIndexMaxCachedPageCount;
+
+    /**
+     * The minimum number of obsolete bytes that need to accumulate in a Segment Attribute Index before it is compacted.
+     */
+    @Getter
+    private int attributeIndexMinCompactionLength;
+
+    /**
+     * The maximum number of dynamic Attributes (including pending removals) that a Segment can hold in its metadata
+     * before they are flushed to the Attribute Index and unloaded.
+     */
+    @Getter
+    private int maxCachedDynamicAttributeCount;
+
+    /**
+     * The minimum number of bytes that need to be appended to the Container Metadata Table before it is compacted.
+     */
+    @Getter
+    private int metadataTableMinCompactionLength;
+
     //endregion
 
     //region Constructor
@@ -74,6 +110,31 @@ public class ContainerConfig {
         if (this.maxConcurrentSegmentEvictionCount <= 0) {
             throw new ConfigurationException(String.format("Property '%s' must be a positive integer.", MAX_CONCURRENT_SEGMENT_EVICTION_COUNT));
         }
+
+        this.attributeIndexMaxPageEntryCount = properties.getInt(ATTRIBUTE_INDEX_MAX_PAGE_ENTRY_COUNT);
+        if (this.attributeIndexMaxPageEntryCount <= 1) {
+            throw new ConfigurationException(String.format("Property '%s' must be at least 2.", ATTRIBUTE_INDEX_MAX_PAGE_ENTRY_COUNT));
+        }
+
+        this.attributeIndexMaxCachedPageCount = properties.getInt(ATTRIBUTE_INDEX_MAX_CACHED_PAGE_COUNT);
+        if (this.attributeIndexMaxCachedPageCount <= 0) {
+            throw new ConfigurationException(String.format("Property '%s' must be a positive integer.", ATTRIBUTE_INDEX_MAX_CACHED_PAGE_COUNT));
+        }
+
+        this.attributeIndexMinCompactionLength = properties.getInt(ATTRIBUTE_INDEX_MIN_COMPACTION_LENGTH);
+        if (this.attributeIndexMinCompactionLength <= 0) {
+            throw new ConfigurationException(String.format("Property '%s' must be a positive integer.", ATTRIBUTE_INDEX_MIN_COMPACTION_LENGTH));
+        }
+
+        this.maxCachedDynamicAttributeCount = properties.getInt(MAX_CACHED_DYNAMIC_ATTRIBUTE_COUNT);
+        if (this.maxCachedDynamicAttributeCount <= 0) {
+            throw new ConfigurationException(String.format("Property '%s' must be a positive integer.", MAX_CACHED_DYNAMIC_ATTRIBUTE_COUNT));
+        }
+
+        this.metadataTableMinCompactionLength = properties.getInt(METADATA_TABLE_MIN_COMPACTION_LENGTH);
+        if (this.metadataTableMinCompactionLength <= 0) {
+            throw new ConfigurationException(String.format("Property '%s' must be a positive integer.", METADATA_TABLE_MIN_COMPACTION_LENGTH));
+        }
     }
 
     /**
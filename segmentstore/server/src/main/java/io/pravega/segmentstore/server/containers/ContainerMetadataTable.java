@@ -0,0 +1,840 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.containers;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import io.pravega.common.Exceptions;
+import io.pravega.common.ObjectBuilder;
+import io.pravega.common.TimeoutTimer;
+import io.pravega.common.concurrent.Futures;
+import io.pravega.common.io.serialization.RevisionDataInput;
+import io.pravega.common.io.serialization.RevisionDataOutput;
+import io.pravega.common.io.serialization.VersionedSerializer;
+import io.pravega.common.util.ArrayView;
+import io.pravega.common.util.AsyncMap;
+import io.pravega.segmentstore.contracts.SegmentProperties;
+import io.pravega.segmentstore.contracts.StreamSegmentNotExistsException;
+import io.pravega.segmentstore.server.DataCorruptionException;
+import io.pravega.segmentstore.storage.SegmentHandle;
+import io.pravega.segmentstore.storage.SegmentRollingPolicy;
+import io.pravega.segmentstore.storage.Storage;
+import io.pravega.shared.segment.StreamSegmentNameUtils;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+/**
+ * Stores and Retrieves the SegmentState of all the Segments in a Segment Container, using a single, log-structured table
+ * which is persisted in Storage.
+ * <p>
+ * The table is loaded in memory upon first access and all lookups are served from there. Updates are batched: all the
+ * updates that are received while a previous batch is being written are coalesced into a single record, which is then
+ * appended to the table using a single Storage write. Once the amount of data appended since the last compaction exceeds
+ * both the size of the last Snapshot and the configured minimum compaction length, the entire table is written out as a
+ * new Snapshot, sorted by Segment Name.
+ * <p>
+ * Updates are written directly to Storage (and not through the Container's DurableLog); put() and remove() only complete
+ * once the change has been durably persisted. The table is only updated when a Segment is created, evicted from the
+ * Container Metadata, merged or deleted; the state of all active Segments is already recovered from the DurableLog, so
+ * the table does not need to take part in the DurableLog's recovery.
+ * <p>
+ * The table is made up of two Segments in Storage, which are used alternatively. Every Snapshot is written at the
+ * beginning of the Segment that is not currently in use (after deleting it), after which all subsequent updates are
+ * appended to it. Upon loading, the Segment whose first record is a (complete) Snapshot with the highest Generation is
+ * used. This ensures that a failure while compacting does not lose any data.
+ * <p>
+ * If a fallback store is provided, any Segment State that cannot be found in the table is looked up there, and then
+ * moved into the table (this is used to migrate from the per-Segment "$state" Segments).
+ * <p>
+ * An instance that is never updated directly can be used as a read-only view of a table that is being updated elsewhere;
+ * refresh() brings it up to date with what is in Storage.
+ * <p>
+ * Expected concurrency behavior:
+ * <ul>
+ * <li> Concurrent calls to any method with different Keys (SegmentName) will work without issue.
+ * <li> Concurrent calls to put() and/or remove() with the same key will be applied in the order in which they were received.
+ * </ul>
+ */
+@Slf4j
+@ThreadSafe
+class ContainerMetadataTable implements AsyncMap<String, SegmentState> {
+    //region Members
+
+    private static final TableRecord.Serializer SERIALIZER = new TableRecord.Serializer();
+    private static final int NO_FILE = -1;
+    private final String[] fileNames;
+    private final int minCompactionLength;
+    private final AsyncMap<String, SegmentState> fallbackStore;
+    private final Storage storage;
+    private final Executor executor;
+    private final String traceObjectId;
+    @GuardedBy("this")
+    private final HashMap<String, SegmentState> entries;
+    @GuardedBy("this")
+    private final ArrayList<PendingUpdate> pendingUpdates;
+    @GuardedBy("this")
+    private final long[] fileLengths;
+    @GuardedBy("this")
+    private CompletableFuture<Void> loadFuture;
+    @GuardedBy("this")
+    private boolean flushInProgress;
+    @GuardedBy("this")
+    private int activeFile;
+    @GuardedBy("this")
+    private long activeFileLength;
+    @GuardedBy("this")
+    private long snapshotLength;
+    @GuardedBy("this")
+    private long generation;
+    @GuardedBy("this")
+    private boolean compactionRequired;
+    @GuardedBy("this")
+    private SegmentHandle writeHandle;
+    @GuardedBy("this")
+    private CompletableFuture<Void> refreshFuture;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the ContainerMetadataTable class.
+     *
+     * @param containerId         The Id of the Segment Container this table belongs to.
+     * @param minCompactionLength The minimum number of bytes that need to be appended to the table before compacting it.
+     * @param fallbackStore       (Optional) An AsyncMap to look up Segment States in if not found in the table.
+     * @param storage             The Storage to use.
+     * @param executor            The Executor to use for asynchronous operations.
+     */
+    ContainerMetadataTable(int containerId, int minCompactionLength, AsyncMap<String, SegmentState> fallbackStore, Storage storage, Executor executor) {
+        Preconditions.checkArgument(minCompactionLength > 0, "minCompactionLength must be a positive number.");
+        String baseName = StreamSegmentNameUtils.getContainerMetadataSegmentName(containerId);
+        this.fileNames = new String[]{baseName + ".0", baseName + ".1"};
+        this.minCompactionLength = minCompactionLength;
+        this.fallbackStore = fallbackStore;
+        this.storage = Preconditions.checkNotNull(storage, "storage");
+        this.executor = Preconditions.checkNotNull(executor, "executor");
+        this.traceObjectId = String.format("MetadataTable[%d]", containerId);
+        this.entries = new HashMap<>();
+        this.pendingUpdates = new ArrayList<>();
+        this.activeFile = NO_FILE;
+        this.fileLengths = new long[this.fileNames.length];
+        Arrays.fill(this.fileLengths, NO_FILE);
+    }
+
+    //endregion
+
+    //region AsyncMap Implementation
+
+    @Override
+    public CompletableFuture<SegmentState> get(String segmentName, Duration timeout) {
+        TimeoutTimer timer = new TimeoutTimer(timeout);
+        return ensureLoaded(timer.getRemaining())
+                .thenComposeAsync(v -> {
+                    SegmentState result;
+                    synchronized (this) {
+                        result = this.entries.get(segmentName);
+                    }
+
+                    if (result != null || this.fallbackStore == null) {
+                        return CompletableFuture.completedFuture(result);
+                    } else {
+                        return getFromFallback(segmentName, timer.getRemaining());
+                    }
+                }, this.executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String segmentName, SegmentState state, Duration timeout) {
+        Preconditions.checkNotNull(state, "state");
+        return update(segmentName, state, false, timeout);
+    }
+
+    @Override
+    public CompletableFuture<Void> remove(String segmentName, Duration timeout) {
+        TimeoutTimer timer = new TimeoutTimer(timeout);
+        return ensureLoaded(timer.getRemaining())
+                .thenComposeAsync(v -> {
+                    // States are removed from the fallback store once migrated into the table, and new ones are never put
+                    // there, so we only need to clean up the fallback store if the table does not know about this Segment.
+                    boolean inTable;
+                    synchronized (this) {
+                        inTable = this.entries.containsKey(segmentName);
+                    }
+
+                    CompletableFuture<Void> result = update(segmentName, null, false, timer.getRemaining());
+                    if (!inTable && this.fallbackStore != null) {
+                        // Make sure the Segment State does not come back from the fallback store.
+                        result = result.thenComposeAsync(v2 -> this.fallbackStore.remove(segmentName, timer.getRemaining()), this.executor);
+                    }
+
+                    return result;
+                }, this.executor);
+    }
+
+    //endregion
+
+    //region Loading
+
+    /**
+     * Loads the contents of the table from Storage, if not already loaded.
+     */
+    private CompletableFuture<Void> ensureLoaded(Duration timeout) {
+        CompletableFuture<Void> result;
+        boolean load = false;
+        synchronized (this) {
+            if (this.loadFuture == null || this.loadFuture.isCompletedExceptionally()) {
+                // Not loaded yet or a previous attempt failed. Try again.
+                this.loadFuture = new CompletableFuture<>();
+                load = true;
+            }
+
+            result = this.loadFuture;
+        }
+
+        if (load) {
+            TimeoutTimer timer = new TimeoutTimer(timeout);
+            val files = new ArrayList<CompletableFuture<LoadedFile>>();
+            long[] lengths = new long[this.fileNames.length];
+            Arrays.fill(lengths, NO_FILE);
+            for (int i = 0; i < this.fileNames.length; i++) {
+                files.add(loadFile(i, lengths, timer));
+            }
+
+            Futures.allOfWithResults(files)
+                   .thenAccept(loadedFiles -> initialize(loadedFiles, lengths))
+                   .whenComplete((r, ex) -> {
+                       if (ex != null) {
+                           log.warn("{}: Unable to load.", this.traceObjectId, ex);
+                           result.completeExceptionally(ex);
+                       } else {
+                           result.complete(null);
+                       }
+                   });
+        }
+
+        return result;
+    }
+
+    /**
+     * Initializes the in-memory state of the table using the most recent valid file.
+     */
+    private void initialize(List<LoadedFile> files, long[] lengths) {
+        LoadedFile active = null;
+        for (LoadedFile f : files) {
+            if (f != null && (active == null || f.getGeneration() > active.getGeneration())) {
+                active = f;
+            }
+        }
+
+        synchronized (this) {
+            this.entries.clear();
+            if (active == null) {
+                this.activeFile = NO_FILE;
+                this.activeFileLength = 0;
+                this.snapshotLength = 0;
+                this.generation = 0;
+                this.compactionRequired = false;
+            } else {
+                this.entries.putAll(active.getEntries());
+                this.activeFile = active.getIndex();
+                this.activeFileLength = active.getLength();
+                this.snapshotLength = active.getSnapshotLength();
+                this.generation = active.getGeneration();
+                this.compactionRequired = active.getValidLength() < active.getLength();
+            }
+
+            this.writeHandle = null;
+            System.arraycopy(lengths, 0, this.fileLengths, 0, lengths.length);
+            log.info("{}: Loaded. File = {}, Length = {}, Generation = {}, Entries = {}.",
+                    this.traceObjectId, this.activeFile, this.activeFileLength, this.generation, this.entries.size());
+        }
+    }
+
+    /**
+     * Reads and parses the contents of the given file.
+     *
+     * @param index   The index of the file to load.
+     * @param lengths An array in which the length of the file will be recorded (if it exists).
+     * @param timer   Timer for the operation.
+     * @return A CompletableFuture that, when completed, will contain the contents of the file, or null if the file does
+     * not exist or does not begin with a valid Snapshot.
+     */
+    private CompletableFuture<LoadedFile> loadFile(int index, long[] lengths, TimeoutTimer timer) {
+        String fileName = this.fileNames[index];
+        return this.storage
+                .getStreamSegmentInfo(fileName, timer.getRemaining())
+                .thenComposeAsync(si -> {
+                    lengths[index] = si.getLength();
+                    byte[] contents = new byte[(int) si.getLength()];
+                    if (contents.length == 0) {
+                        return CompletableFuture.completedFuture(contents);
+                    }
+
+                    return this.storage
+                            .openRead(fileName)
+                            .thenComposeAsync(handle -> readFully(handle, 0, contents, timer), this.executor)
+                            .thenApply(v -> contents);
+                }, this.executor)
+                .thenApply(contents -> parse(index, contents))
+                .exceptionally(this::handleSegmentNotExistsException);
+    }
+
+    private CompletableFuture<Void> readFully(SegmentHandle handle, long fileOffset, byte[] contents, TimeoutTimer timer) {
+        int[] offset = new int[1];
+        return Futures.loop(
+                () -> offset[0] < contents.length,
+                () -> this.storage.read(handle, fileOffset + offset[0], contents, offset[0], contents.length - offset[0], timer.getRemaining())
+                                  .thenAccept(bytesRead -> {
+                                      if (bytesRead <= 0) {
+                                          throw new CompletionException(new DataCorruptionException(String.format(
+                                                  "Unable to read the contents of Metadata Table file '%s'.", handle.getSegmentName())));
+                                      }
+
+                                      offset[0] += bytesRead;
+                                  }),
+                this.executor);
+    }
+
+    /**
+     * Replays all the records in the given file contents.
+     */
+    private LoadedFile parse(int index, byte[] contents) {
+        val input = new ByteArrayInputStream(contents);
+        LoadedFile result = null;
+        while (input.available() > 0) {
+            int recordOffset = contents.length - input.available();
+            TableRecord record;
+            try {
+                record = SERIALIZER.deserialize(input);
+            } catch (IOException ex) {
+                if (result == null) {
+                    // Failed to read the first Snapshot. This file cannot be used.
+                    log.warn("{}: Ignoring file '{}' as it does not begin with a valid Snapshot.", this.traceObjectId, this.fileNames[index], ex);
+                } else {
+                    // Incomplete (or corrupted) tail. Everything before it is valid, but we cannot append after it.
+                    log.warn("{}: Unable to read record at offset {} in file '{}'. Ignoring everything after it.",
+                            this.traceObjectId, recordOffset, this.fileNames[index], ex);
+                }
+
+                break;
+            }
+
+            if (result == null) {
+                if (!record.isSnapshot()) {
+                    log.warn("{}: Ignoring file '{}' as it does not begin with a Snapshot.", this.traceObjectId, this.fileNames[index]);
+                    break;
+                }
+
+                result = new LoadedFile(index, record.getGeneration(), contents.length);
+                result.setSnapshotLength(contents.length - input.available());
+            } else if (record.isSnapshot() || record.getGeneration() != result.getGeneration()) {
+                throw new CompletionException(new DataCorruptionException(String.format(
+                        "Unexpected record at offset %d in Metadata Table file '%s'.", recordOffset, this.fileNames[index])));
+            }
+
+            applyEntries(record.getEntries(), result.getEntries());
+            result.setValidLength(contents.length - input.available());
+        }
+
+        return result;
+    }
+
+    //endregion
+
+    //region Refreshing
+
+    /**
+     * Brings the contents of the table up to date with what is in Storage. Only meant for instances that are used as
+     * read-only views of a table that is being updated elsewhere; it must not be used on an instance that is updated
+     * directly.
+     * <p>
+     * If the only change is that records were appended to the active file, only those records are read and applied.
+     * If anything else changed (i.e., the table has been compacted since it was loaded), the whole table is reloaded.
+     * Concurrent calls are coalesced into a single refresh.
+     *
+     * @param timeout Timeout for the operation.
+     * @return A CompletableFuture that, when completed, will indicate that the table has been refreshed.
+     */
+    CompletableFuture<Void> refresh(Duration timeout) {
+        CompletableFuture<Void> result;
+        synchronized (this) {
+            if (this.refreshFuture != null) {
+                return this.refreshFuture;
+            }
+
+            this.refreshFuture = new CompletableFuture<>();
+            result = this.refreshFuture;
+        }
+
+        TimeoutTimer timer = new TimeoutTimer(timeout);
+        ensureLoaded(timer.getRemaining())
+                .thenCompose(v -> getFileLengths(timer))
+                .thenCompose(lengths -> refresh(lengths, timer))
+                .whenComplete((r, ex) -> {
+                    synchronized (this) {
+                        this.refreshFuture = null;
+                    }
+
+                    if (ex != null) {
+                        log.warn("{}: Unable to refresh.", this.traceObjectId, ex);
+                        result.completeExceptionally(ex);
+                    } else {
+                        result.complete(null);
+                    }
+                });
+        return result;
+    }
+
+    private CompletableFuture<Void> refresh(long[] lengths, TimeoutTimer timer) {
+        int fileIndex;
+        long offset;
+        boolean appendedOnly;
+        synchronized (this) {
+            if (Arrays.equals(lengths, this.fileLengths)) {
+                // Nothing changed.
+                return CompletableFuture.completedFuture(null);
+            }
+
+            fileIndex = this.activeFile;
+            offset = this.activeFileLength;
+            appendedOnly = fileIndex != NO_FILE && !this.compactionRequired && lengths[fileIndex] > offset;
+            for (int i = 0; i < lengths.length; i++) {
+                appendedOnly &= i == fileIndex || lengths[i] == this.fileLengths[i];
+            }
+        }
+
+        if (!appendedOnly) {
+            return reload(timer);
+        }
+
+        byte[] contents = new byte[(int) (lengths[fileIndex] - offset)];
+        return this.storage
+                .openRead(this.fileNames[fileIndex])
+                .thenComposeAsync(handle -> readFully(handle, offset, contents, timer), this.executor)
+                .thenComposeAsync(v -> applyAppended(fileIndex, contents) ? CompletableFuture.<Void>completedFuture(null) : reload(timer),
+                        this.executor);
+    }
+
+    /**
+     * Applies the records that have been appended to the active file since it was loaded.
+     *
+     * @return True if the records were applied, false if they do not belong to the current Generation (in which case the
+     * table needs to be reloaded).
+     */
+    private boolean applyAppended(int fileIndex, byte[] contents) {
+        val input = new ByteArrayInputStream(contents);
+        val records = new ArrayList<TableRecord>();
+        long generation;
+        synchronized (this) {
+            generation = this.generation;
+        }
+
+        int validLength = 0;
+        while (input.available() > 0) {
+            TableRecord record;
+            try {
+                record = SERIALIZER.deserialize(input);
+            } catch (IOException ex) {
+                // Most likely a record that is still being written. We will pick it up upon the next refresh.
+                log.debug("{}: Unable to read appended record in file '{}'.", this.traceObjectId, this.fileNames[fileIndex], ex);
+                break;
+            }
+
+            if (record.isSnapshot() || record.getGeneration() != generation) {
+                return false;
+            }
+
+            records.add(record);
+            validLength = contents.length - input.available();
+        }
+
+        synchronized (this) {
+            records.forEach(r -> applyEntries(r.getEntries(), this.entries));
+            this.activeFileLength += validLength;
+            this.fileLengths[fileIndex] = this.activeFileLength;
+        }
+
+        return true;
+    }
+
+    private CompletableFuture<Void> reload(TimeoutTimer timer) {
+        synchronized (this) {
+            this.loadFuture = null;
+        }
+
+        return ensureLoaded(timer.getRemaining());
+    }
+
+    private CompletableFuture<long[]> getFileLengths(TimeoutTimer timer) {
+        val lengths = new ArrayList<CompletableFuture<Long>>();
+        for (String fileName : this.fileNames) {
+            lengths.add(this.storage
+                    .getStreamSegmentInfo(fileName, timer.getRemaining())
+                    .thenApply(SegmentProperties::getLength)
+                    .exceptionally(ex -> {
+                        handleSegmentNotExistsException(ex);
+                        return (long) NO_FILE;
+                    }));
+        }
+
+        return Futures.allOfWithResults(lengths).thenApply(l -> l.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    //endregion
+
+    //region Updates
+
+    private CompletableFuture<SegmentState> getFromFallback(String segmentName, Duration timeout) {
+        TimeoutTimer timer = new TimeoutTimer(timeout);
+        return this.fallbackStore
+                .get(segmentName, timer.getRemaining())
+                .thenComposeAsync(state -> {
+                    if (state == null) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+
+                    // Move it into the table, but do not overwrite anything that may have been put in the meantime.
+                    log.debug("{}: Migrating state for '{}'.", this.traceObjectId, segmentName);
+                    return update(segmentName, state, true, timer.getRemaining())
+                            .thenComposeAsync(v -> this.fallbackStore.remove(segmentName, timer.getRemaining()), this.executor)
+                            .thenCompose(v -> get(segmentName, timer.getRemaining()));
+                }, this.executor);
+    }
+
+    /**
+     * Queues the given update and triggers a flush, if needed.
+     *
+     * @param segmentName The name of the Segment to update.
+     * @param state       The new SegmentState, or null if it should be removed.
+     * @param ifAbsent    If true, the update will only be applied if there is no SegmentState for this Segment.
+     * @param timeout     Timeout for the operation.
+     * @return A CompletableFuture that will be completed when the update has been persisted.
+     */
+    private CompletableFuture<Void> update(String segmentName, SegmentState state, boolean ifAbsent, Duration timeout) {
+        Preconditions.checkNotNull(segmentName, "segmentName");
+        TimeoutTimer timer = new TimeoutTimer(timeout);
+        return ensureLoaded(timer.getRemaining())
+                .thenComposeAsync(v -> {
+                    val update = new PendingUpdate(segmentName, state, ifAbsent, timer);
+                    synchronized (this) {
+                        this.pendingUpdates.add(update);
+                    }
+
+                    flush();
+                    return update.getResult();
+                }, this.executor);
+    }
+
+    /**
+     * Writes all pending updates to Storage, as a single record, unless a flush is already in progress (in which case
+     * the pending updates will be picked up once that is done).
+     */
+    private void flush() {
+        List<PendingUpdate> updates;
+        TableRecord record;
+        boolean compact;
+        int targetFile;
+        synchronized (this) {
+            if (this.flushInProgress || this.pendingUpdates.isEmpty()) {
+                return;
+            }
+
+            this.flushInProgress = true;
+            updates = new ArrayList<>(this.pendingUpdates);
+            this.pendingUpdates.clear();
+
+            // Collapse all the updates into a single set of changes.
+            val changes = new LinkedHashMap<String, SegmentState>();
+            for (PendingUpdate u : updates) {
+                if (!u.isIfAbsent()
+                        || (changes.containsKey(u.getSegmentName()) ? changes.get(u.getSegmentName()) : this.entries.get(u.getSegmentName())) == null) {
+                    changes.put(u.getSegmentName(), u.getState());
+                }
+            }
+
+            compact = this.activeFile == NO_FILE
+                    || this.compactionRequired
+                    || this.activeFileLength - this.snapshotLength >= Math.max(this.minCompactionLength, this.snapshotLength);
+            if (compact) {
+                // Snapshot: the entire table (after applying the changes), sorted by Segment Name.
+                val snapshot = new TreeMap<String, SegmentState>(this.entries);
+                changes.forEach((name, state) -> {
+                    if (state == null) {
+                        snapshot.remove(name);
+                    } else {
+                        snapshot.put(name, state);
+                    }
+                });
+                record = new TableRecord(this.generation + 1, true, toTableEntries(snapshot));
+                targetFile = this.activeFile == NO_FILE ? 0 : 1 - this.activeFile;
+            } else {
+                record = new TableRecord(this.generation, false, toTableEntries(changes));
+                targetFile = this.activeFile;
+            }
+        }
+
+        Duration timeout = updates.stream().map(u -> u.getTimer().getRemaining()).max(Duration::compareTo).get();
+        ArrayView data = serialize(record);
+        CompletableFuture<Void> writeFuture = compact ? writeSnapshot(targetFile, data, timeout) : writeUpdate(data, timeout);
+        writeFuture.whenCompleteAsync((r, ex) -> {
+            synchronized (this) {
+                if (ex == null) {
+                    applyEntries(record.getEntries(), this.entries);
+
+                    if (compact) {
+                        log.info("{}: Compacted into file {}. Generation = {}, Length = {}, Entries = {}.",
+                                this.traceObjectId, targetFile, record.getGeneration(), data.getLength(), this.entries.size());
+                    }
+                } else {
+                    // We do not know what made it into Storage; do not append anything else to this file.
+                    log.warn("{}: Unable to write {} update(s).", this.traceObjectId, updates.size(), ex);
+                    this.compactionRequired = true;
+                    this.writeHandle = null;
+                }
+
+                this.flushInProgress = false;
+            }
+
+            updates.forEach(u -> {
+                if (ex == null) {
+                    u.getResult().complete(null);
+                } else {
+                    u.getResult().completeExceptionally(ex);
+                }
+            });
+
+            // Pick up anything that was queued up in the meantime.
+            flush();
+        }, this.executor);
+    }
+
+    private CompletableFuture<Void> writeUpdate(ArrayView data, Duration timeout) {
+        SegmentHandle handle;
+        long offset;
+        String fileName;
+        synchronized (this) {
+            handle = this.writeHandle;
+            offset = this.activeFileLength;
+            fileName = this.fileNames[this.activeFile];
+        }
+
+        CompletableFuture<SegmentHandle> handleFuture = handle == null
+                ? this.storage.openWrite(fileName)
+                : CompletableFuture.completedFuture(handle);
+        return handleFuture
+                .thenComposeAsync(h -> this.storage.write(h, offset, data.getReader(), data.getLength(), timeout)
+                                                   .thenRun(() -> {
+                                                       synchronized (this) {
+                                                           this.writeHandle = h;
+                                                           this.activeFileLength += data.getLength();
+                                                       }
+                                                   }),
+                        this.executor);
+    }
+
+    private CompletableFuture<Void> writeSnapshot(int targetFile, ArrayView data, Duration timeout) {
+        TimeoutTimer timer = new TimeoutTimer(timeout);
+        String fileName = this.fileNames[targetFile];
+
+        // We need to replace the contents of the file. The only way to do that with the Storage API is to delete the
+        // existing file (if any), then create a new one and write the contents to it.
+        return this.storage
+                .openWrite(fileName)
+                .thenComposeAsync(handle -> this.storage.delete(handle, timer.getRemaining()), this.executor)
+                .exceptionally(this::handleSegmentNotExistsException)
+                .thenComposeAsync(v -> this.storage.create(fileName, SegmentRollingPolicy.NO_ROLLING, timer.getRemaining()), this.executor)
+                .thenComposeAsync(v -> this.storage.openWrite(fileName), this.executor)
+                .thenComposeAsync(handle -> this.storage.write(handle, 0, data.getReader(), data.getLength(), timer.getRemaining())
+                                                        .thenRun(() -> {
+                                                            synchronized (this) {
+                                                                this.writeHandle = handle;
+                                                                this.activeFile = targetFile;
+                                                                this.activeFileLength = data.getLength();
+                                                                this.snapshotLength = data.getLength();
+                                                                this.generation++;
+                                                                this.compactionRequired = false;
+                                                            }
+                                                        }),
+                        this.executor);
+    }
+
+    //endregion
+
+    //region Helpers
+
+    /**
+     * Gets a value indicating the generation of the current Snapshot.
+     */
+    @VisibleForTesting
+    synchronized long getGeneration() {
+        return this.generation;
+    }
+
+    private static void applyEntries(Collection<TableEntry> entries, Map<String, SegmentState> target) {
+        for (TableEntry e : entries) {
+            if (e.getState() == null) {
+                target.remove(e.getSegmentName());
+            } else {
+                target.put(e.getSegmentName(), e.getState());
+            }
+        }
+    }
+
+    private List<TableEntry> toTableEntries(Map<String, SegmentState> changes) {
+        return changes.entrySet().stream()
+                      .map(e -> new TableEntry(e.getKey(), e.getValue()))
+                      .collect(Collectors.toList());
+    }
+
+    @SneakyThrows(IOException.class)
+    private ArrayView serialize(TableRecord record) {
+        return SERIALIZER.serialize(record);
+    }
+
+    @SneakyThrows(Throwable.class)
+    private <T> T handleSegmentNotExistsException(Throwable ex) {
+        ex = Exceptions.unwrap(ex);
+        if (ex instanceof StreamSegmentNotExistsException) {
+            // It's ok if the file does not exist.
+            return null;
+        }
+
+        throw ex;
+    }
+
+    //endregion
+
+    //region PendingUpdate
+
+    @Data
+    private static class PendingUpdate {
+        private final String segmentName;
+        private final SegmentState state;
+        private final boolean ifAbsent;
+        private final TimeoutTimer timer;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+    }
+
+    //endregion
+
+    //region LoadedFile
+
+    @Data
+    private static class LoadedFile {
+        private final int index;
+        private final long generation;
+        private final long length;
+        private final HashMap<String, SegmentState> entries = new HashMap<>();
+        private long snapshotLength;
+        private long validLength;
+    }
+
+    //endregion
+
+    //region TableRecord
+
+    /**
+     * A single record in the table. This is either a Snapshot (a full copy of the table) or a set of updates to it.
+     */
+    static class TableRecord {
+        @Getter
+        private final long generation;
+        @Getter
+        private final boolean snapshot;
+        @Getter
+        private final Collection<TableEntry> entries;
+
+        @Builder
+        private TableRecord(long generation, boolean snapshot, Collection<TableEntry> entries) {
+            this.generation = generation;
+            this.snapshot = snapshot;
+            this.entries = entries;
+        }
+
+        static class TableRecordBuilder implements ObjectBuilder<TableRecord> {
+        }
+
+        private static class Serializer extends VersionedSerializer.WithBuilder<TableRecord, TableRecordBuilder> {
+            @Override
+            protected TableRecordBuilder newBuilder() {
+                return TableRecord.builder();
+            }
+
+            @Override
+            protected byte getWriteVersion() {
+                return 0;
+            }
+
+            @Override
+            protected void declareVersions() {
+                version(0).revision(0, this::write00, this::read00);
+            }
+
+            private void write00(TableRecord r, RevisionDataOutput output) throws IOException {
+                output.writeLong(r.generation);
+                output.writeBoolean(r.snapshot);
+                output.writeCollection(r.entries, this::writeEntry);
+            }
+
+            private void read00(RevisionDataInput input, TableRecordBuilder builder) throws IOException {
+                builder.generation(input.readLong());
+                builder.snapshot(input.readBoolean());
+                builder.entries(input.readCollection(this::readEntry));
+            }
+
+            private void writeEntry(RevisionDataOutput output, TableEntry e) throws IOException {
+                output.writeUTF(e.getSegmentName());
+                output.writeBoolean(e.getState() != null);
+                if (e.getState() != null) {
+                    SegmentState.SERIALIZER.serialize(output, e.getState());
+                }
+            }
+
+            private TableEntry readEntry(RevisionDataInput input) throws IOException {
+                String segmentName = input.readUTF();
+                SegmentState state = input.readBoolean() ? SegmentState.SERIALIZER.deserialize(input) : null;
+                return new TableEntry(segmentName, state);
+            }
+        }
+    }
+
+    /**
+     * An entry in a TableRecord. A null state indicates the Segment's state has been removed.
+     */
+    @Data
+    static class TableEntry {
+        private final String segmentName;
+        private final SegmentState state;
+    }
+
+    //endregion
+}
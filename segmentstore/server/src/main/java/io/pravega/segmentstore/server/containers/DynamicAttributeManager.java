@@ -0,0 +1,444 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.containers;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.Exceptions;
+import io.pravega.common.TimeoutTimer;
+import io.pravega.common.concurrent.Futures;
+import io.pravega.segmentstore.contracts.AttributeUpdate;
+import io.pravega.segmentstore.contracts.AttributeUpdateType;
+import io.pravega.segmentstore.contracts.Attributes;
+import io.pravega.segmentstore.contracts.BadAttributeUpdateException;
+import io.pravega.segmentstore.server.AttributeIndex;
+import io.pravega.segmentstore.server.ContainerMetadata;
+import io.pravega.segmentstore.server.OperationLog;
+import io.pravega.segmentstore.server.SegmentMetadata;
+import io.pravega.segmentstore.server.logs.operations.UnloadAttributesOperation;
+import io.pravega.segmentstore.server.logs.operations.UpdateAttributesOperation;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the dynamic Attributes of the Segments in a Container's metadata in sync with their AttributeIndex.
+ * <p>
+ * Dynamic Attributes are updated in the Segment's metadata (via the DurableLog) and are periodically (or whenever a
+ * Segment has too many of them in memory) flushed to the AttributeIndex and then unloaded from the metadata (again, via
+ * the DurableLog, using an UnloadAttributesOperation). Whenever an update depends on the previous value of a dynamic
+ * Attribute that is no longer in memory, the value is loaded from the AttributeIndex back into the metadata (using an
+ * UpdateAttributesOperation) before the update is processed. Values held in memory (including removals) always take
+ * precedence over those in the AttributeIndex.
+ * <p>
+ * Loading and flushing the Attributes of a Segment must not interleave: if an Attribute were to be updated, flushed and
+ * unloaded between the time its value is read from the AttributeIndex and the time it is loaded into memory, a stale
+ * value would be loaded. Similarly, an Attribute must not be unloaded while an update that depends on it is in flight.
+ * As such, updates that depend on previous values of dynamic Attributes run concurrently with each other, but never
+ * concurrently with a flush of the same Segment.
+ */
+@Slf4j
+@ThreadSafe
+class DynamicAttributeManager {
+    //region Members
+
+    private final ContainerMetadata metadata;
+    private final AttributeIndex attributeIndex;
+    private final OperationLog durableLog;
+    private final int maxCachedAttributeCount;
+    private final ScheduledExecutorService executor;
+    private final String traceObjectId;
+    @GuardedBy("gates")
+    private final HashMap<Long, Gate> gates;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the DynamicAttributeManager class.
+     *
+     * @param metadata                The ContainerMetadata to use.
+     * @param attributeIndex          The AttributeIndex to persist dynamic Attributes in.
+     * @param durableLog              The OperationLog to process load and unload operations through.
+     * @param maxCachedAttributeCount The maximum number of Attributes a Segment can hold in memory before they are flushed.
+     * @param executor                An Executor for async operations.
+     * @param traceObjectId           An identifier to use for logging purposes.
+     */
+    DynamicAttributeManager(ContainerMetadata metadata, AttributeIndex attributeIndex, OperationLog durableLog, int maxCachedAttributeCount,
+                            ScheduledExecutorService executor, String traceObjectId) {
+        Preconditions.checkArgument(maxCachedAttributeCount > 0, "maxCachedAttributeCount must be a positive number.");
+        this.metadata = Preconditions.checkNotNull(metadata, "metadata");
+        this.attributeIndex = Preconditions.checkNotNull(attributeIndex, "attributeIndex");
+        this.durableLog = Preconditions.checkNotNull(durableLog, "durableLog");
+        this.maxCachedAttributeCount = maxCachedAttributeCount;
+        this.executor = Preconditions.checkNotNull(executor, "executor");
+        this.traceObjectId = traceObjectId;
+        this.gates = new HashMap<>();
+    }
+
+    //endregion
+
+    //region Reading
+
+    /**
+     * Gets the values of the given Attributes for the given Segment.
+     *
+     * @param segmentMetadata The metadata for the Segment.
+     * @param attributeIds    The Ids of the Attributes to get.
+     * @param timeout         Timeout for the operation.
+     * @return A CompletableFuture that, when completed, will contain a Map of Attribute Ids to values for those Attributes
+     * that have a value.
+     */
+    CompletableFuture<Map<UUID, Long>> get(SegmentMetadata segmentMetadata, Collection<UUID> attributeIds, Duration timeout) {
+        // Always look at the metadata before the AttributeIndex: an Attribute is only unloaded after it was persisted.
+        Map<UUID, Long> inMemory = new HashMap<>(segmentMetadata.getInMemoryAttributes());
+        List<UUID> missing = attributeIds
+                .stream()
+                .filter(id -> Attributes.isDynamic(id) && !inMemory.containsKey(id))
+                .collect(Collectors.toList());
+        CompletableFuture<Map<UUID, Long>> fromIndex = missing.isEmpty() || segmentMetadata.isSealed() || segmentMetadata.isDeleted()
+                ? CompletableFuture.completedFuture(new HashMap<>())
+                : this.attributeIndex.get(segmentMetadata.getName(), missing, timeout);
+        return fromIndex.thenApply(result -> {
+            for (UUID attributeId : attributeIds) {
+                Long value = inMemory.get(attributeId);
+                if (value != null) {
+                    result.put(attributeId, value);
+                }
+            }
+
+            result.values().removeIf(value -> value == SegmentMetadata.NULL_ATTRIBUTE_VALUE);
+            return result;
+        });
+    }
+
+    //endregion
+
+    //region Updating
+
+    /**
+     * Executes the given operation, which applies the given AttributeUpdates to the given Segment. If any of these updates
+     * depend on the previous value of a dynamic Attribute that is not in memory, that value is loaded from the AttributeIndex
+     * first, and it will not be unloaded until the operation completes.
+     *
+     * @param segmentId        The Id of the Segment.
+     * @param attributeUpdates The AttributeUpdates that the operation applies.
+     * @param operation        A Supplier that, when invoked, will initiate the operation.
+     * @param timeout          Timeout for the operation.
+     * @return A CompletableFuture that, when completed, will indicate that the operation completed.
+     */
+    CompletableFuture<Void> process(long segmentId, Collection<AttributeUpdate> attributeUpdates, Supplier<CompletableFuture<Void>> operation,
+                                    Duration timeout) {
+        List<UUID> toLoad = attributeUpdates == null ? null : attributeUpdates
+                .stream()
+                .filter(au -> Attributes.isDynamic(au.getAttributeId()) && au.getUpdateType() != AttributeUpdateType.Replace)
+                .map(AttributeUpdate::getAttributeId)
+                .collect(Collectors.toList());
+        if (toLoad == null || toLoad.isEmpty()) {
+            // Nothing depends on what is (or is not) in memory.
+            return operation.get().thenRun(() -> flushIfNeeded(segmentId, timeout));
+        }
+
+        TimeoutTimer timer = new TimeoutTimer(timeout);
+        return acquireShared(segmentId)
+                .thenCompose(v -> load(segmentId, toLoad, timer)
+                        .thenCompose(v2 -> operation.get())
+                        .whenComplete((r, ex) -> releaseShared(segmentId)))
+                .thenRun(() -> flushIfNeeded(segmentId, timeout));
+    }
+
+    /**
+     * Loads those of the given dynamic Attributes that are not in memory from the AttributeIndex into the given Segment's
+     * metadata. Must be invoked while holding a shared lock on the Segment.
+     */
+    private CompletableFuture<Void> load(long segmentId, Collection<UUID> attributeIds, TimeoutTimer timer) {
+        SegmentMetadata sm = this.metadata.getStreamSegmentMetadata(segmentId);
+        if (sm == null || sm.isSealed() || sm.isDeleted()) {
+            // Nothing to load; whatever operation follows will fail on its own.
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Map<UUID, Long> inMemory = new HashMap<>(sm.getInMemoryAttributes());
+        List<UUID> missing = attributeIds.stream().filter(id -> !inMemory.containsKey(id)).distinct().collect(Collectors.toList());
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return this.attributeIndex
+                .get(sm.getName(), missing, timer.getRemaining())
+                .thenCompose(values -> {
+                    if (values.isEmpty()) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+
+                    // Use AttributeUpdateType.None so that we never overwrite a value that was set in the meantime.
+                    List<AttributeUpdate> updates = values.entrySet().stream()
+                                                          .map(e -> new AttributeUpdate(e.getKey(), AttributeUpdateType.None, e.getValue()))
+                                                          .collect(Collectors.toList());
+                    return this.durableLog
+                            .add(new UpdateAttributesOperation(segmentId, updates), timer.getRemaining())
+                            .handle((r, ex) -> {
+                                if (ex == null) {
+                                    return CompletableFuture.<Void>completedFuture(null);
+                                } else if (Exceptions.unwrap(ex) instanceof BadAttributeUpdateException) {
+                                    // Some of these Attributes have been set by a concurrent operation. Try again; we will
+                                    // only load those that are still missing.
+                                    return load(segmentId, attributeIds, timer);
+                                } else {
+                                    return Futures.<Void>failedFuture(ex);
+                                }
+                            })
+                            .thenCompose(f -> f);
+                });
+    }
+
+    //endregion
+
+    //region Flushing
+
+    /**
+     * Flushes the given Segment's dynamic Attributes to the AttributeIndex if it holds too many of them in memory.
+     */
+    private void flushIfNeeded(long segmentId, Duration timeout) {
+        SegmentMetadata sm = this.metadata.getStreamSegmentMetadata(segmentId);
+        if (sm != null && sm.getInMemoryAttributes().size() > this.maxCachedAttributeCount) {
+            flush(segmentId, timeout);
+        }
+    }
+
+    /**
+     * Flushes the dynamic Attributes of the given Segments to the AttributeIndex and unloads them from memory, processing
+     * at most the given number of Segments at once.
+     *
+     * @param segmentIds     The Ids of the Segments to flush.
+     * @param maxParallelism The maximum number of Segments to flush concurrently.
+     * @param timeout        Timeout for the operation.
+     * @return A CompletableFuture that, when completed, will indicate that the operation completed. This future will not
+     * fail; any errors will be logged.
+     */
+    CompletableFuture<Void> flushAll(Collection<Long> segmentIds, int maxParallelism, Duration timeout) {
+        Queue<Long> toFlush = segmentIds
+                .stream()
+                .filter(id -> {
+                    SegmentMetadata sm = this.metadata.getStreamSegmentMetadata(id);
+                    return sm != null && sm.getInMemoryAttributes().keySet().stream().anyMatch(Attributes::isDynamic);
+                })
+                .collect(Collectors.toCollection(ArrayDeque::new));
+        return Futures.loop(
+                () -> !toFlush.isEmpty(),
+                () -> {
+                    List<CompletableFuture<Void>> batch = new ArrayList<>();
+                    while (!toFlush.isEmpty() && batch.size() < maxParallelism) {
+                        batch.add(flush(toFlush.poll(), timeout));
+                    }
+
+                    return Futures.allOf(batch);
+                },
+                this.executor);
+    }
+
+    /**
+     * Flushes the given Segment's dynamic Attributes to the AttributeIndex and unloads them from memory.
+     *
+     * @return A CompletableFuture that, when completed, will indicate that the operation completed. This future will not
+     * fail; any errors will be logged.
+     */
+    CompletableFuture<Void> flush(long segmentId, Duration timeout) {
+        synchronized (this.gates) {
+            Gate gate = this.gates.get(segmentId);
+            if (gate != null && gate.exclusive != null) {
+                // A flush (or other exclusive task) is already pending for this Segment.
+                return gate.exclusive.handle((r, ex) -> (Void) null);
+            }
+        }
+
+        TimeoutTimer timer = new TimeoutTimer(timeout);
+        return runExclusive(segmentId, () -> {
+            SegmentMetadata sm = this.metadata.getStreamSegmentMetadata(segmentId);
+            if (sm == null || sm.isDeleted() || sm.isMerged()) {
+                // Nothing to do; the AttributeIndex for such Segments is (or is about to be) deleted anyway.
+                return CompletableFuture.completedFuture(null);
+            }
+
+            Map<UUID, Long> toFlush = getDynamicAttributes(sm);
+            if (toFlush.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            return persist(sm, toFlush, timer.getRemaining())
+                    .thenCompose(v -> this.durableLog.add(new UnloadAttributesOperation(segmentId, toFlush), timer.getRemaining()))
+                    .thenRun(() -> log.debug("{}: Flushed and unloaded {} Attribute(s) for Segment {}.", this.traceObjectId,
+                            toFlush.size(), sm.getName()));
+        }).exceptionally(ex -> {
+            log.warn("{}: Unable to flush Attributes for Segment Id {}.", this.traceObjectId, segmentId, Exceptions.unwrap(ex));
+            return null;
+        });
+    }
+
+    /**
+     * Persists all the dynamic Attributes of the given Segment to the AttributeIndex, without unloading them. This is
+     * meant to be used for Segments that are about to be evicted from the metadata.
+     *
+     * @param segmentMetadata The metadata for the Segment.
+     * @param timeout         Timeout for the operation.
+     * @return A CompletableFuture that, when completed, will indicate that the operation completed.
+     */
+    CompletableFuture<Void> persistAll(SegmentMetadata segmentMetadata, Duration timeout) {
+        return runExclusive(segmentMetadata.getId(), () -> persist(segmentMetadata, getDynamicAttributes(segmentMetadata), timeout));
+    }
+
+    /**
+     * Deletes the AttributeIndex for the given Segment, after any ongoing flushes for it have completed.
+     *
+     * @param segmentMetadata The metadata for the Segment.
+     * @param timeout         Timeout for the operation.
+     * @return A CompletableFuture that, when completed, will indicate that the operation completed.
+     */
+    CompletableFuture<Void> delete(SegmentMetadata segmentMetadata, Duration timeout) {
+        return runExclusive(segmentMetadata.getId(), () -> this.attributeIndex.delete(segmentMetadata.getName(), timeout));
+    }
+
+    private CompletableFuture<Void> persist(SegmentMetadata sm, Map<UUID, Long> attributes, Duration timeout) {
+        if (sm.isSealed()) {
+            // Sealed Segments do not have any dynamic Attributes anymore.
+            return this.attributeIndex.delete(sm.getName(), timeout);
+        } else if (attributes.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        } else {
+            // Removed Attributes have a value of NULL_ATTRIBUTE_VALUE; the AttributeIndex will remove them as well.
+            return this.attributeIndex.put(sm.getName(), attributes, timeout);
+        }
+    }
+
+    private Map<UUID, Long> getDynamicAttributes(SegmentMetadata sm) {
+        Map<UUID, Long> result = new HashMap<>(sm.getInMemoryAttributes());
+        result.keySet().removeIf(id -> !Attributes.isDynamic(id));
+        return result;
+    }
+
+    //endregion
+
+    //region Segment Gates
+
+    /**
+     * Acquires a shared lock on the given Segment's in-memory Attributes. Any number of shared locks may be held at once,
+     * but not while an exclusive task is pending or running.
+     */
+    private CompletableFuture<Void> acquireShared(long segmentId) {
+        CompletableFuture<Void> exclusive;
+        synchronized (this.gates) {
+            Gate gate = this.gates.computeIfAbsent(segmentId, id -> new Gate());
+            if (gate.exclusive == null) {
+                gate.sharedCount++;
+                return CompletableFuture.completedFuture(null);
+            }
+
+            exclusive = gate.exclusive;
+        }
+
+        // Wait for the exclusive task to complete and try again.
+        return exclusive.handle((r, ex) -> (Void) null).thenComposeAsync(v -> acquireShared(segmentId), this.executor);
+    }
+
+    private void releaseShared(long segmentId) {
+        CompletableFuture<Void> drained = null;
+        synchronized (this.gates) {
+            Gate gate = this.gates.get(segmentId);
+            assert gate != null && gate.sharedCount > 0 : "releaseShared without acquireShared";
+            gate.sharedCount--;
+            if (gate.sharedCount == 0) {
+                if (gate.drained != null) {
+                    drained = gate.drained;
+                } else if (gate.exclusive == null) {
+                    this.gates.remove(segmentId);
+                }
+            }
+        }
+
+        if (drained != null) {
+            drained.complete(null);
+        }
+    }
+
+    /**
+     * Executes the given task once all shared locks on the given Segment have been released and all previously
+     * submitted exclusive tasks have completed. No shared locks may be acquired until the task completes.
+     */
+    private CompletableFuture<Void> runExclusive(long segmentId, Supplier<CompletableFuture<Void>> task) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        CompletableFuture<Void> start;
+        synchronized (this.gates) {
+            Gate gate = this.gates.computeIfAbsent(segmentId, id -> new Gate());
+            if (gate.exclusive == null) {
+                gate.drained = gate.sharedCount == 0 ? CompletableFuture.completedFuture(null) : new CompletableFuture<>();
+                start = gate.drained;
+            } else {
+                // No shared locks can be acquired while there is a pending exclusive task, so we only need to wait for it.
+                start = gate.exclusive.handle((r, ex) -> (Void) null);
+            }
+
+            gate.exclusive = result;
+        }
+
+        start.thenComposeAsync(v -> task.get(), this.executor)
+             .whenComplete((r, ex) -> {
+                 synchronized (this.gates) {
+                     Gate gate = this.gates.get(segmentId);
+                     if (gate.exclusive == result) {
+                         gate.exclusive = null;
+                         gate.drained = null;
+                         if (gate.sharedCount == 0) {
+                             this.gates.remove(segmentId);
+                         }
+                     }
+                 }
+
+                 if (ex == null) {
+                     result.complete(null);
+                 } else {
+                     result.completeExceptionally(Exceptions.unwrap(ex));
+                 }
+             });
+        return result;
+    }
+
+    /**
+     * Keeps track of the tasks that are accessing a Segment's in-memory Attributes.
+     */
+    private static class Gate {
+        /**
+         * The number of outstanding shared locks.
+         */
+        int sharedCount;
+        /**
+         * The last exclusive task submitted for the Segment, or null if none are pending or running.
+         */
+        CompletableFuture<Void> exclusive;
+        /**
+         * A future that will be completed when the last shared lock is released, if an exclusive task is waiting for that.
+         */
+        CompletableFuture<Void> drained;
+    }
+
+    //endregion
+}
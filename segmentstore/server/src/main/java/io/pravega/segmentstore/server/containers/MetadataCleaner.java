@@ -14,11 +14,17 @@ import io.pravega.common.concurrent.AbstractThreadPoolService;
 import io.pravega.common.concurrent.CancellationToken;
 import io.pravega.common.concurrent.Futures;
 import io.pravega.common.util.AsyncMap;
+import io.pravega.segmentstore.contracts.Attributes;
+import io.pravega.segmentstore.contracts.StreamSegmentInformation;
 import io.pravega.segmentstore.server.EvictableMetadata;
 import io.pravega.segmentstore.server.SegmentMetadata;
 import com.google.common.base.Preconditions;
 import java.time.Duration;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicLong;
@@ -31,7 +37,8 @@ import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 
 /**
- * Utility Service that performs ContainerMetadata cleanup on a periodic basis.
+ * Utility Service that performs ContainerMetadata cleanup on a periodic basis. Each iteration also flushes the dynamic
+ * Attributes of all the Segments that are not being evicted to their AttributeIndex.
  */
 @Slf4j
 @ThreadSafe
@@ -41,6 +48,7 @@ class MetadataCleaner extends AbstractThreadPoolService {
     private final ContainerConfig config;
     private final EvictableMetadata metadata;
     private final AsyncMap<String, SegmentState> stateStore;
+    private final DynamicAttributeManager attributeManager;
     private final Consumer<Collection<SegmentMetadata>> cleanupCallback;
     private final AtomicLong lastIterationSequenceNumber;
     private final CancellationToken stopToken;
@@ -58,21 +66,25 @@ class MetadataCleaner extends AbstractThreadPoolService {
      * @param config          Container Configuration to use.
      * @param metadata        An EvictableMetadata to operate on.
      * @param stateStore      SegmentStateStore to serialize SegmentState in.
+     * @param attributeManager DynamicAttributeManager to persist the Segments' dynamic Attributes with.
      * @param cleanupCallback A callback to invoke every time cleanup happened.
      * @param traceObjectId   An identifier to use for logging purposes. This will be included at the beginning of all
      *                        log calls initiated by this Service.
      * @param executor        The Executor to use for async callbacks and operations.
      */
     MetadataCleaner(ContainerConfig config, EvictableMetadata metadata, AsyncMap<String, SegmentState> stateStore,
-                    Consumer<Collection<SegmentMetadata>> cleanupCallback, ScheduledExecutorService executor, String traceObjectId) {
+                    DynamicAttributeManager attributeManager, Consumer<Collection<SegmentMetadata>> cleanupCallback,
+                    ScheduledExecutorService executor, String traceObjectId) {
         super(traceObjectId, executor);
         Preconditions.checkNotNull(metadata, "metadata");
         Preconditions.checkNotNull(stateStore, "stateStore");
+        Preconditions.checkNotNull(attributeManager, "attributeManager");
         Preconditions.checkNotNull(cleanupCallback, "cleanupCallback");
 
         this.config = config;
         this.metadata = metadata;
         this.stateStore = stateStore;
+        this.attributeManager = attributeManager;
         this.cleanupCallback = cleanupCallback;
         this.lastIterationSequenceNumber = new AtomicLong(metadata.getOperationSequenceNumber());
         this.stopToken = new CancellationToken();
@@ -141,15 +153,22 @@ class MetadataCleaner extends AbstractThreadPoolService {
         // Get candidates.
         Collection<SegmentMetadata> cleanupCandidates = this.metadata.getEvictionCandidates(lastSeqNo, this.config.getMaxConcurrentSegmentEvictionCount());
 
+        // Flush the dynamic Attributes of all the other Segments, so that they do not accumulate in memory.
+        Set<Long> candidateIds = cleanupCandidates.stream().map(SegmentMetadata::getId).collect(Collectors.toSet());
+        val toFlush = this.metadata.getAllStreamSegmentIds().stream().filter(id -> !candidateIds.contains(id)).collect(Collectors.toList());
+        CompletableFuture<Void> flushTask = this.attributeManager.flushAll(toFlush, this.config.getMaxConcurrentSegmentEvictionCount(),
+                this.config.getSegmentMetadataExpiration());
+
         // Serialize only those segments that are still alive (not deleted or merged - those will get removed anyway).
         val cleanupTasks = cleanupCandidates
                 .stream()
                 .filter(sm -> !sm.isDeleted() || !sm.isMerged())
-                .map(sm -> this.stateStore.put(sm.getName(), new SegmentState(sm.getId(), sm), this.config.getSegmentMetadataExpiration()))
+                .map(this::serializeState)
                 .collect(Collectors.toList());
 
         return Futures
                 .allOf(cleanupTasks)
+                .thenCombine(flushTask, (r1, r2) -> null)
                 .thenRunAsync(() -> {
                     Collection<SegmentMetadata> evictedSegments = this.metadata.cleanup(cleanupCandidates, lastSeqNo);
                     this.cleanupCallback.accept(evictedSegments);
@@ -157,6 +176,23 @@ class MetadataCleaner extends AbstractThreadPoolService {
                 }, this.executor);
     }
 
+    /**
+     * Persists the state of the given Segment so that it can be restored when the Segment is re-mapped into the metadata.
+     * Core Attributes are stored in the SegmentState, while dynamic Attributes (which may be arbitrarily many) are stored
+     * in the AttributeIndex.
+     */
+    private CompletableFuture<Void> serializeState(SegmentMetadata sm) {
+        Map<UUID, Long> coreAttributes = new HashMap<>(sm.getAttributes());
+        coreAttributes.keySet().removeIf(Attributes::isDynamic);
+
+        Duration timeout = this.config.getSegmentMetadataExpiration();
+        CompletableFuture<Void> attributeTask = sm.isDeleted()
+                ? CompletableFuture.completedFuture(null)
+                : this.attributeManager.persistAll(sm, timeout);
+        val state = new SegmentState(sm.getId(), StreamSegmentInformation.from(sm).attributes(coreAttributes).build());
+        return attributeTask.thenComposeAsync(v -> this.stateStore.put(sm.getName(), state, timeout), this.executor);
+    }
+
     private CompletableFuture<Void> delay() {
         val result = Futures.delayedFuture(this.config.getSegmentMetadataExpiration(), this.executor);
         this.stopToken.register(result);
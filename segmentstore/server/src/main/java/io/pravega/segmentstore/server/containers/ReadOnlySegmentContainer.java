@@ -25,19 +25,27 @@ import io.pravega.segmentstore.server.reading.StreamSegmentStorageReader;
 import io.pravega.segmentstore.storage.ReadOnlyStorage;
 import io.pravega.segmentstore.storage.Storage;
 import io.pravega.segmentstore.storage.StorageFactory;
+import io.pravega.shared.segment.SegmentToContainerMapper;
 import java.time.Duration;
 import java.util.Collection;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import lombok.val;
 
 /**
  * A slimmed down version of StreamSegmentContainer that is only able to perform reads from Storage. This SegmentContainer
  * cannot make any modifications to any Segments, nor can it create new or delete existing ones. It also cannot access data
  * that exists solely in DurableDataLog (which has not yet been transferred into permanent Storage).
+ * <p>
+ * Segment States are looked up in the ContainerMetadataTable of the Container that owns each Segment and, if not found
+ * there, in the legacy per-Segment State files (for Segments which have not been migrated yet).
  */
 @Slf4j
 class ReadOnlySegmentContainer extends AbstractIdleService implements SegmentContainer {
@@ -47,7 +55,8 @@ class ReadOnlySegmentContainer extends AbstractIdleService implements SegmentCon
     private static final int CONTAINER_ID = Integer.MAX_VALUE; // So that it doesn't collide with any other real Container Id.
     private static final int CONTAINER_EPOCH = 1; // This guarantees that any write operations should be fenced out if attempted.
 
-    private final AsyncMap<String, SegmentState> stateStore;
+    private final SegmentToContainerMapper segmentToContainerMapper;
+    private final AsyncMap<String, SegmentState> legacyStateStore;
     private final SegmentStateMapper segmentStateMapper;
     private final ReadOnlyStorage storage;
     private final ScheduledExecutorService executor;
@@ -61,15 +70,17 @@ class ReadOnlySegmentContainer extends AbstractIdleService implements SegmentCon
      * Creates a new instance of the ReadOnlySegmentContainer class.
      *
      * @param storageFactory A StorageFactory used to create Storage adapters.
+     * @param containerCount The number of Segment Containers in the cluster whose Storage this Container reads from.
      * @param executor       An Executor to use for async operations.
      */
-    ReadOnlySegmentContainer(StorageFactory storageFactory, ScheduledExecutorService executor) {
+    ReadOnlySegmentContainer(StorageFactory storageFactory, int containerCount, ScheduledExecutorService executor) {
         Preconditions.checkNotNull(storageFactory, "storageFactory");
         this.executor = Preconditions.checkNotNull(executor, "executor");
+        this.segmentToContainerMapper = new SegmentToContainerMapper(containerCount);
         Storage writableStorage = storageFactory.createStorageAdapter();
         this.storage = writableStorage;
-        this.stateStore = new SegmentStateStore(writableStorage, this.executor);
-        this.segmentStateMapper = new SegmentStateMapper(this.stateStore, writableStorage);
+        this.legacyStateStore = new SegmentStateStore(writableStorage, this.executor);
+        this.segmentStateMapper = new SegmentStateMapper(new StateStore(writableStorage), writableStorage);
         this.closed = new AtomicBoolean();
     }
 
@@ -160,6 +171,11 @@ class ReadOnlySegmentContainer extends AbstractIdleService implements SegmentCon
         return unsupported("updateAttributes");
     }
 
+    @Override
+    public CompletableFuture<Map<UUID, Long>> getAttributes(String streamSegmentName, Collection<UUID> attributeIds, boolean waitForPendingOps, Duration timeout) {
+        return unsupported("getAttributes");
+    }
+
     @Override
     public CompletableFuture<Void> createStreamSegment(String streamSegmentName, Collection<AttributeUpdate> attributes, Duration timeout) {
         return unsupported("createStreamSegment");
@@ -195,4 +211,43 @@ class ReadOnlySegmentContainer extends AbstractIdleService implements SegmentCon
     }
 
     //endregion
+
+    //region StateStore
+
+    /**
+     * Read-only view of the Segment States of all the Containers. Each Container's ContainerMetadataTable is loaded once
+     * and then refreshed before every lookup, since that table is being updated by that Container (which may be running
+     * elsewhere); a refresh only reads what has changed since. The tables are never written to: they do not have a
+     * fallback store, so they will not attempt to migrate anything into them.
+     */
+    @RequiredArgsConstructor
+    private class StateStore implements AsyncMap<String, SegmentState> {
+        private final Storage storage;
+        private final ConcurrentHashMap<Integer, ContainerMetadataTable> tables = new ConcurrentHashMap<>();
+
+        @Override
+        public CompletableFuture<SegmentState> get(String segmentName, Duration timeout) {
+            TimeoutTimer timer = new TimeoutTimer(timeout);
+            int containerId = segmentToContainerMapper.getContainerId(segmentName);
+            val table = this.tables.computeIfAbsent(containerId,
+                    id -> new ContainerMetadataTable(id, Integer.MAX_VALUE, null, this.storage, executor));
+            return table.refresh(timer.getRemaining())
+                        .thenCompose(v -> table.get(segmentName, timer.getRemaining()))
+                        .thenCompose(state -> state != null
+                                ? CompletableFuture.completedFuture(state)
+                                : legacyStateStore.get(segmentName, timer.getRemaining()));
+        }
+
+        @Override
+        public CompletableFuture<Void> put(String segmentName, SegmentState state, Duration timeout) {
+            return unsupported("put");
+        }
+
+        @Override
+        public CompletableFuture<Void> remove(String segmentName, Duration timeout) {
+            return unsupported("remove");
+        }
+    }
+
+    //endregion
 }
@@ -21,17 +21,22 @@ import java.util.concurrent.ScheduledExecutorService;
 public class ReadOnlySegmentContainerFactory implements SegmentContainerFactory {
     public static final int READONLY_CONTAINER_ID = 0;
     private final StorageFactory storageFactory;
+    private final int containerCount;
     private final ScheduledExecutorService executor;
 
     /**
      * Creates a new instance of the ReadOnlySegmentContainerFactory.
      *
      * @param storageFactory The Storage Factory to use for every container creation.
+     * @param containerCount The number of Segment Containers in the cluster whose Storage is being read from.
      * @param executor       The Executor to use for running async tasks.
-     * @throws NullPointerException If any of the arguments are null.
+     * @throws NullPointerException     If any of the arguments are null.
+     * @throws IllegalArgumentException If containerCount is not a positive number.
      */
-    public ReadOnlySegmentContainerFactory(StorageFactory storageFactory, ScheduledExecutorService executor) {
+    public ReadOnlySegmentContainerFactory(StorageFactory storageFactory, int containerCount, ScheduledExecutorService executor) {
+        Preconditions.checkArgument(containerCount > 0, "containerCount must be a positive number.");
         this.storageFactory = Preconditions.checkNotNull(storageFactory, "storageFactory");
+        this.containerCount = containerCount;
         this.executor = Preconditions.checkNotNull(executor, "executor");
     }
 
@@ -39,6 +44,6 @@ public class ReadOnlySegmentContainerFactory implements SegmentContainerFactory
     public SegmentContainer createStreamSegmentContainer(int containerId) {
         Preconditions.checkArgument(containerId == READONLY_CONTAINER_ID,
                 "ReadOnly Containers can only have Id %s.", READONLY_CONTAINER_ID);
-        return new ReadOnlySegmentContainer(this.storageFactory, this.executor);
+        return new ReadOnlySegmentContainer(this.storageFactory, this.containerCount, this.executor);
     }
 }
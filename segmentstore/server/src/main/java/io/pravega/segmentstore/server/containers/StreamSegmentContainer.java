@@ -23,6 +23,7 @@ import io.pravega.segmentstore.contracts.AttributeUpdate;
 import io.pravega.segmentstore.contracts.ReadResult;
 import io.pravega.segmentstore.contracts.SegmentProperties;
 import io.pravega.segmentstore.contracts.StreamSegmentNotExistsException;
+import io.pravega.segmentstore.server.AttributeIndex;
 import io.pravega.segmentstore.server.ContainerOfflineException;
 import io.pravega.segmentstore.server.IllegalContainerStateException;
 import io.pravega.segmentstore.server.OperationLog;
@@ -34,6 +35,7 @@ import io.pravega.segmentstore.server.SegmentMetadata;
 import io.pravega.segmentstore.server.SegmentStoreMetrics;
 import io.pravega.segmentstore.server.Writer;
 import io.pravega.segmentstore.server.WriterFactory;
+import io.pravega.segmentstore.server.attributes.ContainerAttributeIndex;
 import io.pravega.segmentstore.server.logs.operations.MergeTransactionOperation;
 import io.pravega.segmentstore.server.logs.operations.Operation;
 import io.pravega.segmentstore.server.logs.operations.StreamSegmentAppendOperation;
@@ -45,6 +47,7 @@ import io.pravega.segmentstore.storage.StorageFactory;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -71,6 +74,8 @@ class StreamSegmentContainer extends AbstractService implements SegmentContainer
     private final Writer writer;
     private final Storage storage;
     private final AsyncMap<String, SegmentState> stateStore;
+    private final AttributeIndex attributeIndex;
+    private final DynamicAttributeManager attributeManager;
     private final StreamSegmentMapper segmentMapper;
     private final ScheduledExecutorService executor;
     private final MetadataCleaner metadataCleaner;
@@ -110,8 +115,13 @@ class StreamSegmentContainer extends AbstractService implements SegmentContainer
         shutdownWhenStopped(this.durableLog, "DurableLog");
         this.writer = writerFactory.createWriter(this.metadata, this.durableLog, this.readIndex, this.storage);
         shutdownWhenStopped(this.writer, "Writer");
-        this.stateStore = new SegmentStateStore(this.storage, this.executor);
-        this.metadataCleaner = new MetadataCleaner(config, this.metadata, this.stateStore, this::notifyMetadataRemoved,
+        this.stateStore = new ContainerMetadataTable(streamSegmentContainerId, config.getMetadataTableMinCompactionLength(),
+                new SegmentStateStore(this.storage, this.executor), this.storage, this.executor);
+        this.attributeIndex = new ContainerAttributeIndex(config.getAttributeIndexMaxPageEntryCount(), config.getAttributeIndexMaxCachedPageCount(),
+                config.getAttributeIndexMinCompactionLength(), this.storage, this.executor);
+        this.attributeManager = new DynamicAttributeManager(this.metadata, this.attributeIndex, this.durableLog,
+                config.getMaxCachedDynamicAttributeCount(), this.executor, this.traceObjectId);
+        this.metadataCleaner = new MetadataCleaner(config, this.metadata, this.stateStore, this.attributeManager, this::notifyMetadataRemoved,
                 this.executor, this.traceObjectId);
         shutdownWhenStopped(this.metadataCleaner, "MetadataCleaner");
         this.segmentMapper = new StreamSegmentMapper(this.metadata, this.durableLog, this.stateStore, this.metadataCleaner::runOnce,
@@ -132,6 +142,7 @@ class StreamSegmentContainer extends AbstractService implements SegmentContainer
             this.writer.close();
             this.durableLog.close();
             this.readIndex.close();
+            this.attributeIndex.close();
             this.storage.close();
             log.info("{}: Closed.", this.traceObjectId);
         }
@@ -281,10 +292,10 @@ class StreamSegmentContainer extends AbstractService implements SegmentContainer
         logRequest("append", streamSegmentName, data.length);
         this.metrics.append();
         return this.segmentMapper.getOrAssignStreamSegmentId(streamSegmentName, timer.getRemaining(),
-                streamSegmentId -> {
+                streamSegmentId -> this.attributeManager.process(streamSegmentId, attributeUpdates, () -> {
                     StreamSegmentAppendOperation operation = new StreamSegmentAppendOperation(streamSegmentId, data, attributeUpdates);
                     return this.durableLog.add(operation, timer.getRemaining());
-                });
+                }, timer.getRemaining()));
     }
 
     @Override
@@ -295,10 +306,10 @@ class StreamSegmentContainer extends AbstractService implements SegmentContainer
         logRequest("appendWithOffset", streamSegmentName, data.length);
         this.metrics.appendWithOffset();
         return this.segmentMapper.getOrAssignStreamSegmentId(streamSegmentName, timer.getRemaining(),
-                streamSegmentId -> {
+                streamSegmentId -> this.attributeManager.process(streamSegmentId, attributeUpdates, () -> {
                     StreamSegmentAppendOperation operation = new StreamSegmentAppendOperation(streamSegmentId, offset, data, attributeUpdates);
                     return this.durableLog.add(operation, timer.getRemaining());
-                });
+                }, timer.getRemaining()));
     }
 
     @Override
@@ -309,10 +320,31 @@ class StreamSegmentContainer extends AbstractService implements SegmentContainer
         logRequest("updateAttributes", streamSegmentName, attributeUpdates);
         this.metrics.updateAttributes();
         return this.segmentMapper.getOrAssignStreamSegmentId(streamSegmentName, timer.getRemaining(),
-                streamSegmentId -> {
+                streamSegmentId -> this.attributeManager.process(streamSegmentId, attributeUpdates, () -> {
                     UpdateAttributesOperation operation = new UpdateAttributesOperation(streamSegmentId, attributeUpdates);
                     return this.durableLog.add(operation, timer.getRemaining());
-                });
+                }, timer.getRemaining()));
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Long>> getAttributes(String streamSegmentName, Collection<UUID> attributeIds, boolean waitForPendingOps, Duration timeout) {
+        ensureRunning();
+
+        TimeoutTimer timer = new TimeoutTimer(timeout);
+        logRequest("getAttributes", streamSegmentName, attributeIds);
+        this.metrics.getAttributes();
+        CompletableFuture<Void> barrier = waitForPendingOps
+                ? this.durableLog.operationProcessingBarrier(timer.getRemaining())
+                : CompletableFuture.completedFuture(null);
+        return barrier.thenComposeAsync(v -> this.segmentMapper.getOrAssignStreamSegmentId(streamSegmentName, timer.getRemaining(),
+                streamSegmentId -> {
+                    SegmentMetadata sm = this.metadata.getStreamSegmentMetadata(streamSegmentId);
+                    if (sm == null) {
+                        return Futures.failedFuture(new StreamSegmentNotExistsException(streamSegmentName));
+                    }
+
+                    return this.attributeManager.get(sm, attributeIds, timer.getRemaining());
+                }), this.executor);
     }
 
     @Override
@@ -390,6 +422,7 @@ class StreamSegmentContainer extends AbstractService implements SegmentContainer
                     .openWrite(toDelete.getName())
                     .thenComposeAsync(handle -> this.storage.delete(handle, timer.getRemaining()), this.executor)
                     .thenComposeAsync(v -> this.stateStore.remove(toDelete.getName(), timer.getRemaining()), this.executor)
+                    .thenComposeAsync(v -> this.attributeManager.delete(toDelete, timer.getRemaining()), this.executor)
                     .exceptionally(ex -> {
                         ex = Exceptions.unwrap(ex);
                         if (ex instanceof StreamSegmentNotExistsException && toDelete.isTransaction()) {
@@ -428,6 +461,7 @@ class StreamSegmentContainer extends AbstractService implements SegmentContainer
         logRequest("mergeTransaction", transactionName);
         this.metrics.mergeTxn();
         TimeoutTimer timer = new TimeoutTimer(timeout);
+        AtomicReference<SegmentMetadata> merged = new AtomicReference<>();
         return this.segmentMapper
                 .getOrAssignStreamSegmentId(transactionName, timer.getRemaining(),
                         transactionId -> {
@@ -436,10 +470,12 @@ class StreamSegmentContainer extends AbstractService implements SegmentContainer
                         throw new CompletionException(new StreamSegmentNotExistsException(transactionName));
                     }
 
+                    merged.set(transactionMetadata);
                     Operation op = new MergeTransactionOperation(transactionMetadata.getParentId(), transactionMetadata.getId());
                     return this.durableLog.add(op, timer.getRemaining());
                 })
-                .thenComposeAsync(v -> this.stateStore.remove(transactionName, timer.getRemaining()), this.executor);
+                .thenComposeAsync(v -> this.stateStore.remove(transactionName, timer.getRemaining()), this.executor)
+                .thenComposeAsync(v -> this.attributeManager.delete(merged.get(), timer.getRemaining()), this.executor);
     }
 
     @Override
@@ -491,6 +527,7 @@ class StreamSegmentContainer extends AbstractService implements SegmentContainer
     protected void notifyMetadataRemoved(Collection<SegmentMetadata> segments) {
         if (segments.size() > 0) {
             this.readIndex.cleanup(segments.stream().map(SegmentMetadata::getId).iterator());
+            this.attributeIndex.cleanup(segments.stream().map(SegmentMetadata::getName).collect(Collectors.toList()));
         }
     }
 
@@ -12,6 +12,7 @@ package io.pravega.segmentstore.server.containers;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import io.pravega.common.Exceptions;
+import io.pravega.common.util.LongHashMap;
 import io.pravega.segmentstore.server.EvictableMetadata;
 import io.pravega.segmentstore.server.SegmentMetadata;
 import io.pravega.segmentstore.server.SegmentStoreMetrics;
@@ -26,18 +27,21 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.PriorityQueue;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Metadata for a Stream Segment Container.
+ * <p>
+ * Segment Metadata is indexed by Id using a primitive-keyed LongHashMap and by name using a HashMap that reuses each
+ * Segment's own name instance as key. In order to find eviction candidates without inspecting every Segment, all Segments
+ * are also kept in a min-heap ordered by their LastUsed value (see getEvictionCandidates() for details).
  */
 @Slf4j
 @VisibleForTesting
@@ -54,9 +58,11 @@ public class StreamSegmentContainerMetadata implements UpdateableContainerMetada
     @GuardedBy("lock")
     private final HashMap<String, StreamSegmentMetadata> metadataByName;
     @GuardedBy("lock")
-    private final HashMap<Long, StreamSegmentMetadata> metadataById;
+    private final LongHashMap<StreamSegmentMetadata> metadataById;
     @GuardedBy("lock")
-    private final HashMap<Long, Integer> activeTxnCounts;
+    private final LongHashMap<List<StreamSegmentMetadata>> transactionsByParent;
+    @GuardedBy("lock")
+    private final PriorityQueue<LruEntry> lruIndex;
     private final AtomicBoolean recoveryMode;
     private final int streamSegmentContainerId;
     private final int maxActiveSegmentCount;
@@ -84,8 +90,9 @@ public class StreamSegmentContainerMetadata implements UpdateableContainerMetada
         this.maxActiveSegmentCount = maxActiveSegmentCount;
         this.sequenceNumber = new AtomicLong();
         this.metadataByName = new HashMap<>();
-        this.metadataById = new HashMap<>();
-        this.activeTxnCounts = new HashMap<>();
+        this.metadataById = new LongHashMap<>();
+        this.transactionsByParent = new LongHashMap<>();
+        this.lruIndex = new PriorityQueue<>(LruEntry.COMPARATOR);
         this.truncationMarkers = new TreeMap<>();
         this.truncationPoints = new TreeSet<>();
         this.recoveryMode = new AtomicBoolean();
@@ -114,7 +121,7 @@ public class StreamSegmentContainerMetadata implements UpdateableContainerMetada
     @Override
     public UpdateableSegmentMetadata getStreamSegmentMetadata(long streamSegmentId) {
         synchronized (this.lock) {
-            return this.metadataById.getOrDefault(streamSegmentId, null);
+            return this.metadataById.get(streamSegmentId);
         }
     }
 
@@ -164,12 +171,11 @@ public class StreamSegmentContainerMetadata implements UpdateableContainerMetada
         synchronized (this.lock) {
             validateNewMapping(streamSegmentName, streamSegmentId);
             segmentMetadata = new StreamSegmentMetadata(streamSegmentName, streamSegmentId, getContainerId());
-            this.metadataByName.put(streamSegmentName, segmentMetadata);
-            this.metadataById.put(streamSegmentId, segmentMetadata);
+            segmentMetadata.setLastUsed(getOperationSequenceNumber());
+            addMapping(segmentMetadata);
             count = this.metadataById.size();
         }
 
-        segmentMetadata.setLastUsed(getOperationSequenceNumber());
         log.info("{}: MapStreamSegment SegmentId = {}, Name = '{}', Active = {}", this.traceObjectId, streamSegmentId, streamSegmentName, count);
         this.metrics.segmentCount(count);
         return segmentMetadata;
@@ -181,18 +187,23 @@ public class StreamSegmentContainerMetadata implements UpdateableContainerMetada
         int count;
         synchronized (this.lock) {
             validateNewMapping(streamSegmentName, streamSegmentId);
-            StreamSegmentMetadata parentMetadata = this.metadataById.getOrDefault(parentStreamSegmentId, null);
+            StreamSegmentMetadata parentMetadata = this.metadataById.get(parentStreamSegmentId);
             Exceptions.checkArgument(parentMetadata != null, "parentStreamSegmentId", "Invalid Parent Segment Id (%s).", parentStreamSegmentId);
             Exceptions.checkArgument(!parentMetadata.isTransaction(), "parentStreamSegmentId", "Cannot create a Transaction for another Transaction (%s).", parentStreamSegmentId);
 
             segmentMetadata = new StreamSegmentMetadata(streamSegmentName, streamSegmentId, parentStreamSegmentId, getContainerId());
-            this.metadataByName.put(streamSegmentName, segmentMetadata);
-            this.metadataById.put(streamSegmentId, segmentMetadata);
+            segmentMetadata.setLastUsed(getOperationSequenceNumber());
+            addMapping(segmentMetadata);
             count = this.metadataById.size();
-            updateValue(this.activeTxnCounts, parentStreamSegmentId, 1);
+            List<StreamSegmentMetadata> transactions = this.transactionsByParent.get(parentStreamSegmentId);
+            if (transactions == null) {
+                transactions = new ArrayList<>(1);
+                this.transactionsByParent.put(parentStreamSegmentId, transactions);
+            }
+
+            transactions.add(segmentMetadata);
         }
 
-        segmentMetadata.setLastUsed(getOperationSequenceNumber());
         log.info("{}: MapTransactionStreamSegment ParentId = {}, SegmentId = {}, Name = '{}', Active = {}", this.traceObjectId,
                 parentStreamSegmentId, streamSegmentId, streamSegmentName, count);
         this.metrics.segmentCount(count);
@@ -215,10 +226,25 @@ public class StreamSegmentContainerMetadata implements UpdateableContainerMetada
         }
     }
 
+    @GuardedBy("lock")
+    private void addMapping(StreamSegmentMetadata segmentMetadata) {
+        // Use the Segment's own name instance as a key, so we do not hold on to (potentially) different String instances
+        // with the same contents.
+        this.metadataByName.put(segmentMetadata.getName(), segmentMetadata);
+        this.metadataById.put(segmentMetadata.getId(), segmentMetadata);
+        this.lruIndex.add(new LruEntry(segmentMetadata));
+    }
+
     @Override
     public Collection<Long> getAllStreamSegmentIds() {
         synchronized (this.lock) {
-            return new HashSet<>(this.metadataById.keySet());
+            long[] ids = this.metadataById.keys();
+            HashSet<Long> result = new HashSet<>(ids.length * 2);
+            for (long id : ids) {
+                result.add(id);
+            }
+
+            return result;
         }
     }
 
@@ -240,13 +266,15 @@ public class StreamSegmentContainerMetadata implements UpdateableContainerMetada
 
             // Find any transactions that point to this StreamSegment (as a parent) which haven't already been deleted
             // or fully merged in Storage.
-            this.metadataById
-                    .values().stream()
-                    .filter(m -> m.getParentId() == segmentMetadata.getId() && !m.isDeleted())
-                    .forEach(m -> {
-                        m.markDeleted();
-                        result.add(m);
-                    });
+            List<StreamSegmentMetadata> transactions = this.transactionsByParent.get(segmentMetadata.getId());
+            if (transactions != null) {
+                transactions.stream()
+                            .filter(m -> !m.isDeleted())
+                            .forEach(m -> {
+                                m.markDeleted();
+                                result.add(m);
+                            });
+            }
         }
 
         log.info("{}: DeleteStreamSegments {}", this.traceObjectId, result);
@@ -281,29 +309,50 @@ public class StreamSegmentContainerMetadata implements UpdateableContainerMetada
 
     //region EvictableMetadata Implementation
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Candidates are returned in increasing order of their LastUsed value. They are located by walking the LRU index from
+     * its head, so the cost of this method is proportional to the number of candidates (plus the number of Segments
+     * that have been used since they were last inspected) and not to the number of Segments in the metadata.
+     * <p>
+     * The LRU index is maintained lazily: Segments are never repositioned when their LastUsed value changes. Since that
+     * value can only increase, each entry's key is a lower bound for it; any entry whose Segment has been used since it
+     * was last positioned is simply reinserted with the new value once it reaches the head. Entries for evicted Segments
+     * are discarded once they reach the head.
+     */
     @Override
     public Collection<SegmentMetadata> getEvictionCandidates(long sequenceNumberCutoff, int maxCount) {
-        long adjustedCutoff = Math.min(sequenceNumberCutoff, this.lastTruncatedSequenceNumber.get());
-        List<SegmentMetadata> candidates;
+        long lastTruncated = this.lastTruncatedSequenceNumber.get();
+        long adjustedCutoff = Math.min(sequenceNumberCutoff, lastTruncated);
+        List<SegmentMetadata> candidates = new ArrayList<>();
         synchronized (this.lock) {
-            // Find those segments that have active transactions associated with them.
-            Set<Long> activeTransactions = this.metadataById
-                    .values().stream()
-                    .filter(m -> m.isTransaction() && !isEligibleForEviction(m, adjustedCutoff))
-                    .map(SegmentMetadata::getParentId)
-                    .collect(Collectors.toSet());
-
-            // The result is all segments that are eligible for removal but that do not have any active transactions.
-            candidates = this.metadataById
-                    .values().stream()
-                    .filter(m -> isEligibleForEviction(m, adjustedCutoff) && !activeTransactions.contains(m.getId()))
-                    .collect(Collectors.toList());
-        }
+            // No Segment with a LastUsed value beyond the last truncated Sequence Number can be eligible for eviction
+            // (regardless of whether it's deleted or not), so there is no need to look past that point.
+            List<LruEntry> inspected = new ArrayList<>();
+            while (candidates.size() < maxCount && !this.lruIndex.isEmpty() && this.lruIndex.peek().lastUsed <= lastTruncated) {
+                LruEntry e = this.lruIndex.poll();
+                if (this.metadataById.get(e.metadata.getId()) != e.metadata) {
+                    // This Segment has been evicted.
+                    continue;
+                }
+
+                long lastUsed = e.metadata.getLastUsed();
+                if (lastUsed != e.lastUsed) {
+                    // This Segment has been used since it was last positioned; put it back where it belongs.
+                    e.lastUsed = lastUsed;
+                    this.lruIndex.add(e);
+                    continue;
+                }
+
+                inspected.add(e);
+                if (isEligibleForEviction(e.metadata, adjustedCutoff) && !hasActiveTransactions(e.metadata, adjustedCutoff)) {
+                    // Only include those Segments that do not have any active (not eligible for eviction) Transactions.
+                    candidates.add(e.metadata);
+                }
+            }
 
-        // If we have more candidates than were requested to return, then return only the ones that were not recently used.
-        if (candidates.size() > maxCount) {
-            candidates.sort(Comparator.comparingLong(SegmentMetadata::getLastUsed));
-            candidates = candidates.subList(0, maxCount);
+            this.lruIndex.addAll(inspected);
         }
 
         return candidates;
@@ -315,16 +364,17 @@ public class StreamSegmentContainerMetadata implements UpdateableContainerMetada
         Collection<SegmentMetadata> evictedSegments = new ArrayList<>(evictionCandidates.size());
         int count;
         synchronized (this.lock) {
-            // First, process all transactions eligible for removal and update their parent's stats.
+            // First, process all transactions eligible for removal and unlink them from their parents.
             evictionCandidates
                     .stream()
                     .filter(m -> m.isTransaction() && isEligibleForEviction(m, adjustedCutoff))
-                    .forEach(m -> updateValue(this.activeTxnCounts, m.getParentId(), -1));
+                    .forEach(this::removeTransaction);
 
             // Remove those candidates that are still eligible for removal and which do not have any active transactions.
+            // Their entries in the LRU index will be discarded the next time they are encountered.
             evictionCandidates
                     .stream()
-                    .filter(m -> isEligibleForEviction(m, adjustedCutoff) && !this.activeTxnCounts.containsKey(m.getId()))
+                    .filter(m -> isEligibleForEviction(m, adjustedCutoff) && !this.transactionsByParent.containsKey(m.getId()))
                     .forEach(m -> {
                         StreamSegmentMetadata removedMetadata = this.metadataById.remove(m.getId());
                         removedMetadata.markInactive();
@@ -353,12 +403,23 @@ public class StreamSegmentContainerMetadata implements UpdateableContainerMetada
                 || metadata.isDeleted() && metadata.getLastUsed() <= this.lastTruncatedSequenceNumber.get();
     }
 
-    private void updateValue(HashMap<Long, Integer> map, long key, int delta) {
-        int newValue = map.getOrDefault(key, 0) + delta;
-        if (newValue == 0) {
-            map.remove(key);
-        } else {
-            map.put(key, newValue);
+    /**
+     * Determines whether the given Segment has any Transactions that are not eligible for eviction.
+     */
+    @GuardedBy("lock")
+    private boolean hasActiveTransactions(SegmentMetadata metadata, long sequenceNumberCutoff) {
+        List<StreamSegmentMetadata> transactions = this.transactionsByParent.get(metadata.getId());
+        return transactions != null && transactions.stream().anyMatch(t -> !isEligibleForEviction(t, sequenceNumberCutoff));
+    }
+
+    @GuardedBy("lock")
+    private void removeTransaction(SegmentMetadata transaction) {
+        List<StreamSegmentMetadata> transactions = this.transactionsByParent.get(transaction.getParentId());
+        if (transactions != null) {
+            transactions.removeIf(t -> t.getId() == transaction.getId());
+            if (transactions.isEmpty()) {
+                this.transactionsByParent.remove(transaction.getParentId());
+            }
         }
     }
 
@@ -389,7 +450,8 @@ public class StreamSegmentContainerMetadata implements UpdateableContainerMetada
         synchronized (this.lock) {
             this.metadataByName.clear();
             this.metadataById.clear();
-            this.activeTxnCounts.clear();
+            this.transactionsByParent.clear();
+            this.lruIndex.clear();
         }
 
         synchronized (this.truncationMarkers) {
@@ -471,4 +533,25 @@ public class StreamSegmentContainerMetadata implements UpdateableContainerMetada
     }
 
     //endregion
+
+    //region LruEntry
+
+    /**
+     * An entry in the LRU index. The lastUsed field is a snapshot of the Segment's LastUsed value at the time the entry
+     * was (re)inserted, and must not be modified while the entry is in the index.
+     */
+    private static class LruEntry {
+        static final Comparator<LruEntry> COMPARATOR = Comparator
+                .<LruEntry>comparingLong(e -> e.lastUsed)
+                .thenComparingLong(e -> e.metadata.getId());
+        final StreamSegmentMetadata metadata;
+        long lastUsed;
+
+        LruEntry(StreamSegmentMetadata metadata) {
+            this.metadata = metadata;
+            this.lastUsed = metadata.getLastUsed();
+        }
+    }
+
+    //endregion
 }
@@ -11,10 +11,13 @@ package io.pravega.segmentstore.server.containers;
 
 import com.google.common.base.Preconditions;
 import io.pravega.common.Exceptions;
+import com.google.common.collect.Maps;
 import io.pravega.common.util.ImmutableDate;
+import io.pravega.segmentstore.contracts.Attributes;
 import io.pravega.segmentstore.server.ContainerMetadata;
 import io.pravega.segmentstore.server.SegmentMetadata;
 import io.pravega.segmentstore.server.UpdateableSegmentMetadata;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -58,6 +61,8 @@ public class StreamSegmentMetadata implements UpdateableSegmentMetadata {
     private long lastUsed;
     @GuardedBy("this")
     private boolean active;
+    @GuardedBy("this")
+    private long version;
 
     //endregion
 
@@ -177,6 +182,11 @@ public class StreamSegmentMetadata implements UpdateableSegmentMetadata {
 
     @Override
     public synchronized Map<UUID, Long> getAttributes() {
+        return Collections.unmodifiableMap(Maps.filterValues(this.attributes, value -> value != SegmentMetadata.NULL_ATTRIBUTE_VALUE));
+    }
+
+    @Override
+    public synchronized Map<UUID, Long> getInMemoryAttributes() {
         return Collections.unmodifiableMap(this.attributes);
     }
 
@@ -205,6 +215,7 @@ public class StreamSegmentMetadata implements UpdateableSegmentMetadata {
 
         log.trace("{}: StorageLength changed from {} to {}.", this.traceObjectId, this.storageLength, value);
         this.storageLength = value;
+        this.version++;
     }
 
     @Override
@@ -220,6 +231,7 @@ public class StreamSegmentMetadata implements UpdateableSegmentMetadata {
         Exceptions.checkArgument(value <= this.length, "value", "New StartOffset cannot be larger than Length.");
         log.debug("{}: StartOffset changed from {} to {}.", this.traceObjectId, this.startOffset, value);
         this.startOffset = value;
+        this.version++;
     }
 
     @Override
@@ -229,12 +241,14 @@ public class StreamSegmentMetadata implements UpdateableSegmentMetadata {
 
         log.trace("{}: Length changed from {} to {}.", this.traceObjectId, this.length, value);
         this.length = value;
+        this.version++;
     }
 
     @Override
     public synchronized void markSealed() {
         log.debug("{}: Sealed = true.", this.traceObjectId);
         this.sealed = true;
+        this.version++;
     }
 
     @Override
@@ -242,12 +256,14 @@ public class StreamSegmentMetadata implements UpdateableSegmentMetadata {
         Preconditions.checkState(this.sealed, "Cannot mark SealedInStorage if not Sealed in DurableLog.");
         log.debug("{}: SealedInStorage = true.", this.traceObjectId);
         this.sealedInStorage = true;
+        this.version++;
     }
 
     @Override
     public synchronized void markDeleted() {
         log.debug("{}: Deleted = true.", this.traceObjectId);
         this.deleted = true;
+        this.version++;
     }
 
     @Override
@@ -256,11 +272,13 @@ public class StreamSegmentMetadata implements UpdateableSegmentMetadata {
 
         log.debug("{}: Merged = true.", this.traceObjectId);
         this.merged = true;
+        this.version++;
     }
 
     @Override
     public synchronized void setLastModified(ImmutableDate date) {
         this.lastModified = date;
+        this.version++;
         log.trace("{}: LastModified = {}.", this.lastModified);
     }
 
@@ -268,12 +286,22 @@ public class StreamSegmentMetadata implements UpdateableSegmentMetadata {
     public synchronized void updateAttributes(Map<UUID, Long> attributes) {
         for (Map.Entry<UUID, Long> av : attributes.entrySet()) {
             long value = av.getValue();
-            if (value == SegmentMetadata.NULL_ATTRIBUTE_VALUE) {
+            if (value == SegmentMetadata.NULL_ATTRIBUTE_VALUE && !Attributes.isDynamic(av.getKey())) {
                 this.attributes.remove(av.getKey());
             } else {
+                // Removed dynamic Attributes are kept around (as NULL_ATTRIBUTE_VALUE) until their removal is persisted
+                // to the AttributeIndex; otherwise we might end up reading their (stale) values back from it.
                 this.attributes.put(av.getKey(), value);
             }
         }
+
+        this.version++;
+    }
+
+    @Override
+    public synchronized void unloadAttributes(Collection<UUID> attributeIds) {
+        attributeIds.forEach(this.attributes::remove);
+        this.version++;
     }
 
     @Override
@@ -289,7 +317,7 @@ public class StreamSegmentMetadata implements UpdateableSegmentMetadata {
         // Update StartOffset after (potentially) updating the length, since he Start Offset must be less than or equal to Length.
         setStartOffset(base.getStartOffset());
         setLastModified(base.getLastModified());
-        updateAttributes(base.getAttributes());
+        updateAttributes(base.getInMemoryAttributes());
 
         if (base.isSealed()) {
             markSealed();
@@ -328,5 +356,16 @@ public class StreamSegmentMetadata implements UpdateableSegmentMetadata {
         this.active = false;
     }
 
+    /**
+     * Gets a value that is incremented every time any of the properties of this Segment that are included in a Metadata
+     * Checkpoint changes (this excludes LastUsed and Active). Two calls that return the same value guarantee that no such
+     * property has changed in between.
+     *
+     * @return The version.
+     */
+    public synchronized long getVersion() {
+        return this.version;
+    }
+
     //endregion
 }
@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.logs;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import io.pravega.common.ExponentialMovingAverage;
+import io.pravega.common.MathHelpers;
+import java.time.Duration;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Adaptive Group Commit policy for the OperationProcessor. Based on the observed latency of DurableDataLog writes and the
+ * fill ratio of the DataFrames written, it determines:
+ * <ul>
+ * <li> The Target DataFrame Length: the length at which the OperationProcessor should close the current DataFrame and
+ * write it to the DurableDataLog, even if more Operations are available. This is decreased (multiplicatively) if the
+ * write latency exceeds the target and increased (additively) if there is latency headroom and DataFrames are filling up.
+ * <li> The Linger Delay: the amount of time the OperationProcessor should wait before picking up more Operations in order
+ * to fill DataFrames better. This is derived from whatever latency headroom there is, scaled by how empty recent DataFrames
+ * have been.
+ * </ul>
+ */
+@ThreadSafe
+class AdaptiveBatchingPolicy {
+    //region Members
+
+    /**
+     * The smallest Target DataFrame Length we will ever suggest. For DurableDataLogs with small max append lengths, this
+     * is further capped to a fraction (MIN_FRAME_LENGTH_RATIO) of that value.
+     */
+    @VisibleForTesting
+    static final int MIN_FRAME_LENGTH = 16 * 1024;
+    private static final int MIN_FRAME_LENGTH_RATIO = 8;
+
+    /**
+     * Fraction of the Target Latency below which we consider there is enough headroom to grow the DataFrames.
+     */
+    @VisibleForTesting
+    static final double LATENCY_HEADROOM_RATIO = 0.8;
+
+    /**
+     * Average fill ratio (relative to the Target DataFrame Length) above which DataFrames are considered full.
+     */
+    @VisibleForTesting
+    static final double FULL_FRAME_FILL_RATIO = 0.9;
+    private static final double DECREASE_FACTOR = 0.75;
+    private static final int INCREASE_STEP_COUNT = 16;
+    private static final double NEW_SAMPLE_WEIGHT = 0.2;
+
+    private final int targetLatencyMillis;
+    private final int maxFrameLength;
+    private final int minFrameLength;
+    private final ExponentialMovingAverage writeLatencyMillis;
+    private final ExponentialMovingAverage fillRatio;
+    @GuardedBy("this")
+    private int targetFrameLength;
+    @GuardedBy("this")
+    private int lingerDelayMillis;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the AdaptiveBatchingPolicy class.
+     *
+     * @param targetLatencyMillis The latency (millis) that we are aiming for, for each write to the DurableDataLog,
+     *                            including the time spent lingering for more Operations.
+     * @param maxFrameLength      The maximum length of a DataFrame (usually DurableDataLog.getMaxAppendLength()).
+     */
+    AdaptiveBatchingPolicy(int targetLatencyMillis, int maxFrameLength) {
+        Preconditions.checkArgument(targetLatencyMillis > 0, "targetLatencyMillis must be a positive integer.");
+        Preconditions.checkArgument(maxFrameLength > 0, "maxFrameLength must be a positive integer.");
+        this.targetLatencyMillis = targetLatencyMillis;
+        this.maxFrameLength = maxFrameLength;
+        this.minFrameLength = Math.max(1, Math.min(MIN_FRAME_LENGTH, maxFrameLength / MIN_FRAME_LENGTH_RATIO));
+
+        // Until we have seen any writes, we behave as if we had no batching at all: no latency and full DataFrames.
+        this.writeLatencyMillis = new ExponentialMovingAverage(0, NEW_SAMPLE_WEIGHT, true);
+        this.fillRatio = new ExponentialMovingAverage(1, NEW_SAMPLE_WEIGHT, false);
+        this.targetFrameLength = maxFrameLength;
+        this.lingerDelayMillis = 0;
+    }
+
+    //endregion
+
+    //region Operations
+
+    /**
+     * Gets a value indicating the length at which a DataFrame should be closed and written to the DurableDataLog.
+     *
+     * @return The Target DataFrame Length.
+     */
+    synchronized int getTargetFrameLength() {
+        return this.targetFrameLength;
+    }
+
+    /**
+     * Gets a value indicating the amount of time to wait before picking up more Operations for processing.
+     *
+     * @return The Linger Delay, in millis. This is always less than or equal to ThrottlerCalculator.MAX_BATCHING_DELAY_MILLIS.
+     */
+    synchronized int getLingerDelayMillis() {
+        return this.lingerDelayMillis;
+    }
+
+    /**
+     * Records the fact that a DataFrame has been successfully written to the DurableDataLog and adjusts the Target
+     * DataFrame Length and Linger Delay accordingly.
+     *
+     * @param frameLength The length of the DataFrame.
+     * @param elapsed     The amount of time it took to write the DataFrame.
+     */
+    synchronized void recordWrite(int frameLength, Duration elapsed) {
+        double latency = this.writeLatencyMillis.addNewSample(elapsed.toMillis());
+        double fill = this.fillRatio.addNewSample(MathHelpers.minMax((double) frameLength / this.targetFrameLength, 0, 1));
+
+        if (latency > this.targetLatencyMillis) {
+            // Writes take too long; make them smaller.
+            this.targetFrameLength = Math.max(this.minFrameLength, (int) (this.targetFrameLength * DECREASE_FACTOR));
+        } else if (latency < this.targetLatencyMillis * LATENCY_HEADROOM_RATIO && fill >= FULL_FRAME_FILL_RATIO) {
+            // We have room to spare and the DataFrames are full; try to make better use of each write.
+            this.targetFrameLength = Math.min(this.maxFrameLength, this.targetFrameLength + this.maxFrameLength / INCREASE_STEP_COUNT);
+        }
+
+        // Whatever is left of our latency budget can be used to wait for more Operations, but only if the DataFrames are
+        // not already full; there is no point in waiting otherwise.
+        double headroom = Math.max(0, this.targetLatencyMillis - latency);
+        this.lingerDelayMillis = (int) Math.min(Math.round(headroom * (1 - fill)), ThrottlerCalculator.MAX_BATCHING_DELAY_MILLIS);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("TargetLatency = %dms, WriteLatency = %.1fms, Fill = %.2f, TargetFrameLength = %d, Linger = %dms",
+                this.targetLatencyMillis, this.writeLatencyMillis.getCurrentValue(), this.fillRatio.getCurrentValue(),
+                this.targetFrameLength, this.lingerDelayMillis);
+    }
+
+    //endregion
+
+    //region FrameCloseReason
+
+    /**
+     * Reasons for which a DataFrame may be closed (and written to the DurableDataLog).
+     */
+    enum FrameCloseReason {
+        /**
+         * The DataFrame could not fit any more data (it reached the DurableDataLog's maximum append length).
+         */
+        FULL,
+        /**
+         * The DataFrame reached the Target DataFrame Length.
+         */
+        TARGET_LENGTH,
+        /**
+         * There were no more Operations to process.
+         */
+        QUEUE_EMPTY
+    }
+
+    //endregion
+}
@@ -34,6 +34,7 @@ import io.pravega.segmentstore.server.logs.operations.StreamSegmentAppendOperati
 import io.pravega.segmentstore.server.logs.operations.StreamSegmentMapOperation;
 import io.pravega.segmentstore.server.logs.operations.StreamSegmentSealOperation;
 import io.pravega.segmentstore.server.logs.operations.StreamSegmentTruncateOperation;
+import io.pravega.segmentstore.server.logs.operations.UnloadAttributesOperation;
 import io.pravega.segmentstore.server.logs.operations.UpdateAttributesOperation;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -62,6 +63,7 @@ class ContainerMetadataUpdateTransaction implements ContainerMetadata {
      * Pointer to the real (live) ContainerMetadata. Used when needing access to live information (such as Storage Info).
      */
     private final ContainerMetadata realMetadata;
+    private final MetadataCheckpointCache checkpointCache;
     private final HashMap<Long, SegmentMetadataUpdateTransaction> segmentUpdates;
     private final HashMap<Long, UpdateableSegmentMetadata> newSegments;
     private final HashMap<String, Long> newSegmentNames;
@@ -97,8 +99,22 @@ class ContainerMetadataUpdateTransaction implements ContainerMetadata {
      * @param transactionId Id of the ContainerMetadataUpdateTransaction.
      */
     ContainerMetadataUpdateTransaction(ContainerMetadata baseMetadata, ContainerMetadata realMetadata, long transactionId) {
+        this(baseMetadata, realMetadata, transactionId, new MetadataCheckpointCache());
+    }
+
+    /**
+     * Creates a new instance of the ContainerMetadataUpdateTransaction class.
+     *
+     * @param baseMetadata    The base Container Metadata.
+     * @param transactionId   Id of the ContainerMetadataUpdateTransaction.
+     * @param checkpointCache A MetadataCheckpointCache to use when serializing MetadataCheckpointOperations. This should
+     *                        be shared by all transactions on the same Container Metadata.
+     */
+    ContainerMetadataUpdateTransaction(ContainerMetadata baseMetadata, ContainerMetadata realMetadata, long transactionId,
+                                       MetadataCheckpointCache checkpointCache) {
         this.baseMetadata = Preconditions.checkNotNull(baseMetadata, "baseMetadata");
         this.realMetadata = Preconditions.checkNotNull(realMetadata, "realMetadata");
+        this.checkpointCache = Preconditions.checkNotNull(checkpointCache, "checkpointCache");
         this.transactionId = transactionId;
         this.containerId = this.baseMetadata.getContainerId();
         this.recoveryMode = this.baseMetadata.isRecoveryMode();
@@ -331,7 +347,8 @@ class ContainerMetadataUpdateTransaction implements ContainerMetadata {
             // MetadataCheckpointOperations do not require preProcess and accept; they can be handled in a single stage.
             processMetadataOperation((MetadataCheckpointOperation) operation);
         } else if (operation instanceof StorageMetadataCheckpointOperation) {
-            // StorageMetadataCheckpointOperation do not require preProcess and accept; they can be handled in a single stage.
+            // StorageMetadataCheckpointOperations are serialized here; accepting them only marks them as the base for
+            // the next one (see acceptOperation).
             processMetadataOperation((StorageMetadataCheckpointOperation) operation);
         } else if (operation instanceof StreamSegmentTruncateOperation) {
             segmentMetadata.preProcessOperation((StreamSegmentTruncateOperation) operation);
@@ -368,10 +385,15 @@ class ContainerMetadataUpdateTransaction implements ContainerMetadata {
         } else if (operation instanceof MetadataCheckpointOperation) {
             // A MetadataCheckpointOperation represents a valid truncation point. Record it as such.
             this.newTruncationPoints.add(operation.getSequenceNumber());
+        } else if (operation instanceof StorageMetadataCheckpointOperation) {
+            // Subsequent StorageMetadataCheckpointOperations need only contain what changed since this one.
+            this.checkpointCache.storageCheckpointAccepted();
         } else if (operation instanceof StreamSegmentMapOperation) {
             acceptMetadataOperation((StreamSegmentMapOperation) operation);
         } else if (operation instanceof UpdateAttributesOperation) {
             segmentMetadata.acceptOperation((UpdateAttributesOperation) operation);
+        } else if (operation instanceof UnloadAttributesOperation) {
+            segmentMetadata.acceptOperation((UnloadAttributesOperation) operation);
         } else if (operation instanceof StreamSegmentTruncateOperation) {
             segmentMetadata.acceptOperation((StreamSegmentTruncateOperation) operation);
         }
@@ -419,7 +441,12 @@ class ContainerMetadataUpdateTransaction implements ContainerMetadata {
             } else {
                 // In non-Recovery Mode, a MetadataCheckpointOperation means we need to serialize the current state of
                 // the Metadata, both the base Container Metadata and the current Transaction.
+                this.checkpointCache.beginCheckpoint();
                 operation.setContents(METADATA_CHECKPOINT_SERIALIZER.serialize(this));
+                this.checkpointCache.endCheckpoint();
+                log.debug("{}: Serialized MetadataCheckpointOperation with SequenceNumber {}. Segments = {}, Reused = {}.",
+                        this.traceObjectId, operation.getSequenceNumber(), this.checkpointCache.getTotalCount(),
+                        this.checkpointCache.getReusedCount());
             }
         } catch (IOException ex) {
             throw new MetadataUpdateException(this.containerId, "Unable to process MetadataCheckpointOperation " + operation, ex);
@@ -634,20 +661,22 @@ class ContainerMetadataUpdateTransaction implements ContainerMetadata {
         }
 
         private void write00(ContainerMetadataUpdateTransaction t, RevisionDataOutput output) throws IOException {
-            val toSerialize = t.realMetadata.getAllStreamSegmentIds().stream()
-                                            .map(t.realMetadata::getStreamSegmentMetadata).collect(Collectors.toList());
-            output.writeCollection(toSerialize, this::writeSegmentMetadata00);
+            val segments = t.realMetadata.getAllStreamSegmentIds().stream()
+                                         .map(t.realMetadata::getStreamSegmentMetadata).collect(Collectors.toList());
+
+            // Only include those Segments whose Storage State changed since the last StorageMetadataCheckpointOperation.
+            output.writeCollection(t.checkpointCache.beginStorageCheckpoint(segments), this::writeSegmentMetadata00);
         }
 
         private void read00(RevisionDataInput input, ContainerMetadataUpdateTransaction t) throws IOException {
             input.readCollection(s -> readSegmentMetadata00(s, t));
         }
 
-        private void writeSegmentMetadata00(RevisionDataOutput output, SegmentMetadata sm) throws IOException {
-            output.writeLong(sm.getId());
-            output.writeLong(sm.getStorageLength());
-            output.writeBoolean(sm.isSealedInStorage());
-            output.writeBoolean(sm.isDeleted());
+        private void writeSegmentMetadata00(RevisionDataOutput output, MetadataCheckpointCache.StorageState state) throws IOException {
+            output.writeLong(state.getSegmentId());
+            output.writeLong(state.getStorageLength());
+            output.writeBoolean(state.isSealedInStorage());
+            output.writeBoolean(state.isDeleted());
         }
 
         @SneakyThrows(MetadataUpdateException.class)
@@ -696,7 +725,9 @@ class ContainerMetadataUpdateTransaction implements ContainerMetadata {
 
             // 5. Changed Segment Metadata.
             toSerialize.addAll(t.segmentUpdates.values());
-            output.writeCollection(toSerialize, this::writeSegmentMetadata00);
+
+            // Records for Segments that have not changed since the last checkpoint are reused from the cache.
+            output.writeCollection(toSerialize, (o, sm) -> t.checkpointCache.write(o, sm, this::writeSegmentMetadata00));
         }
 
         private void read00(RevisionDataInput input, ContainerMetadataUpdateTransaction t) throws IOException {
@@ -720,7 +751,8 @@ class ContainerMetadataUpdateTransaction implements ContainerMetadata {
             output.writeBoolean(sm.isDeleted());
             output.writeLong(sm.getLastModified().getTime());
             output.writeLong(sm.getStartOffset());
-            output.writeMap(sm.getAttributes(), RevisionDataOutput::writeUUID, RevisionDataOutput::writeLong);
+            // Include removed dynamic Attributes as well, so that their removal survives recovery until it is persisted.
+            output.writeMap(sm.getInMemoryAttributes(), RevisionDataOutput::writeUUID, RevisionDataOutput::writeLong);
         }
 
         private UpdateableSegmentMetadata readSegmentMetadata00(RevisionDataInput input, ContainerMetadataUpdateTransaction t) throws IOException {
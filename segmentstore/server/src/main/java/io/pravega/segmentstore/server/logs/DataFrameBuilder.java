@@ -12,6 +12,7 @@ package io.pravega.segmentstore.server.logs;
 import com.google.common.base.Preconditions;
 import io.pravega.common.Exceptions;
 import io.pravega.common.ObjectClosedException;
+import io.pravega.common.Timer;
 import io.pravega.common.util.SequencedItemList;
 import io.pravega.segmentstore.server.logs.operations.CompletableOperation;
 import io.pravega.segmentstore.storage.DurableDataLog;
@@ -26,6 +27,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import javax.annotation.concurrent.NotThreadSafe;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
@@ -101,6 +103,25 @@ class DataFrameBuilder<T extends SequencedItemList.Element> implements AutoClose
         this.outputStream.releaseBuffer();
     }
 
+    /**
+     * Seals the current DataFrame (if it has any contents) and publishes it to the underlying DurableDataLog. As opposed
+     * from flush(), this does not release the underlying buffer, so it should be used if more items are expected to be
+     * added right away.
+     */
+    void closeCurrentFrame() {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        this.outputStream.flush();
+    }
+
+    /**
+     * Gets a value indicating the length, in bytes, of the DataFrame that is currently being built (and not yet published).
+     *
+     * @return The length of the current DataFrame, or 0 if no such DataFrame exists.
+     */
+    int getCurrentFrameLength() {
+        return this.outputStream.getCurrentFrameLength();
+    }
+
     /**
      * If in a failed state (and thus closed), returns the original exception that caused the failure.
      *
@@ -183,9 +204,11 @@ class DataFrameBuilder<T extends SequencedItemList.Element> implements AutoClose
 
         try {
             this.args.beforeCommit.accept(commitArgs);
+            Timer writeTimer = new Timer();
             this.targetLog.append(dataFrame.getData(), this.args.writeTimeout)
                     .thenAcceptAsync(logAddress -> {
                         commitArgs.setLogAddress(logAddress);
+                        commitArgs.setWriteElapsed(writeTimer.getElapsed());
                         this.args.commitSuccess.accept(commitArgs);
                     }, this.args.executor)
                     .exceptionally(ex -> handleProcessingException(ex, commitArgs));
@@ -257,6 +280,13 @@ class DataFrameBuilder<T extends SequencedItemList.Element> implements AutoClose
         @Setter
         private List<CompletableOperation> operations;
 
+        /**
+         * The amount of time it took to write the DataFrame to the DurableDataLog. Only set upon a successful commit.
+         */
+        @Getter
+        @Setter(AccessLevel.PRIVATE)
+        private Duration writeElapsed;
+
         /**
          * Creates a new instance of the CommitArgs class.
          *
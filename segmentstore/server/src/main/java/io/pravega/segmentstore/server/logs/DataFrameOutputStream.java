@@ -198,6 +198,15 @@ class DataFrameOutputStream extends OutputStream {
         }
     }
 
+    /**
+     * Gets a value indicating the length, in bytes, of the current (unsealed) frame, or 0 if there is no such frame.
+     *
+     * @return The length of the current frame.
+     */
+    int getCurrentFrameLength() {
+        return this.currentFrame == null ? 0 : this.currentFrame.getLength();
+    }
+
     /**
      * Discards all the data currently accumulated in the current frame.
      */
@@ -69,6 +69,7 @@ public class DurableLog extends AbstractService implements OperationLog {
     private final MemoryStateUpdater memoryStateUpdater;
     private final OperationProcessor operationProcessor;
     private final UpdateableContainerMetadata metadata;
+    private final DurableLogConfig config;
     @GuardedBy("tailReads")
     private final Set<TailRead> tailReads;
     private final ScheduledExecutorService executor;
@@ -92,7 +93,7 @@ public class DurableLog extends AbstractService implements OperationLog {
      * @throws NullPointerException If any of the arguments are null.
      */
     public DurableLog(DurableLogConfig config, UpdateableContainerMetadata metadata, DurableDataLogFactory dataFrameLogFactory, ReadIndex readIndex, ScheduledExecutorService executor) {
-        Preconditions.checkNotNull(config, "config");
+        this.config = Preconditions.checkNotNull(config, "config");
         this.metadata = Preconditions.checkNotNull(metadata, "metadata");
         Preconditions.checkNotNull(dataFrameLogFactory, "dataFrameLogFactory");
         Preconditions.checkNotNull(readIndex, "readIndex");
@@ -105,7 +106,10 @@ public class DurableLog extends AbstractService implements OperationLog {
         this.inMemoryOperationLog = createInMemoryLog();
         this.memoryStateUpdater = new MemoryStateUpdater(this.inMemoryOperationLog, readIndex, this::triggerTailReads);
         MetadataCheckpointPolicy checkpointPolicy = new MetadataCheckpointPolicy(config, this::queueMetadataCheckpoint, this.executor);
-        this.operationProcessor = new OperationProcessor(this.metadata, this.memoryStateUpdater, this.durableDataLog, checkpointPolicy, executor);
+        AdaptiveBatchingPolicy batchingPolicy = config.getBatchingTargetLatencyMillis() > 0
+                ? new AdaptiveBatchingPolicy(config.getBatchingTargetLatencyMillis(), this.durableDataLog.getMaxAppendLength())
+                : null;
+        this.operationProcessor = new OperationProcessor(this.metadata, this.memoryStateUpdater, this.durableDataLog, checkpointPolicy, batchingPolicy, executor);
         Services.onStop(this.operationProcessor, this::queueStoppedHandler, this::queueFailedHandler, this.executor);
         this.tailReads = new HashSet<>();
         this.closed = new AtomicBoolean();
@@ -214,7 +218,8 @@ public class DurableLog extends AbstractService implements OperationLog {
             this.durableDataLog.initialize(RECOVERY_TIMEOUT);
 
             // Initiate the recovery.
-            RecoveryProcessor p = new RecoveryProcessor(this.metadata, this.durableDataLog, this.memoryStateUpdater);
+            RecoveryProcessor p = new RecoveryProcessor(this.metadata, this.durableDataLog, this.memoryStateUpdater,
+                    this.config.getRecoveryThreadCount());
             int recoveredItemCount = p.performRecovery();
             this.operationProcessor.getMetrics().operationsCompleted(recoveredItemCount, timer.getElapsed());
 
@@ -26,6 +26,8 @@ public class DurableLogConfig {
     public static final Property<Integer> CHECKPOINT_COMMIT_COUNT = Property.named("checkpointCommitCountThreshold", 300);
     public static final Property<Long> CHECKPOINT_TOTAL_COMMIT_LENGTH = Property.named("checkpointTotalCommitLengthThreshold", 256 * 1024 * 1024L);
     public static final Property<Integer> START_RETRY_DELAY_MILLIS = Property.named("startRetryDelayMillis", 60 * 1000);
+    public static final Property<Integer> RECOVERY_THREAD_COUNT = Property.named("recoveryThreadCount", 1);
+    public static final Property<Integer> BATCHING_TARGET_LATENCY_MILLIS = Property.named("batchingTargetLatencyMillis", 0);
     private static final String COMPONENT_CODE = "durablelog";
 
     //endregion
@@ -56,6 +58,22 @@ public class DurableLogConfig {
     @Getter
     private Duration startRetryDelay;
 
+    /**
+     * The number of threads to use for populating the ReadIndex during recovery. If 1, recovery is executed sequentially
+     * on the calling thread; otherwise DataFrames are read ahead on a separate thread and ReadIndex updates are
+     * partitioned by Segment Id across this many threads.
+     */
+    @Getter
+    private final int recoveryThreadCount;
+
+    /**
+     * The write latency (millis) that the adaptive batching policy aims for, when sizing DataFrames and batching delays.
+     * If 0, adaptive batching is disabled: DataFrames are always filled up to the DurableDataLog's maximum append length
+     * and the batching delay is derived from the DurableDataLog's queue statistics.
+     */
+    @Getter
+    private final int batchingTargetLatencyMillis;
+
     //endregion
 
     //region Constructor
@@ -80,6 +98,15 @@ public class DurableLogConfig {
             throw new ConfigurationException(String.format("Property '%s' must be a positive integer.", START_RETRY_DELAY_MILLIS));
         }
         this.startRetryDelay = Duration.ofMillis(startRetryDelayMillis);
+        this.recoveryThreadCount = properties.getInt(RECOVERY_THREAD_COUNT);
+        if (this.recoveryThreadCount <= 0) {
+            throw new ConfigurationException(String.format("Property '%s' must be a positive integer.", RECOVERY_THREAD_COUNT));
+        }
+
+        this.batchingTargetLatencyMillis = properties.getInt(BATCHING_TARGET_LATENCY_MILLIS);
+        if (this.batchingTargetLatencyMillis < 0) {
+            throw new ConfigurationException(String.format("Property '%s' must be a non-negative integer.", BATCHING_TARGET_LATENCY_MILLIS));
+        }
     }
 
     /**
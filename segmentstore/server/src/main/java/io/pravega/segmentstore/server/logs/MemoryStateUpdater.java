@@ -27,6 +27,7 @@ import io.pravega.segmentstore.server.logs.operations.StreamSegmentAppendOperati
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import javax.annotation.concurrent.ThreadSafe;
 import lombok.extern.slf4j.Slf4j;
 
@@ -129,6 +130,21 @@ class MemoryStateUpdater implements CacheUtilizationProvider {
      *                                 append operations out of order.
      */
     void process(Operation operation) throws DataCorruptionException {
+        process(operation, this::addToReadIndex);
+    }
+
+    /**
+     * Processes the given operation and applies it to the InMemory OperationLog, delegating the ReadIndex update to the
+     * given consumer. The consumer may defer the update (for example, to execute it on a different thread), as long as
+     * the updates for any given StreamSegment are applied in the order in which they were handed to it.
+     *
+     * @param operation        The operation to process.
+     * @param readIndexUpdater A Consumer that will apply the StorageOperation to the ReadIndex (usually by means of
+     *                         addToReadIndex()).
+     * @throws DataCorruptionException If a serious, non-recoverable, data corruption was detected, such as trying to
+     *                                 append operations out of order.
+     */
+    void process(Operation operation, Consumer<StorageOperation> readIndexUpdater) throws DataCorruptionException {
         if (!operation.canSerialize()) {
             // Nothing to do.
             return;
@@ -137,7 +153,7 @@ class MemoryStateUpdater implements CacheUtilizationProvider {
         // Add entry to MemoryTransactionLog and ReadIndex/Cache. This callback is invoked from the OperationProcessor,
         // which always acks items in order of Sequence Number - so the entries should be ordered (but always check).
         if (operation instanceof StorageOperation) {
-            addToReadIndex((StorageOperation) operation);
+            readIndexUpdater.accept((StorageOperation) operation);
             if (operation instanceof StreamSegmentAppendOperation) {
                 // Transform a StreamSegmentAppendOperation into its corresponding Cached version.
                 try {
@@ -167,7 +183,7 @@ class MemoryStateUpdater implements CacheUtilizationProvider {
      *
      * @param operation The operation to register.
      */
-    private void addToReadIndex(StorageOperation operation) {
+    void addToReadIndex(StorageOperation operation) {
         try {
             if (operation instanceof StreamSegmentAppendOperation) {
                 // Record a StreamSegmentAppendOperation. Just in case, we also support this type of operation, but we need to
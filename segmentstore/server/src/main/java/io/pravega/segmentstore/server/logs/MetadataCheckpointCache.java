@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.logs;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.io.EnhancedByteArrayOutputStream;
+import io.pravega.common.io.serialization.RevisionDataOutput;
+import io.pravega.common.util.LongHashMap;
+import io.pravega.segmentstore.server.SegmentMetadata;
+import io.pravega.segmentstore.server.containers.StreamSegmentMetadata;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import javax.annotation.concurrent.NotThreadSafe;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+/**
+ * Reduces the cost of checkpointing the Container Metadata.
+ * <p>
+ * MetadataCheckpointOperations are full snapshots of the metadata; they are the only valid truncation points for the
+ * log and the base from which recovery begins, so they cannot refer to anything before them. This caches the
+ * serialized form of each Segment's record in such a checkpoint, so that a checkpoint only needs to serialize those
+ * Segments that changed since the previous one; the records for all other Segments are copied verbatim. Only committed
+ * Segment Metadata (StreamSegmentMetadata instances) is cached, and a cached record is only reused if it was generated
+ * from the same instance, at the same version. Records for Segments that are not included in a checkpoint (i.e.,
+ * evicted ones) are discarded when that checkpoint completes.
+ * <p>
+ * StorageMetadataCheckpointOperations are deltas: each one only contains those Segments whose Storage State changed
+ * since the previous one was accepted (the first one is always complete). Upon recovery, they are applied, in order,
+ * on top of the first MetadataCheckpointOperation (the base), which is equivalent to applying complete ones: any
+ * change made before the base is included in it, and any change after it is included in the first delta after that
+ * change. Whenever a MetadataCheckpointOperation records a different Storage State for a Segment than the last delta did
+ * (its metadata may have been copied before the last delta), that Segment is included in the next delta as well.
+ */
+@NotThreadSafe
+class MetadataCheckpointCache {
+    //region Members
+
+    private LongHashMap<Record> records = new LongHashMap<>();
+    private LongHashMap<Record> newRecords;
+    /**
+     * The number of Segment records that were reused during the last checkpoint.
+     */
+    @Getter
+    private int reusedCount;
+    /**
+     * The total number of Segment records that were written during the last checkpoint.
+     */
+    @Getter
+    private int totalCount;
+    private LongHashMap<StorageState> storageStates = new LongHashMap<>();
+    private LongHashMap<StorageState> pendingStorageStates;
+
+    //endregion
+
+    //region MetadataCheckpointOperation
+
+    /**
+     * Indicates that a new checkpoint is being serialized.
+     */
+    void beginCheckpoint() {
+        this.newRecords = new LongHashMap<>(this.records.size());
+        this.reusedCount = 0;
+        this.totalCount = 0;
+    }
+
+    /**
+     * Indicates that the current checkpoint has been serialized. Any records that were not used by it are discarded.
+     */
+    void endCheckpoint() {
+        Preconditions.checkState(this.newRecords != null, "No checkpoint in progress.");
+        this.records = this.newRecords;
+        this.newRecords = null;
+    }
+
+    /**
+     * Writes the record for the given Segment to the given RevisionDataOutput, either by copying a cached record or by
+     * invoking the given serializer (and caching its output, if possible).
+     *
+     * @param output     The RevisionDataOutput to write to.
+     * @param metadata   The SegmentMetadata to write.
+     * @param serializer The serializer to use if there is no usable cached record.
+     * @throws IOException If an IOException occurred.
+     */
+    void write(RevisionDataOutput output, SegmentMetadata metadata, RevisionDataOutput.ElementSerializer<SegmentMetadata> serializer)
+            throws IOException {
+        Preconditions.checkState(this.newRecords != null, "No checkpoint in progress.");
+        this.totalCount++;
+        invalidateStorageState(metadata);
+        if (!(metadata instanceof StreamSegmentMetadata) || !(output.getBaseStream() instanceof EnhancedByteArrayOutputStream)) {
+            // Uncommitted changes (which are going to change anyway), or we cannot extract what we write.
+            serializer.accept(output, metadata);
+            return;
+        }
+
+        // Get the version before serializing; should anything change while we do so, we'll just not reuse it next time.
+        long version = ((StreamSegmentMetadata) metadata).getVersion();
+        Record record = this.records.get(metadata.getId());
+        if (record != null && record.metadata == metadata && record.version == version) {
+            output.write(record.data);
+            this.reusedCount++;
+        } else {
+            EnhancedByteArrayOutputStream base = (EnhancedByteArrayOutputStream) output.getBaseStream();
+            int startPosition = base.size();
+            serializer.accept(output, metadata);
+            byte[] data = base.getData().subSegment(startPosition, base.size() - startPosition).getCopy();
+            record = new Record(metadata, version, data);
+        }
+
+        this.newRecords.put(metadata.getId(), record);
+    }
+
+    //endregion
+
+    //region StorageMetadataCheckpointOperation
+
+    /**
+     * Indicates that a new StorageMetadataCheckpointOperation is being serialized and determines what it should contain.
+     * The result does not take effect until storageCheckpointAccepted() is invoked.
+     *
+     * @param segments All the (committed) Segment Metadata in the Container.
+     * @return The Storage State of those Segments that changed since the last accepted StorageMetadataCheckpointOperation,
+     * in the same order as given.
+     */
+    List<StorageState> beginStorageCheckpoint(Collection<SegmentMetadata> segments) {
+        this.pendingStorageStates = new LongHashMap<>(segments.size());
+        val result = new ArrayList<StorageState>();
+        for (SegmentMetadata sm : segments) {
+            StorageState state = new StorageState(sm);
+            StorageState previous = this.storageStates.get(sm.getId());
+            if (previous == null || previous.metadata != sm || !previous.hasSameState(state)) {
+                result.add(state);
+            }
+
+            this.pendingStorageStates.put(sm.getId(), state);
+        }
+
+        return result;
+    }
+
+    /**
+     * Indicates that the StorageMetadataCheckpointOperation serialized by the last call to beginStorageCheckpoint() has
+     * been accepted (it is about to be written to the log). If it does not make it there, the DurableLog will shut down
+     * and a new one (with a new instance of this class) will begin with a complete one.
+     */
+    void storageCheckpointAccepted() {
+        if (this.pendingStorageStates != null) {
+            this.storageStates = this.pendingStorageStates;
+            this.pendingStorageStates = null;
+        }
+    }
+
+    private void invalidateStorageState(SegmentMetadata metadata) {
+        StorageState state = this.storageStates.get(metadata.getId());
+        if (state != null && !state.hasSameState(new StorageState(metadata))) {
+            this.storageStates.remove(metadata.getId());
+        }
+    }
+
+    //endregion
+
+    //region Record
+
+    @RequiredArgsConstructor
+    private static class Record {
+        final SegmentMetadata metadata;
+        final long version;
+        final byte[] data;
+    }
+
+    /**
+     * A snapshot of the Storage State of a Segment.
+     */
+    @Getter
+    static class StorageState {
+        private final SegmentMetadata metadata;
+        private final long segmentId;
+        private final long storageLength;
+        private final boolean sealedInStorage;
+        private final boolean deleted;
+
+        StorageState(SegmentMetadata metadata) {
+            this.metadata = metadata;
+            this.segmentId = metadata.getId();
+            this.storageLength = metadata.getStorageLength();
+            this.sealedInStorage = metadata.isSealedInStorage();
+            this.deleted = metadata.isDeleted();
+        }
+
+        boolean hasSameState(StorageState other) {
+            return this.segmentId == other.segmentId
+                    && this.storageLength == other.storageLength
+                    && this.sealedInStorage == other.sealedInStorage
+                    && this.deleted == other.deleted;
+        }
+    }
+
+    //endregion
+}
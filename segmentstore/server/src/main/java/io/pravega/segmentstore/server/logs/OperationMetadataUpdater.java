@@ -40,6 +40,7 @@ class OperationMetadataUpdater implements ContainerMetadata {
     private final String traceObjectId;
     private final UpdateableContainerMetadata metadata;
     private final ArrayDeque<ContainerMetadataUpdateTransaction> transactions;
+    private final MetadataCheckpointCache checkpointCache;
     private long nextTransactionId;
 
     //endregion
@@ -57,6 +58,7 @@ class OperationMetadataUpdater implements ContainerMetadata {
         this.traceObjectId = String.format("OperationMetadataUpdater[%d]", metadata.getContainerId());
         this.nextTransactionId = 0;
         this.transactions = new ArrayDeque<>();
+        this.checkpointCache = new MetadataCheckpointCache();
     }
 
     //endregion
@@ -274,7 +276,8 @@ class OperationMetadataUpdater implements ContainerMetadata {
                 previous = this.transactions.peekLast();
             }
 
-            ContainerMetadataUpdateTransaction txn = new ContainerMetadataUpdateTransaction(previous, this.metadata, this.nextTransactionId);
+            ContainerMetadataUpdateTransaction txn = new ContainerMetadataUpdateTransaction(previous, this.metadata, this.nextTransactionId,
+                    this.checkpointCache);
             this.nextTransactionId++;
             this.transactions.addLast(txn);
         }
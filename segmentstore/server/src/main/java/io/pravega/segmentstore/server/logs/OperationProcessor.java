@@ -71,6 +71,9 @@ class OperationProcessor extends AbstractThreadPoolService implements AutoClosea
     @Getter
     private final SegmentStoreMetrics.OperationProcessor metrics;
     private final ThrottlerCalculator throttlerCalculator;
+    private final AdaptiveBatchingPolicy batchingPolicy;
+    @GuardedBy("stateLock")
+    private AdaptiveBatchingPolicy.FrameCloseReason nextFrameCloseReason;
 
     //endregion
 
@@ -87,6 +90,24 @@ class OperationProcessor extends AbstractThreadPoolService implements AutoClosea
      * @throws NullPointerException If any of the arguments are null.
      */
     OperationProcessor(UpdateableContainerMetadata metadata, MemoryStateUpdater stateUpdater, DurableDataLog durableDataLog, MetadataCheckpointPolicy checkpointPolicy, ScheduledExecutorService executor) {
+        this(metadata, stateUpdater, durableDataLog, checkpointPolicy, null, executor);
+    }
+
+    /**
+     * Creates a new instance of the OperationProcessor class.
+     *
+     * @param metadata         The ContainerMetadata for the Container to process operations for.
+     * @param stateUpdater     A MemoryStateUpdater that is used to update in-memory structures upon successful Operation committal.
+     * @param durableDataLog   The DataFrameLog to write DataFrames to.
+     * @param checkpointPolicy The Checkpoint Policy for Metadata.
+     * @param batchingPolicy   (Optional) An AdaptiveBatchingPolicy to size DataFrames and batching delays with. If null,
+     *                         DataFrames are always filled up to the DurableDataLog's max append length and the batching
+     *                         delay is derived from the DurableDataLog's queue statistics.
+     * @param executor         An Executor to use for async operations.
+     * @throws NullPointerException If any of the required arguments are null.
+     */
+    OperationProcessor(UpdateableContainerMetadata metadata, MemoryStateUpdater stateUpdater, DurableDataLog durableDataLog, MetadataCheckpointPolicy checkpointPolicy,
+                       AdaptiveBatchingPolicy batchingPolicy, ScheduledExecutorService executor) {
         super(String.format("OperationProcessor[%d]", metadata.getContainerId()), executor);
         Preconditions.checkNotNull(durableDataLog, "durableDataLog");
         this.metadata = metadata;
@@ -98,11 +119,17 @@ class OperationProcessor extends AbstractThreadPoolService implements AutoClosea
         val args = new DataFrameBuilder.Args(this.state::frameSealed, this.state::commit, this.state::fail, this.executor);
         this.dataFrameBuilder = new DataFrameBuilder<>(durableDataLog, OperationSerializer.DEFAULT, args);
         this.metrics = new SegmentStoreMetrics.OperationProcessor(this.metadata.getContainerId());
-        this.throttlerCalculator = ThrottlerCalculator.builder()
-                                                      .cacheThrottler(stateUpdater::getCacheUtilization)
-                                                      .commitBacklogThrottler(this.commitQueue::size)
-                                                      .batchingThrottler(durableDataLog::getQueueStatistics)
-                                                      .build();
+        this.batchingPolicy = batchingPolicy;
+        val throttlerBuilder = ThrottlerCalculator.builder()
+                                                  .cacheThrottler(stateUpdater::getCacheUtilization)
+                                                  .commitBacklogThrottler(this.commitQueue::size);
+        if (this.batchingPolicy == null) {
+            throttlerBuilder.batchingThrottler(durableDataLog::getQueueStatistics);
+        } else {
+            throttlerBuilder.adaptiveBatchingThrottler(this.batchingPolicy);
+        }
+
+        this.throttlerCalculator = throttlerBuilder.build();
     }
 
     //endregion
@@ -282,6 +309,7 @@ class OperationProcessor extends AbstractThreadPoolService implements AutoClosea
                     try {
                         processOperation(o);
                         this.state.addPending(o);
+                        closeFrameIfTargetLengthReached();
                         count++;
                     } catch (Throwable ex) {
                         ex = Exceptions.unwrap(ex);
@@ -312,7 +340,12 @@ class OperationProcessor extends AbstractThreadPoolService implements AutoClosea
                     if (operations.isEmpty()) {
                         log.debug("{}: processOperations (Flush).", this.traceObjectId);
                         synchronized (this.stateLock) {
-                            this.dataFrameBuilder.flush();
+                            this.nextFrameCloseReason = AdaptiveBatchingPolicy.FrameCloseReason.QUEUE_EMPTY;
+                            try {
+                                this.dataFrameBuilder.flush();
+                            } finally {
+                                this.nextFrameCloseReason = null;
+                            }
                         }
                     } else {
                         log.debug("{}: processOperations (Add OperationCount = {}).", this.traceObjectId, operations.size());
@@ -372,6 +405,28 @@ class OperationProcessor extends AbstractThreadPoolService implements AutoClosea
         log.trace("{}: DataFrameBuilder.Append {}.", this.traceObjectId, entry);
     }
 
+    /**
+     * Closes the current DataFrame (and writes it to the DurableDataLog) if the AdaptiveBatchingPolicy indicates it is
+     * large enough. This must be invoked after the last processed Operation has been added to the pending list, since
+     * sealing the DataFrame will associate all pending Operations with it.
+     */
+    private void closeFrameIfTargetLengthReached() {
+        if (this.batchingPolicy == null) {
+            return;
+        }
+
+        synchronized (this.stateLock) {
+            if (this.dataFrameBuilder.getCurrentFrameLength() >= this.batchingPolicy.getTargetFrameLength()) {
+                this.nextFrameCloseReason = AdaptiveBatchingPolicy.FrameCloseReason.TARGET_LENGTH;
+                try {
+                    this.dataFrameBuilder.closeCurrentFrame();
+                } finally {
+                    this.nextFrameCloseReason = null;
+                }
+            }
+        }
+    }
+
     /**
      * Closes the Operation Queue and fails all Operations in it with the given exception.
      *
@@ -505,12 +560,18 @@ class OperationProcessor extends AbstractThreadPoolService implements AutoClosea
          * @param commitArgs The CommitArgs to create a checkpoint for.
          */
         void frameSealed(DataFrameBuilder.CommitArgs commitArgs) {
+            AdaptiveBatchingPolicy.FrameCloseReason closeReason;
             synchronized (stateLock) {
                 commitArgs.setMetadataTransactionId(OperationProcessor.this.metadataUpdater.sealTransaction());
                 commitArgs.setOperations(Collections.unmodifiableList(this.nextFrameOperations));
                 this.nextFrameOperations = new ArrayList<>();
                 this.metadataTransactions.addLast(commitArgs);
+
+                // If we did not explicitly close the DataFrame, then the DataFrameBuilder did it because it was full.
+                closeReason = nextFrameCloseReason == null ? AdaptiveBatchingPolicy.FrameCloseReason.FULL : nextFrameCloseReason;
             }
+
+            metrics.frameClosed(closeReason.name().toLowerCase(), commitArgs.getDataFrameLength());
         }
 
         /**
@@ -569,6 +630,10 @@ class OperationProcessor extends AbstractThreadPoolService implements AutoClosea
                 }
                 autoCompleteIfNeeded();
                 this.checkpointPolicy.recordCommit(commitArgs.getDataFrameLength());
+                if (batchingPolicy != null && commitArgs.getWriteElapsed() != null) {
+                    batchingPolicy.recordWrite(commitArgs.getDataFrameLength(), commitArgs.getWriteElapsed());
+                    metrics.batchingPolicyUpdated(batchingPolicy.getTargetFrameLength(), batchingPolicy.getLingerDelayMillis());
+                }
             }
         }
 
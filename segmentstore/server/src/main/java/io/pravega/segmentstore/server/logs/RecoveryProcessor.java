@@ -10,17 +10,34 @@
 package io.pravega.segmentstore.server.logs;
 
 import com.google.common.base.Preconditions;
+import io.pravega.common.Exceptions;
 import io.pravega.common.LoggerHelpers;
 import io.pravega.common.Timer;
+import io.pravega.common.concurrent.ExecutorServiceHelpers;
+import io.pravega.common.concurrent.Futures;
 import io.pravega.segmentstore.contracts.ContainerException;
 import io.pravega.segmentstore.contracts.StreamSegmentException;
 import io.pravega.segmentstore.server.DataCorruptionException;
 import io.pravega.segmentstore.server.UpdateableContainerMetadata;
+import io.pravega.segmentstore.server.logs.operations.MergeTransactionOperation;
 import io.pravega.segmentstore.server.logs.operations.MetadataCheckpointOperation;
 import io.pravega.segmentstore.server.logs.operations.Operation;
 import io.pravega.segmentstore.server.logs.operations.OperationSerializer;
+import io.pravega.segmentstore.server.logs.operations.StorageOperation;
+import io.pravega.segmentstore.server.logs.operations.StreamSegmentAppendOperation;
 import io.pravega.segmentstore.storage.DurableDataLog;
 import io.pravega.segmentstore.storage.LogAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -30,9 +47,20 @@ import lombok.extern.slf4j.Slf4j;
 class RecoveryProcessor {
     //region Members
 
+    /**
+     * Maximum number of DataFrameRecords that can be read ahead of the Operation currently being recovered.
+     */
+    private static final int READ_AHEAD_RECORD_COUNT = 1024;
+
+    /**
+     * Maximum number of Appends that are accumulated before being applied to the ReadIndex in parallel.
+     */
+    private static final int READ_INDEX_BATCH_SIZE = 4096;
+    private static final long QUEUE_POLL_TIMEOUT_MILLIS = 100;
     private final UpdateableContainerMetadata metadata;
     private final DurableDataLog durableDataLog;
     private final MemoryStateUpdater stateUpdater;
+    private final int recoveryThreadCount;
     private final String traceObjectId;
 
     //endregion
@@ -40,16 +68,31 @@ class RecoveryProcessor {
     //region Constructor
 
     /**
-     * Creates a new instance of the RecoveryProcessor class.
+     * Creates a new instance of the RecoveryProcessor class which executes the recovery sequentially.
      *
      * @param metadata         The UpdateableContainerMetadata to use for recovery.
      * @param durableDataLog   The (uninitialized) DurableDataLog to read data from for recovery.
      * @param stateUpdater     A MemoryStateUpdater that can be used to apply the recovered operations.
      */
     RecoveryProcessor(UpdateableContainerMetadata metadata, DurableDataLog durableDataLog, MemoryStateUpdater stateUpdater) {
+        this(metadata, durableDataLog, stateUpdater, 1);
+    }
+
+    /**
+     * Creates a new instance of the RecoveryProcessor class.
+     *
+     * @param metadata            The UpdateableContainerMetadata to use for recovery.
+     * @param durableDataLog      The (uninitialized) DurableDataLog to read data from for recovery.
+     * @param stateUpdater        A MemoryStateUpdater that can be used to apply the recovered operations.
+     * @param recoveryThreadCount The number of threads to populate the ReadIndex with. If greater than 1, DataFrames are
+     *                            also read and deserialized on a separate thread, ahead of the Operations being recovered.
+     */
+    RecoveryProcessor(UpdateableContainerMetadata metadata, DurableDataLog durableDataLog, MemoryStateUpdater stateUpdater, int recoveryThreadCount) {
+        Preconditions.checkArgument(recoveryThreadCount > 0, "recoveryThreadCount must be a positive integer.");
         this.metadata = Preconditions.checkNotNull(metadata, "metadata");
         this.durableDataLog = Preconditions.checkNotNull(durableDataLog, "durableDataLog");
         this.stateUpdater = Preconditions.checkNotNull(stateUpdater, "stateUpdater");
+        this.recoveryThreadCount = recoveryThreadCount;
         this.traceObjectId = String.format("RecoveryProcessor[%s]", this.metadata.getContainerId());
     }
 
@@ -117,19 +160,47 @@ class RecoveryProcessor {
      */
     private int recoverAllOperations(OperationMetadataUpdater metadataUpdater) throws Exception {
         long traceId = LoggerHelpers.traceEnterWithContext(log, this.traceObjectId, "recoverAllOperations");
+        int recoveredItemCount;
+        if (this.recoveryThreadCount <= 1) {
+            recoveredItemCount = recoverOperations(metadataUpdater, this.stateUpdater::addToReadIndex, null);
+        } else {
+            // Pipelined recovery: one thread reads and deserializes DataFrames, the current thread applies the Operations
+            // to the Metadata (in order), and the ReadIndex is populated using the remaining threads.
+            ScheduledExecutorService executor = ExecutorServiceHelpers.newScheduledThreadPool(this.recoveryThreadCount + 1,
+                    "recovery-" + this.metadata.getContainerId());
+            try {
+                ParallelReadIndexUpdater readIndexUpdater = new ParallelReadIndexUpdater(this.recoveryThreadCount, executor);
+                recoveredItemCount = recoverOperations(metadataUpdater, readIndexUpdater, executor);
+                readIndexUpdater.flush();
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        // Commit whatever changes we have in the metadata updater to the Container Metadata.
+        // This code will only be invoked if we haven't encountered any exceptions during recovery.
+        metadataUpdater.commitAll();
+        LoggerHelpers.traceLeave(log, this.traceObjectId, "recoverAllOperations", traceId, recoveredItemCount);
+        return recoveredItemCount;
+    }
+
+    private int recoverOperations(OperationMetadataUpdater metadataUpdater, Consumer<StorageOperation> readIndexUpdater,
+                                  ScheduledExecutorService readAheadExecutor) throws Exception {
         int skippedOperationCount = 0;
         int skippedDataFramesCount = 0;
         int recoveredItemCount = 0;
 
         // Read all entries from the DataFrameLog and append them to the InMemoryOperationLog.
         // Also update metadata along the way.
-        try (DataFrameReader<Operation> reader = new DataFrameReader<>(this.durableDataLog, OperationSerializer.DEFAULT, this.metadata.getContainerId())) {
+        try (DataFrameReader<Operation> reader = new DataFrameReader<>(this.durableDataLog, OperationSerializer.DEFAULT, this.metadata.getContainerId());
+             ReadAheadReader readAheadReader = readAheadExecutor == null ? null : new ReadAheadReader(reader, readAheadExecutor)) {
+            Callable<DataFrameRecord<Operation>> nextRecord = readAheadReader == null ? reader::getNext : readAheadReader::getNext;
             DataFrameRecord<Operation> dataFrameRecord;
 
             // We can only recover starting from a MetadataCheckpointOperation; find the first one.
             while (true) {
                 // Fetch the next operation.
-                dataFrameRecord = reader.getNext();
+                dataFrameRecord = nextRecord.call();
                 if (dataFrameRecord == null) {
                     // We have reached the end and have not found any MetadataCheckpointOperations.
                     log.warn("{}: Reached the end of the DataFrameLog and could not find any MetadataCheckpointOperations after reading {} Operations and {} Data Frames.",
@@ -152,22 +223,19 @@ class RecoveryProcessor {
             // Now continue with the recovery from here.
             while (dataFrameRecord != null) {
                 recordTruncationMarker(dataFrameRecord);
-                recoverOperation(dataFrameRecord, metadataUpdater);
+                recoverOperation(dataFrameRecord, metadataUpdater, readIndexUpdater);
                 recoveredItemCount++;
 
                 // Fetch the next operation.
-                dataFrameRecord = reader.getNext();
+                dataFrameRecord = nextRecord.call();
             }
         }
 
-        // Commit whatever changes we have in the metadata updater to the Container Metadata.
-        // This code will only be invoked if we haven't encountered any exceptions during recovery.
-        metadataUpdater.commitAll();
-        LoggerHelpers.traceLeave(log, this.traceObjectId, "recoverAllOperations", traceId, recoveredItemCount);
         return recoveredItemCount;
     }
 
-    protected void recoverOperation(DataFrameRecord<Operation> dataFrameRecord, OperationMetadataUpdater metadataUpdater) throws DataCorruptionException {
+    protected void recoverOperation(DataFrameRecord<Operation> dataFrameRecord, OperationMetadataUpdater metadataUpdater,
+                                    Consumer<StorageOperation> readIndexUpdater) throws DataCorruptionException {
         // Update Metadata Sequence Number.
         Operation operation = dataFrameRecord.getItem();
         metadataUpdater.setOperationSequenceNumber(operation.getSequenceNumber());
@@ -183,7 +251,7 @@ class RecoveryProcessor {
         }
 
         // Update in-memory structures.
-        this.stateUpdater.process(operation);
+        this.stateUpdater.process(operation, readIndexUpdater);
     }
 
     private void recordTruncationMarker(DataFrameRecord<Operation> dataFrameRecord) {
@@ -204,4 +272,165 @@ class RecoveryProcessor {
     }
 
     //endregion
+
+    //region ReadAheadReader
+
+    /**
+     * Reads and deserializes DataFrameRecords from a DataFrameReader on a background thread, ahead of the Operations
+     * that are currently being recovered.
+     */
+    private static class ReadAheadReader implements AutoCloseable {
+        private final DataFrameReader<Operation> reader;
+        private final BlockingQueue<DataFrameRecord<Operation>> queue;
+        private final AtomicBoolean closed;
+        private final CompletableFuture<Void> readTask;
+
+        ReadAheadReader(DataFrameReader<Operation> reader, ScheduledExecutorService executor) {
+            this.reader = reader;
+            this.queue = new ArrayBlockingQueue<>(READ_AHEAD_RECORD_COUNT);
+            this.closed = new AtomicBoolean();
+            this.readTask = CompletableFuture.runAsync(this::readAll, executor);
+        }
+
+        @Override
+        public void close() {
+            // Stop the read task and wait for it to complete, since the underlying DataFrameReader is not thread safe
+            // and is about to be closed by our caller.
+            this.closed.set(true);
+            this.queue.clear();
+            Futures.await(this.readTask);
+        }
+
+        /**
+         * Gets the next DataFrameRecord, in order.
+         *
+         * @return The next DataFrameRecord, or null if the end of the DurableDataLog has been reached.
+         * @throws Exception If the read task failed; this will be the same exception that DataFrameReader.getNext() threw.
+         */
+        DataFrameRecord<Operation> getNext() throws Exception {
+            while (true) {
+                DataFrameRecord<Operation> result = this.queue.poll(QUEUE_POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (result != null) {
+                    return result;
+                } else if (this.readTask.isDone()) {
+                    // The read task may have added its last record after our poll timed out but before it completed.
+                    result = this.queue.poll();
+                    if (result == null) {
+                        rethrowReadFailure();
+                    }
+
+                    return result;
+                }
+            }
+        }
+
+        private void rethrowReadFailure() throws Exception {
+            try {
+                this.readTask.join();
+            } catch (CompletionException ex) {
+                Throwable cause = Exceptions.unwrap(ex);
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+
+                throw ex;
+            }
+        }
+
+        private void readAll() {
+            try {
+                DataFrameRecord<Operation> record = this.reader.getNext();
+                while (record != null && !this.closed.get()) {
+                    while (!this.queue.offer(record, QUEUE_POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        if (this.closed.get()) {
+                            return;
+                        }
+                    }
+
+                    record = this.reader.getNext();
+                }
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+        }
+    }
+
+    //endregion
+
+    //region ParallelReadIndexUpdater
+
+    /**
+     * Applies StorageOperations to the ReadIndex using multiple threads. Appends are partitioned by Segment Id, which
+     * preserves their order within each Segment. All other StorageOperations (i.e., Merges) act as barriers: they are
+     * applied on the calling thread after all Appends before them have been applied.
+     *
+     * Appends are accumulated in batches, and each batch is applied while the calling thread is blocked. We need to do
+     * this since the ReadIndex uses the recovery metadata (which is not thread safe) to validate the Appends.
+     */
+    private class ParallelReadIndexUpdater implements Consumer<StorageOperation> {
+        private final ScheduledExecutorService executor;
+        private final List<List<StorageOperation>> partitions;
+        private int batchCount;
+
+        ParallelReadIndexUpdater(int partitionCount, ScheduledExecutorService executor) {
+            this.executor = executor;
+            this.partitions = new ArrayList<>(partitionCount);
+            for (int i = 0; i < partitionCount; i++) {
+                this.partitions.add(new ArrayList<>());
+            }
+        }
+
+        @Override
+        public void accept(StorageOperation operation) {
+            if (operation instanceof StreamSegmentAppendOperation) {
+                int partition = (int) Math.floorMod(operation.getStreamSegmentId(), (long) this.partitions.size());
+                this.partitions.get(partition).add(operation);
+                this.batchCount++;
+                if (this.batchCount >= READ_INDEX_BATCH_SIZE) {
+                    flush();
+                }
+            } else {
+                if (operation instanceof MergeTransactionOperation) {
+                    // Merges involve two Segments which may be in different partitions.
+                    flush();
+                }
+
+                RecoveryProcessor.this.stateUpdater.addToReadIndex(operation);
+            }
+        }
+
+        /**
+         * Applies all pending Appends to the ReadIndex and waits for them to complete.
+         */
+        void flush() {
+            if (this.batchCount == 0) {
+                return;
+            }
+
+            List<CompletableFuture<Void>> futures = new ArrayList<>(this.partitions.size());
+            for (List<StorageOperation> partition : this.partitions) {
+                if (!partition.isEmpty()) {
+                    List<StorageOperation> operations = new ArrayList<>(partition);
+                    partition.clear();
+                    futures.add(CompletableFuture.runAsync(
+                            () -> operations.forEach(RecoveryProcessor.this.stateUpdater::addToReadIndex), this.executor));
+                }
+            }
+
+            this.batchCount = 0;
+            try {
+                Futures.allOf(futures).join();
+            } catch (CompletionException ex) {
+                // Surface the same exception we would have gotten had we applied this Append on the calling thread.
+                Throwable cause = Exceptions.unwrap(ex);
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+
+                throw ex;
+            }
+        }
+    }
+
+    //endregion
 }
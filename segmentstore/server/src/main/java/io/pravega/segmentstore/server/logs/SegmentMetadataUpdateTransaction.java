@@ -10,6 +10,7 @@
 package io.pravega.segmentstore.server.logs;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
 import io.pravega.common.Exceptions;
 import io.pravega.common.util.ImmutableDate;
 import io.pravega.segmentstore.contracts.AttributeUpdate;
@@ -28,12 +29,17 @@ import io.pravega.segmentstore.server.logs.operations.SegmentOperation;
 import io.pravega.segmentstore.server.logs.operations.StreamSegmentAppendOperation;
 import io.pravega.segmentstore.server.logs.operations.StreamSegmentSealOperation;
 import io.pravega.segmentstore.server.logs.operations.StreamSegmentTruncateOperation;
+import io.pravega.segmentstore.server.logs.operations.UnloadAttributesOperation;
 import io.pravega.segmentstore.server.logs.operations.UpdateAttributesOperation;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import javax.annotation.concurrent.NotThreadSafe;
 import lombok.Getter;
 
@@ -46,6 +52,7 @@ class SegmentMetadataUpdateTransaction implements UpdateableSegmentMetadata {
 
     private final boolean recoveryMode;
     private final Map<UUID, Long> attributeValues;
+    private final Set<UUID> unloadedAttributes;
     @Getter
     private final long id;
     @Getter
@@ -96,7 +103,8 @@ class SegmentMetadataUpdateTransaction implements UpdateableSegmentMetadata {
         this.sealedInStorage = baseMetadata.isSealedInStorage();
         this.merged = baseMetadata.isMerged();
         this.deleted = baseMetadata.isDeleted();
-        this.attributeValues = new HashMap<>(baseMetadata.getAttributes());
+        this.attributeValues = new HashMap<>(baseMetadata.getInMemoryAttributes());
+        this.unloadedAttributes = new HashSet<>();
         this.lastUsed = baseMetadata.getLastUsed();
     }
 
@@ -126,6 +134,11 @@ class SegmentMetadataUpdateTransaction implements UpdateableSegmentMetadata {
 
     @Override
     public Map<UUID, Long> getAttributes() {
+        return Collections.unmodifiableMap(Maps.filterValues(this.attributeValues, value -> value != SegmentMetadata.NULL_ATTRIBUTE_VALUE));
+    }
+
+    @Override
+    public Map<UUID, Long> getInMemoryAttributes() {
         return Collections.unmodifiableMap(this.attributeValues);
     }
 
@@ -180,6 +193,17 @@ class SegmentMetadataUpdateTransaction implements UpdateableSegmentMetadata {
     public void updateAttributes(Map<UUID, Long> attributeValues) {
         this.attributeValues.clear();
         this.attributeValues.putAll(attributeValues);
+        this.unloadedAttributes.clear();
+        this.isChanged = true;
+    }
+
+    @Override
+    public void unloadAttributes(Collection<UUID> attributeIds) {
+        for (UUID attributeId : attributeIds) {
+            this.attributeValues.remove(attributeId);
+            this.unloadedAttributes.add(attributeId);
+        }
+
         this.isChanged = true;
     }
 
@@ -405,14 +429,20 @@ class SegmentMetadataUpdateTransaction implements UpdateableSegmentMetadata {
      * @throws BadAttributeUpdateException If any of the given AttributeUpdates is invalid given the current state of
      *                                     the segment.
      * @throws TooManyAttributesException  If, as a result of applying the given updates, the Segment would exceed the
-     *                                     maximum allowed number of Attributes.
+     *                                     maximum allowed number of core Attributes.
      */
     private void preProcessAttributes(Collection<AttributeUpdate> attributeUpdates) throws BadAttributeUpdateException, TooManyAttributesException {
         if (attributeUpdates == null) {
             return;
         }
 
-        int newAttributeCount = this.attributeValues.size();
+        // Dynamic Attributes are offloaded to the AttributeIndex, so there is no need to limit how many of them a Segment
+        // can have. Core Attributes, however, are always kept in memory.
+        int coreAttributeCount = (int) this.attributeValues
+                .entrySet().stream()
+                .filter(e -> !Attributes.isDynamic(e.getKey()) && e.getValue() != SegmentMetadata.NULL_ATTRIBUTE_VALUE)
+                .count();
+        int newAttributeCount = coreAttributeCount;
         for (AttributeUpdate u : attributeUpdates) {
             AttributeUpdateType updateType = u.getUpdateType();
             long previousValue = this.attributeValues.getOrDefault(u.getAttributeId(), SegmentMetadata.NULL_ATTRIBUTE_VALUE);
@@ -457,7 +487,9 @@ class SegmentMetadataUpdateTransaction implements UpdateableSegmentMetadata {
                     throw new BadAttributeUpdateException(this.name, u, "Unexpected update type: " + updateType);
             }
 
-            if (previousValue == SegmentMetadata.NULL_ATTRIBUTE_VALUE && u.getValue() != SegmentMetadata.NULL_ATTRIBUTE_VALUE) {
+            if (Attributes.isDynamic(u.getAttributeId())) {
+                continue;
+            } else if (previousValue == SegmentMetadata.NULL_ATTRIBUTE_VALUE && u.getValue() != SegmentMetadata.NULL_ATTRIBUTE_VALUE) {
                 // This attribute did not exist and is about to be added.
                 newAttributeCount++;
             } else if (previousValue != SegmentMetadata.NULL_ATTRIBUTE_VALUE && u.getValue() == SegmentMetadata.NULL_ATTRIBUTE_VALUE) {
@@ -466,7 +498,7 @@ class SegmentMetadataUpdateTransaction implements UpdateableSegmentMetadata {
             }
         }
 
-        if (newAttributeCount > SegmentMetadata.MAXIMUM_ATTRIBUTE_COUNT && newAttributeCount > this.attributeValues.size()) {
+        if (newAttributeCount > SegmentMetadata.MAXIMUM_ATTRIBUTE_COUNT && newAttributeCount > coreAttributeCount) {
             // We only want to prevent exceeding the max attribute count if the number of attributes increased. Should
             // we ever want to decrease this limit in the future, we need to make sure that we can still remove/replace
             // attributes of existing segments, but not increase their count.
@@ -510,6 +542,22 @@ class SegmentMetadataUpdateTransaction implements UpdateableSegmentMetadata {
         this.isChanged = true;
     }
 
+    /**
+     * Accepts an UnloadAttributesOperation in the metadata. Only those Attributes whose values have not changed since
+     * they were persisted to the AttributeIndex are unloaded.
+     *
+     * @param operation The operation to accept.
+     * @throws IllegalArgumentException If the operation is for a different Segment.
+     */
+    void acceptOperation(UnloadAttributesOperation operation) {
+        ensureSegmentId(operation);
+        List<UUID> toUnload = operation.getAttributes().entrySet().stream()
+                                       .filter(e -> e.getValue().equals(this.attributeValues.get(e.getKey())))
+                                       .map(Map.Entry::getKey)
+                                       .collect(Collectors.toList());
+        unloadAttributes(toUnload);
+    }
+
     /**
      * Accepts a StreamSegmentSealOperation in the metadata.
      *
@@ -601,6 +649,7 @@ class SegmentMetadataUpdateTransaction implements UpdateableSegmentMetadata {
 
         for (AttributeUpdate au : attributeUpdates) {
             this.attributeValues.put(au.getAttributeId(), au.getValue());
+            this.unloadedAttributes.remove(au.getAttributeId());
         }
     }
 
@@ -642,6 +691,10 @@ class SegmentMetadataUpdateTransaction implements UpdateableSegmentMetadata {
         // Apply to base metadata.
         target.setLastUsed(this.lastUsed);
         target.updateAttributes(this.attributeValues);
+        if (!this.unloadedAttributes.isEmpty()) {
+            target.unloadAttributes(this.unloadedAttributes);
+        }
+
         target.setLength(this.length);
 
         // Update StartOffset after (potentially) updating the length, since he Start Offset must be less than or equal to Length.
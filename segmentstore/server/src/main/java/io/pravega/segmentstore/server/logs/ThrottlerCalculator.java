@@ -198,6 +198,26 @@ class ThrottlerCalculator {
         }
     }
 
+    /**
+     * Calculates the amount of time to wait before processing more operations from the queue in order to aggregate them
+     * into larger writes. This is based on the Linger Delay computed by an AdaptiveBatchingPolicy.
+     */
+    @RequiredArgsConstructor
+    private static class AdaptiveBatchingThrottler extends Throttler {
+        private final AdaptiveBatchingPolicy batchingPolicy;
+
+        @Override
+        boolean isThrottlingRequired() {
+            // Same as BatchingThrottler: batching is never an immediate need.
+            return false;
+        }
+
+        @Override
+        int getDelayMillis() {
+            return Math.min(this.batchingPolicy.getLingerDelayMillis(), MAX_BATCHING_DELAY_MILLIS);
+        }
+    }
+
     //endregion
 
     //region Builder
@@ -229,6 +249,16 @@ class ThrottlerCalculator {
             return throttler(new BatchingThrottler(Preconditions.checkNotNull(getQueueStats, "getQueueStats")));
         }
 
+        /**
+         * Includes an Adaptive Batching Throttler. This should be used instead of a Batching Throttler.
+         *
+         * @param batchingPolicy The AdaptiveBatchingPolicy to get the Linger Delay from.
+         * @return This builder.
+         */
+        ThrottlerCalculatorBuilder adaptiveBatchingThrottler(AdaptiveBatchingPolicy batchingPolicy) {
+            return throttler(new AdaptiveBatchingThrottler(Preconditions.checkNotNull(batchingPolicy, "batchingPolicy")));
+        }
+
         /**
          * Includes a Commit Backlog Throttler.
          *
@@ -30,6 +30,7 @@ public class OperationSerializer extends VersionedSerializer.MultiType<Operation
          .serializer(UpdateAttributesOperation.class, 6, new UpdateAttributesOperation.Serializer())
          .serializer(StreamSegmentTruncateOperation.class, 7, new StreamSegmentTruncateOperation.Serializer())
          .serializer(MetadataCheckpointOperation.class, 8, new MetadataCheckpointOperation.Serializer())
-         .serializer(StorageMetadataCheckpointOperation.class, 9, new StorageMetadataCheckpointOperation.Serializer());
+         .serializer(StorageMetadataCheckpointOperation.class, 9, new StorageMetadataCheckpointOperation.Serializer())
+         .serializer(UnloadAttributesOperation.class, 10, new UnloadAttributesOperation.Serializer());
     }
 }
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.logs.operations;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.io.serialization.RevisionDataInput;
+import io.pravega.common.io.serialization.RevisionDataOutput;
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import lombok.Getter;
+
+/**
+ * Log Operation that indicates that a Segment's dynamic Attributes have been persisted to its AttributeIndex and can be
+ * removed from its in-memory metadata. Only those Attributes whose in-memory values still match the persisted ones (at
+ * the time this operation is processed) are removed.
+ */
+public class UnloadAttributesOperation extends MetadataOperation implements SegmentOperation {
+    //region Members
+
+    @Getter
+    private long streamSegmentId;
+    @Getter
+    private Map<UUID, Long> attributes;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the UnloadAttributesOperation class.
+     *
+     * @param streamSegmentId The Id of the StreamSegment for which to unload attributes.
+     * @param attributes      A Map of Attribute Ids to the values that have been persisted for them.
+     */
+    public UnloadAttributesOperation(long streamSegmentId, Map<UUID, Long> attributes) {
+        super();
+        Preconditions.checkNotNull(attributes, "attributes");
+
+        this.streamSegmentId = streamSegmentId;
+        this.attributes = attributes;
+    }
+
+    /**
+     * Deserialization constructor.
+     */
+    private UnloadAttributesOperation() {
+    }
+
+    //endregion
+
+    //region Operation Implementation
+
+    @Override
+    public String toString() {
+        return String.format("%s, SegmentId = %d, Attributes = %d", super.toString(), this.streamSegmentId, this.attributes.size());
+    }
+
+    //endregion
+
+    static class Serializer extends OperationSerializer<UnloadAttributesOperation> {
+        private static final int STATIC_LENGTH = 2 * Long.BYTES;
+
+        @Override
+        protected OperationBuilder<UnloadAttributesOperation> newBuilder() {
+            return new OperationBuilder<>(new UnloadAttributesOperation());
+        }
+
+        @Override
+        protected byte getWriteVersion() {
+            return 0;
+        }
+
+        @Override
+        protected void declareVersions() {
+            version(0).revision(0, this::write00, this::read00);
+        }
+
+        private void write00(UnloadAttributesOperation o, RevisionDataOutput target) throws IOException {
+            target.length(STATIC_LENGTH + target.getMapLength(o.attributes.size(), RevisionDataOutput.UUID_BYTES, Long.BYTES));
+            target.writeLong(o.getSequenceNumber());
+            target.writeLong(o.streamSegmentId);
+            target.writeMap(o.attributes, RevisionDataOutput::writeUUID, RevisionDataOutput::writeLong);
+        }
+
+        private void read00(RevisionDataInput source, OperationBuilder<UnloadAttributesOperation> b) throws IOException {
+            b.instance.setSequenceNumber(source.readLong());
+            b.instance.streamSegmentId = source.readLong();
+            b.instance.attributes = source.readMap(RevisionDataInput::readUUID, RevisionDataInput::readLong);
+        }
+    }
+}
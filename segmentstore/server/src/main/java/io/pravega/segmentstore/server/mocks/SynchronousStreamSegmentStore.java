@@ -11,11 +11,14 @@ package io.pravega.segmentstore.server.mocks;
 
 import io.pravega.common.concurrent.Futures;
 import io.pravega.segmentstore.contracts.AttributeUpdate;
+import io.pravega.segmentstore.contracts.ReadRequest;
 import io.pravega.segmentstore.contracts.ReadResult;
 import io.pravega.segmentstore.contracts.SegmentProperties;
 import io.pravega.segmentstore.contracts.StreamSegmentStore;
 import java.time.Duration;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -53,6 +56,14 @@ public class SynchronousStreamSegmentStore implements StreamSegmentStore {
         return result;
     }
 
+    @Override
+    public CompletableFuture<Map<UUID, Long>> getAttributes(String streamSegmentName, Collection<UUID> attributeIds,
+                                                            boolean waitForPendingOps, Duration timeout) {
+        CompletableFuture<Map<UUID, Long>> result = impl.getAttributes(streamSegmentName, attributeIds, waitForPendingOps, timeout);
+        Futures.await(result);
+        return result;
+    }
+
     @Override
     public CompletableFuture<ReadResult> read(String streamSegmentName, long offset, int maxLength, Duration timeout) {
         CompletableFuture<ReadResult> result = impl.read(streamSegmentName, offset, maxLength, timeout);
@@ -60,6 +71,13 @@ public class SynchronousStreamSegmentStore implements StreamSegmentStore {
         return result;
     }
 
+    @Override
+    public List<CompletableFuture<ReadResult>> read(List<ReadRequest> reads, Duration timeout) {
+        List<CompletableFuture<ReadResult>> result = impl.read(reads, timeout);
+        result.forEach(Futures::await);
+        return result;
+    }
+
     @Override
     public CompletableFuture<SegmentProperties> getStreamSegmentInfo(String streamSegmentName, boolean waitForPendingOps, Duration timeout) {
         CompletableFuture<SegmentProperties> result = impl.getStreamSegmentInfo(streamSegmentName, waitForPendingOps, timeout);
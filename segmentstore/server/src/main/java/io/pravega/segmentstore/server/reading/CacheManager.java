@@ -17,9 +17,14 @@ import io.pravega.common.concurrent.Futures;
 import io.pravega.common.concurrent.Services;
 import io.pravega.segmentstore.server.CacheUtilizationProvider;
 import io.pravega.segmentstore.server.SegmentStoreMetrics;
+import io.pravega.segmentstore.storage.CacheFactory;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -40,6 +45,12 @@ import lombok.extern.slf4j.Slf4j;
  * (in the clients) that is generated or updated gets assigned the current generation. As the CacheManager determines that
  * there are too many Cache Entries or that the maximum size has been exceeded, it will increment the oldest generation.
  * The CacheManager Clients can use this information to evict those Cache Entries that have a generation below the oldest generation number.
+ *
+ * If the CachePolicy's EvictionPolicy is FREQUENCY_AWARE, the CacheManager also computes an oldest cold generation (which
+ * is never smaller than the oldest generation). Cold Cache Entries (those which have not been read frequently) with a
+ * generation below this number can be evicted as well. When the maximum size is exceeded, the CacheManager uses the cold
+ * entry statistics reported by its Clients to determine how many cold entries need to be evicted, and only increments the
+ * oldest generation (which affects all entries) if evicting cold entries is not sufficient.
  */
 @Slf4j
 @ThreadSafe
@@ -47,13 +58,21 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
     //region Members
 
     private static final String TRACE_OBJECT_ID = "CacheManager";
+    /**
+     * The maximum fraction of the cache (as defined by the CachePolicy's max size) that may be used before any
+     * read-ahead requests are rejected. Read-ahead data is speculative, so we leave some headroom for data that has
+     * actually been requested.
+     */
+    private static final double READ_AHEAD_MAX_UTILIZATION = 0.75;
     @GuardedBy("clients")
     private final Collection<Client> clients;
     private final ScheduledExecutorService executorService;
     private final AtomicInteger currentGeneration;
     private final AtomicInteger oldestGeneration;
     private final AtomicLong cacheSize;
+    private final AtomicLong pendingReadAheadSize;
     private final CachePolicy policy;
+    private final CacheFactory cacheFactory;
     private final AtomicBoolean closed;
     private final SegmentStoreMetrics.CacheManager metrics;
 
@@ -68,14 +87,28 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
      * @param executorService An executorService to use for scheduled tasks.
      */
     public CacheManager(CachePolicy policy, ScheduledExecutorService executorService) {
+        this(policy, null, executorService);
+    }
+
+    /**
+     * Creates a new instance of the CacheManager class.
+     *
+     * @param policy          The policy to use with this CacheManager.
+     * @param cacheFactory    (Optional) The CacheFactory backing the Caches used by this CacheManager's clients. If provided,
+     *                        its used and allocated byte counts will be reported along with the other cache metrics.
+     * @param executorService An executorService to use for scheduled tasks.
+     */
+    public CacheManager(CachePolicy policy, CacheFactory cacheFactory, ScheduledExecutorService executorService) {
         Preconditions.checkNotNull(policy, "policy");
         Preconditions.checkNotNull(executorService, "executorService");
 
         this.policy = policy;
+        this.cacheFactory = cacheFactory;
         this.clients = new HashSet<>();
         this.oldestGeneration = new AtomicInteger();
         this.currentGeneration = new AtomicInteger();
         this.cacheSize = new AtomicLong();
+        this.pendingReadAheadSize = new AtomicLong();
         this.executorService = executorService;
         this.closed = new AtomicBoolean();
         this.metrics = new SegmentStoreMetrics.CacheManager();
@@ -160,7 +193,8 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
         synchronized (this.clients) {
             if (!this.clients.contains(client)) {
                 this.clients.add(client);
-                client.updateGenerations(this.currentGeneration.get(), this.oldestGeneration.get());
+                int og = this.oldestGeneration.get();
+                client.updateGenerations(this.currentGeneration.get(), og, og);
             }
         }
 
@@ -188,9 +222,54 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
 
     //endregion
 
+    //region Read-Ahead Budget
+
+    /**
+     * Attempts to reserve cache capacity for a read-ahead (prefetch) request. A reservation will be rejected if the
+     * current cache size (as of the last time the cache policy was applied) plus all outstanding reservations plus the
+     * requested length would exceed a predefined fraction of the cache's max size.
+     *
+     * @param length The number of bytes to reserve.
+     * @return True if the reservation was made (in which case releaseReadAhead() must eventually be invoked with the same
+     * length), or false otherwise.
+     */
+    boolean tryReserveReadAhead(int length) {
+        Preconditions.checkArgument(length >= 0, "length must be a non-negative number.");
+        if (this.closed.get()) {
+            return false;
+        }
+
+        long maxSize = (long) (this.policy.getMaxSize() * READ_AHEAD_MAX_UTILIZATION);
+        while (true) {
+            long pending = this.pendingReadAheadSize.get();
+            if (this.cacheSize.get() + pending + length > maxSize) {
+                return false;
+            } else if (this.pendingReadAheadSize.compareAndSet(pending, pending + length)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a reservation previously made using tryReserveReadAhead(). This should be invoked once the read-ahead
+     * request completed, regardless of outcome (if it was successful, its data is already accounted for by the client
+     * that inserted it in the cache).
+     *
+     * @param length The number of bytes to release.
+     */
+    void releaseReadAhead(int length) {
+        this.pendingReadAheadSize.addAndGet(-length);
+    }
+
+    //endregion
+
     //region Helpers
 
     protected void applyCachePolicy() {
+        if (this.cacheFactory != null) {
+            this.metrics.reportCacheMemory(this.cacheFactory.getUsedBytes(), this.cacheFactory.getAllocatedBytes());
+        }
+
         // Run through all the active clients and gather status.
         CacheStatus currentStatus = collectStatus();
         if (currentStatus == null || currentStatus.getSize() == 0) {
@@ -202,11 +281,18 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
         // Increment current generation (if needed).
         boolean currentChanged = adjustCurrentGeneration(currentStatus);
 
+        // Figure out which cold entries (if any) need to be evicted, and exclude them when determining whether we need
+        // to increment the oldest generation. This way we give preference to evicting cold entries over other entries.
+        int oldestColdGeneration = getOldestColdGeneration(currentStatus);
+        boolean coldChanged = oldestColdGeneration > this.oldestGeneration.get();
+        long expectedColdReduction = coldChanged ? Math.min(currentStatus.getSize(), getColdSize(currentStatus, oldestColdGeneration)) : 0;
+
         // Increment oldest generation (if needed and if possible).
-        boolean oldestChanged = adjustOldestGeneration(currentStatus);
+        boolean oldestChanged = adjustOldestGeneration(currentStatus.withUpdatedSize(-expectedColdReduction));
 
-        if (!currentChanged && !oldestChanged) {
-            // Nothing changed, nothing to do.
+        if (!currentChanged && !oldestChanged && !coldChanged) {
+            // Nothing changed, nothing to do (other than keeping track of the current size).
+            this.cacheSize.set(currentStatus.getSize());
             return;
         }
 
@@ -214,7 +300,7 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
         // adjust the oldest anymore or we are unable to trigger any changes to the clients.
         long sizeReduction;
         do {
-            sizeReduction = updateClients();
+            sizeReduction = updateClients(oldestColdGeneration);
             if (sizeReduction > 0) {
                 currentStatus = currentStatus.withUpdatedSize(-sizeReduction);
                 logCurrentStatus(currentStatus);
@@ -230,6 +316,8 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
         int minGeneration = cg;
         int maxGeneration = 0;
         long totalSize = 0;
+        TreeMap<Integer, Long> coldGenerationSizes = new TreeMap<>();
+        boolean collectCold = this.policy.getEvictionPolicy() == CachePolicy.EvictionPolicy.FREQUENCY_AWARE;
         Collection<Client> clients = getCurrentClients();
         for (Client c : clients) {
             CacheStatus clientStatus;
@@ -255,6 +343,9 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
 
             minGeneration = Math.min(minGeneration, clientStatus.oldestGeneration);
             maxGeneration = Math.max(maxGeneration, clientStatus.newestGeneration);
+            if (collectCold) {
+                clientStatus.getColdGenerationSizes().forEach((g, size) -> coldGenerationSizes.merge(g, size, Long::sum));
+            }
         }
 
         if (minGeneration > maxGeneration) {
@@ -262,16 +353,17 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
             return null;
         }
 
-        return new CacheStatus(totalSize, minGeneration, maxGeneration);
+        return new CacheStatus(totalSize, minGeneration, maxGeneration, coldGenerationSizes);
     }
 
-    private long updateClients() {
+    private long updateClients(int oldestColdGeneration) {
         long sizeReduction = 0;
         int cg = this.currentGeneration.get();
         int og = this.oldestGeneration.get();
+        int ocg = Math.max(og, oldestColdGeneration);
         for (Client c : getCurrentClients()) {
             try {
-                sizeReduction += Math.max(0, c.updateGenerations(cg, og));
+                sizeReduction += Math.max(0, c.updateGenerations(cg, og, ocg));
             } catch (ObjectClosedException ex) {
                 // This object was closed but it was not unregistered. Do it now.
                 log.warn("{} Detected closed client {}.", TRACE_OBJECT_ID, c);
@@ -321,6 +413,36 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
         return isAdjusted;
     }
 
+    /**
+     * Determines the oldest generation for cold entries. If the EvictionPolicy is FREQUENCY_AWARE and the given status
+     * exceeds the maximum size, this is the smallest generation which, if all cold entries with lower generations were to
+     * be evicted, would bring the cache size back within limits (or the current generation, if that is not possible).
+     * In all other cases, this is the same as the oldest generation.
+     */
+    private int getOldestColdGeneration(CacheStatus currentStatus) {
+        int result = this.oldestGeneration.get();
+        long excess = currentStatus.getSize() - this.policy.getMaxSize();
+        if (this.policy.getEvictionPolicy() != CachePolicy.EvictionPolicy.FREQUENCY_AWARE || excess <= 0) {
+            return result;
+        }
+
+        long coldSize = 0;
+        for (Map.Entry<Integer, Long> e : currentStatus.getColdGenerationSizes().entrySet()) {
+            if (coldSize >= excess) {
+                break;
+            }
+
+            coldSize += e.getValue();
+            result = Math.max(result, e.getKey() + 1);
+        }
+
+        return Math.min(result, this.currentGeneration.get());
+    }
+
+    private long getColdSize(CacheStatus currentStatus, int oldestColdGeneration) {
+        return currentStatus.getColdGenerationSizes().headMap(oldestColdGeneration).values().stream().mapToLong(Long::longValue).sum();
+    }
+
     private boolean exceedsPolicy(CacheStatus currentStatus) {
         // We need to increment the OldestGeneration only if any of the following conditions occurred:
         // 1. We currently exceed the maximum size as defined by the cache policy.
@@ -369,12 +491,15 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
         /**
          * Called by the CacheManager to notify when there is a generation change (either current or oldest).
          *
-         * @param currentGeneration The value of the current generation.
-         * @param oldestGeneration  The value of the oldest generation. This is the cutoff for which entries can still
-         *                          exist in the cache.
+         * @param currentGeneration    The value of the current generation.
+         * @param oldestGeneration     The value of the oldest generation. This is the cutoff for which entries can still
+         *                             exist in the cache.
+         * @param oldestColdGeneration The value of the oldest generation for cold entries (entries that have not been
+         *                             frequently read). This is the cutoff for which such entries can still exist in the
+         *                             cache. This value is never smaller than oldestGeneration.
          * @return The total size of the cache data that was trimmed by this update.
          */
-        long updateGenerations(int currentGeneration, int oldestGeneration);
+        long updateGenerations(int currentGeneration, int oldestGeneration, int oldestColdGeneration);
     }
 
     //endregion
@@ -388,6 +513,7 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
         private final int oldestGeneration;
         private final int newestGeneration;
         private final long size;
+        private final SortedMap<Integer, Long> coldGenerationSizes;
 
         /**
          * Creates a new instance of the CacheStatus class.
@@ -395,12 +521,24 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
          * @param size The total size of the cache items in this particular client.
          */
         CacheStatus(long size, int oldestGeneration, int newestGeneration) {
+            this(size, oldestGeneration, newestGeneration, Collections.emptySortedMap());
+        }
+
+        /**
+         * Creates a new instance of the CacheStatus class.
+         *
+         * @param size                The total size of the cache items in this particular client.
+         * @param coldGenerationSizes A SortedMap of Generations to the total size of the cold cache items (which have not
+         *                            been frequently read) in each such generation.
+         */
+        CacheStatus(long size, int oldestGeneration, int newestGeneration, SortedMap<Integer, Long> coldGenerationSizes) {
             Preconditions.checkArgument(size >= 0, "size must be a non-negative number");
             Preconditions.checkArgument(oldestGeneration >= 0, "oldestGeneration must be a non-negative number");
             Preconditions.checkArgument(newestGeneration >= oldestGeneration, "newestGeneration must be larger than or equal to oldestGeneration");
             this.size = size;
             this.oldestGeneration = oldestGeneration;
             this.newestGeneration = newestGeneration;
+            this.coldGenerationSizes = Preconditions.checkNotNull(coldGenerationSizes, "coldGenerationSizes");
         }
 
         /**
@@ -424,10 +562,17 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
             return this.newestGeneration;
         }
 
+        /**
+         * Gets a SortedMap of Generations to the total size of the cold cache items in each such generation.
+         */
+        SortedMap<Integer, Long> getColdGenerationSizes() {
+            return this.coldGenerationSizes;
+        }
+
         private CacheStatus withUpdatedSize(long sizeDelta) {
             long newSize = this.size + sizeDelta;
             assert newSize >= 0 : "given sizeDelta would result in a negative size";
-            return new CacheStatus(newSize, this.oldestGeneration, this.newestGeneration);
+            return new CacheStatus(newSize, this.oldestGeneration, this.newestGeneration, this.coldGenerationSizes);
         }
 
         @Override
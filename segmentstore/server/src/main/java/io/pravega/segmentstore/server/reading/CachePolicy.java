@@ -22,6 +22,7 @@ public class CachePolicy {
     private final long maxSize;
     private final int maxGenerations;
     private final Duration generationDuration;
+    private final EvictionPolicy evictionPolicy;
 
     //endregion
 
@@ -35,10 +36,23 @@ public class CachePolicy {
      * @param generationDuration The amount of time one Cache generation spans.
      */
     public CachePolicy(long maxSize, Duration maxTime, Duration generationDuration) {
+        this(maxSize, maxTime, generationDuration, EvictionPolicy.GENERATIONAL);
+    }
+
+    /**
+     * Creates a new instance of the CachePolicy class.
+     *
+     * @param maxSize            The maximum size of the cache.
+     * @param maxTime            The maximum amount of time a cache entry can live in the cache.
+     * @param generationDuration The amount of time one Cache generation spans.
+     * @param evictionPolicy     The EvictionPolicy to apply when the cache exceeds its maximum size.
+     */
+    public CachePolicy(long maxSize, Duration maxTime, Duration generationDuration, EvictionPolicy evictionPolicy) {
         Preconditions.checkArgument(maxSize > 0, "maxSize must be a positive integer");
         this.maxSize = maxSize;
         this.generationDuration = generationDuration;
         this.maxGenerations = Math.max(1, (int) ((double) maxTime.toMillis() / generationDuration.toMillis()));
+        this.evictionPolicy = Preconditions.checkNotNull(evictionPolicy, "evictionPolicy");
     }
 
     //endregion
@@ -73,9 +87,43 @@ public class CachePolicy {
         return this.generationDuration;
     }
 
+    /**
+     * Gets the EvictionPolicy to apply when the cache exceeds its maximum size.
+     *
+     * @return The value.
+     */
+    public EvictionPolicy getEvictionPolicy() {
+        return this.evictionPolicy;
+    }
+
     @Override
     public String toString() {
-        return String.format("MaxSize = %d, MaxGen = %d, Generation = %s", this.maxSize, this.maxGenerations, this.generationDuration);
+        return String.format("MaxSize = %d, MaxGen = %d, Generation = %s, Eviction = %s",
+                this.maxSize, this.maxGenerations, this.generationDuration, this.evictionPolicy);
+    }
+
+    //endregion
+
+    //region EvictionPolicy
+
+    /**
+     * Defines how cache entries are chosen for eviction when the cache exceeds its maximum size. Regardless of the policy,
+     * entries that have not been accessed for longer than the maximum time are always eligible for eviction.
+     */
+    public enum EvictionPolicy {
+        /**
+         * Entries are evicted strictly in the order of their last access (oldest generations first).
+         */
+        GENERATIONAL,
+
+        /**
+         * Entries that have not been read frequently (i.e., data that has been read at most once, such as by a single
+         * catch-up reader scanning through a Segment) are evicted before any frequently read entries, regardless of their
+         * generations. Within each of these two classes, entries are evicted in the order of their last access. This
+         * prevents large sequential scans from flushing data that is read repeatedly, such as the tail of a Segment that
+         * is being read by multiple readers.
+         */
+        FREQUENCY_AWARE
     }
 
     //endregion
@@ -10,11 +10,11 @@
 package io.pravega.segmentstore.server.reading;
 
 import io.pravega.common.Exceptions;
+import io.pravega.common.util.ArrayView;
+import io.pravega.common.util.ByteArraySegment;
 import io.pravega.segmentstore.contracts.ReadResultEntryContents;
 import io.pravega.segmentstore.contracts.ReadResultEntryType;
-
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
+import java.util.List;
 
 /**
  * Read Result Entry for data that is readily available for reading (in memory).
@@ -33,18 +33,18 @@ class CacheReadResultEntry extends ReadResultEntryBase {
     CacheReadResultEntry(long streamSegmentOffset, byte[] data, int dataOffset, int dataLength) {
         super(ReadResultEntryType.Cache, streamSegmentOffset + dataOffset, dataLength);
         Exceptions.checkArrayRange(dataOffset, dataLength, data.length, "dataOffset", "dataLength");
-        complete(new ReadResultEntryContents(new ByteArrayInputStream(data, dataOffset, dataLength), dataLength));
+        complete(new ReadResultEntryContents(new ByteArraySegment(data, dataOffset, dataLength, true)));
     }
 
     /**
      * Creates a new instance of the CacheReadResultEntry class.
      *
      * @param streamSegmentOffset The offset within the StreamSegment where this ReadResultEntry starts at.
-     * @param data                An InputStream representing the data to be read.
-     * @param dataLength          The length of the data that this ReadResultEntry has (length of the given InputStream).
+     * @param data                An ordered list of ArrayViews which, when concatenated, make up the data to be read.
+     * @param dataLength          The length of the data that this ReadResultEntry has (sum of the lengths of the given ArrayViews).
      */
-    CacheReadResultEntry(long streamSegmentOffset, InputStream data, int dataLength) {
+    CacheReadResultEntry(long streamSegmentOffset, List<ArrayView> data, int dataLength) {
         super(ReadResultEntryType.Cache, streamSegmentOffset, dataLength);
-        complete(new ReadResultEntryContents(data, dataLength));
+        complete(new ReadResultEntryContents(data));
     }
 }
@@ -361,7 +361,7 @@ public class ContainerReadIndex implements ReadIndex {
                     throw new StreamSegmentNotExistsException(segmentMetadata.getName());
                 }
 
-                index = new StreamSegmentReadIndex(this.config, segmentMetadata, this.cache, this.storage, this.executor, isRecoveryMode());
+                index = new StreamSegmentReadIndex(this.config, segmentMetadata, this.cache, this.storage, this.cacheManager, this.executor, isRecoveryMode());
                 this.cacheManager.register(index);
                 this.readIndices.put(streamSegmentId, index);
             }
@@ -27,10 +27,13 @@ import javax.annotation.concurrent.ThreadSafe;
 class FutureReadResultEntryCollection implements AutoCloseable {
     //region Members
 
+    private static final int MIN_PURGE_THRESHOLD = 64;
     @GuardedBy("reads")
     private final PriorityQueue<FutureReadResultEntry> reads;
     @GuardedBy("reads")
     private boolean closed;
+    @GuardedBy("reads")
+    private int purgeThreshold = MIN_PURGE_THRESHOLD;
 
     //endregion
 
@@ -72,6 +75,14 @@ class FutureReadResultEntryCollection implements AutoCloseable {
     public void add(FutureReadResultEntry entry) {
         synchronized (this.reads) {
             Exceptions.checkNotClosed(this.closed, this);
+            if (this.reads.size() >= this.purgeThreshold) {
+                // Reads that have been cancelled (i.e., their ReadResult was closed) linger here until the Segment grows
+                // beyond their offsets, which may take a long time for idle Segments. Purge them periodically; doubling
+                // the threshold every time keeps the amortized cost constant.
+                this.reads.removeIf(e -> e.getContent().isDone());
+                this.purgeThreshold = Math.max(MIN_PURGE_THRESHOLD, this.reads.size() * 2);
+            }
+
             this.reads.add(entry);
         }
     }
@@ -97,6 +108,15 @@ class FutureReadResultEntryCollection implements AutoCloseable {
         return result;
     }
 
+    /**
+     * Gets a value indicating whether there are any Result Entries in the collection.
+     */
+    boolean isEmpty() {
+        synchronized (this.reads) {
+            return this.reads.isEmpty();
+        }
+    }
+
     /**
      * Removes and returns all the Result Entries in the collection.
      */
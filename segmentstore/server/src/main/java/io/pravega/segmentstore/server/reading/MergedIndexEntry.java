@@ -45,5 +45,6 @@ class MergedIndexEntry extends CacheIndexEntry {
         this.sourceSegmentId = sourceSegmentId;
         this.sourceSegmentOffset = sourceEntry.getStreamSegmentOffset();
         setGeneration(sourceEntry.getGeneration());
+        recordRead(sourceEntry.getReadLength());
     }
 }
@@ -24,10 +24,13 @@ public class ReadIndexConfig {
     //region Config Names
     public static final Property<Integer> STORAGE_READ_ALIGNMENT = Property.named("storageReadAlignment", 1024 * 1024);
     public static final Property<Integer> MEMORY_READ_MIN_LENGTH = Property.named("memoryReadMinLength", 4 * 1024);
+    public static final Property<Integer> STORAGE_READ_AHEAD_LENGTH = Property.named("storageReadAheadLength", 4 * 1024 * 1024);
     public static final Property<Integer> STORAGE_READ_DEFAULT_TIMEOUT = Property.named("storageReadDefaultTimeoutMillis", 30 * 1000);
     public static final Property<Long> CACHE_POLICY_MAX_SIZE = Property.named("cacheMaxSize", 16L * 1024 * 1024 * 1024);
     public static final Property<Integer> CACHE_POLICY_MAX_TIME = Property.named("cacheMaxTimeMillis", 30 * 60 * 1000);
     public static final Property<Integer> CACHE_POLICY_GENERATION_TIME = Property.named("cacheGenerationTimeMillis", 5 * 1000);
+    public static final Property<CachePolicy.EvictionPolicy> CACHE_POLICY_EVICTION = Property.named("cacheEvictionPolicy", CachePolicy.EvictionPolicy.GENERATIONAL);
+    public static final Property<Boolean> FUTURE_READ_WRITE_THROUGH = Property.named("futureReadWriteThrough", false);
     private static final String COMPONENT_CODE = "readindex";
 
     //endregion
@@ -55,6 +58,16 @@ public class ReadIndexConfig {
     @Getter
     private final int memoryReadMinLength;
 
+    /**
+     * The maximum number of bytes to read ahead (prefetch) from Storage into the cache when a sequential read pattern
+     * is detected on a Segment. Read-ahead is issued asynchronously, in chunks aligned to StorageReadAlignment, and only
+     * if the CacheManager has sufficient capacity for it.
+     * <p>
+     * Setting this to 0 will effectively disable this feature.
+     */
+    @Getter
+    private final int storageReadAheadLength;
+
     /**
      * The CachePolicy, as defined in this configuration.
      */
@@ -67,6 +80,14 @@ public class ReadIndexConfig {
     @Getter
     private final Duration storageReadDefaultTimeout;
 
+    /**
+     * Whether Future Reads (tail reads) that are triggered by new appends should be served directly from the appended
+     * data, as opposed to fetching it back from the Cache after it has been inserted there. This saves a Cache lookup
+     * (which may involve a copy, depending on the Cache implementation) for every tail read.
+     */
+    @Getter
+    private final boolean futureReadWriteThrough;
+
     //endregion
 
     //region Constructor
@@ -79,11 +100,18 @@ public class ReadIndexConfig {
     private ReadIndexConfig(TypedProperties properties) throws ConfigurationException {
         this.storageReadAlignment = properties.getInt(STORAGE_READ_ALIGNMENT);
         this.memoryReadMinLength = properties.getInt(MEMORY_READ_MIN_LENGTH);
+        this.storageReadAheadLength = properties.getInt(STORAGE_READ_AHEAD_LENGTH);
+        if (this.storageReadAheadLength < 0) {
+            throw new ConfigurationException(String.format("Property '%s' must be a non-negative integer.", STORAGE_READ_AHEAD_LENGTH));
+        }
         this.storageReadDefaultTimeout = Duration.ofMillis(properties.getInt(STORAGE_READ_DEFAULT_TIMEOUT));
+        this.futureReadWriteThrough = properties.getBoolean(FUTURE_READ_WRITE_THROUGH);
         long cachePolicyMaxSize = properties.getLong(CACHE_POLICY_MAX_SIZE);
         int cachePolicyMaxTime = properties.getInt(CACHE_POLICY_MAX_TIME);
         int cachePolicyGenerationTime = properties.getInt(CACHE_POLICY_GENERATION_TIME);
-        this.cachePolicy = new CachePolicy(cachePolicyMaxSize, Duration.ofMillis(cachePolicyMaxTime), Duration.ofMillis(cachePolicyGenerationTime));
+        CachePolicy.EvictionPolicy cachePolicyEviction = properties.getEnum(CACHE_POLICY_EVICTION, CachePolicy.EvictionPolicy.class);
+        this.cachePolicy = new CachePolicy(cachePolicyMaxSize, Duration.ofMillis(cachePolicyMaxTime), Duration.ofMillis(cachePolicyGenerationTime),
+                cachePolicyEviction);
     }
 
     /**
@@ -20,9 +20,16 @@ import javax.annotation.concurrent.GuardedBy;
 abstract class ReadIndexEntry implements SortedIndex.IndexEntry {
     //region Members
 
+    /**
+     * The number of times (on average) each byte in an entry needs to have been read in order for the entry to be
+     * considered frequently read.
+     */
+    private static final int FREQUENT_READ_FACTOR = 2;
     private final long streamSegmentOffset;
     @GuardedBy("this")
     private int generation;
+    @GuardedBy("this")
+    private long readLength;
 
     //endregion
 
@@ -63,6 +70,36 @@ abstract class ReadIndexEntry implements SortedIndex.IndexEntry {
         this.generation = generation;
     }
 
+    /**
+     * Gets the total number of bytes that have been read from this ReadIndexEntry.
+     *
+     * @return The value.
+     */
+    synchronized long getReadLength() {
+        return this.readLength;
+    }
+
+    /**
+     * Records that the given number of bytes have been read from this ReadIndexEntry.
+     *
+     * @param length The number of bytes read.
+     */
+    synchronized void recordRead(long length) {
+        Preconditions.checkArgument(length >= 0, "length must be a non-negative number.");
+        this.readLength = Math.max(this.readLength, this.readLength + length); // Guard against overflow.
+    }
+
+    /**
+     * Gets a value indicating whether this ReadIndexEntry has been read frequently. This is based on the total number of
+     * bytes read from it (and not on the number of reads), which means that a single reader that reads the entry in
+     * multiple small increments will not cause it to be considered frequently read.
+     *
+     * @return True if frequently read, false otherwise.
+     */
+    synchronized boolean isFrequentlyRead() {
+        return this.readLength >= FREQUENT_READ_FACTOR * getLength();
+    }
+
     /**
      * Gets a value indicating the StreamSegment offset for this entry.
      */
@@ -89,7 +126,7 @@ abstract class ReadIndexEntry implements SortedIndex.IndexEntry {
 
     @Override
     public synchronized String toString() {
-        return String.format("Offset = %d, Length = %d, Gen = %d", this.streamSegmentOffset, getLength(), this.generation);
+        return String.format("Offset = %d, Length = %d, Gen = %d, ReadLength = %d", this.streamSegmentOffset, getLength(), this.generation, this.readLength);
     }
 
     @Override
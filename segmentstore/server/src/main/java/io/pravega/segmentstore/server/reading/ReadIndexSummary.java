@@ -11,6 +11,7 @@ package io.pravega.segmentstore.server.reading;
 
 import com.google.common.base.Preconditions;
 import java.util.HashMap;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
@@ -28,6 +29,8 @@ class ReadIndexSummary {
     private long totalSize;
     @GuardedBy("this")
     private final HashMap<Integer, Integer> generations;
+    @GuardedBy("this")
+    private final HashMap<Integer, Long> coldGenerationSizes;
 
     //endregion
 
@@ -38,6 +41,7 @@ class ReadIndexSummary {
         this.currentGeneration = 0;
         this.totalSize = 0;
         this.generations = new HashMap<>();
+        this.coldGenerationSizes = new HashMap<>();
     }
 
     //endregion
@@ -108,6 +112,36 @@ class ReadIndexSummary {
         return this.currentGeneration;
     }
 
+    /**
+     * Records that an element of the given size, which has not been frequently read (a cold element), belongs to the
+     * given generation. This is in addition to (and does not replace) add(), remove() or touchOne(), which must still be
+     * invoked for the same element.
+     *
+     * @param size       The size of the element.
+     * @param generation The generation of the element.
+     */
+    synchronized void addCold(long size, int generation) {
+        Preconditions.checkArgument(size >= 0, "size must be a non-negative number");
+        this.coldGenerationSizes.put(generation, this.coldGenerationSizes.getOrDefault(generation, 0L) + size);
+    }
+
+    /**
+     * Records that a cold element of the given size no longer belongs to the given generation (it has either been removed,
+     * moved to a different generation or has become frequently read).
+     *
+     * @param size       The size of the element.
+     * @param generation The generation of the element.
+     */
+    synchronized void removeCold(long size, int generation) {
+        Preconditions.checkArgument(size >= 0, "size must be a non-negative number");
+        long newSize = this.coldGenerationSizes.getOrDefault(generation, 0L) - size;
+        if (newSize > 0) {
+            this.coldGenerationSizes.put(generation, newSize);
+        } else {
+            this.coldGenerationSizes.remove(generation);
+        }
+    }
+
     /**
      * Generates a CacheManager.CacheStatus object with the information in this ReadIndexSummary object.
      */
@@ -124,7 +158,8 @@ class ReadIndexSummary {
             }
         });
 
-        return new CacheManager.CacheStatus(this.totalSize, Math.min(newestGeneration.get(), oldestGeneration.get()), newestGeneration.get());
+        return new CacheManager.CacheStatus(this.totalSize, Math.min(newestGeneration.get(), oldestGeneration.get()), newestGeneration.get(),
+                new TreeMap<>(this.coldGenerationSizes));
     }
 
     @GuardedBy("this")
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.reading;
+
+import com.google.common.base.Preconditions;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import lombok.Data;
+
+/**
+ * Detects sequential read patterns on a single StreamSegment and determines which ranges should be read ahead (prefetched)
+ * from Storage as a result.
+ * <p>
+ * A read is considered sequential if it begins at or after the previous read's offset and not further than readAheadLength
+ * bytes from it. Once MIN_SEQUENTIAL_READ_COUNT consecutive sequential reads have been recorded, read-ahead ranges are
+ * returned so that the prefetched data stays (roughly) readAheadLength bytes in front of the reader. In order to avoid
+ * issuing a large number of tiny requests, a new range is only returned once the reader has consumed at least half of
+ * the data that has been read ahead.
+ */
+@ThreadSafe
+class SequentialReadDetector {
+    //region Members
+
+    /**
+     * The number of consecutive sequential reads that need to be observed before any read-ahead is triggered.
+     */
+    static final int MIN_SEQUENTIAL_READ_COUNT = 2;
+    private final int readAheadLength;
+    private final int alignment;
+    @GuardedBy("this")
+    private long lastReadOffset;
+    @GuardedBy("this")
+    private int sequentialReadCount;
+    @GuardedBy("this")
+    private long readAheadOffset;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the SequentialReadDetector class.
+     *
+     * @param readAheadLength The maximum number of bytes to read ahead of the current read offset.
+     * @param alignment       The Storage Read alignment. Read-ahead ranges begin at the alignment boundary that follows
+     *                        the current read offset.
+     */
+    SequentialReadDetector(int readAheadLength, int alignment) {
+        Preconditions.checkArgument(readAheadLength > 0, "readAheadLength must be a positive number.");
+        Preconditions.checkArgument(alignment > 0, "alignment must be a positive number.");
+        this.readAheadLength = readAheadLength;
+        this.alignment = alignment;
+        this.lastReadOffset = -1;
+    }
+
+    //endregion
+
+    //region Operations
+
+    /**
+     * Records a read at the given offset and determines what (if anything) should be read ahead as a result.
+     *
+     * @param offset    The offset of the read.
+     * @param maxOffset The offset beyond which no read-ahead can be performed (i.e., the Segment's StorageLength).
+     * @return A Range indicating what should be read ahead, or null if nothing.
+     */
+    synchronized Range recordRead(long offset, long maxOffset) {
+        Preconditions.checkArgument(offset >= 0, "offset must be a non-negative number.");
+        if (this.lastReadOffset >= 0 && offset >= this.lastReadOffset && offset - this.lastReadOffset <= this.readAheadLength) {
+            if (offset > this.lastReadOffset) {
+                this.sequentialReadCount++;
+            }
+        } else {
+            // Random access (or first read). Start over.
+            this.sequentialReadCount = 0;
+            this.readAheadOffset = 0;
+        }
+
+        this.lastReadOffset = offset;
+        if (this.sequentialReadCount < MIN_SEQUENTIAL_READ_COUNT) {
+            return null;
+        }
+
+        // Begin at the first alignment boundary after the current offset (the current block will be fetched by the reader
+        // itself) or where the last read-ahead ended, whichever is later.
+        long start = Math.max(this.readAheadOffset, offset - offset % this.alignment + this.alignment);
+        long end = Math.min(maxOffset, offset + this.readAheadLength);
+        if (end <= start || (end < maxOffset && end - start < this.readAheadLength / 2)) {
+            // Either nothing to read or we still have plenty of data read ahead (and we're not close to the end).
+            return null;
+        }
+
+        this.readAheadOffset = end;
+        return new Range(start, end);
+    }
+
+    /**
+     * Indicates that no read-ahead could be performed beyond the given offset (i.e., it was not requested). Subsequent
+     * calls to recordRead() may include this offset in their results.
+     *
+     * @param offset The offset to rewind to.
+     */
+    synchronized void rewind(long offset) {
+        this.readAheadOffset = Math.min(this.readAheadOffset, offset);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("LastReadOffset = %d, SequentialReads = %d, ReadAheadOffset = %d",
+                this.lastReadOffset, this.sequentialReadCount, this.readAheadOffset);
+    }
+
+    //endregion
+
+    //region Range
+
+    /**
+     * A range of offsets to read ahead.
+     */
+    @Data
+    static class Range {
+        /**
+         * The first offset in the range (inclusive).
+         */
+        private final long startOffset;
+        /**
+         * The last offset in the range (exclusive).
+         */
+        private final long endOffset;
+    }
+
+    //endregion
+}
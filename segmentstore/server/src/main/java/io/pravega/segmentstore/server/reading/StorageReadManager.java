@@ -124,6 +124,29 @@ public class StorageReadManager implements AutoCloseable {
         executeStorageRead(request);
     }
 
+    /**
+     * Queues the given request, but only if it does not overlap with any pending Request. This is meant for speculative
+     * (read-ahead) requests, which should neither be coalesced with nor partially duplicate the data of other requests.
+     *
+     * @param request The request to queue.
+     * @return True if the request was queued, false otherwise (in which case none of its callbacks will be invoked).
+     */
+    boolean executeIfNotOverlapping(Request request) {
+        synchronized (this.lock) {
+            Exceptions.checkNotClosed(this.closed, this);
+            Map.Entry<Long, Request> nextEntry = this.pendingRequests.ceilingEntry(request.getOffset());
+            if (findOverlappingRequest(request) != null || (nextEntry != null && nextEntry.getKey() < request.getEndOffset())) {
+                return false;
+            }
+
+            log.debug("{}: StorageRead.Execute {}", this.traceObjectId, request);
+            this.pendingRequests.put(request.getOffset(), request);
+        }
+
+        executeStorageRead(request);
+        return true;
+    }
+
     /**
      * Executes the Storage Read for the given request.
      *
@@ -14,8 +14,9 @@ import com.google.common.collect.Iterators;
 import io.pravega.common.Exceptions;
 import io.pravega.common.LoggerHelpers;
 import io.pravega.common.concurrent.Futures;
-import io.pravega.common.util.AvlTreeIndex;
+import io.pravega.common.util.ArrayView;
 import io.pravega.common.util.ByteArraySegment;
+import io.pravega.common.util.SkipListIndex;
 import io.pravega.common.util.SortedIndex;
 import io.pravega.segmentstore.contracts.ReadResult;
 import io.pravega.segmentstore.contracts.ReadResultEntry;
@@ -40,6 +41,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 
@@ -59,6 +61,10 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
     //region Members
 
     private final String traceObjectId;
+    /**
+     * All modifications to the index (and to the Cache) must be made while holding the lock. Cache hits may however
+     * look up entries without it (see tryGetCachedReadResultEntry()).
+     */
     @GuardedBy("lock")
     private final SortedIndex<ReadIndexEntry> indexEntries;
     private final ReadIndexConfig config;
@@ -68,11 +74,19 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
     @GuardedBy("lock")
     private final HashMap<Long, Long> mergeOffsets; //Key = StreamSegmentId (Merged), Value = Merge offset.
     private final StorageReadManager storageReadManager;
+    private final CacheManager cacheManager;
+    private final SequentialReadDetector readAheadDetector;
     private final ReadIndexSummary summary;
     private final ScheduledExecutorService executor;
     private SegmentMetadata metadata;
     @GuardedBy("lock")
     private long lastAppendedOffset;
+    /**
+     * Appends that have been added since the last call to triggerFutureReads(), while there were Future Reads registered.
+     * Only used if ReadIndexConfig.isFutureReadWriteThrough() is set.
+     */
+    @GuardedBy("lock")
+    private final List<RecentAppend> recentAppends;
     private boolean recoveryMode;
     private boolean closed;
     private boolean merged;
@@ -89,15 +103,18 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
      * @param metadata     The StreamSegmentMetadata to use.
      * @param cache        The Cache to use to store, read and manage data entries.
      * @param storage      A ReadOnlyStorage to fetch data if not in Cache.
+     * @param cacheManager The CacheManager that enforces the budget for Storage read-ahead.
      * @param executor     An executor to run async operations.
      * @param recoveryMode Whether we are in recovery mode at the time of creation (this can change later on).
      * @throws NullPointerException If any of the arguments are null.
      */
-    StreamSegmentReadIndex(ReadIndexConfig config, SegmentMetadata metadata, Cache cache, ReadOnlyStorage storage, ScheduledExecutorService executor, boolean recoveryMode) {
+    StreamSegmentReadIndex(ReadIndexConfig config, SegmentMetadata metadata, Cache cache, ReadOnlyStorage storage, CacheManager cacheManager,
+                           ScheduledExecutorService executor, boolean recoveryMode) {
         Preconditions.checkNotNull(config, "config");
         Preconditions.checkNotNull(metadata, "metadata");
         Preconditions.checkNotNull(cache, "cache");
         Preconditions.checkNotNull(storage, "storage");
+        Preconditions.checkNotNull(cacheManager, "cacheManager");
         Preconditions.checkNotNull(executor, "executor");
 
         this.traceObjectId = String.format("ReadIndex[%d-%d]", metadata.getContainerId(), metadata.getId());
@@ -105,11 +122,16 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
         this.metadata = metadata;
         this.cache = cache;
         this.recoveryMode = recoveryMode;
-        this.indexEntries = new AvlTreeIndex<>();
+        this.indexEntries = new SkipListIndex<>();
         this.futureReads = new FutureReadResultEntryCollection();
         this.mergeOffsets = new HashMap<>();
         this.lastAppendedOffset = -1;
+        this.recentAppends = new ArrayList<>();
         this.storageReadManager = new StorageReadManager(metadata, storage, executor);
+        this.cacheManager = cacheManager;
+        this.readAheadDetector = config.getStorageReadAheadLength() > 0
+                ? new SequentialReadDetector(config.getStorageReadAheadLength(), config.getStorageReadAlignment())
+                : null;
         this.executor = executor;
         this.summary = new ReadIndexSummary();
     }
@@ -186,7 +208,7 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
     }
 
     @Override
-    public long updateGenerations(int currentGeneration, int oldestGeneration) {
+    public long updateGenerations(int currentGeneration, int oldestGeneration, int oldestColdGeneration) {
         Exceptions.checkNotClosed(this.closed, this);
 
         // Update the current generation with the provided info.
@@ -201,11 +223,13 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
                 // 1. The entry is a Cache Entry (Redirect entries cannot be removed).
                 // 2. Every single byte in the entry has to exist in Storage.
                 // In addition, we are free to evict (regardless of Generation, but still subject to the above rules) if
-                // every single byte in the entry has been truncated out.
+                // every single byte in the entry has been truncated out. Entries that have not been frequently read are
+                // subject to a different (more aggressive) cutoff.
                 long lastOffset = entry.getLastStreamSegmentOffset();
+                int cutoffGeneration = entry.isFrequentlyRead() ? oldestGeneration : oldestColdGeneration;
                 boolean canRemove = entry.isDataEntry()
                         && lastOffset <= this.metadata.getStorageLength()
-                        && (entry.getGeneration() < oldestGeneration || lastOffset < this.metadata.getStartOffset());
+                        && (entry.getGeneration() < cutoffGeneration || lastOffset < this.metadata.getStartOffset());
                 if (canRemove) {
                     toRemove.add(entry);
                 }
@@ -221,7 +245,7 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
         // Update the summary (no need for holding the lock here; we are not modifying the index).
         toRemove.forEach(e -> {
             long entryLength = e.getLength();
-            this.summary.remove(entryLength, e.getGeneration());
+            removeFromSummary(e);
             sizeRemoved.addAndGet(entryLength);
         });
 
@@ -333,6 +357,14 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
         // since there is no chance of competing with another write request for the same offset at the same time.
         this.cache.insert(new CacheKey(this.metadata.getId(), offset), data);
         appendEntry(new CacheIndexEntry(offset, data.length));
+
+        if (this.config.isFutureReadWriteThrough() && !this.futureReads.isEmpty()) {
+            // Someone is waiting for this data. Hold on to it until the next call to triggerFutureReads() so we can hand
+            // it over to them directly, without having to fetch it back from the Cache.
+            synchronized (this.lock) {
+                this.recentAppends.add(new RecentAppend(offset, data));
+            }
+        }
     }
 
     /**
@@ -476,8 +508,7 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
 
     @GuardedBy("lock")
     private ReadIndexEntry addToIndex(ReadIndexEntry entry) {
-        // Insert the new entry and figure out if an old entry was overwritten.
-        ReadIndexEntry oldEntry = this.indexEntries.put(entry);
+        // Update the Stats before inserting the entry: lock-free readers may touch it as soon as it is in the index.
         if (entry.isDataEntry()) {
             if (entry instanceof MergedIndexEntry) {
                 // This entry has already existed in the cache for a while; do not change its generation.
@@ -487,16 +518,63 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
                 int generation = this.summary.add(entry.getLength());
                 entry.setGeneration(generation);
             }
+
+            if (!entry.isFrequentlyRead()) {
+                this.summary.addCold(entry.getLength(), entry.getGeneration());
+            }
         }
 
+        // Insert the new entry and figure out if an old entry was overwritten.
+        ReadIndexEntry oldEntry = this.indexEntries.put(entry);
         if (oldEntry != null && oldEntry.isDataEntry()) {
             // Need to eject the old entry's data from the Cache Stats.
-            this.summary.remove(oldEntry.getLength(), oldEntry.getGeneration());
+            removeFromSummary(oldEntry);
         }
 
         return oldEntry;
     }
 
+    /**
+     * Removes the given entry's contribution from the Cache Stats. The entry must have already been removed from the index.
+     */
+    private void removeFromSummary(ReadIndexEntry entry) {
+        synchronized (entry) {
+            this.summary.remove(entry.getLength(), entry.getGeneration());
+            if (!entry.isFrequentlyRead()) {
+                this.summary.removeCold(entry.getLength(), entry.getGeneration());
+            }
+        }
+    }
+
+    /**
+     * Updates the given entry's generation and read statistics (and the Cache Stats) as a result of it having been read.
+     * This need not be invoked while holding the lock; if the entry has been removed from the index in the meantime (and
+     * thus from the Cache Stats as well), nothing will be updated.
+     *
+     * @param entry  The entry that was read.
+     * @param length The number of bytes read from it.
+     */
+    private void touch(ReadIndexEntry entry, int length) {
+        synchronized (entry) {
+            if (this.indexEntries.get(entry.key()) != entry) {
+                // Evicted or replaced. Its stats have already been (or are about to be) removed from the summary.
+                return;
+            }
+
+            int oldGeneration = entry.getGeneration();
+            boolean wasCold = !entry.isFrequentlyRead();
+            int generation = this.summary.touchOne(oldGeneration);
+            entry.setGeneration(generation);
+            entry.recordRead(length);
+            if (wasCold) {
+                this.summary.removeCold(entry.getLength(), oldGeneration);
+                if (!entry.isFrequentlyRead()) {
+                    this.summary.addCold(entry.getLength(), generation);
+                }
+            }
+        }
+    }
+
     //endregion
 
     //region Reading
@@ -513,8 +591,13 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
         // Get all eligible Future Reads which wait for data prior to the end offset.
         // Since we are not actually using this entry's data, there is no need to 'touch' it.
         ReadIndexEntry lastEntry;
+        List<RecentAppend> recentAppends = null;
         synchronized (this.lock) {
             lastEntry = this.indexEntries.getLast();
+            if (!this.recentAppends.isEmpty()) {
+                recentAppends = new ArrayList<>(this.recentAppends);
+                this.recentAppends.clear();
+            }
         }
 
         if (lastEntry == null) {
@@ -535,7 +618,11 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
         log.debug("{}: triggerFutureReads (Count = {}, Offset = {}, Sealed = {}).", this.traceObjectId, futureReads.size(), lastEntry.getLastStreamSegmentOffset(), sealed);
 
         for (FutureReadResultEntry r : futureReads) {
-            ReadResultEntry entry = getSingleReadResultEntry(r.getStreamSegmentOffset(), r.getRequestedReadLength());
+            ReadResultEntry entry = getWriteThroughReadResultEntry(recentAppends, r.getStreamSegmentOffset(), r.getRequestedReadLength());
+            if (entry == null) {
+                entry = getSingleReadResultEntry(r.getStreamSegmentOffset(), r.getRequestedReadLength());
+            }
+
             assert entry != null : "Serving a StorageReadResultEntry with a null result";
             assert !(entry instanceof FutureReadResultEntry) : "Serving a FutureReadResultEntry with another FutureReadResultEntry.";
 
@@ -561,6 +648,31 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
         }
     }
 
+    /**
+     * Attempts to create a ReadResultEntry for a Future Read directly out of the data of one of the given recent appends.
+     *
+     * @param recentAppends       The appends that have been added since the last call to triggerFutureReads(). May be null.
+     * @param streamSegmentOffset The Offset in the StreamSegment where to the ReadResultEntry starts at.
+     * @param maxLength           The maximum length of the Read, from the Offset of this ReadResultEntry.
+     * @return A CacheReadResultEntry, or null if none of the recent appends contains the given offset.
+     */
+    private CacheReadResultEntry getWriteThroughReadResultEntry(List<RecentAppend> recentAppends, long streamSegmentOffset, int maxLength) {
+        if (recentAppends == null || streamSegmentOffset < this.metadata.getStartOffset()) {
+            // Nothing to serve from, or the data has been truncated in the meantime (let the regular path handle it).
+            return null;
+        }
+
+        for (RecentAppend append : recentAppends) {
+            if (streamSegmentOffset >= append.offset && streamSegmentOffset < append.offset + append.data.length) {
+                int entryOffset = (int) (streamSegmentOffset - append.offset);
+                int length = Math.min(maxLength, append.data.length - entryOffset);
+                return new CacheReadResultEntry(append.offset, append.data, entryOffset, length);
+            }
+        }
+
+        return null;
+    }
+
     /**
      * Reads a contiguous sequence of bytes of the given length starting at the given offset. Every byte in the range
      * must meet the following conditions:
@@ -650,6 +762,7 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
                 "startOffset", "StreamSegment is sealed and startOffset is beyond the last offset of the StreamSegment.");
 
         log.debug("{}: Read (Offset = {}, MaxLength = {}).", this.traceObjectId, startOffset, maxLength);
+        triggerReadAhead(startOffset);
         return new StreamSegmentReadResult(startOffset, maxLength, this::getMultiReadResultEntry, this.traceObjectId);
     }
 
@@ -709,6 +822,11 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
         } else if (ra == ReadAvailability.BeforeStartOffset) {
             result = new TruncatedReadResultEntry(resultStartOffset, maxLength, this.metadata.getStartOffset());
         } else {
+            // Fast path: the data is in the cache (this does not require the lock).
+            result = tryGetCachedReadResultEntry(this.indexEntries.getFloor(resultStartOffset), resultStartOffset, maxLength);
+        }
+
+        if (result == null && ra == ReadAvailability.Available) {
             // Look up an entry in the index that contains our requested start offset.
             synchronized (this.lock) {
                 ReadIndexEntry indexEntry = this.indexEntries.getFloor(resultStartOffset);
@@ -764,11 +882,11 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
         }
 
         // Collect the contents of congruent Index Entries into a list, as long as we still encounter data in the cache.
-        ArrayList<InputStream> contents = new ArrayList<>();
+        ArrayList<ArrayView> contents = new ArrayList<>();
         do {
             assert Futures.isSuccessful(nextEntry.getContent()) : "Found CacheReadResultEntry that is not completed yet: " + nextEntry;
             val entryContents = nextEntry.getContent().join();
-            contents.add(entryContents.getData());
+            contents.addAll(entryContents.getBuffers());
             readLength += entryContents.getLength();
             if (readLength >= this.config.getMemoryReadMinLength() || readLength >= maxLength) {
                 break;
@@ -777,8 +895,8 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
             nextEntry = getSingleMemoryReadResultEntry(resultStartOffset + readLength, maxLength - readLength);
         } while (nextEntry != null);
 
-        // Coalesce the results into a single InputStream and return the result.
-        return new CacheReadResultEntry(resultStartOffset, new SequenceInputStream(Iterators.asEnumeration(contents.iterator())), readLength);
+        // Coalesce the results into a single entry (without copying the data) and return the result.
+        return new CacheReadResultEntry(resultStartOffset, contents, readLength);
     }
 
     /**
@@ -794,6 +912,12 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
         Exceptions.checkNotClosed(this.closed, this);
 
         if (maxLength > 0 && checkReadAvailability(resultStartOffset, false) == ReadAvailability.Available) {
+            // Fast path: the data is in the cache (this does not require the lock).
+            CacheReadResultEntry result = tryGetCachedReadResultEntry(this.indexEntries.get(resultStartOffset), resultStartOffset, maxLength);
+            if (result != null) {
+                return result;
+            }
+
             // Look up an entry in the index that contains our requested start offset.
             synchronized (this.lock) {
                 ReadIndexEntry indexEntry = this.indexEntries.get(resultStartOffset);
@@ -887,14 +1011,49 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
         assert data != null : String.format("No Cache Entry could be retrieved for entry %s", entry);
 
         if (updateStats) {
-            // Update its generation before returning it.
-            int generation = this.summary.touchOne(entry.getGeneration());
-            entry.setGeneration(generation);
+            // Update its generation and read statistics before returning it.
+            touch(entry, length);
         }
 
         return new CacheReadResultEntry(entry.getStreamSegmentOffset(), data, entryOffset, length);
     }
 
+    /**
+     * Attempts to create a ReadResultEntry for data that is readily available in memory, without acquiring the lock.
+     * Entries may be evicted or replaced concurrently with this call; if the entry is no longer indexed after its data
+     * has been fetched (or if it does not contain the requested offset), null is returned and the caller must fall back
+     * to looking up the index while holding the lock. Evicted entries are always fully in Storage, so that lookup will
+     * yield the correct result.
+     *
+     * @param entry               The ReadIndexEntry that was looked up (without the lock). May be null.
+     * @param streamSegmentOffset The Offset in the StreamSegment where to the ReadResultEntry starts at.
+     * @param maxLength           The maximum length of the Read, from the Offset of this ReadResultEntry.
+     * @return A CacheReadResultEntry, or null if the data could not be served from the Cache.
+     */
+    private CacheReadResultEntry tryGetCachedReadResultEntry(ReadIndexEntry entry, long streamSegmentOffset, int maxLength) {
+        if (entry == null || !entry.isDataEntry() || streamSegmentOffset < entry.getStreamSegmentOffset()
+                || streamSegmentOffset > entry.getLastStreamSegmentOffset()) {
+            return null;
+        }
+
+        // The entry may be replaced in the meantime by another one with the same Cache Key but a different length, so
+        // make sure it is still indexed after we got the data, and never return more than we actually got.
+        byte[] data = this.cache.get(getCacheKey(entry));
+        if (data == null || this.indexEntries.get(entry.getStreamSegmentOffset()) != entry) {
+            // Evicted or replaced in the meantime.
+            return null;
+        }
+
+        int entryOffset = (int) (streamSegmentOffset - entry.getStreamSegmentOffset());
+        int length = (int) Math.min(maxLength, Math.min(entry.getLength(), data.length) - entryOffset);
+        if (length <= 0) {
+            return null;
+        }
+
+        touch(entry, length);
+        return new CacheReadResultEntry(entry.getStreamSegmentOffset(), data, entryOffset, length);
+    }
+
     /**
      * Creates a ReadResultEntry that is a placeholder for data that is not in memory, but exists in Storage.
      *
@@ -911,7 +1070,7 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
             ByteArraySegment data = result.getData();
 
             // Make sure we invoke our callback first, before any chance of exceptions from insert() may block it.
-            successCallback.accept(new ReadResultEntryContents(data.getReader(), data.getLength()));
+            successCallback.accept(new ReadResultEntryContents(data));
             if (!result.isDerived()) {
                 // Only insert primary results into the cache. Derived results are always sub-portions of primaries
                 // and there is no need to insert them too, as they are already contained within.
@@ -924,6 +1083,88 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
         this.storageReadManager.execute(new StorageReadManager.Request(offset, length, doneCallback, failureCallback, timeout));
     }
 
+    /**
+     * Records a read at the given offset and, if a sequential read pattern has been detected, issues asynchronous
+     * read-ahead requests for those ranges beyond it that exist in Storage but are not yet in the ReadIndex. Read-ahead
+     * is subject to the CacheManager's read-ahead budget; any range that does not fit in it is simply not requested.
+     *
+     * @param readOffset The offset of the read.
+     */
+    private void triggerReadAhead(long readOffset) {
+        if (this.readAheadDetector == null) {
+            return;
+        }
+
+        long storageLength = this.metadata.getStorageLength();
+        if (readOffset >= storageLength) {
+            // Tail reads are served from the cache (or from future reads); nothing to prefetch.
+            return;
+        }
+
+        SequentialReadDetector.Range range = this.readAheadDetector.recordRead(readOffset, storageLength);
+        if (range == null) {
+            return;
+        }
+
+        long offset = range.getStartOffset();
+        while (offset < range.getEndOffset()) {
+            int length = getReadAlignedLength(offset, (int) Math.min(Integer.MAX_VALUE, range.getEndOffset() - offset));
+            synchronized (this.lock) {
+                ReadIndexEntry existingEntry = this.indexEntries.getFloor(offset);
+                if (existingEntry != null && existingEntry.getLastStreamSegmentOffset() >= offset) {
+                    // This offset is already in the index (cached or redirected); skip over it.
+                    offset = existingEntry.getLastStreamSegmentOffset() + 1;
+                    continue;
+                }
+
+                length = getLengthUntilNextEntry(offset, length);
+            }
+
+            if (length <= 0) {
+                // Nothing else to read ahead.
+                return;
+            }
+
+            if (!this.cacheManager.tryReserveReadAhead(length)) {
+                log.debug("{}: ReadAhead (Offset = {}, Length = {}) rejected due to insufficient cache capacity.", this.traceObjectId, offset, length);
+                this.readAheadDetector.rewind(offset);
+                return;
+            }
+
+            if (!queueReadAhead(offset, length)) {
+                // There is a pending Storage read that overlaps with this range; skip it.
+                this.cacheManager.releaseReadAhead(length);
+            }
+
+            offset += length;
+        }
+    }
+
+    private boolean queueReadAhead(long offset, int length) {
+        log.debug("{}: ReadAhead (Offset = {}, Length = {}).", this.traceObjectId, offset, length);
+        Consumer<StorageReadManager.Result> doneCallback = result -> {
+            this.cacheManager.releaseReadAhead(length);
+            if (!this.closed) {
+                insert(offset, result.getData());
+            }
+        };
+        Consumer<Throwable> failureCallback = ex -> {
+            this.cacheManager.releaseReadAhead(length);
+            // Read-ahead is speculative. A failure here (i.e., the Segment has been deleted or truncated in the meantime)
+            // has no effect on any actual reads.
+            log.debug("{}: ReadAhead (Offset = {}, Length = {}) failed. {}", this.traceObjectId, offset, length, ex.toString());
+        };
+
+        // Read-ahead requests never overlap pending requests, so their results are never derived.
+        try {
+            return this.storageReadManager.executeIfNotOverlapping(
+                    new StorageReadManager.Request(offset, length, doneCallback, failureCallback, this.config.getStorageReadDefaultTimeout()));
+        } catch (Throwable ex) {
+            this.cacheManager.releaseReadAhead(length);
+            throw ex;
+        }
+    }
+
     /**
      * Returns the length from the given offset until the beginning of the next index entry. If no such entry exists, or
      * if the length is greater than maxLength, then maxLength is returned.
@@ -1015,4 +1256,17 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
     }
 
     //endregion
-}
\ No newline at end of file
+
+    //region RecentAppend
+
+    /**
+     * An append that may be used to serve Future Reads directly (see ReadIndexConfig.isFutureReadWriteThrough()).
+     */
+    @RequiredArgsConstructor
+    private static class RecentAppend {
+        final long offset;
+        final byte[] data;
+    }
+
+    //endregion
+}
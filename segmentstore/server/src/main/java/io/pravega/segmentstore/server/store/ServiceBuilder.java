@@ -365,9 +365,11 @@ public class ServiceBuilder implements AutoCloseable {
 
     private static class ReadOnlyServiceBuilder extends ServiceBuilder {
         private static final int READONLY_CONTAINER_COUNT = 1; // Everything maps to a single container.
+        private final int containerCount; // The number of containers in the cluster whose data we are reading.
 
         private ReadOnlyServiceBuilder(ServiceBuilderConfig serviceBuilderConfig, ServiceConfig serviceConfig, ExecutorBuilder executorBuilder) {
             super(serviceBuilderConfig, serviceConfig, executorBuilder);
+            this.containerCount = serviceConfig.getContainerCount();
 
             // We attach a LocalSegmentContainerManager, since we only have one Container Running.
             // Note that withContainerManager() is disabled in ReadOnlyServiceBuilder, hence we must invoke the one on
@@ -383,7 +385,7 @@ public class ServiceBuilder implements AutoCloseable {
         @Override
         protected SegmentContainerFactory createSegmentContainerFactory() {
             StorageFactory storageFactory = createStorageFactory();
-            return new ReadOnlySegmentContainerFactory(storageFactory, getCoreExecutor());
+            return new ReadOnlySegmentContainerFactory(storageFactory, this.containerCount, getCoreExecutor());
         }
 
         @Override
@@ -39,6 +39,7 @@ public class ServiceConfig {
     public static final Property<String> CLUSTER_NAME = Property.named("clusterName", "pravega-cluster");
     public static final Property<DataLogType> DATALOG_IMPLEMENTATION = Property.named("dataLogImplementation", DataLogType.INMEMORY);
     public static final Property<StorageType> STORAGE_IMPLEMENTATION = Property.named("storageImplementation", StorageType.INMEMORY);
+    public static final Property<CacheType> CACHE_IMPLEMENTATION = Property.named("cacheImplementation", CacheType.ROCKSDB);
     public static final Property<Boolean> READONLY_SEGMENT_STORE = Property.named("readOnlySegmentStore", false);
     public static final Property<Boolean> ENABLE_TLS = Property.named("enableTls", false);
     public static final Property<String> CERT_FILE = Property.named("certFile", "");
@@ -84,6 +85,18 @@ public class ServiceConfig {
         INMEMORY
     }
 
+    public enum CacheType {
+        /**
+         * Cache is implemented by a local RocksDB instance, which may spill over to local disk.
+         */
+        ROCKSDB,
+
+        /**
+         * Cache is implemented using fixed-size blocks allocated from direct (off-heap) memory slabs.
+         */
+        DIRECTMEMORY
+    }
+
     //endregion
 
     //region Members
@@ -179,6 +192,12 @@ public class ServiceConfig {
     @Getter
     private final StorageType storageImplementation;
 
+    /**
+     * The Type of Cache Implementation to use.
+     */
+    @Getter
+    private final CacheType cacheImplementation;
+
     /**
      * Whether this SegmentStore instance is Read-Only (i.e., it can only process reads from Storage and nothing else).
      * Note that if this is set to 'true', then many other settings will not apply. The most important other one to set
@@ -247,6 +266,7 @@ public class ServiceConfig {
         this.clusterName = properties.get(CLUSTER_NAME);
         this.dataLogTypeImplementation = properties.getEnum(DATALOG_IMPLEMENTATION, DataLogType.class);
         this.storageImplementation = properties.getEnum(STORAGE_IMPLEMENTATION, StorageType.class);
+        this.cacheImplementation = properties.getEnum(CACHE_IMPLEMENTATION, CacheType.class);
         this.readOnlySegmentStore = properties.getBoolean(READONLY_SEGMENT_STORE);
         this.enableTls = properties.getBoolean(ENABLE_TLS);
         this.keyFile = properties.get(KEY_FILE);
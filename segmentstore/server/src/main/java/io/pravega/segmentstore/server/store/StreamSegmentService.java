@@ -14,6 +14,7 @@ import io.pravega.common.LoggerHelpers;
 import io.pravega.common.concurrent.Futures;
 import io.pravega.segmentstore.contracts.AttributeUpdate;
 import io.pravega.segmentstore.contracts.ContainerNotFoundException;
+import io.pravega.segmentstore.contracts.ReadRequest;
 import io.pravega.segmentstore.contracts.ReadResult;
 import io.pravega.segmentstore.contracts.SegmentProperties;
 import io.pravega.segmentstore.contracts.StreamSegmentStore;
@@ -21,7 +22,11 @@ import io.pravega.segmentstore.server.SegmentContainer;
 import io.pravega.segmentstore.server.SegmentContainerRegistry;
 import io.pravega.shared.segment.SegmentToContainerMapper;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
@@ -80,6 +85,15 @@ public class StreamSegmentService implements StreamSegmentStore {
                 "updateAttributes", streamSegmentName, attributeUpdates);
     }
 
+    @Override
+    public CompletableFuture<Map<UUID, Long>> getAttributes(String streamSegmentName, Collection<UUID> attributeIds,
+                                                            boolean waitForPendingOps, Duration timeout) {
+        return invoke(
+                streamSegmentName,
+                container -> container.getAttributes(streamSegmentName, attributeIds, waitForPendingOps, timeout),
+                "getAttributes", streamSegmentName, attributeIds, waitForPendingOps);
+    }
+
     @Override
     public CompletableFuture<ReadResult> read(String streamSegmentName, long offset, int maxLength, Duration timeout) {
         return invoke(
@@ -88,6 +102,33 @@ public class StreamSegmentService implements StreamSegmentStore {
                 "read", streamSegmentName, offset, maxLength);
     }
 
+    @Override
+    public List<CompletableFuture<ReadResult>> read(List<ReadRequest> reads, Duration timeout) {
+        long traceId = LoggerHelpers.traceEnter(log, "readBatch", reads.size());
+
+        // Most (if not all) Segments in a batch are expected to map to the same Container, so only look up each one once.
+        HashMap<Integer, SegmentContainer> containers = new HashMap<>();
+        List<CompletableFuture<ReadResult>> result = new ArrayList<>(reads.size());
+        for (ReadRequest r : reads) {
+            int containerId = this.segmentToContainerMapper.getContainerId(r.getStreamSegmentName());
+            SegmentContainer container = containers.get(containerId);
+            if (container == null) {
+                try {
+                    container = this.segmentContainerRegistry.getContainer(containerId);
+                    containers.put(containerId, container);
+                } catch (ContainerNotFoundException ex) {
+                    result.add(Futures.failedFuture(ex));
+                    continue;
+                }
+            }
+
+            result.add(container.read(r.getStreamSegmentName(), r.getOffset(), r.getMaxLength(), timeout));
+        }
+
+        LoggerHelpers.traceLeave(log, "readBatch", traceId, reads.size());
+        return result;
+    }
+
     @Override
     public CompletableFuture<SegmentProperties> getStreamSegmentInfo(String streamSegmentName, boolean waitForPendingOps, Duration timeout) {
         return invoke(
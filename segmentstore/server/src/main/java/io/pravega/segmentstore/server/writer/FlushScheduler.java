@@ -0,0 +1,266 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.writer;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import io.pravega.common.concurrent.Futures;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import lombok.Data;
+import lombok.val;
+
+/**
+ * Schedules Storage flushes from any number of StorageWriters (i.e., across all Segment Containers that share it), while
+ * enforcing a maximum number of concurrent flushes and (optionally) a maximum flush bandwidth.
+ * <p>
+ * Flushes that cannot execute right away are queued up and executed in order of their Priority (and, within the same
+ * Priority, in the order in which they were submitted). To prevent lower Priority flushes from starving under a steady
+ * stream of higher Priority ones (a StorageWriter cannot complete an iteration until all of its flushes are done), each
+ * Priority level is worth PRIORITY_AGING_INTERVAL submissions: a flush can only be bypassed by higher Priority flushes
+ * that were submitted less than that many submissions (per level of difference) after it. The bandwidth limit is enforced using a token bucket that holds
+ * at most one second's worth of bytes; a flush may be started as long as the bucket is not empty, after which its
+ * (estimated) length is deducted from it, which means that a large flush may delay subsequent ones.
+ */
+@ThreadSafe
+class FlushScheduler {
+    //region Members
+
+    @VisibleForTesting
+    static final int PRIORITY_AGING_INTERVAL = 100;
+    private static final Comparator<Task<?>> TASK_ORDER = Comparator
+            .<Task<?>>comparingLong(Task::getRank)
+            .thenComparingInt(t -> t.getPriority().ordinal())
+            .thenComparingLong(Task::getSequence);
+    private final int maxConcurrency;
+    private final long bytesPerSecond;
+    private final ScheduledExecutorService executor;
+    @GuardedBy("queue")
+    private final PriorityQueue<Task<?>> queue;
+    @GuardedBy("queue")
+    private int runningCount;
+    @GuardedBy("queue")
+    private long nextSequence;
+    @GuardedBy("queue")
+    private double availableBytes;
+    @GuardedBy("queue")
+    private long lastRefillNanos;
+    @GuardedBy("queue")
+    private boolean refillScheduled;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the FlushScheduler class.
+     *
+     * @param config   The WriterConfig to use.
+     * @param executor The Executor to use for async operations.
+     */
+    FlushScheduler(WriterConfig config, ScheduledExecutorService executor) {
+        this(config.getMaxConcurrentFlushes(), config.getFlushBandwidthBytesPerSecond(), executor);
+    }
+
+    /**
+     * Creates a new instance of the FlushScheduler class.
+     *
+     * @param maxConcurrency The maximum number of flushes that can execute concurrently.
+     * @param bytesPerSecond The maximum number of bytes to flush per second. If 0, there is no limit.
+     * @param executor       The Executor to use for async operations.
+     */
+    FlushScheduler(int maxConcurrency, long bytesPerSecond, ScheduledExecutorService executor) {
+        Preconditions.checkArgument(maxConcurrency > 0, "maxConcurrency must be a positive number.");
+        Preconditions.checkArgument(bytesPerSecond >= 0, "bytesPerSecond must be a non-negative number.");
+        this.maxConcurrency = maxConcurrency;
+        this.bytesPerSecond = bytesPerSecond;
+        this.executor = Preconditions.checkNotNull(executor, "executor");
+        this.queue = new PriorityQueue<>(TASK_ORDER);
+        this.availableBytes = bytesPerSecond;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    //endregion
+
+    //region Operations
+
+    /**
+     * Schedules the given flush for execution.
+     *
+     * @param priority The Priority of the flush.
+     * @param length   The (estimated) number of bytes that the flush will write to Storage.
+     * @param flush    A Supplier that, when invoked, will begin the flush and return a CompletableFuture for its result.
+     * @param <T>      Return type.
+     * @return A CompletableFuture that will be completed with the result of the flush once it has executed.
+     */
+    <T> CompletableFuture<T> execute(Priority priority, long length, Supplier<CompletableFuture<T>> flush) {
+        Preconditions.checkNotNull(priority, "priority");
+        Preconditions.checkArgument(length >= 0, "length must be a non-negative number.");
+        Task<T> task;
+        synchronized (this.queue) {
+            task = new Task<>(priority, this.nextSequence++, length, flush);
+            this.queue.add(task);
+        }
+
+        runNext();
+        return task.getResult();
+    }
+
+    /**
+     * Gets the number of flushes that are currently executing.
+     */
+    int getRunningCount() {
+        synchronized (this.queue) {
+            return this.runningCount;
+        }
+    }
+
+    /**
+     * Gets the number of flushes that are waiting to be executed.
+     */
+    int getQueueSize() {
+        synchronized (this.queue) {
+            return this.queue.size();
+        }
+    }
+
+    /**
+     * Starts as many queued flushes as the concurrency limit and bandwidth budget allow.
+     */
+    private void runNext() {
+        val toRun = new ArrayList<Task<?>>();
+        synchronized (this.queue) {
+            refill();
+            while (this.runningCount < this.maxConcurrency && !this.queue.isEmpty()) {
+                Task<?> next = this.queue.peek();
+                if (this.bytesPerSecond > 0 && next.getLength() > 0 && this.availableBytes <= 0) {
+                    // Out of budget. Try again once the bucket has been refilled enough (but do not bypass any higher
+                    // priority flushes with lower priority ones that happen to be small).
+                    scheduleRefill();
+                    break;
+                }
+
+                this.queue.poll();
+                this.availableBytes -= next.getLength();
+                this.runningCount++;
+                toRun.add(next);
+            }
+        }
+
+        toRun.forEach(this::run);
+    }
+
+    private void run(Task<?> task) {
+        CompletableFuture<?> flushFuture;
+        try {
+            flushFuture = task.getFlush().get();
+        } catch (Throwable ex) {
+            flushFuture = Futures.failedFuture(ex);
+        }
+
+        flushFuture.whenComplete((r, ex) -> {
+            synchronized (this.queue) {
+                this.runningCount--;
+            }
+
+            task.complete(r, ex);
+            this.executor.execute(this::runNext);
+        });
+    }
+
+    @GuardedBy("queue")
+    private void refill() {
+        long now = System.nanoTime();
+        if (this.bytesPerSecond > 0) {
+            double refill = (double) (now - this.lastRefillNanos) * this.bytesPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.availableBytes = Math.min(this.bytesPerSecond, this.availableBytes + refill);
+        }
+
+        this.lastRefillNanos = now;
+    }
+
+    @GuardedBy("queue")
+    private void scheduleRefill() {
+        if (!this.refillScheduled) {
+            this.refillScheduled = true;
+            long delayNanos = (long) Math.ceil((1 - this.availableBytes) * TimeUnit.SECONDS.toNanos(1) / this.bytesPerSecond);
+            this.executor.schedule(() -> {
+                synchronized (this.queue) {
+                    this.refillScheduled = false;
+                }
+
+                runNext();
+            }, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    //endregion
+
+    //region Priority
+
+    /**
+     * Defines the Priority of a flush.
+     */
+    enum Priority {
+        /**
+         * The flush prevents the DurableLog from being truncated.
+         */
+        HIGH,
+
+        /**
+         * A regular flush.
+         */
+        NORMAL,
+
+        /**
+         * The flush is attempting to reconcile a Segment with its state in Storage.
+         */
+        LOW
+    }
+
+    //endregion
+
+    //region Task
+
+    @Data
+    private static class Task<T> {
+        private final Priority priority;
+        private final long sequence;
+        private final long length;
+        private final Supplier<CompletableFuture<T>> flush;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        /**
+         * Gets the position of this Task in the queue: its sequence number, pushed back by PRIORITY_AGING_INTERVAL for
+         * every Priority level below the highest one.
+         */
+        long getRank() {
+            return this.sequence + (long) this.priority.ordinal() * PRIORITY_AGING_INTERVAL;
+        }
+
+        @SuppressWarnings("unchecked")
+        void complete(Object value, Throwable ex) {
+            if (ex == null) {
+                this.result.complete((T) value);
+            } else {
+                this.result.completeExceptionally(ex);
+            }
+        }
+    }
+
+    //endregion
+}
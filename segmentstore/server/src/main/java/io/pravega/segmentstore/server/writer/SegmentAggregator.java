@@ -41,6 +41,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToLongFunction;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 import lombok.Getter;
@@ -187,10 +188,17 @@ class SegmentAggregator implements OperationProcessor, AutoCloseable {
                 || (length > 0 && getElapsedSinceLastFlush().compareTo(this.config.getFlushThresholdTime()) >= 0);
     }
 
+    /**
+     * Gets a value indicating the total length of all the appends that are waiting to be flushed to Storage.
+     */
+    long getOutstandingLength() {
+        return this.operations.sum(op -> isAppendOperation(op) ? op.getLength() : 0);
+    }
+
     /**
      * Gets a value indicating whether the SegmentAggregator is currently in a Reconciliation state.
      */
-    private boolean isReconciling() {
+    boolean isReconciling() {
         AggregatorState currentState = this.state.get();
         return currentState == AggregatorState.ReconciliationNeeded
                 || currentState == AggregatorState.Reconciling;
@@ -1448,6 +1456,10 @@ class SegmentAggregator implements OperationProcessor, AutoCloseable {
         synchronized int size() {
             return this.queue.size();
         }
+
+        synchronized long sum(ToLongFunction<StorageOperation> getValue) {
+            return this.queue.stream().mapToLong(getValue).sum();
+        }
     }
 
     //endregion
@@ -51,6 +51,7 @@ class StorageWriter extends AbstractThreadPoolService implements Writer {
     private final WriterState state;
     private final Timer timer;
     private final AckCalculator ackCalculator;
+    private final FlushScheduler flushScheduler;
 
     //endregion
 
@@ -65,11 +66,25 @@ class StorageWriter extends AbstractThreadPoolService implements Writer {
      * @param executor   The Executor to use for async callbacks and operations.
      */
     StorageWriter(WriterConfig config, WriterDataSource dataSource, Storage storage, ScheduledExecutorService executor) {
+        this(config, dataSource, storage, new FlushScheduler(config, executor), executor);
+    }
+
+    /**
+     * Creates a new instance of the StorageWriter class.
+     *
+     * @param config         The WriterConfig to use.
+     * @param dataSource     The WriterDataSource to use.
+     * @param storage        The Storage to use.
+     * @param flushScheduler The FlushScheduler to execute flushes with. This may be shared with other StorageWriters.
+     * @param executor       The Executor to use for async callbacks and operations.
+     */
+    StorageWriter(WriterConfig config, WriterDataSource dataSource, Storage storage, FlushScheduler flushScheduler, ScheduledExecutorService executor) {
         super(String.format("StorageWriter[%d]", dataSource.getId()), executor);
 
         // No need to check dataSource or executor != null as the super() call above takes care of that.
         Preconditions.checkNotNull(config, "config");
         Preconditions.checkNotNull(storage, "storage");
+        Preconditions.checkNotNull(flushScheduler, "flushScheduler");
 
         this.config = config;
         this.dataSource = dataSource;
@@ -78,6 +93,7 @@ class StorageWriter extends AbstractThreadPoolService implements Writer {
         this.state = new WriterState();
         this.timer = new Timer();
         this.ackCalculator = new AckCalculator(this.state);
+        this.flushScheduler = flushScheduler;
     }
 
     //endregion
@@ -276,10 +292,12 @@ class StorageWriter extends AbstractThreadPoolService implements Writer {
         checkRunning();
         long traceId = LoggerHelpers.traceEnterWithContext(log, this.traceObjectId, "flush");
 
-        // Flush everything we can flush.
+        // Flush everything we can flush. The FlushScheduler decides when each flush actually executes.
+        long truncationSeqNo = getLowestUncommittedSequenceNumber();
         val flushFutures = this.aggregators.values().stream()
                                            .filter(SegmentAggregator::mustFlush)
-                                           .map(a -> a.flush(this.config.getFlushTimeout()))
+                                           .map(a -> this.flushScheduler.execute(getFlushPriority(a, truncationSeqNo), a.getOutstandingLength(),
+                                                   () -> a.flush(this.config.getFlushTimeout())))
                                            .collect(Collectors.toList());
 
         return Futures
@@ -295,6 +313,33 @@ class StorageWriter extends AbstractThreadPoolService implements Writer {
                 }, this.executor);
     }
 
+    /**
+     * Gets the Lowest Uncommitted Sequence Number across all active SegmentAggregators. This is the Sequence Number that
+     * currently prevents the DurableLog from being truncated any further.
+     */
+    private long getLowestUncommittedSequenceNumber() {
+        return this.aggregators.values().stream()
+                               .filter(a -> !a.isClosed())
+                               .mapToLong(SegmentAggregator::getLowestUncommittedSequenceNumber)
+                               .filter(seqNo -> seqNo >= 0)
+                               .min()
+                               .orElse(Operation.NO_SEQUENCE_NUMBER);
+    }
+
+    /**
+     * Determines the FlushScheduler.Priority for the given SegmentAggregator. SegmentAggregators that prevent the DurableLog
+     * from being truncated are flushed first, while those that are reconciling are flushed last.
+     */
+    private FlushScheduler.Priority getFlushPriority(SegmentAggregator aggregator, long truncationSeqNo) {
+        if (aggregator.isReconciling()) {
+            return FlushScheduler.Priority.LOW;
+        } else if (truncationSeqNo >= 0 && aggregator.getLowestUncommittedSequenceNumber() == truncationSeqNo) {
+            return FlushScheduler.Priority.HIGH;
+        } else {
+            return FlushScheduler.Priority.NORMAL;
+        }
+    }
+
     /**
      * Cleans up all SegmentAggregators that are currently closed.
      */
@@ -27,11 +27,12 @@ import java.util.concurrent.ScheduledExecutorService;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Factory for StorageWriters.
+ * Factory for StorageWriters. All the StorageWriters created by the same factory share the same FlushScheduler.
  */
 public class StorageWriterFactory implements WriterFactory {
     private final WriterConfig config;
     private final ScheduledExecutorService executor;
+    private final FlushScheduler flushScheduler;
 
     /**
      * Creates a new instance of the StorageWriterFactory class.
@@ -44,13 +45,14 @@ public class StorageWriterFactory implements WriterFactory {
         Preconditions.checkNotNull(executor, "executor");
         this.config = config;
         this.executor = executor;
+        this.flushScheduler = new FlushScheduler(config, executor);
     }
 
     @Override
     public Writer createWriter(UpdateableContainerMetadata containerMetadata, OperationLog operationLog, ReadIndex readIndex, Storage storage) {
         Preconditions.checkArgument(containerMetadata.getContainerId() == operationLog.getId(), "Given containerMetadata and operationLog have different Container Ids.");
         WriterDataSource dataSource = new StorageWriterDataSource(containerMetadata, operationLog, readIndex);
-        return new StorageWriter(this.config, dataSource, storage, this.executor);
+        return new StorageWriter(this.config, dataSource, storage, this.flushScheduler, this.executor);
     }
 
     //region StorageWriterDataSource
@@ -0,0 +1,265 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.attributes;
+
+import io.pravega.common.util.BitConverter;
+import io.pravega.segmentstore.server.DataCorruptionException;
+import io.pravega.segmentstore.server.SegmentMetadata;
+import io.pravega.segmentstore.storage.Storage;
+import io.pravega.segmentstore.storage.mocks.InMemoryStorageFactory;
+import io.pravega.shared.segment.StreamSegmentNameUtils;
+import io.pravega.test.common.AssertExtensions;
+import io.pravega.test.common.ThreadPooledTestSuite;
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import lombok.Cleanup;
+import lombok.val;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Unit tests for the ContainerAttributeIndex and SegmentAttributeIndex classes.
+ */
+public class ContainerAttributeIndexTests extends ThreadPooledTestSuite {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final String SEGMENT_NAME = "Segment";
+    private static final int MAX_PAGE_ENTRY_COUNT = 4;
+    private static final int MAX_CACHED_PAGE_COUNT = 16;
+    private static final int MIN_COMPACTION_LENGTH = 4096;
+    private static final int ATTRIBUTE_COUNT = 200;
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(TIMEOUT.getSeconds());
+    private Storage storage;
+
+    @Before
+    public void setUp() {
+        this.storage = InMemoryStorageFactory.newStorage(executorService());
+        this.storage.initialize(1);
+    }
+
+    @Override
+    protected int getThreadPoolSize() {
+        return 3;
+    }
+
+    /**
+     * Tests the get() method on a Segment which does not have any Attributes persisted.
+     */
+    @Test
+    public void testGetEmpty() throws Exception {
+        @Cleanup
+        val index = createIndex();
+        val result = index.get(SEGMENT_NAME, createAttributeIds(10), TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        Assert.assertEquals("Not expecting any Attributes.", 0, result.size());
+    }
+
+    /**
+     * Tests the put() and get() methods with inserts, updates and removals, which cause pages to be split, merged and
+     * the tree to grow and shrink.
+     */
+    @Test
+    public void testPutGet() throws Exception {
+        val rnd = new Random(0);
+        val attributeIds = createAttributeIds(ATTRIBUTE_COUNT);
+        val expected = new HashMap<UUID, Long>();
+        @Cleanup
+        val index = createIndex();
+
+        // Insert in small batches; this will cause the tree to grow several levels.
+        for (int i = 0; i < attributeIds.size(); i += 7) {
+            val batch = new HashMap<UUID, Long>();
+            for (int j = i; j < Math.min(attributeIds.size(), i + 7); j++) {
+                batch.put(attributeIds.get(j), rnd.nextLong() & Long.MAX_VALUE);
+            }
+
+            index.put(SEGMENT_NAME, batch, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            expected.putAll(batch);
+        }
+
+        checkIndex(index, attributeIds, expected);
+
+        // Update some and remove others.
+        val updates = new HashMap<UUID, Long>();
+        for (int i = 0; i < attributeIds.size(); i++) {
+            UUID id = attributeIds.get(i);
+            if (i % 3 == 0) {
+                updates.put(id, SegmentMetadata.NULL_ATTRIBUTE_VALUE);
+                expected.remove(id);
+            } else if (i % 3 == 1) {
+                long value = rnd.nextLong() & Long.MAX_VALUE;
+                updates.put(id, value);
+                expected.put(id, value);
+            }
+        }
+
+        index.put(SEGMENT_NAME, updates, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        checkIndex(index, attributeIds, expected);
+
+        // Remove everything.
+        val removals = new HashMap<UUID, Long>();
+        attributeIds.forEach(id -> removals.put(id, SegmentMetadata.NULL_ATTRIBUTE_VALUE));
+        index.put(SEGMENT_NAME, removals, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        expected.clear();
+        checkIndex(index, attributeIds, expected);
+
+        // And insert them again.
+        attributeIds.forEach(id -> expected.put(id, (long) id.hashCode()));
+        index.put(SEGMENT_NAME, expected, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        checkIndex(index, attributeIds, expected);
+    }
+
+    /**
+     * Tests the ability to compact the Attribute Segment once enough of it has become obsolete.
+     */
+    @Test
+    public void testCompaction() throws Exception {
+        val rnd = new Random(0);
+        val attributeIds = createAttributeIds(ATTRIBUTE_COUNT);
+        val expected = new HashMap<UUID, Long>();
+        attributeIds.forEach(id -> expected.put(id, 0L));
+        try (val index = createIndex()) {
+            index.put(SEGMENT_NAME, expected, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+
+            // Keep updating a few Attributes at a time; each such update makes some of the previously written pages obsolete.
+            boolean compacted = false;
+            for (int i = 0; i < ATTRIBUTE_COUNT; i++) {
+                val batch = new HashMap<UUID, Long>();
+                for (int j = 0; j < 3; j++) {
+                    batch.put(attributeIds.get(rnd.nextInt(attributeIds.size())), (long) i);
+                }
+
+                index.put(SEGMENT_NAME, batch, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                expected.putAll(batch);
+
+                // Verify the obsolete portion of the Attribute Segment never exceeds what is allowed.
+                val attributeSegmentName = StreamSegmentNameUtils.getAttributeSegmentName(SEGMENT_NAME);
+                long length = this.storage.getStreamSegmentInfo(attributeSegmentName, TIMEOUT).join().getLength();
+                byte[] footer = new byte[SegmentAttributeIndex.FOOTER_LENGTH];
+                this.storage.openRead(attributeSegmentName)
+                            .thenCompose(handle -> this.storage.read(handle, length - footer.length, footer, 0, footer.length, TIMEOUT))
+                            .join();
+                long baseOffset = BitConverter.readLong(footer, Long.BYTES + Integer.BYTES);
+                long liveLength = BitConverter.readLong(footer, 2 * Long.BYTES + Integer.BYTES);
+                long obsoleteLength = length - baseOffset - liveLength;
+                AssertExtensions.assertLessThan("Attribute Segment was not compacted.", Math.max(MIN_COMPACTION_LENGTH, liveLength), obsoleteLength);
+                compacted |= baseOffset > 0;
+            }
+
+            Assert.assertTrue("Expected at least one compaction.", compacted);
+            checkIndex(index, attributeIds, expected);
+        }
+
+        // Verify the compacted index can be read back.
+        @Cleanup
+        val index = createIndex();
+        checkIndex(index, attributeIds, expected);
+    }
+
+    /**
+     * Tests the ability to read back a previously persisted index using a new ContainerAttributeIndex instance.
+     */
+    @Test
+    public void testRecovery() throws Exception {
+        val attributeIds = createAttributeIds(ATTRIBUTE_COUNT);
+        val expected = new HashMap<UUID, Long>();
+        try (val index = createIndex()) {
+            for (int i = 0; i < attributeIds.size(); i++) {
+                expected.put(attributeIds.get(i), (long) i);
+                if (i % 10 == 0) {
+                    index.put(SEGMENT_NAME, expected, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                }
+            }
+
+            index.put(SEGMENT_NAME, expected, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Cleanup
+        val index = createIndex();
+        checkIndex(index, attributeIds, expected);
+
+        // Cleaning up the in-memory state should have no bearing on what is persisted.
+        index.cleanup(Collections.singleton(SEGMENT_NAME));
+        checkIndex(index, attributeIds, expected);
+    }
+
+    /**
+     * Tests the delete() method.
+     */
+    @Test
+    public void testDelete() throws Exception {
+        val attributeIds = createAttributeIds(ATTRIBUTE_COUNT);
+        val expected = new HashMap<UUID, Long>();
+        attributeIds.forEach(id -> expected.put(id, 1L));
+        @Cleanup
+        val index = createIndex();
+        index.put(SEGMENT_NAME, expected, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        index.delete(SEGMENT_NAME, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        Assert.assertFalse("Attribute Segment was not deleted.",
+                this.storage.exists(StreamSegmentNameUtils.getAttributeSegmentName(SEGMENT_NAME), TIMEOUT).join());
+        checkIndex(index, attributeIds, new HashMap<>());
+
+        // Deleting a non-existent index should be a no-op.
+        index.delete(SEGMENT_NAME, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+
+        // Verify we can reuse it after deletion.
+        index.put(SEGMENT_NAME, expected, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        checkIndex(index, attributeIds, expected);
+    }
+
+    /**
+     * Tests the case when the Attribute Segment does not contain a valid index.
+     */
+    @Test
+    public void testCorruptedIndex() throws Exception {
+        val attributeSegmentName = StreamSegmentNameUtils.getAttributeSegmentName(SEGMENT_NAME);
+        byte[] contents = new byte[SegmentAttributeIndex.FOOTER_LENGTH + 10];
+        new Random(0).nextBytes(contents);
+        this.storage.create(attributeSegmentName, TIMEOUT)
+                    .thenCompose(si -> this.storage.openWrite(attributeSegmentName))
+                    .thenCompose(handle -> this.storage.write(handle, 0, new ByteArrayInputStream(contents), contents.length, TIMEOUT))
+                    .join();
+
+        @Cleanup
+        val index = createIndex();
+        AssertExtensions.assertThrows(
+                "get() did not fail for a corrupted index.",
+                () -> index.get(SEGMENT_NAME, createAttributeIds(1), TIMEOUT),
+                ex -> ex instanceof DataCorruptionException);
+    }
+
+    private void checkIndex(ContainerAttributeIndex index, List<UUID> attributeIds, Map<UUID, Long> expected) throws Exception {
+        val actual = index.get(SEGMENT_NAME, attributeIds, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        AssertExtensions.assertMapEquals("Unexpected Attributes.", expected, actual);
+    }
+
+    private ContainerAttributeIndex createIndex() {
+        return new ContainerAttributeIndex(MAX_PAGE_ENTRY_COUNT, MAX_CACHED_PAGE_COUNT, MIN_COMPACTION_LENGTH, this.storage, executorService());
+    }
+
+    private List<UUID> createAttributeIds(int count) {
+        val result = new ArrayList<UUID>();
+        for (int i = 0; i < count; i++) {
+            result.add(UUID.randomUUID());
+        }
+
+        return result;
+    }
+}
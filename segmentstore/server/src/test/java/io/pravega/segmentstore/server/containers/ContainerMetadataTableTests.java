@@ -0,0 +1,237 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.containers;
+
+import io.pravega.common.concurrent.Futures;
+import io.pravega.common.util.AsyncMap;
+import io.pravega.segmentstore.contracts.StreamSegmentInformation;
+import io.pravega.segmentstore.storage.Storage;
+import io.pravega.segmentstore.storage.mocks.InMemoryStorageFactory;
+import io.pravega.shared.segment.StreamSegmentNameUtils;
+import io.pravega.test.common.AssertExtensions;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.val;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the ContainerMetadataTable class.
+ */
+public class ContainerMetadataTableTests extends StateStoreTests {
+    private static final int CONTAINER_ID = 1;
+    private static final int MIN_COMPACTION_LENGTH = 1024;
+    private Storage storage;
+
+    @Before
+    public void setUp() {
+        this.storage = InMemoryStorageFactory.newStorage(executorService());
+        this.storage.initialize(1);
+    }
+
+    @Override
+    public int getThreadPoolSize() {
+        return 5;
+    }
+
+    @Override
+    protected AsyncMap<String, SegmentState> createStateStore() {
+        return createTable(null);
+    }
+
+    /**
+     * Tests the ability to recover the contents of the table from Storage, both before and after compactions.
+     */
+    @Test
+    public void testRecovery() throws Exception {
+        final int segmentCount = 100;
+        val table = createTable(null);
+        val expected = new HashMap<String, SegmentState>();
+        for (int i = 0; i < segmentCount; i++) {
+            String segmentName = "Segment_" + i;
+            SegmentState state = createState(segmentName, i);
+            table.put(segmentName, state, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            expected.put(segmentName, state);
+            if (i % 3 == 0) {
+                // Remove every third segment.
+                table.remove(segmentName, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                expected.remove(segmentName);
+            }
+
+            if (i % 10 == 0) {
+                checkContents(expected, createTable(null));
+            }
+        }
+
+        AssertExtensions.assertGreaterThan("Expected at least one compaction.", 1, table.getGeneration());
+        val recovered = createTable(null);
+        checkContents(expected, recovered);
+
+        // Verify that the recovered table can be updated (and then recovered again).
+        String newSegment = "NewSegment";
+        SegmentState newState = createState(newSegment, segmentCount);
+        recovered.put(newSegment, newState, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        expected.put(newSegment, newState);
+        checkContents(expected, createTable(null));
+    }
+
+    /**
+     * Tests the ability to recover when the most recent compaction did not complete.
+     */
+    @Test
+    public void testRecoveryIncompleteCompaction() throws Exception {
+        val table = createTable(null);
+        val expected = new HashMap<String, SegmentState>();
+        for (int i = 0; i < 5; i++) {
+            String segmentName = "Segment_" + i;
+            SegmentState state = createState(segmentName, i);
+            table.put(segmentName, state, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            expected.put(segmentName, state);
+        }
+
+        // The first file is currently in use. Simulate a failed compaction by writing garbage into the second one.
+        String otherFile = StreamSegmentNameUtils.getContainerMetadataSegmentName(CONTAINER_ID) + ".1";
+        this.storage.create(otherFile, TIMEOUT)
+                    .thenCompose(si -> this.storage.openWrite(otherFile))
+                    .thenCompose(handle -> this.storage.write(handle, 0, new ByteArrayInputStream(new byte[1]), 1, TIMEOUT))
+                    .join();
+        val recovered = createTable(null);
+        checkContents(expected, recovered);
+        Assert.assertEquals("Unexpected generation after recovery.", table.getGeneration(), recovered.getGeneration());
+    }
+
+    /**
+     * Tests the ability to coalesce concurrent updates.
+     */
+    @Test
+    public void testConcurrentUpdates() throws Exception {
+        final int segmentCount = 1000;
+        val table = createTable(null);
+        val expected = new HashMap<String, SegmentState>();
+        val futures = new ArrayList<CompletableFuture<Void>>();
+        for (int i = 0; i < segmentCount; i++) {
+            String segmentName = "Segment_" + i;
+            SegmentState state = createState(segmentName, i);
+            futures.add(table.put(segmentName, state, TIMEOUT));
+            expected.put(segmentName, state);
+        }
+
+        Futures.allOf(futures).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        checkContents(expected, table);
+        checkContents(expected, createTable(null));
+    }
+
+    /**
+     * Tests the ability to refresh a read-only view of a table that is being updated by another instance.
+     */
+    @Test
+    public void testRefresh() throws Exception {
+        final int segmentCount = 100;
+        val table = createTable(null);
+        val expected = new HashMap<String, SegmentState>();
+        for (int i = 0; i < 2; i++) {
+            String segmentName = "Segment_" + i;
+            SegmentState state = createState(segmentName, i);
+            table.put(segmentName, state, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            expected.put(segmentName, state);
+        }
+
+        val readOnlyTable = createTable(null);
+        readOnlyTable.refresh(TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        checkContents(expected, readOnlyTable);
+
+        // Updates appended to the active file.
+        long generation = table.getGeneration();
+        String newSegment = "NewSegment";
+        SegmentState newState = createState(newSegment, segmentCount);
+        table.put(newSegment, newState, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        expected.put(newSegment, newState);
+        table.remove("Segment_0", TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        expected.remove("Segment_0");
+        Assert.assertEquals("Not expecting a compaction.", generation, table.getGeneration());
+
+        readOnlyTable.refresh(TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        checkContents(expected, readOnlyTable);
+        Assert.assertNull("Not expecting any state after removal.",
+                readOnlyTable.get("Segment_0", TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+        Assert.assertEquals("Unexpected generation after refresh.", generation, readOnlyTable.getGeneration());
+
+        // Compactions.
+        for (int i = 2; i < segmentCount; i++) {
+            String segmentName = "Segment_" + i;
+            SegmentState state = createState(segmentName, i);
+            table.put(segmentName, state, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            expected.put(segmentName, state);
+        }
+
+        AssertExtensions.assertGreaterThan("Expected at least one compaction.", generation, table.getGeneration());
+        readOnlyTable.refresh(TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        checkContents(expected, readOnlyTable);
+        Assert.assertEquals("Unexpected generation after refresh.", table.getGeneration(), readOnlyTable.getGeneration());
+    }
+
+    /**
+     * Tests the ability to look up (and migrate) Segment States from the fallback store.
+     */
+    @Test
+    public void testFallback() throws Exception {
+        final String segmentName = "Segment";
+        val fallback = new SegmentStateStore(this.storage, executorService());
+        SegmentState state = createState(segmentName, 1);
+        fallback.put(segmentName, state, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+
+        val table = createTable(fallback);
+        checkState(state, table.get(segmentName, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+        Assert.assertFalse("Expected the State Segment to be removed after migration.",
+                this.storage.exists(StreamSegmentNameUtils.getStateSegmentName(segmentName), TIMEOUT).join());
+        checkState(state, createTable(null).get(segmentName, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+
+        // Removal of a migrated Segment State.
+        table.remove(segmentName, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        Assert.assertNull("Not expecting any state after removal.", table.get(segmentName, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+
+        // Removal of a Segment State that has not been migrated must remove it from the fallback store as well.
+        final String otherSegmentName = "OtherSegment";
+        fallback.put(otherSegmentName, createState(otherSegmentName, 2), TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        table.remove(otherSegmentName, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        Assert.assertFalse("Expected the State Segment to be removed.",
+                this.storage.exists(StreamSegmentNameUtils.getStateSegmentName(otherSegmentName), TIMEOUT).join());
+        Assert.assertNull("Not expecting any state after removal.", table.get(otherSegmentName, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    private ContainerMetadataTable createTable(AsyncMap<String, SegmentState> fallback) {
+        return new ContainerMetadataTable(CONTAINER_ID, MIN_COMPACTION_LENGTH, fallback, this.storage, executorService());
+    }
+
+    private void checkContents(Map<String, SegmentState> expected, ContainerMetadataTable table) throws Exception {
+        for (val e : expected.entrySet()) {
+            checkState(e.getValue(), table.get(e.getKey(), TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private void checkState(SegmentState expected, SegmentState actual) {
+        Assert.assertNotNull("No state found for " + expected.getSegmentName(), actual);
+        Assert.assertEquals("Unexpected segment id.", expected.getSegmentId(), actual.getSegmentId());
+        Assert.assertEquals("Unexpected segment name.", expected.getSegmentName(), actual.getSegmentName());
+        AssertExtensions.assertMapEquals("Unexpected attributes.", expected.getAttributes(), actual.getAttributes());
+    }
+
+    private SegmentState createState(String segmentName, long segmentId) {
+        val attributes = Collections.singletonMap(UUID.randomUUID(), segmentId);
+        return new SegmentState(segmentId, StreamSegmentInformation.builder().name(segmentName).attributes(attributes).build());
+    }
+}
@@ -16,6 +16,7 @@ import io.pravega.segmentstore.server.SegmentContainer;
 import io.pravega.segmentstore.server.reading.StreamSegmentStorageReaderTests;
 import io.pravega.segmentstore.storage.Storage;
 import io.pravega.segmentstore.storage.mocks.InMemoryStorageFactory;
+import io.pravega.shared.segment.SegmentToContainerMapper;
 import io.pravega.test.common.AssertExtensions;
 import io.pravega.test.common.ThreadPooledTestSuite;
 import java.io.ByteArrayInputStream;
@@ -39,6 +40,7 @@ public class ReadOnlySegmentContainerTests extends ThreadPooledTestSuite {
     private static final int SEGMENT_LENGTH = 3 * ReadOnlySegmentContainer.MAX_READ_AT_ONCE_BYTES;
     private static final Duration TIMEOUT = Duration.ofSeconds(10);
     private static final String SEGMENT_NAME = "Segment";
+    private static final int CONTAINER_COUNT = 4;
     @Rule
     public Timeout globalTimeout = Timeout.seconds(10);
 
@@ -82,6 +84,40 @@ public class ReadOnlySegmentContainerTests extends ThreadPooledTestSuite {
         AssertExtensions.assertMapEquals("Unexpected Attributes.", expectedInfo.getAttributes(), actual.getAttributes());
     }
 
+    /**
+     * Tests the getStreamSegmentInfo() method when the Segment State is stored in the ContainerMetadataTable of the
+     * Container owning the Segment.
+     */
+    @Test
+    public void testGetStreamSegmentInfoFromMetadataTable() {
+        @Cleanup
+        val context = new TestContext();
+        context.container.startAsync().awaitRunning();
+        val storageInfo = context.storage.create(SEGMENT_NAME, TIMEOUT)
+                .thenCompose(si -> context.storage.openWrite(si.getName()))
+                .thenCompose(handle -> context.storage.write(handle, 0, new ByteArrayInputStream(new byte[10]), 10, TIMEOUT))
+                .thenCompose(v -> context.storage.getStreamSegmentInfo(SEGMENT_NAME, TIMEOUT)).join();
+
+        // Put a stale state in the legacy store; the one in the table should take precedence.
+        context.stateStore.put(SEGMENT_NAME, new SegmentState(1, StreamSegmentInformation.from(storageInfo).build()), TIMEOUT).join();
+        val expectedInfo = StreamSegmentInformation.from(storageInfo)
+                .startOffset(storageInfo.getLength() / 2)
+                .attributes(Collections.singletonMap(UUID.randomUUID(), 100L))
+                .build();
+        int containerId = new SegmentToContainerMapper(CONTAINER_COUNT).getContainerId(SEGMENT_NAME);
+        val table = new ContainerMetadataTable(containerId, 1024 * 1024, null, context.storage, executorService());
+        table.put(SEGMENT_NAME, new SegmentState(1, expectedInfo), TIMEOUT).join();
+
+        val actual = context.container.getStreamSegmentInfo(SEGMENT_NAME, false, TIMEOUT).join();
+        Assert.assertEquals("Unexpected Start Offset.", expectedInfo.getStartOffset(), actual.getStartOffset());
+        AssertExtensions.assertMapEquals("Unexpected Attributes.", expectedInfo.getAttributes(), actual.getAttributes());
+
+        // Updates made by the owning Container must be visible right away.
+        table.remove(SEGMENT_NAME, TIMEOUT).join();
+        val afterRemoval = context.container.getStreamSegmentInfo(SEGMENT_NAME, false, TIMEOUT).join();
+        Assert.assertEquals("Expected the legacy state after removal from the table.", 0, afterRemoval.getStartOffset());
+    }
+
     /**
      * Tests the read() method.
      */
@@ -180,7 +216,7 @@ public class ReadOnlySegmentContainerTests extends ThreadPooledTestSuite {
 
         TestContext() {
             this.storageFactory = new InMemoryStorageFactory(executorService());
-            this.container = new ReadOnlySegmentContainer(this.storageFactory, executorService());
+            this.container = new ReadOnlySegmentContainer(this.storageFactory, CONTAINER_COUNT, executorService());
             this.storage = this.storageFactory.createStorageAdapter();
             this.stateStore = new SegmentStateStore(this.storage, executorService());
         }
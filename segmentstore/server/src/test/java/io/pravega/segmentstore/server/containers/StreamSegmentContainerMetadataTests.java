@@ -518,28 +518,23 @@ public class StreamSegmentContainerMetadataTests {
         // Verify that not-yet-truncated operations will not be selected for truncation.
         Collection<SegmentMetadata> evictionCandidates;
 
-        // Expire all segments, one by one, and verify that only at most maxEvictionCount are returned, and when they are
-        // capped, only the oldest-used segments are returned, in order.
+        // Expire all segments, one by one, and verify that only at most maxEvictionCount are returned, and that only the
+        // oldest-used segments are returned, in order (whether capped or not).
         for (int i = 0; i < SEGMENT_COUNT; i++) {
             int requestedCount = i + 1;
             evictionCandidates = m.getEvictionCandidates(requestedCount, maxEvictionCount);
             int expectedCount = Math.min(maxEvictionCount, requestedCount);
             Assert.assertEquals("Unexpected number of segments eligible for eviction.", expectedCount, evictionCandidates.size());
-            if (requestedCount <= maxEvictionCount) {
-                int expectedSegmentIndex = expectedCount - 1;
-                for (SegmentMetadata candidate : evictionCandidates) {
-                    Assert.assertEquals("Unexpected segment id chosen for eviction when less than Max.",
-                            (long) segments.get(expectedSegmentIndex), candidate.getId());
-                    expectedSegmentIndex--;
-                }
-            } else {
-                // We were capped - make sure only the oldest-used segments are returned, in order.
-                int expectedSegmentIndex = 0;
-                for (SegmentMetadata candidate : evictionCandidates) {
-                    Assert.assertEquals("Unexpected segment id chosen for eviction when more than Max.",
-                            (long) segments.get(expectedSegmentIndex), candidate.getId());
-                    expectedSegmentIndex++;
-                }
+            int expectedSegmentIndex = 0;
+            for (SegmentMetadata candidate : evictionCandidates) {
+                Assert.assertEquals("Unexpected segment id chosen for eviction.",
+                        (long) segments.get(expectedSegmentIndex), candidate.getId());
+                expectedSegmentIndex++;
+            }
+
+            // Touch one of the non-expired segments; this should not affect the result of the next iteration.
+            if (i + 1 < SEGMENT_COUNT) {
+                m.getStreamSegmentMetadata(segments.get(SEGMENT_COUNT - 1)).setLastUsed(SEGMENT_COUNT + i);
             }
         }
     }
@@ -906,9 +906,14 @@ public class StreamSegmentContainerTests extends ThreadPooledTestSuite {
         // Wait until the segment is forgotten.
         localContainer.triggerMetadataCleanup(Collections.singleton(segmentName)).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
 
-        // Now get attributes again and verify them.
+        // Now get attributes again and verify them. Core attributes are restored with the segment's state, while dynamic
+        // attributes are only fetched from the Attribute Index on demand.
+        val expectedCoreAttributes = new HashMap<UUID, Long>(expectedAttributes);
+        expectedCoreAttributes.keySet().removeIf(Attributes::isDynamic);
         sp = localContainer.getStreamSegmentInfo(segmentName, true, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
-        SegmentMetadataComparer.assertSameAttributes("Unexpected attributes after eviction & resurrection.", expectedAttributes, sp);
+        SegmentMetadataComparer.assertSameAttributes("Unexpected core attributes after eviction & resurrection.", expectedCoreAttributes, sp);
+        val allAttributes = localContainer.getAttributes(segmentName, expectedAttributes.keySet(), true, TIMEOUT).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        Assert.assertEquals("Unexpected attributes from getAttributes after eviction & resurrection.", expectedAttributes, allAttributes);
 
         // Append again, and make sure we can append at the right offset.
         val secondAppendAttributes = createAttributeUpdates(attributes);
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.logs;
+
+import io.pravega.test.common.AssertExtensions;
+import java.time.Duration;
+import lombok.val;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the AdaptiveBatchingPolicy class.
+ */
+public class AdaptiveBatchingPolicyTests {
+    private static final int TARGET_LATENCY_MILLIS = 10;
+    private static final int MAX_FRAME_LENGTH = 1024 * 1024;
+    private static final int MAX_ITERATIONS = 1000;
+
+    /**
+     * Tests the initial state of the policy: no batching delay and DataFrames as large as possible.
+     */
+    @Test
+    public void testInitialState() {
+        val p = new AdaptiveBatchingPolicy(TARGET_LATENCY_MILLIS, MAX_FRAME_LENGTH);
+        Assert.assertEquals("Unexpected initial Target Frame Length.", MAX_FRAME_LENGTH, p.getTargetFrameLength());
+        Assert.assertEquals("Unexpected initial Linger Delay.", 0, p.getLingerDelayMillis());
+        AssertExtensions.assertThrows(
+                "Constructor accepted a non-positive target latency.",
+                () -> new AdaptiveBatchingPolicy(0, MAX_FRAME_LENGTH),
+                ex -> ex instanceof IllegalArgumentException);
+    }
+
+    /**
+     * Tests that the Target Frame Length decreases if writes are slower than the target latency, and that it then
+     * increases back once writes become fast again.
+     */
+    @Test
+    public void testTargetFrameLength() {
+        val p = new AdaptiveBatchingPolicy(TARGET_LATENCY_MILLIS, MAX_FRAME_LENGTH);
+
+        // Slow writes.
+        int lastValue = p.getTargetFrameLength();
+        for (int i = 0; i < MAX_ITERATIONS && p.getTargetFrameLength() > AdaptiveBatchingPolicy.MIN_FRAME_LENGTH; i++) {
+            p.recordWrite(p.getTargetFrameLength(), Duration.ofMillis(TARGET_LATENCY_MILLIS * 10));
+            AssertExtensions.assertLessThanOrEqual("Target Frame Length increased with slow writes.", lastValue, p.getTargetFrameLength());
+            Assert.assertEquals("Not expecting any Linger Delay when writes are slow.", 0, p.getLingerDelayMillis());
+            lastValue = p.getTargetFrameLength();
+        }
+
+        Assert.assertEquals("Target Frame Length did not reach the minimum with slow writes.",
+                AdaptiveBatchingPolicy.MIN_FRAME_LENGTH, p.getTargetFrameLength());
+
+        // Fast writes, with full DataFrames.
+        for (int i = 0; i < MAX_ITERATIONS && p.getTargetFrameLength() < MAX_FRAME_LENGTH; i++) {
+            p.recordWrite(p.getTargetFrameLength(), Duration.ofMillis(1));
+            AssertExtensions.assertGreaterThanOrEqual("Target Frame Length decreased with fast writes.", lastValue, p.getTargetFrameLength());
+            lastValue = p.getTargetFrameLength();
+        }
+
+        Assert.assertEquals("Target Frame Length did not reach the maximum with fast writes.", MAX_FRAME_LENGTH, p.getTargetFrameLength());
+    }
+
+    /**
+     * Tests that the Target Frame Length does not grow if DataFrames are not filling up, even if there is latency headroom.
+     */
+    @Test
+    public void testTargetFrameLengthWithSmallFrames() {
+        val p = new AdaptiveBatchingPolicy(TARGET_LATENCY_MILLIS, MAX_FRAME_LENGTH);
+        for (int i = 0; i < MAX_ITERATIONS && p.getTargetFrameLength() > AdaptiveBatchingPolicy.MIN_FRAME_LENGTH; i++) {
+            p.recordWrite(p.getTargetFrameLength(), Duration.ofMillis(TARGET_LATENCY_MILLIS * 10));
+        }
+
+        int targetFrameLength = p.getTargetFrameLength();
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            p.recordWrite(targetFrameLength / 10, Duration.ofMillis(1));
+        }
+
+        Assert.assertEquals("Target Frame Length changed even though DataFrames were not full.", targetFrameLength, p.getTargetFrameLength());
+    }
+
+    /**
+     * Tests the calculation of the Linger Delay and its integration with the ThrottlerCalculator.
+     */
+    @Test
+    public void testLingerDelay() {
+        val p = new AdaptiveBatchingPolicy(TARGET_LATENCY_MILLIS, MAX_FRAME_LENGTH);
+        val tc = ThrottlerCalculator.builder().adaptiveBatchingThrottler(p).build();
+        Assert.assertFalse("Not expecting the Adaptive Batching Throttler to ever require throttling.", tc.isThrottlingRequired());
+
+        // Fast writes, small frames: we should linger, but never more than the latency budget.
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            p.recordWrite(MAX_FRAME_LENGTH / 100, Duration.ofMillis(1));
+            AssertExtensions.assertLessThanOrEqual("Linger Delay exceeds the latency budget.", TARGET_LATENCY_MILLIS, p.getLingerDelayMillis());
+            Assert.assertEquals("Unexpected throttling delay.", p.getLingerDelayMillis(), tc.getThrottlingDelay().getDurationMillis());
+        }
+
+        AssertExtensions.assertGreaterThan("Expected a Linger Delay for fast writes and small frames.", 0, p.getLingerDelayMillis());
+
+        // Fast writes, full frames: no need to linger.
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            p.recordWrite(p.getTargetFrameLength(), Duration.ofMillis(1));
+        }
+
+        Assert.assertEquals("Not expecting any Linger Delay when DataFrames are full.", 0, p.getLingerDelayMillis());
+
+        // Slow writes, small frames: no latency budget left to linger.
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            p.recordWrite(AdaptiveBatchingPolicy.MIN_FRAME_LENGTH / 100, Duration.ofMillis(TARGET_LATENCY_MILLIS * 10));
+        }
+
+        Assert.assertEquals("Not expecting any Linger Delay when writes are slow.", 0, p.getLingerDelayMillis());
+    }
+}
@@ -38,6 +38,7 @@ import io.pravega.segmentstore.server.logs.operations.StreamSegmentAppendOperati
 import io.pravega.segmentstore.server.logs.operations.StreamSegmentMapOperation;
 import io.pravega.segmentstore.server.logs.operations.StreamSegmentSealOperation;
 import io.pravega.segmentstore.server.logs.operations.StreamSegmentTruncateOperation;
+import io.pravega.segmentstore.server.logs.operations.UnloadAttributesOperation;
 import io.pravega.segmentstore.server.logs.operations.UpdateAttributesOperation;
 import io.pravega.test.common.AssertExtensions;
 import java.util.ArrayList;
@@ -275,7 +276,8 @@ public class ContainerMetadataUpdateTransactionTests {
     }
 
     /**
-     * Tests the ability of the ContainerMetadataUpdateTransaction to enforce the maximum attribute limit on Segments.
+     * Tests the ability of the ContainerMetadataUpdateTransaction to enforce the maximum attribute limit on Segments. This
+     * limit only applies to core Attributes; dynamic Attributes are offloaded to the AttributeIndex.
      */
     @Test
     public void testMaxAttributeLimit() throws Exception {
@@ -291,7 +293,7 @@ public class ContainerMetadataUpdateTransactionTests {
         for (int i = 0; i < SegmentMetadata.MAXIMUM_ATTRIBUTE_COUNT; i++) {
             UUID attributeId;
             do {
-                attributeId = UUID.randomUUID();
+                attributeId = new UUID(Attributes.WELL_KNOWN_ID_PREFIX, UUID.randomUUID().getLeastSignificantBits());
             } while (expectedValues.containsKey(attributeId));
 
             initialUpdates.add(new AttributeUpdate(attributeId, AttributeUpdateType.None, i));
@@ -340,7 +342,7 @@ public class ContainerMetadataUpdateTransactionTests {
             // Addition - this should throw.
             UUID toAddId;
             do {
-                toAddId = UUID.randomUUID();
+                toAddId = new UUID(Attributes.WELL_KNOWN_ID_PREFIX, UUID.randomUUID().getLeastSignificantBits());
             } while (expectedValues.containsKey(toAddId));
             val toAddUpdate = new AttributeUpdate(toAddId, AttributeUpdateType.None, 1);
             AssertExtensions.assertThrows(
@@ -354,9 +356,59 @@ public class ContainerMetadataUpdateTransactionTests {
                     new AttributeUpdate(toRemoveId, AttributeUpdateType.Replace, SegmentMetadata.NULL_ATTRIBUTE_VALUE),
                     new AttributeUpdate(initialUpdates.get(1).getAttributeId(), AttributeUpdateType.Replace, 10));
             txn.preProcessOperation(opGenerator.getValue().apply(mixedUpdates));
+
+            // Dynamic Attributes do not count towards the limit.
+            val dynamicUpdate = new AttributeUpdate(UUID.randomUUID(), AttributeUpdateType.None, 1);
+            txn.preProcessOperation(opGenerator.getValue().apply(Collections.singleton(dynamicUpdate)));
         }
     }
 
+    /**
+     * Tests the ability of the ContainerMetadataUpdateTransaction to process UnloadAttributesOperations. Only those
+     * Attributes whose values have not changed since they were persisted should be unloaded.
+     */
+    @Test
+    public void testUnloadAttributes() throws Exception {
+        final UUID unchanged = UUID.randomUUID();
+        final UUID changed = UUID.randomUUID();
+        final UUID removed = UUID.randomUUID();
+        UpdateableContainerMetadata metadata = createMetadata();
+        val txn = createUpdateTransaction(metadata);
+
+        // Set some initial values, then remove one of the Attributes.
+        val initialOp = new UpdateAttributesOperation(SEGMENT_ID, Arrays.asList(
+                new AttributeUpdate(unchanged, AttributeUpdateType.Replace, 1),
+                new AttributeUpdate(changed, AttributeUpdateType.Replace, 2),
+                new AttributeUpdate(removed, AttributeUpdateType.Replace, 3)));
+        txn.preProcessOperation(initialOp);
+        txn.acceptOperation(initialOp);
+        val removeOp = new UpdateAttributesOperation(SEGMENT_ID, Collections.singleton(
+                new AttributeUpdate(removed, AttributeUpdateType.Replace, SegmentMetadata.NULL_ATTRIBUTE_VALUE)));
+        txn.preProcessOperation(removeOp);
+        txn.acceptOperation(removeOp);
+        txn.commit(metadata);
+        val segmentMetadata = metadata.getStreamSegmentMetadata(SEGMENT_ID);
+        Assert.assertEquals("Expected a tombstone for the removed Attribute.",
+                SegmentMetadata.NULL_ATTRIBUTE_VALUE, (long) segmentMetadata.getInMemoryAttributes().get(removed));
+        Assert.assertFalse("Not expecting removed Attribute to be visible.", segmentMetadata.getAttributes().containsKey(removed));
+
+        // Simulate a flush of the current values, followed by an update to one of them before the unload is processed.
+        val persisted = new HashMap<UUID, Long>(segmentMetadata.getInMemoryAttributes());
+        val updateOp = new UpdateAttributesOperation(SEGMENT_ID, Collections.singleton(
+                new AttributeUpdate(changed, AttributeUpdateType.Replace, 20)));
+        txn.preProcessOperation(updateOp);
+        txn.acceptOperation(updateOp);
+        val unloadOp = new UnloadAttributesOperation(SEGMENT_ID, persisted);
+        txn.preProcessOperation(unloadOp);
+        txn.acceptOperation(unloadOp);
+
+        // Nothing should change in the base metadata until we commit.
+        Assert.assertEquals("Not expecting any changes before commit.", persisted, segmentMetadata.getInMemoryAttributes());
+        txn.commit(metadata);
+        AssertExtensions.assertMapEquals("Unexpected in-memory Attributes after unloading.",
+                Collections.singletonMap(changed, 20L), segmentMetadata.getInMemoryAttributes());
+    }
+
     private void testWithAttributes(Function<Collection<AttributeUpdate>, Operation> createOperation) throws Exception {
         final UUID attributeNoUpdate = UUID.randomUUID();
         final UUID attributeAccumulate = UUID.randomUUID();
@@ -1108,6 +1160,37 @@ public class ContainerMetadataUpdateTransactionTests {
         assertMetadataSame("Unexpected metadata after deserializing checkpoint.", metadata, checkpointedMetadata);
     }
 
+    /**
+     * Tests the ability to reuse serialized Segment records across MetadataCheckpoints, for those Segments that have not
+     * changed in between.
+     */
+    @Test
+    public void testProcessMetadataCheckpointCached() throws Exception {
+        AtomicLong seqNo = new AtomicLong();
+        UpdateableContainerMetadata metadata = createMetadata();
+        val cache = new MetadataCheckpointCache();
+
+        // Checkpoint 1: nothing to reuse.
+        MetadataCheckpointOperation checkpoint1 = createMetadataCheckpoint();
+        processOperation(checkpoint1, new ContainerMetadataUpdateTransaction(metadata, metadata, 0, cache), seqNo::incrementAndGet);
+        Assert.assertEquals("Unexpected number of records serialized.", 3, cache.getTotalCount());
+        Assert.assertEquals("Not expecting any record to be reused.", 0, cache.getReusedCount());
+
+        // Checkpoint 2: one segment changed outside of the UpdateTransaction (i.e., by the StorageWriter).
+        metadata.getStreamSegmentMetadata(SEGMENT_ID).setStorageLength(SEGMENT_LENGTH);
+        MetadataCheckpointOperation checkpoint2 = createMetadataCheckpoint();
+        processOperation(checkpoint2, new ContainerMetadataUpdateTransaction(metadata, metadata, 1, cache), seqNo::incrementAndGet);
+        Assert.assertEquals("Unexpected number of records serialized.", 3, cache.getTotalCount());
+        Assert.assertEquals("Unexpected number of records reused.", 2, cache.getReusedCount());
+        assertMetadataSame("Unexpected metadata after deserializing checkpoint.", metadata, getCheckpointedMetadata(checkpoint2));
+
+        // The result must be identical to a checkpoint that was entirely serialized from scratch.
+        MetadataCheckpointOperation checkpoint3 = createMetadataCheckpoint();
+        processOperation(checkpoint3, createUpdateTransaction(metadata), seqNo::incrementAndGet);
+        Assert.assertArrayEquals("Unexpected checkpoint contents when reusing records.",
+                checkpoint3.getContents().getCopy(), checkpoint2.getContents().getCopy());
+    }
+
     /**
      * Tests the processMetadataOperation method with StorageMetadataCheckpoint operations.
      */
@@ -1154,6 +1237,48 @@ public class ContainerMetadataUpdateTransactionTests {
         assertMetadataSame("Unexpected metadata after applying storage checkpoint.", metadata1, metadata2);
     }
 
+    /**
+     * Tests the processMetadataOperation method with StorageMetadataCheckpoint operations that only contain those segments
+     * whose storage state changed since the previous one.
+     */
+    @Test
+    public void testProcessStorageMetadataCheckpointDelta() throws Exception {
+        AtomicLong seqNo = new AtomicLong();
+        val metadata1 = createMetadata();
+        val cache = new MetadataCheckpointCache();
+
+        // Full checkpoint, followed by the first storage checkpoint (which contains all segments).
+        val fullCheckpoint = createMetadataCheckpoint();
+        processOperation(fullCheckpoint, new ContainerMetadataUpdateTransaction(metadata1, metadata1, 0, cache), seqNo::incrementAndGet);
+        val storageCheckpoint1 = createStorageMetadataCheckpoint();
+        processOperation(storageCheckpoint1, new ContainerMetadataUpdateTransaction(metadata1, metadata1, 1, cache), seqNo::incrementAndGet);
+
+        // Update the storage state of a single segment; the next storage checkpoint should only contain that one.
+        metadata1.getStreamSegmentMetadata(SEGMENT_ID).setStorageLength(SEGMENT_LENGTH);
+        val storageCheckpoint2 = createStorageMetadataCheckpoint();
+        processOperation(storageCheckpoint2, new ContainerMetadataUpdateTransaction(metadata1, metadata1, 2, cache), seqNo::incrementAndGet);
+        AssertExtensions.assertLessThan("Expected a smaller storage checkpoint when only one segment changed.",
+                storageCheckpoint1.getContents().getLength(), storageCheckpoint2.getContents().getLength());
+
+        // Nothing changed; the next storage checkpoint should be even smaller.
+        val storageCheckpoint3 = createStorageMetadataCheckpoint();
+        processOperation(storageCheckpoint3, new ContainerMetadataUpdateTransaction(metadata1, metadata1, 3, cache), seqNo::incrementAndGet);
+        AssertExtensions.assertLessThan("Expected a smaller storage checkpoint when nothing changed.",
+                storageCheckpoint2.getContents().getLength(), storageCheckpoint3.getContents().getLength());
+
+        // Recover the full checkpoint and then apply all the storage checkpoints, in order.
+        val metadata2 = createBlankMetadata();
+        metadata2.enterRecoveryMode();
+        val txn2 = createUpdateTransaction(metadata2);
+        processOperation(fullCheckpoint, txn2, () -> 1L);
+        txn2.preProcessOperation(storageCheckpoint1);
+        txn2.preProcessOperation(storageCheckpoint2);
+        txn2.preProcessOperation(storageCheckpoint3);
+        txn2.commit(metadata2);
+        metadata2.exitRecoveryMode();
+        assertMetadataSame("Unexpected metadata after applying storage checkpoint deltas.", metadata1, metadata2);
+    }
+
     /**
      * Tests the processMetadataOperation method with MetadataCheckpoint operations, when such checkpoints are skipped over
      * because they are after other operations.
@@ -693,6 +693,19 @@ public class DurableLogTests extends OperationLogTestBase {
      */
     @Test
     public void testRecoveryWithNoFailures() throws Exception {
+        testRecoveryWithNoFailures(ContainerSetup.defaultDurableLogConfig());
+    }
+
+    /**
+     * Tests the pipelined DurableLog recovery process (DataFrames read ahead and ReadIndex populated using multiple threads)
+     * in a scenario when there are no failures during the process.
+     */
+    @Test
+    public void testParallelRecoveryWithNoFailures() throws Exception {
+        testRecoveryWithNoFailures(ContainerSetup.createDurableLogConfig(null, null, 4));
+    }
+
+    private void testRecoveryWithNoFailures(DurableLogConfig recoveryConfig) throws Exception {
         int streamSegmentCount = 50;
         int transactionsPerStreamSegment = 2;
         int appendsPerStreamSegment = 20;
@@ -743,7 +756,7 @@ public class DurableLogTests extends OperationLogTestBase {
         metadata = new MetadataBuilder(CONTAINER_ID).build();
         try (
                 ReadIndex readIndex = new ContainerReadIndex(DEFAULT_READ_INDEX_CONFIG, metadata, cacheFactory, storage, cacheManager, executorService());
-                DurableLog durableLog = new DurableLog(ContainerSetup.defaultDurableLogConfig(), metadata, dataLogFactory, readIndex, executorService())) {
+                DurableLog durableLog = new DurableLog(recoveryConfig, metadata, dataLogFactory, readIndex, executorService())) {
             durableLog.startAsync().awaitRunning();
 
             List<Operation> recoveredOperations = readUpToSequenceNumber(durableLog, metadata.getOperationSequenceNumber());
@@ -1536,6 +1549,10 @@ public class DurableLogTests extends OperationLogTestBase {
         }
 
         static DurableLogConfig createDurableLogConfig(Integer checkpointMinCommitCount, Long checkpointMinTotalCommitLength) {
+            return createDurableLogConfig(checkpointMinCommitCount, checkpointMinTotalCommitLength, 1);
+        }
+
+        static DurableLogConfig createDurableLogConfig(Integer checkpointMinCommitCount, Long checkpointMinTotalCommitLength, int recoveryThreadCount) {
             if (checkpointMinCommitCount == null) {
                 checkpointMinCommitCount = Integer.MAX_VALUE;
             }
@@ -1550,6 +1567,7 @@ public class DurableLogTests extends OperationLogTestBase {
                     .with(DurableLogConfig.CHECKPOINT_COMMIT_COUNT, checkpointMinCommitCount)
                     .with(DurableLogConfig.CHECKPOINT_TOTAL_COMMIT_LENGTH, checkpointMinTotalCommitLength)
                     .with(DurableLogConfig.START_RETRY_DELAY_MILLIS, START_RETRY_DELAY_MILLIS)
+                    .with(DurableLogConfig.RECOVERY_THREAD_COUNT, recoveryThreadCount)
                     .build();
         }
     }
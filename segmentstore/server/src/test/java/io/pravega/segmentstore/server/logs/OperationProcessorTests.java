@@ -86,6 +86,28 @@ public class OperationProcessorTests extends OperationLogTestBase {
      */
     @Test
     public void testWithNoFailures() throws Exception {
+        testWithNoFailures(null);
+    }
+
+    /**
+     * Tests the ability of the OperationProcessor to process Operations when using an AdaptiveBatchingPolicy which
+     * requires DataFrames to be closed before they are full.
+     */
+    @Test
+    public void testWithAdaptiveBatching() throws Exception {
+        // Simulate slow writes so that the policy shrinks the Target Frame Length to its minimum.
+        val batchingPolicy = new AdaptiveBatchingPolicy(1, MAX_DATA_LOG_APPEND_SIZE);
+        for (int i = 0; i < 100; i++) {
+            batchingPolicy.recordWrite(batchingPolicy.getTargetFrameLength(), Duration.ofSeconds(1));
+        }
+
+        AssertExtensions.assertLessThan("Expected the Target Frame Length to be less than the max append size.",
+                MAX_DATA_LOG_APPEND_SIZE, batchingPolicy.getTargetFrameLength());
+
+        testWithNoFailures(batchingPolicy);
+    }
+
+    private void testWithNoFailures(AdaptiveBatchingPolicy batchingPolicy) throws Exception {
         int streamSegmentCount = 50;
         int transactionsPerStreamSegment = 2;
         int appendsPerStreamSegment = 20;
@@ -107,7 +129,7 @@ public class OperationProcessorTests extends OperationLogTestBase {
         dataLog.initialize(TIMEOUT);
         @Cleanup
         OperationProcessor operationProcessor = new OperationProcessor(context.metadata, context.stateUpdater,
-                dataLog, getNoOpCheckpointPolicy(), executorService());
+                dataLog, getNoOpCheckpointPolicy(), batchingPolicy, executorService());
         operationProcessor.startAsync().awaitRunning();
 
         // Process all generated operations.
@@ -166,6 +166,8 @@ public class OperationComparer {
             assertSame(message, (StreamSegmentMapOperation) expected, (StreamSegmentMapOperation) actual);
         } else if (expected instanceof UpdateAttributesOperation) {
             assertSame(message, (UpdateAttributesOperation) expected, (UpdateAttributesOperation) actual);
+        } else if (expected instanceof UnloadAttributesOperation) {
+            assertSame(message, (UnloadAttributesOperation) expected, (UnloadAttributesOperation) actual);
         } else {
             Assert.fail(message + " No comparison implemented for operation " + expected);
         }
@@ -184,6 +186,11 @@ public class OperationComparer {
         assertSame(message + "Unexpected attributes.", expected.getAttributeUpdates(), actual.getAttributeUpdates());
     }
 
+    private void assertSame(String message, UnloadAttributesOperation expected, UnloadAttributesOperation actual) {
+        Assert.assertEquals(message + " Unexpected StreamSegmentId.", expected.getStreamSegmentId(), actual.getStreamSegmentId());
+        AssertExtensions.assertMapEquals(message + "Unexpected attributes.", expected.getAttributes(), actual.getAttributes());
+    }
+
     private void assertSame(String message, CheckpointOperationBase expected, CheckpointOperationBase actual) {
         Assert.assertEquals(message + " Lengths mismatch.", expected.getContents().getLength(), actual.getContents().getLength());
         for (int j = 0; j < expected.getContents().getLength(); j++) {
@@ -0,0 +1,31 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.logs.operations;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.UUID;
+import lombok.val;
+
+/**
+ * Unit tests for the UnloadAttributesOperation class.
+ */
+public class UnloadAttributesOperationTests extends OperationTestsBase<UnloadAttributesOperation> {
+    @Override
+    protected UnloadAttributesOperation createOperation(Random random) {
+        val attributes = new HashMap<UUID, Long>();
+        int count = random.nextInt(10);
+        for (int i = 0; i < count; i++) {
+            attributes.put(UUID.randomUUID(), random.nextLong());
+        }
+
+        return new UnloadAttributesOperation(random.nextLong(), attributes);
+    }
+}
@@ -16,6 +16,7 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Random;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import lombok.Cleanup;
@@ -228,14 +229,99 @@ public class CacheManagerTests extends ThreadPooledTestSuite {
         cm.applyCachePolicy();
     }
 
+    /**
+     * Tests the tryReserveReadAhead() and releaseReadAhead() methods.
+     */
+    @Test
+    public void testReadAheadBudget() {
+        final CachePolicy policy = new CachePolicy(1000, Duration.ofHours(1), Duration.ofHours(1));
+        @Cleanup
+        TestCacheManager cm = new TestCacheManager(policy, executorService());
+        TestClient client = new TestClient();
+        cm.register(client);
+        client.setCacheStatus(500, 0, 0);
+        cm.applyCachePolicy();
+
+        // Up to 75% of the cache may be used, including what is already in it.
+        Assert.assertTrue("Expected reservation to succeed.", cm.tryReserveReadAhead(200));
+        Assert.assertFalse("Expected reservation to fail when exceeding the budget.", cm.tryReserveReadAhead(100));
+        cm.releaseReadAhead(200);
+        Assert.assertTrue("Expected reservation to succeed after release.", cm.tryReserveReadAhead(250));
+        Assert.assertFalse("Expected reservation to fail when exceeding the budget.", cm.tryReserveReadAhead(1));
+        cm.releaseReadAhead(250);
+
+        // Once the cache fills up, no more reservations should be accepted.
+        client.setCacheStatus(800, 0, 0);
+        cm.applyCachePolicy();
+        Assert.assertFalse("Expected reservation to fail when the cache is full.", cm.tryReserveReadAhead(1));
+    }
+
+    /**
+     * Tests the ability of the CacheManager to prefer evicting cold entries (which have not been frequently read) when
+     * the EvictionPolicy is FREQUENCY_AWARE.
+     */
+    @Test
+    public void testFrequencyAwareEviction() {
+        final CachePolicy policy = new CachePolicy(1000, Duration.ofHours(1), Duration.ofSeconds(1), CachePolicy.EvictionPolicy.FREQUENCY_AWARE);
+        @Cleanup
+        TestCacheManager cm = new TestCacheManager(policy, executorService());
+        TestClient client = new TestClient();
+        cm.register(client);
+
+        // Advance the current generation a few times (no evictions here).
+        final int newestGeneration = 5;
+        for (int i = 0; i <= newestGeneration; i++) {
+            client.setCacheStatus(1, 0, i);
+            cm.applyCachePolicy();
+        }
+
+        AtomicInteger oldestGeneration = new AtomicInteger(-1);
+        client.setUpdateGenerationsImpl((current, oldest) -> {
+            oldestGeneration.set(oldest);
+            return 0L;
+        });
+
+        // 1. We exceed the max size by 200, and the oldest 3 cold generations account for 250 of that; only those cold
+        // generations should be evicted.
+        TreeMap<Integer, Long> coldSizes = new TreeMap<>();
+        coldSizes.put(0, 50L);
+        coldSizes.put(1, 100L);
+        coldSizes.put(3, 100L);
+        coldSizes.put(newestGeneration, 100L);
+        client.setCacheStatus(policy.getMaxSize() + 200, 0, newestGeneration, coldSizes);
+        cm.applyCachePolicy();
+        Assert.assertEquals("Not expecting the oldest generation to change.", 0, oldestGeneration.get());
+        Assert.assertEquals("Unexpected oldest cold generation.", 4, client.oldestColdGeneration);
+
+        // 2. We exceed the max size by 500, but only have 100 worth of cold entries. All of those should be evicted, as
+        // well as the oldest generation for all other entries.
+        coldSizes.clear();
+        coldSizes.put(0, 100L);
+        client.setCacheStatus(policy.getMaxSize() + 500, 0, newestGeneration, coldSizes);
+        cm.applyCachePolicy();
+        Assert.assertEquals("Expected the oldest generation to change.", 1, oldestGeneration.get());
+        Assert.assertEquals("Unexpected oldest cold generation.", 1, client.oldestColdGeneration);
+
+        // 3. No longer exceeding the max size; the oldest cold generation should be the same as the oldest generation.
+        client.setCacheStatus(policy.getMaxSize() - 1, 1, newestGeneration + 1, coldSizes);
+        cm.applyCachePolicy();
+        Assert.assertEquals("Not expecting the oldest generation to change.", 1, oldestGeneration.get());
+        Assert.assertEquals("Unexpected oldest cold generation.", 1, client.oldestColdGeneration);
+    }
+
     private static class TestClient implements CacheManager.Client {
         private CacheManager.CacheStatus currentStatus;
         private BiFunction<Integer, Integer, Long> updateGenerationsImpl = (current, oldest) -> -1L;
+        private int oldestColdGeneration;
 
         void setCacheStatus(long size, int oldestGeneration, int newestGeneration) {
             this.currentStatus = new CacheManager.CacheStatus(size, oldestGeneration, newestGeneration);
         }
 
+        void setCacheStatus(long size, int oldestGeneration, int newestGeneration, TreeMap<Integer, Long> coldGenerationSizes) {
+            this.currentStatus = new CacheManager.CacheStatus(size, oldestGeneration, newestGeneration, new TreeMap<>(coldGenerationSizes));
+        }
+
         void setUpdateGenerationsImpl(BiFunction<Integer, Integer, Long> function) {
             this.updateGenerationsImpl = function;
         }
@@ -246,7 +332,8 @@ public class CacheManagerTests extends ThreadPooledTestSuite {
         }
 
         @Override
-        public long updateGenerations(int currentGeneration, int oldestGeneration) {
+        public long updateGenerations(int currentGeneration, int oldestGeneration, int oldestColdGeneration) {
+            this.oldestColdGeneration = oldestColdGeneration;
             return this.updateGenerationsImpl.apply(currentGeneration, oldestGeneration);
         }
     }
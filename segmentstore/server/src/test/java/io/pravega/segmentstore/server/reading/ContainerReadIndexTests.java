@@ -11,6 +11,7 @@ package io.pravega.segmentstore.server.reading;
 
 import io.pravega.common.concurrent.Futures;
 import io.pravega.common.io.StreamHelpers;
+import io.pravega.common.util.ByteArraySegment;
 import io.pravega.segmentstore.contracts.ReadResult;
 import io.pravega.segmentstore.contracts.ReadResultEntry;
 import io.pravega.segmentstore.contracts.ReadResultEntryContents;
@@ -39,6 +40,7 @@ import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -47,6 +49,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -513,6 +516,66 @@ public class ContainerReadIndexTests extends ThreadPooledTestSuite {
         }
     }
 
+    /**
+     * Tests the ability to serve Future Reads directly from the appends that trigger them (ReadIndexConfig.FUTURE_READ_WRITE_THROUGH),
+     * without reading that data back from the Cache.
+     */
+    @Test
+    public void testFutureReadsWriteThrough() throws Exception {
+        val config = ConfigHelpers
+                .withInfiniteCachePolicy(ReadIndexConfig.builder()
+                                                        .with(ReadIndexConfig.MEMORY_READ_MIN_LENGTH, 0)
+                                                        .with(ReadIndexConfig.STORAGE_READ_ALIGNMENT, 1024)
+                                                        .with(ReadIndexConfig.FUTURE_READ_WRITE_THROUGH, true))
+                .build();
+
+        @Cleanup
+        TestContext context = new TestContext(config, config.getCachePolicy());
+        AtomicInteger cacheGetCount = new AtomicInteger();
+        context.cacheFactory.cache.getCallback = key -> cacheGetCount.incrementAndGet();
+        ArrayList<Long> segmentIds = createSegments(context);
+        HashMap<Long, ByteArrayOutputStream> segmentContents = new HashMap<>();
+        for (int i = 0; i < APPENDS_PER_SEGMENT; i++) {
+            // Register a Future Read at the tail of each segment. Every other iteration, we also request a read that
+            // begins in the middle of the append that will satisfy it.
+            HashMap<Long, ReadResultEntry> futureReads = new HashMap<>();
+            for (long segmentId : segmentIds) {
+                UpdateableSegmentMetadata segmentMetadata = context.metadata.getStreamSegmentMetadata(segmentId);
+                long readOffset = segmentMetadata.getLength() + (i % 2);
+                ReadResult readResult = context.readIndex.read(segmentId, readOffset, Integer.MAX_VALUE, TIMEOUT);
+                ReadResultEntry entry = readResult.next();
+                Assert.assertEquals("Expected a Future Read.", ReadResultEntryType.Future, entry.getType());
+                futureReads.put(segmentId, entry);
+            }
+
+            for (long segmentId : segmentIds) {
+                UpdateableSegmentMetadata segmentMetadata = context.metadata.getStreamSegmentMetadata(segmentId);
+                byte[] data = getAppendData(segmentMetadata.getName(), segmentId, i, i);
+                long offset = segmentMetadata.getLength();
+                segmentMetadata.setLength(offset + data.length);
+                context.readIndex.append(segmentId, offset, data);
+                recordAppend(segmentId, data, segmentContents);
+            }
+
+            context.readIndex.triggerFutureReads(segmentIds);
+            for (val e : futureReads.entrySet()) {
+                ReadResultEntryContents contents = e.getValue().getContent().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                byte[] readData = new byte[contents.getLength()];
+                StreamHelpers.readAll(contents.getData(), readData, 0, readData.length);
+                byte[] expectedData = segmentContents.get(e.getKey()).toByteArray();
+                int expectedLength = (int) (expectedData.length - e.getValue().getStreamSegmentOffset());
+                Assert.assertEquals("Unexpected read length for segment " + e.getKey(), expectedLength, readData.length);
+                AssertExtensions.assertArrayEquals("Unexpected read contents for segment " + e.getKey(),
+                        expectedData, (int) e.getValue().getStreamSegmentOffset(), readData, 0, readData.length);
+            }
+        }
+
+        Assert.assertEquals("Not expecting any Cache reads when serving Future Reads from appends.", 0, cacheGetCount.get());
+
+        // Verify the data did make it into the Cache (and the ReadIndex) as usual.
+        checkReadIndex("PostAppend", segmentContents, context);
+    }
+
     /**
      * Tests the handling of invalid operations. Scenarios include:
      * * Appends at wrong offsets
@@ -642,6 +705,80 @@ public class ContainerReadIndexTests extends ThreadPooledTestSuite {
         checkReadIndex("CacheReads", segmentContents, context);
     }
 
+    /**
+     * Tests the ability to read ahead (prefetch) data from Storage into the cache when a sequential read pattern is detected.
+     */
+    @Test
+    public void testStorageReadAhead() throws Exception {
+        final int alignment = 1024;
+        final int readAheadLength = 4 * alignment;
+        final int readLength = 100;
+        val config = ConfigHelpers
+                .withInfiniteCachePolicy(ReadIndexConfig.builder()
+                                                        .with(ReadIndexConfig.STORAGE_READ_ALIGNMENT, alignment)
+                                                        .with(ReadIndexConfig.STORAGE_READ_AHEAD_LENGTH, readAheadLength))
+                .build();
+
+        @Cleanup
+        TestContext context = new TestContext(config, config.getCachePolicy());
+        long segmentId = createSegment(0, context);
+        UpdateableSegmentMetadata sm = context.metadata.getStreamSegmentMetadata(segmentId);
+        createSegmentsInStorage(context);
+        byte[] segmentData = new byte[10 * alignment];
+        new Random(0).nextBytes(segmentData);
+        val handle = context.storage.openWrite(sm.getName()).join();
+        context.storage.write(handle, 0, new ByteArrayInputStream(segmentData), segmentData.length, TIMEOUT).join();
+        sm.setStorageLength(segmentData.length);
+        sm.setLength(segmentData.length);
+
+        // Record every offset that is inserted into the Cache.
+        val insertedOffsets = Collections.synchronizedSet(new HashSet<Long>());
+        context.cacheFactory.cache.insertCallback = key -> insertedOffsets.add(key.getOffset());
+
+        // Issue a few sequential reads, all within the first block. The reader only fetches what it needs, but once the
+        // sequential pattern is detected, the ReadIndex should prefetch the blocks that follow.
+        long readOffset = 0;
+        for (int i = 0; i <= SequentialReadDetector.MIN_SEQUENTIAL_READ_COUNT; i++) {
+            readAndVerify(segmentId, readOffset, readLength, segmentData, null, context);
+            readOffset += readLength;
+        }
+
+        val expectedOffsets = new HashSet<Long>();
+        for (long offset = alignment; offset < readOffset - readLength + readAheadLength; offset += alignment) {
+            expectedOffsets.add(offset);
+        }
+
+        while (!insertedOffsets.containsAll(expectedOffsets)) {
+            Thread.sleep(10);
+        }
+
+        // Delete the segment from Storage. If any of the prefetched data was not cached properly, the reads below would fail.
+        context.storage.delete(handle, TIMEOUT).join();
+        readAndVerify(segmentId, alignment, readAheadLength - alignment, segmentData, ReadResultEntryType.Cache, context);
+    }
+
+    private void readAndVerify(long segmentId, long offset, int length, byte[] segmentData, ReadResultEntryType expectedType,
+                               TestContext context) throws Exception {
+        @Cleanup
+        ReadResult readResult = context.readIndex.read(segmentId, offset, length, TIMEOUT);
+        ByteArrayOutputStream readStream = new ByteArrayOutputStream();
+        while (readResult.hasNext()) {
+            ReadResultEntry entry = readResult.next();
+            if (expectedType != null) {
+                Assert.assertEquals("Unexpected ReadResultEntryType at offset " + entry.getStreamSegmentOffset(), expectedType, entry.getType());
+            }
+
+            entry.requestContent(TIMEOUT);
+            ReadResultEntryContents contents = entry.getContent().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            byte[] readBuffer = new byte[contents.getLength()];
+            StreamHelpers.readAll(contents.getData(), readBuffer, 0, readBuffer.length);
+            readStream.write(readBuffer);
+        }
+
+        AssertExtensions.assertArrayEquals("Unexpected data read at offset " + offset, segmentData, (int) offset,
+                readStream.toByteArray(), 0, length);
+    }
+
     /**
      * Tests the ability to handle Storage read failures.
      */
@@ -717,6 +854,95 @@ public class ContainerReadIndexTests extends ThreadPooledTestSuite {
         checkReadIndex("PostAppend", segmentContents, context);
     }
 
+    /**
+     * Tests the ability to evict entries from the ReadIndex using a FREQUENCY_AWARE EvictionPolicy: entries that have
+     * been frequently read should be retained, while those that have not should be evicted, regardless of generation.
+     */
+    @Test
+    public void testFrequencyAwareCacheEviction() throws Exception {
+        final int appendSize = 100;
+        final int appendCount = 10;
+        final int hotCount = appendCount / 2;
+        CachePolicy cachePolicy = new CachePolicy(appendSize * appendCount - 1, Duration.ofHours(1), Duration.ofHours(1),
+                CachePolicy.EvictionPolicy.FREQUENCY_AWARE);
+
+        @Cleanup
+        TestContext context = new TestContext(DEFAULT_CONFIG, cachePolicy);
+        long segmentId = createSegment(0, context);
+        UpdateableSegmentMetadata sm = context.metadata.getStreamSegmentMetadata(segmentId);
+        byte[] segmentData = new byte[appendSize * appendCount];
+        new Random(0).nextBytes(segmentData);
+        for (int i = 0; i < appendCount; i++) {
+            byte[] appendData = Arrays.copyOfRange(segmentData, i * appendSize, (i + 1) * appendSize);
+            appendSingleWrite(segmentId, appendData, context);
+        }
+
+        // All the data needs to be in Storage in order to be eligible for eviction.
+        sm.setStorageLength(sm.getLength());
+
+        // Read the first half twice (hot entries) and the second half once (cold entries).
+        for (int i = 0; i < appendCount; i++) {
+            int readCount = i < hotCount ? 2 : 1;
+            for (int j = 0; j < readCount; j++) {
+                readAndVerify(segmentId, i * appendSize, appendSize, segmentData, ReadResultEntryType.Cache, context);
+            }
+        }
+
+        // We exceed the cache size by a small amount; this should cause all cold entries to be evicted, but no hot ones.
+        HashSet<Long> removedOffsets = new HashSet<>();
+        context.cacheFactory.cache.removeCallback = key -> removedOffsets.add(key.getOffset());
+        context.cacheManager.applyCachePolicy();
+        for (int i = 0; i < appendCount; i++) {
+            long offset = i * appendSize;
+            Assert.assertEquals("Unexpected eviction status for offset " + offset, i >= hotCount, removedOffsets.contains(offset));
+        }
+    }
+
+    /**
+     * Tests the ability to serve reads from the cache while appends are being made to the same segment.
+     */
+    @Test
+    public void testConcurrentAppendsAndReads() throws Exception {
+        final int appendSize = 100;
+        final int appendCount = 1000;
+        final int readerCount = 4;
+
+        @Cleanup
+        TestContext context = new TestContext();
+        long segmentId = createSegment(0, context);
+        byte[] segmentData = new byte[appendSize * appendCount];
+        new Random(0).nextBytes(segmentData);
+
+        // Each reader repeatedly reads (and verifies) whatever has been appended so far, until all appends are done.
+        AtomicLong appendedLength = new AtomicLong();
+        ArrayList<CompletableFuture<Void>> readers = new ArrayList<>();
+        for (int r = 0; r < readerCount; r++) {
+            final Random rnd = new Random(r);
+            readers.add(CompletableFuture.runAsync(() -> {
+                long length;
+                do {
+                    length = appendedLength.get();
+                    if (length > 0) {
+                        long offset = rnd.nextInt((int) length);
+                        try {
+                            readAndVerify(segmentId, offset, (int) (length - offset), segmentData, ReadResultEntryType.Cache, context);
+                        } catch (Exception ex) {
+                            throw new CompletionException(ex);
+                        }
+                    }
+                } while (length < segmentData.length);
+            }, executorService()));
+        }
+
+        for (int i = 0; i < appendCount; i++) {
+            appendSingleWrite(segmentId, Arrays.copyOfRange(segmentData, i * appendSize, (i + 1) * appendSize), context);
+            appendedLength.addAndGet(appendSize);
+        }
+
+        Futures.allOf(readers).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        readAndVerify(segmentId, 0, segmentData.length, segmentData, ReadResultEntryType.Cache, context);
+    }
+
     /**
      * Tests the ability to evict entries from the ReadIndex under various conditions:
      * * If an entry is aged out
@@ -758,7 +984,9 @@ public class ContainerReadIndexTests extends ThreadPooledTestSuite {
 
         // To properly test this, we want predictable storage reads.
         ReadIndexConfig config = ConfigHelpers
-                .withInfiniteCachePolicy(ReadIndexConfig.builder().with(ReadIndexConfig.STORAGE_READ_ALIGNMENT, appendSize))
+                .withInfiniteCachePolicy(ReadIndexConfig.builder()
+                                                        .with(ReadIndexConfig.STORAGE_READ_ALIGNMENT, appendSize)
+                                                        .with(ReadIndexConfig.STORAGE_READ_AHEAD_LENGTH, 0))
                 .build();
 
         ArrayList<CacheKey> removedKeys = new ArrayList<>();
@@ -1348,11 +1576,32 @@ public class ContainerReadIndexTests extends ThreadPooledTestSuite {
 
     private static class TestCache extends InMemoryCache {
         Consumer<CacheKey> removeCallback;
+        Consumer<CacheKey> insertCallback;
+        Consumer<CacheKey> getCallback;
 
         TestCache(String id) {
             super(id);
         }
 
+        @Override
+        public byte[] get(Cache.Key key) {
+            Consumer<CacheKey> callback = this.getCallback;
+            if (callback != null) {
+                callback.accept((CacheKey) key);
+            }
+
+            return super.get(key);
+        }
+
+        @Override
+        public void insert(Cache.Key key, ByteArraySegment data) {
+            super.insert(key, data);
+            Consumer<CacheKey> callback = this.insertCallback;
+            if (callback != null) {
+                callback.accept((CacheKey) key);
+            }
+        }
+
         @Override
         public void remove(Cache.Key key) {
             Consumer<CacheKey> callback = this.removeCallback;
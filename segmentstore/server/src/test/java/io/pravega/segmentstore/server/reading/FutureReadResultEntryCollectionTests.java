@@ -93,6 +93,28 @@ public class FutureReadResultEntryCollectionTests {
         }
     }
 
+    /**
+     * Tests the fact that cancelled entries (i.e., whose ReadResults have been closed) are eventually purged.
+     */
+    @Test
+    public void testPurgeCancelled() {
+        final int cancelledCount = ENTRY_COUNT * 100;
+        @Cleanup
+        FutureReadResultEntryCollection c = new FutureReadResultEntryCollection();
+        FutureReadResultEntry liveEntry = new FutureReadResultEntry(OFFSET_MULTIPLIER, OFFSET_MULTIPLIER / 2);
+        c.add(liveEntry);
+        for (int i = 0; i < cancelledCount; i++) {
+            FutureReadResultEntry e = new FutureReadResultEntry(OFFSET_MULTIPLIER, OFFSET_MULTIPLIER / 2);
+            c.add(e);
+            e.getContent().cancel(true);
+        }
+
+        Collection<FutureReadResultEntry> remaining = c.pollAll();
+        Assert.assertTrue("Live entry was purged.", remaining.contains(liveEntry));
+        AssertExtensions.assertLessThan("Cancelled entries were not purged.", ENTRY_COUNT, remaining.size());
+        Assert.assertTrue("Unexpected entries in the collection.", remaining.stream().allMatch(e -> e == liveEntry || e.getContent().isCancelled()));
+    }
+
     private List<FutureReadResultEntry> generateEntries() {
         ArrayList<FutureReadResultEntry> entries = new ArrayList<>();
         for (int i = 0; i < ENTRY_COUNT; i++) {
@@ -179,4 +179,39 @@ public class ReadIndexSummaryTests {
         Assert.assertEquals("Unexpected newest generation after removing all items.", 0, currentStatus.getNewestGeneration());
         Assert.assertEquals("Unexpected oldest generation after removing all items.", 0, currentStatus.getOldestGeneration());
     }
+
+    /**
+     * Tests the addCold() and removeCold() methods.
+     */
+    @Test
+    public void testColdGenerations() {
+        ReadIndexSummary s = new ReadIndexSummary();
+        for (int generation = 0; generation < GENERATION_COUNT; generation++) {
+            s.setCurrentGeneration(generation);
+            s.add(MAX_ITEM_SIZE);
+            s.addCold(MAX_ITEM_SIZE, generation);
+            s.addCold(1, generation);
+        }
+
+        CacheManager.CacheStatus currentStatus = s.toCacheStatus();
+        Assert.assertEquals("Unexpected number of cold generations.", GENERATION_COUNT, currentStatus.getColdGenerationSizes().size());
+        currentStatus.getColdGenerationSizes().forEach((generation, size) ->
+                Assert.assertEquals("Unexpected cold size for generation " + generation, MAX_ITEM_SIZE + 1, (long) size));
+
+        // Remove half of each generation, and everything from every other generation.
+        for (int generation = 0; generation < GENERATION_COUNT; generation++) {
+            s.removeCold(1, generation);
+            if (generation % 2 == 0) {
+                s.removeCold(MAX_ITEM_SIZE, generation);
+            }
+        }
+
+        currentStatus = s.toCacheStatus();
+        Assert.assertEquals("Unexpected number of cold generations after removal.", GENERATION_COUNT / 2, currentStatus.getColdGenerationSizes().size());
+        currentStatus.getColdGenerationSizes().forEach((generation, size) -> {
+            Assert.assertEquals("Not expecting generation to be present " + generation, 1, generation % 2);
+            Assert.assertEquals("Unexpected cold size for generation " + generation, MAX_ITEM_SIZE, (long) size);
+        });
+        Assert.assertEquals("Not expecting cold statistics to affect the total size.", GENERATION_COUNT * MAX_ITEM_SIZE, currentStatus.getSize());
+    }
 }
@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.reading;
+
+import lombok.val;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the SequentialReadDetector class.
+ */
+public class SequentialReadDetectorTests {
+    private static final int ALIGNMENT = 1000;
+    private static final int READ_AHEAD_LENGTH = 4 * ALIGNMENT;
+    private static final int READ_LENGTH = 100;
+    private static final long MAX_OFFSET = 100 * ALIGNMENT;
+
+    /**
+     * Tests the recordRead() method with sequential reads.
+     */
+    @Test
+    public void testSequentialReads() {
+        val d = new SequentialReadDetector(READ_AHEAD_LENGTH, ALIGNMENT);
+        long offset = 0;
+        for (int i = 0; i < SequentialReadDetector.MIN_SEQUENTIAL_READ_COUNT; i++) {
+            Assert.assertNull("Not expecting a read-ahead before the minimum number of sequential reads.", d.recordRead(offset, MAX_OFFSET));
+            offset += READ_LENGTH;
+        }
+
+        // First read-ahead begins at the next alignment boundary.
+        val r1 = d.recordRead(offset, MAX_OFFSET);
+        Assert.assertNotNull("Expected a read-ahead.", r1);
+        Assert.assertEquals("Unexpected start offset.", ALIGNMENT, r1.getStartOffset());
+        Assert.assertEquals("Unexpected end offset.", offset + READ_AHEAD_LENGTH, r1.getEndOffset());
+
+        // Repeated reads at the same offset, or reads which do not consume enough of the read-ahead data, should not
+        // trigger anything else.
+        Assert.assertNull("Not expecting a read-ahead for a repeated read.", d.recordRead(offset, MAX_OFFSET));
+        offset += READ_LENGTH;
+        Assert.assertNull("Not expecting a read-ahead while enough data has been read ahead.", d.recordRead(offset, MAX_OFFSET));
+
+        // Once at least half of the read-ahead data has been consumed, the next range should pick up where the last one left off.
+        offset = r1.getEndOffset() - READ_AHEAD_LENGTH / 2;
+        val r2 = d.recordRead(offset, MAX_OFFSET);
+        Assert.assertNotNull("Expected a read-ahead.", r2);
+        Assert.assertEquals("Unexpected start offset.", r1.getEndOffset(), r2.getStartOffset());
+        Assert.assertEquals("Unexpected end offset.", offset + READ_AHEAD_LENGTH, r2.getEndOffset());
+
+        // Near the end, the read-ahead should not exceed the max offset.
+        long maxOffset = r2.getEndOffset() + 1;
+        offset = r2.getEndOffset() - READ_AHEAD_LENGTH / 2 + 1;
+        val r3 = d.recordRead(offset, maxOffset);
+        Assert.assertNotNull("Expected a read-ahead.", r3);
+        Assert.assertEquals("Unexpected start offset.", r2.getEndOffset(), r3.getStartOffset());
+        Assert.assertEquals("Unexpected end offset.", maxOffset, r3.getEndOffset());
+        Assert.assertNull("Not expecting a read-ahead when everything has already been read ahead.", d.recordRead(offset + 1, maxOffset));
+    }
+
+    /**
+     * Tests the recordRead() method with non-sequential reads.
+     */
+    @Test
+    public void testRandomReads() {
+        val d = new SequentialReadDetector(READ_AHEAD_LENGTH, ALIGNMENT);
+        long offset = 10 * ALIGNMENT;
+        for (int i = 0; i < 10; i++) {
+            Assert.assertNull("Not expecting a read-ahead for backward reads.", d.recordRead(offset, MAX_OFFSET));
+            offset -= READ_LENGTH;
+        }
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertNull("Not expecting a read-ahead for reads with large gaps.", d.recordRead(offset, MAX_OFFSET));
+            offset += READ_AHEAD_LENGTH + 1;
+        }
+    }
+
+    /**
+     * Tests the rewind() method.
+     */
+    @Test
+    public void testRewind() {
+        val d = new SequentialReadDetector(READ_AHEAD_LENGTH, ALIGNMENT);
+        long offset = 0;
+        SequentialReadDetector.Range r1 = null;
+        while (r1 == null) {
+            r1 = d.recordRead(offset, MAX_OFFSET);
+            offset += READ_LENGTH;
+        }
+
+        // Pretend nothing could be read ahead; the next read should request the same range again.
+        d.rewind(r1.getStartOffset());
+        val r2 = d.recordRead(offset, MAX_OFFSET);
+        Assert.assertNotNull("Expected a read-ahead after rewinding.", r2);
+        Assert.assertEquals("Unexpected start offset after rewinding.", r1.getStartOffset(), r2.getStartOffset());
+        Assert.assertEquals("Unexpected end offset after rewinding.", offset + READ_AHEAD_LENGTH, r2.getEndOffset());
+    }
+}
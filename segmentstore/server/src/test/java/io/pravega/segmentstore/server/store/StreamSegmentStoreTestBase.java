@@ -13,6 +13,7 @@ import io.pravega.common.Exceptions;
 import io.pravega.common.TimeoutTimer;
 import io.pravega.common.concurrent.Futures;
 import io.pravega.common.io.StreamHelpers;
+import io.pravega.segmentstore.contracts.ReadRequest;
 import io.pravega.segmentstore.contracts.ReadResult;
 import io.pravega.segmentstore.contracts.ReadResultEntry;
 import io.pravega.segmentstore.contracts.ReadResultEntryContents;
@@ -34,6 +35,7 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
@@ -41,6 +43,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 import lombok.Cleanup;
 import lombok.SneakyThrows;
 import lombok.val;
@@ -137,6 +140,7 @@ public abstract class StreamSegmentStoreTestBase extends ThreadPooledTestSuite {
             val segmentStore = builder.createStreamSegmentService();
 
             checkReads(segmentContents, segmentStore);
+            checkBatchedReads(segmentContents, segmentStore);
 
             // Merge all transactions.
             mergeTransactions(transactionsBySegment, lengths, segmentContents, segmentStore).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
@@ -388,6 +392,35 @@ public abstract class StreamSegmentStoreTestBase extends ThreadPooledTestSuite {
         }
     }
 
+    private void checkBatchedReads(HashMap<String, ByteArrayOutputStream> segmentContents, StreamSegmentStore store) throws Exception {
+        // Issue a single read for all Segments; verify that each result contains the correct data, in the correct order.
+        ArrayList<String> segmentNames = new ArrayList<>(segmentContents.keySet());
+        List<ReadRequest> reads = segmentNames.stream()
+                                              .map(segmentName -> new ReadRequest(segmentName, 0, segmentContents.get(segmentName).size()))
+                                              .collect(Collectors.toList());
+        List<CompletableFuture<ReadResult>> readResults = store.read(reads, TIMEOUT);
+        Assert.assertEquals("Unexpected number of results from batched read.", reads.size(), readResults.size());
+        for (int i = 0; i < segmentNames.size(); i++) {
+            String segmentName = segmentNames.get(i);
+            byte[] expectedData = segmentContents.get(segmentName).toByteArray();
+
+            @Cleanup
+            ReadResult readResult = readResults.get(i).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            Assert.assertTrue("Empty batched read result for segment " + segmentName, readResult.hasNext());
+            ReadResultEntry readEntry = readResult.next();
+            Assert.assertEquals("Unexpected value from getStreamSegmentOffset for segment " + segmentName, 0, readEntry.getStreamSegmentOffset());
+            if (!readEntry.getContent().isDone()) {
+                readEntry.requestContent(TIMEOUT);
+            }
+
+            ReadResultEntryContents readEntryContents = readEntry.getContent().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            byte[] actualData = new byte[readEntryContents.getLength()];
+            StreamHelpers.readAll(readEntryContents.getData(), actualData, 0, actualData.length);
+            AssertExtensions.assertArrayEquals("Unexpected data from batched read for segment " + segmentName,
+                    expectedData, 0, actualData, 0, actualData.length);
+        }
+    }
+
     private void checkReadsWhileTruncating(HashMap<String, ByteArrayOutputStream> segmentContents, HashMap<String, Long> startOffsets,
                                            StreamSegmentStore store) throws Exception {
         for (Map.Entry<String, ByteArrayOutputStream> e : segmentContents.entrySet()) {
@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.writer;
+
+import io.pravega.test.common.AssertExtensions;
+import io.pravega.test.common.IntentionalException;
+import io.pravega.test.common.ThreadPooledTestSuite;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.val;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Unit tests for the FlushScheduler class.
+ */
+public class FlushSchedulerTests extends ThreadPooledTestSuite {
+    private static final int TIMEOUT_MILLIS = 10000;
+    @Rule
+    public Timeout globalTimeout = Timeout.millis(TIMEOUT_MILLIS);
+
+    @Override
+    protected int getThreadPoolSize() {
+        return 3;
+    }
+
+    /**
+     * Tests that no more than the configured number of flushes execute concurrently.
+     */
+    @Test
+    public void testConcurrencyLimit() throws Exception {
+        final int maxConcurrency = 3;
+        final int flushCount = 10;
+        val s = new FlushScheduler(maxConcurrency, 0, executorService());
+        val active = new AtomicInteger();
+        val maxActive = new AtomicInteger();
+        val flushes = new ArrayList<CompletableFuture<Integer>>();
+        val results = new ArrayList<CompletableFuture<Integer>>();
+        for (int i = 0; i < flushCount; i++) {
+            val flush = new CompletableFuture<Integer>();
+            flushes.add(flush);
+            results.add(s.execute(FlushScheduler.Priority.NORMAL, 1, () -> {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                return flush.thenApply(r -> {
+                    active.decrementAndGet();
+                    return r;
+                });
+            }));
+        }
+
+        Assert.assertEquals("Unexpected number of running flushes.", maxConcurrency, s.getRunningCount());
+        Assert.assertEquals("Unexpected number of queued flushes.", flushCount - maxConcurrency, s.getQueueSize());
+        for (int i = 0; i < flushCount; i++) {
+            flushes.get(i).complete(i);
+            Assert.assertEquals("Unexpected result.", i, (int) results.get(i).get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        }
+
+        Assert.assertEquals("Unexpected maximum number of concurrent flushes.", maxConcurrency, maxActive.get());
+        Assert.assertEquals("Not expecting any queued flushes.", 0, s.getQueueSize());
+    }
+
+    /**
+     * Tests that queued flushes are executed in order of their priority.
+     */
+    @Test
+    public void testPriorities() throws Exception {
+        val s = new FlushScheduler(1, 0, executorService());
+        val blocker = new CompletableFuture<Void>();
+        s.execute(FlushScheduler.Priority.NORMAL, 1, () -> blocker);
+
+        List<FlushScheduler.Priority> executionOrder = Collections.synchronizedList(new ArrayList<>());
+        val results = new ArrayList<CompletableFuture<Void>>();
+        for (FlushScheduler.Priority p : new FlushScheduler.Priority[]{FlushScheduler.Priority.LOW, FlushScheduler.Priority.NORMAL,
+                FlushScheduler.Priority.HIGH, FlushScheduler.Priority.NORMAL}) {
+            results.add(s.execute(p, 1, () -> {
+                executionOrder.add(p);
+                return CompletableFuture.completedFuture(null);
+            }));
+        }
+
+        Assert.assertTrue("Not expecting any flush to execute while the limit is reached.", executionOrder.isEmpty());
+        blocker.complete(null);
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        Assert.assertEquals("Unexpected execution order.",
+                Arrays.asList(FlushScheduler.Priority.HIGH, FlushScheduler.Priority.NORMAL,
+                        FlushScheduler.Priority.NORMAL, FlushScheduler.Priority.LOW),
+                executionOrder);
+    }
+
+    /**
+     * Tests that lower priority flushes are eventually executed, even while higher priority ones keep being submitted.
+     */
+    @Test
+    public void testPriorityAging() throws Exception {
+        final int chainCount = 5;
+        final int maxHighCount = FlushScheduler.PRIORITY_AGING_INTERVAL * 10;
+        val s = new FlushScheduler(1, 0, executorService());
+        val blocker = new CompletableFuture<Void>();
+        s.execute(FlushScheduler.Priority.HIGH, 1, () -> blocker);
+
+        val highCount = new AtomicInteger();
+        val highCountBeforeLow = new AtomicInteger();
+        val lowResult = s.execute(FlushScheduler.Priority.LOW, 1, () -> {
+            highCountBeforeLow.set(highCount.get());
+            return CompletableFuture.completedFuture(null);
+        });
+
+        // Every HIGH flush submits another one as it executes, so there is always one waiting.
+        val highDone = new CompletableFuture<Void>();
+        for (int i = 0; i < chainCount; i++) {
+            submitContinuously(s, highCount, maxHighCount, highDone);
+        }
+
+        blocker.complete(null);
+        lowResult.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        AssertExtensions.assertLessThanOrEqual("LOW priority flush was bypassed by too many HIGH priority flushes.",
+                2 * FlushScheduler.PRIORITY_AGING_INTERVAL, highCountBeforeLow.get());
+        highDone.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void submitContinuously(FlushScheduler s, AtomicInteger count, int maxCount, CompletableFuture<Void> done) {
+        s.execute(FlushScheduler.Priority.HIGH, 1, () -> {
+            if (count.incrementAndGet() < maxCount) {
+                submitContinuously(s, count, maxCount, done);
+            } else {
+                done.complete(null);
+            }
+
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    /**
+     * Tests that the bandwidth limit delays flushes once the budget has been used up.
+     */
+    @Test
+    public void testBandwidthLimit() throws Exception {
+        final long bytesPerSecond = 10000;
+        val s = new FlushScheduler(10, bytesPerSecond, executorService());
+
+        // The first two flushes fit in the initial budget (the second one puts it in deficit), so they execute right away.
+        s.execute(FlushScheduler.Priority.NORMAL, bytesPerSecond / 2, () -> CompletableFuture.completedFuture(null))
+         .get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        s.execute(FlushScheduler.Priority.NORMAL, bytesPerSecond, () -> CompletableFuture.completedFuture(null))
+         .get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+        // The third one needs to wait until the deficit (half a second's worth of bytes) is paid off. Zero-length flushes
+        // (such as seals or merges) are not subject to the bandwidth limit.
+        long startNanos = System.nanoTime();
+        val delayed = s.execute(FlushScheduler.Priority.NORMAL, 1, () -> CompletableFuture.completedFuture(System.nanoTime()));
+        val free = s.execute(FlushScheduler.Priority.NORMAL, 0, () -> CompletableFuture.completedFuture(null));
+        Assert.assertFalse("Not expecting flush to execute while out of budget.", delayed.isDone());
+        Assert.assertFalse("Not expecting a flush to bypass one that is waiting for budget.", free.isDone());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(delayed.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS) - startNanos);
+        AssertExtensions.assertGreaterThanOrEqual("Flush was not delayed enough.", 400, elapsedMillis);
+        free.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Tests the case when flushes fail.
+     */
+    @Test
+    public void testFailedFlushes() throws Exception {
+        val s = new FlushScheduler(1, 0, executorService());
+        val f1 = s.execute(FlushScheduler.Priority.NORMAL, 1, () -> {
+            throw new IntentionalException();
+        });
+        val f2 = s.execute(FlushScheduler.Priority.NORMAL, 1, () -> {
+            CompletableFuture<Void> result = new CompletableFuture<>();
+            result.completeExceptionally(new IntentionalException());
+            return result;
+        });
+        val f3 = s.execute(FlushScheduler.Priority.NORMAL, 1, () -> CompletableFuture.completedFuture(1));
+
+        AssertExtensions.assertThrows("Expected synchronous failure to be propagated.", f1, ex -> ex instanceof IntentionalException);
+        AssertExtensions.assertThrows("Expected asynchronous failure to be propagated.", f2, ex -> ex instanceof IntentionalException);
+        Assert.assertEquals("Unexpected result after failures.", 1, (int) f3.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        Assert.assertEquals("Not expecting any running flushes.", 0, s.getRunningCount());
+    }
+}
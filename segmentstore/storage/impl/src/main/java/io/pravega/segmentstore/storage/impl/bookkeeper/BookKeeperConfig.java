@@ -37,6 +37,7 @@ public class BookKeeperConfig {
     public static final Property<Integer> BK_WRITE_TIMEOUT = Property.named("bkWriteTimeoutMillis", 5000);
     public static final Property<Integer> BK_READ_TIMEOUT = Property.named("readTimeoutMillis", 5000);
     public static final Property<Integer> BK_LEDGER_MAX_SIZE = Property.named("bkLedgerMaxSize", 1024 * 1024 * 1024);
+    public static final Property<Integer> BK_READ_AHEAD_LEDGER_COUNT = Property.named("bkReadAheadLedgerCount", 1);
     public static final Property<String> BK_PASSWORD = Property.named("bkPass", "");
     public static final Property<String> BK_LEDGER_PATH = Property.named("bkLedgerPath", "");
     public static final Property<Boolean> BK_TLS_ENABLED = Property.named("tlsEnabled", false);
@@ -132,6 +133,13 @@ public class BookKeeperConfig {
      */
     @Getter
     private final int bkLedgerMaxSize;
+
+    /**
+     * The number of Ledgers to open and read from concurrently when reading a log (i.e., during recovery). 1 means
+     * Ledgers are opened one at a time, as they are needed.
+     */
+    @Getter
+    private final int bkReadAheadLedgerCount;
     private final byte[] bkPassword;
 
     @Getter
@@ -173,6 +181,12 @@ public class BookKeeperConfig {
         this.bkWriteTimeoutMillis = properties.getInt(BK_WRITE_TIMEOUT);
         this.bkReadTimeoutMillis = properties.getInt(BK_READ_TIMEOUT);
         this.bkLedgerMaxSize = properties.getInt(BK_LEDGER_MAX_SIZE);
+        this.bkReadAheadLedgerCount = properties.getInt(BK_READ_AHEAD_LEDGER_COUNT);
+        if (this.bkReadAheadLedgerCount <= 0) {
+            throw new InvalidPropertyValueException(String.format("Property %s (%d) must be a positive integer.",
+                    BK_READ_AHEAD_LEDGER_COUNT, this.bkReadAheadLedgerCount));
+        }
+
         this.bkPassword = properties.get(BK_PASSWORD).getBytes(Charset.forName("UTF-8"));
         this.isTLSEnabled = properties.getBoolean(BK_TLS_ENABLED);
         tlsTrustStore = properties.get(TLS_TRUST_STORE_PATH);
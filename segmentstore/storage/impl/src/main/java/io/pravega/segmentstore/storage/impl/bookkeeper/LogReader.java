@@ -11,12 +11,18 @@ package io.pravega.segmentstore.storage.impl.bookkeeper;
 
 import com.google.common.base.Preconditions;
 import io.pravega.common.Exceptions;
+import io.pravega.common.concurrent.ExecutorServiceHelpers;
 import io.pravega.common.util.CloseableIterator;
 import io.pravega.segmentstore.storage.DurableDataLog;
 import io.pravega.segmentstore.storage.DurableDataLogException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.Enumeration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.concurrent.NotThreadSafe;
 import lombok.Getter;
@@ -30,17 +36,30 @@ import org.apache.bookkeeper.client.LedgerHandle;
 
 /**
  * Performs read from BookKeeper Logs.
+ * <p>
+ * Ledgers are read in order of their LedgerAddresses, in batches of at most READ_BATCH_SIZE entries. By default (see
+ * BookKeeperConfig.getBkReadAheadLedgerCount()), Ledgers are opened and read synchronously, on the calling thread, as
+ * they are needed. If so configured, the next few Ledgers are opened (and their first batches fetched) concurrently, and
+ * the next batch of each Ledger is fetched while the current one is being consumed; this is done on a dedicated Executor
+ * (with one thread per read-ahead Ledger), which means that at most one batch per such Ledger (in addition to the one
+ * being consumed) is held in memory at any given time.
  */
 @Slf4j
 @NotThreadSafe
 class LogReader implements CloseableIterator<DurableDataLog.ReadItem, DurableDataLogException> {
     //region Members
 
+    private static final int READ_BATCH_SIZE = 64;
     private final BookKeeper bookKeeper;
     private final LogMetadata metadata;
     private final AtomicBoolean closed;
     private final BookKeeperConfig config;
-    private ReadLedger currentLedger;
+    private final ExecutorService readAheadExecutor;
+    private final Executor executor;
+    private final ArrayDeque<ReadLedger> readAhead;
+    private boolean initialized;
+    private LedgerAddress nextLedgerAddress;
+    private ReadBatch currentBatch;
 
     //endregion
 
@@ -57,7 +76,19 @@ class LogReader implements CloseableIterator<DurableDataLog.ReadItem, DurableDat
         this.metadata = Preconditions.checkNotNull(metadata, "metadata");
         this.bookKeeper = Preconditions.checkNotNull(bookKeeper, "bookKeeper");
         this.config = Preconditions.checkNotNull(config, "config");
+        this.readAhead = new ArrayDeque<>();
         this.closed = new AtomicBoolean();
+
+        // Ledger opens and reads are blocking calls. We do not want to run them on a shared Executor (they could starve
+        // it), so we either run them inline (on the calling thread) or on an Executor of our own.
+        int readAheadCount = this.config.getBkReadAheadLedgerCount();
+        if (readAheadCount > 1) {
+            this.readAheadExecutor = ExecutorServiceHelpers.newScheduledThreadPool(readAheadCount, "bookkeeper-read-ahead");
+            this.executor = this.readAheadExecutor;
+        } else {
+            this.readAheadExecutor = null;
+            this.executor = Runnable::run;
+        }
     }
 
     //endregion
@@ -67,18 +98,34 @@ class LogReader implements CloseableIterator<DurableDataLog.ReadItem, DurableDat
     @Override
     public void close() {
         if (!this.closed.getAndSet(true)) {
-            if (this.currentLedger != null) {
-                try {
-                    Ledgers.close(this.currentLedger.handle);
-                } catch (DurableDataLogException bkEx) {
-                    log.error("Unable to close LedgerHandle for Ledger {}.", this.currentLedger.handle.getId(), bkEx);
+            // Some of these Ledgers may still be opening or have batches being fetched; only close them when that is done.
+            this.readAhead.forEach(ledger -> {
+                CompletableFuture<ReadBatch> pendingBatch = ledger.nextBatch;
+                if (pendingBatch == null) {
+                    pendingBatch = CompletableFuture.completedFuture(null);
                 }
 
-                this.currentLedger = null;
+                pendingBatch.handle((r, ex) -> null)
+                            .thenCompose(v -> ledger.handle)
+                            .thenAccept(this::closeLedger);
+            });
+            this.readAhead.clear();
+            this.currentBatch = null;
+            if (this.readAheadExecutor != null) {
+                // Anything that is already running or queued up will still complete.
+                this.readAheadExecutor.shutdown();
             }
         }
     }
 
+    private void closeLedger(LedgerHandle handle) {
+        try {
+            Ledgers.close(handle);
+        } catch (DurableDataLogException bkEx) {
+            log.error("Unable to close LedgerHandle for Ledger {}.", handle.getId(), bkEx);
+        }
+    }
+
     //endregion
 
     //region CloseableIterator Implementation
@@ -87,71 +134,116 @@ class LogReader implements CloseableIterator<DurableDataLog.ReadItem, DurableDat
     public DurableDataLog.ReadItem getNext() throws DurableDataLogException {
         Exceptions.checkNotClosed(this.closed.get(), this);
 
-        if (this.currentLedger == null) {
+        if (!this.initialized) {
             // First time we call this. Locate the first ledger based on the metadata truncation address. We don't know
             // how many entries are in that first ledger, so open it anyway so we can figure out.
-            openNextLedger(this.metadata.getNextAddress(this.metadata.getTruncationAddress(), Long.MAX_VALUE));
+            this.nextLedgerAddress = this.metadata.getNextAddress(this.metadata.getTruncationAddress(), Long.MAX_VALUE);
+            this.initialized = true;
         }
 
-        while (this.currentLedger != null && (!this.currentLedger.canRead())) {
-            // We have reached the end of the current ledger. Find next one, and skip over empty ledgers).
-            val lastAddress = new LedgerAddress(this.currentLedger.metadata, this.currentLedger.handle.getLastAddConfirmed());
-            Ledgers.close(this.currentLedger.handle);
-            openNextLedger(this.metadata.getNextAddress(lastAddress, this.currentLedger.handle.getLastAddConfirmed()));
-        }
+        while (this.currentBatch == null || !this.currentBatch.entries.hasMoreElements()) {
+            openNextLedgers();
+            ReadLedger ledger = this.readAhead.peekFirst();
+            if (ledger == null) {
+                // We have reached the end.
+                close();
+                return null;
+            }
 
-        // Try to read from the current reader.
-        if (this.currentLedger == null || this.currentLedger.reader == null) {
-            return null;
+            if (ledger.nextBatch == null) {
+                // Not fetched in advance; do it now.
+                ledger.nextBatch = fetchBatch(ledger);
+            }
+
+            this.currentBatch = await(ledger.nextBatch);
+            ledger.nextBatch = null;
+            if (this.currentBatch == null) {
+                // We have reached the end of the current ledger (or it was empty). Move on to the next one.
+                this.readAhead.removeFirst();
+                closeLedger(ledger.handle.join());
+            } else {
+                ledger.nextEntryId = this.currentBatch.lastEntryId + 1;
+                if (this.readAheadExecutor != null) {
+                    // Begin fetching the next batch while this one is being consumed.
+                    ledger.nextBatch = fetchBatch(ledger);
+                }
+            }
         }
 
-        return new LogReader.ReadItem(this.currentLedger.reader.nextElement(), this.currentLedger.metadata);
+        return new LogReader.ReadItem(this.currentBatch.entries.nextElement(), this.currentBatch.ledger.metadata);
     }
 
-    private void openNextLedger(LedgerAddress address) throws DurableDataLogException {
-        if (address == null) {
-            // We have reached the end.
-            close();
-            return;
+    private void openNextLedgers() {
+        while (this.nextLedgerAddress != null && this.readAhead.size() < this.config.getBkReadAheadLedgerCount()) {
+            ReadLedger ledger = openLedger(this.nextLedgerAddress);
+            this.readAhead.addLast(ledger);
+            this.nextLedgerAddress = this.metadata.getNextAddress(new LedgerAddress(ledger.metadata, 0), 0);
         }
+    }
 
+    private ReadLedger openLedger(LedgerAddress address) {
         LedgerMetadata metadata = this.metadata.getLedger(address.getLedgerId());
         assert metadata != null : "no LedgerMetadata could be found with valid LedgerAddress " + address;
         val allMetadatas = this.metadata.getLedgers();
+        boolean isLastLedger = allMetadatas.size() == 0 || metadata == allMetadatas.get(allMetadatas.size() - 1);
+        val handle = CompletableFuture.supplyAsync(() -> {
+            try {
+                if (isLastLedger) {
+                    // This is our last ledger (the active one); we need to make sure open it without recovery since
+                    // otherwise we would fence ourselves out.
+                    return Ledgers.openRead(metadata.getLedgerId(), this.bookKeeper, this.config);
+                } else {
+                    // Older ledger. Open with recovery to make sure any uncommitted fragments will be recovered. Since we
+                    // do our Log fencing based on the last Ledger, open-fencing this Ledger will not have any adverse effects.
+                    return Ledgers.openFence(metadata.getLedgerId(), this.bookKeeper, this.config);
+                }
+            } catch (DurableDataLogException ex) {
+                throw new CompletionException(ex);
+            }
+        }, this.executor);
 
-        // Open the ledger.
-        LedgerHandle ledger;
-        if (allMetadatas.size() == 0 || metadata == allMetadatas.get(allMetadatas.size() - 1)) {
-            // This is our last ledger (the active one); we need to make sure open it without recovery since otherwise we
-            // we would fence ourselves out.
-            ledger = Ledgers.openRead(metadata.getLedgerId(), this.bookKeeper, this.config);
-        } else {
-            // Older ledger. Open with recovery to make sure any uncommitted fragments will be recovered. Since we do our
-            // Log fencing based on the last Ledger, open-fencing this Ledger will not have any adverse effects.
-            ledger = Ledgers.openFence(metadata.getLedgerId(), this.bookKeeper, this.config);
+        val ledger = new ReadLedger(metadata, handle);
+        ledger.nextEntryId = address.getEntryId();
+        if (this.readAheadExecutor != null) {
+            ledger.nextBatch = fetchBatch(ledger);
         }
 
-        long lastEntryId = ledger.getLastAddConfirmed();
-        if (lastEntryId < address.getEntryId()) {
-            // This ledger is empty.
-            Ledgers.close(ledger);
-            this.currentLedger = new ReadLedger(metadata, ledger, null);
-            return;
+        return ledger;
+    }
+
+    private CompletableFuture<ReadBatch> fetchBatch(ReadLedger ledger) {
+        long firstEntryId = ledger.nextEntryId;
+        return ledger.handle.thenApplyAsync(handle -> readBatch(ledger, handle, firstEntryId), this.executor);
+    }
+
+    private ReadBatch readBatch(ReadLedger ledger, LedgerHandle handle, long firstEntryId) {
+        long lastAddConfirmed = handle.getLastAddConfirmed();
+        if (lastAddConfirmed < firstEntryId || this.closed.get()) {
+            // Nothing (else) to read from this ledger, or we have been closed in the meantime (in which case the handle
+            // will be closed as soon as we are done).
+            return null;
         }
 
-        ReadLedger previousLedger;
+        long lastEntryId = Math.min(lastAddConfirmed, firstEntryId + READ_BATCH_SIZE - 1);
         try {
-            val reader = Exceptions.handleInterrupted(() -> ledger.readEntries(address.getEntryId(), lastEntryId));
-            previousLedger = this.currentLedger;
-            this.currentLedger = new ReadLedger(metadata, ledger, reader);
-            if (previousLedger != null) {
-                // Close previous ledger handle.
-                Ledgers.close(previousLedger.handle);
-            }
+            val entries = Exceptions.handleInterrupted(() -> handle.readEntries(firstEntryId, lastEntryId));
+            return new ReadBatch(ledger, entries, lastEntryId);
         } catch (Exception ex) {
-            Ledgers.close(ledger);
+            throw new CompletionException(new DurableDataLogException("Error while reading from BookKeeper.", ex));
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> future) throws DurableDataLogException {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
             close();
-            throw new DurableDataLogException("Error while reading from BookKeeper.", ex);
+            Throwable cause = Exceptions.unwrap(ex);
+            if (cause instanceof DurableDataLogException) {
+                throw (DurableDataLogException) cause;
+            }
+
+            throw new DurableDataLogException("Error while reading from BookKeeper.", cause);
         }
     }
 
@@ -187,14 +279,17 @@ class LogReader implements CloseableIterator<DurableDataLog.ReadItem, DurableDat
     @RequiredArgsConstructor
     private static class ReadLedger {
         final LedgerMetadata metadata;
-        final LedgerHandle handle;
-        final Enumeration<LedgerEntry> reader;
+        final CompletableFuture<LedgerHandle> handle;
+        long nextEntryId;
+        CompletableFuture<ReadBatch> nextBatch;
+    }
 
-        boolean canRead() {
-            return this.reader != null && this.reader.hasMoreElements();
-        }
+    @RequiredArgsConstructor
+    private static class ReadBatch {
+        final ReadLedger ledger;
+        final Enumeration<LedgerEntry> entries;
+        final long lastEntryId;
     }
 
     //endregion
 }
-
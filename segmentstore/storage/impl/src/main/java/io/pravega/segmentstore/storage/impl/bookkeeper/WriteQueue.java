@@ -13,21 +13,27 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import io.pravega.common.AbstractTimer;
 import io.pravega.common.Exceptions;
+import io.pravega.common.ObjectClosedException;
 import io.pravega.segmentstore.storage.QueueStats;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
-import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 import lombok.Getter;
 
 /**
  * A specialized queue for BookKeeper writes. Provides methods for adding new items, determining the next items to execute,
  * as well as cleaning up completed writes.
+ * <p>
+ * This is a lock-free, multi-producer, single-consumer queue: add(), getStatistics() and close() may be invoked
+ * concurrently from any thread, however getWritesToExecute() and removeFinishedWrites() must only be invoked by a single
+ * thread at any given time (the BookKeeperLog's Write Processor). Only the consumer and close() ever remove items, and
+ * they do so from the head of the queue, which means the consumer can safely inspect the head without any locking.
  */
 @ThreadSafe
 class WriteQueue {
@@ -35,14 +41,11 @@ class WriteQueue {
 
     @Getter
     private final Supplier<Long> timeSupplier;
-    @GuardedBy("this")
-    private final Deque<Write> writes;
-    @GuardedBy("this")
-    private long totalLength;
-    @GuardedBy("this")
-    private int lastDurationMillis;
-    @GuardedBy("this")
-    private boolean closed;
+    private final ConcurrentLinkedQueue<Write> writes;
+    private final AtomicInteger size;
+    private final AtomicLong totalLength;
+    private volatile int lastDurationMillis;
+    private volatile boolean closed;
 
     //endregion
 
@@ -63,7 +66,9 @@ class WriteQueue {
     @VisibleForTesting
     WriteQueue(Supplier<Long> timeSupplier) {
         this.timeSupplier = Preconditions.checkNotNull(timeSupplier, "timeSupplier");
-        this.writes = new ArrayDeque<>();
+        this.writes = new ConcurrentLinkedQueue<>();
+        this.size = new AtomicInteger();
+        this.totalLength = new AtomicLong();
     }
 
     //endregion
@@ -71,19 +76,23 @@ class WriteQueue {
     //region Queue Operations
 
     /**
-     * Gets a snapshot of the queue internals.
+     * Gets a snapshot of the queue internals. Since this does not block any concurrent updates, the values returned may
+     * reflect operations that are in progress.
      *
      * @return The snapshot, including Queue Size, Item Fill Rate and elapsed time of the oldest item.
      */
-    synchronized QueueStats getStatistics() {
-        int size = this.writes.size();
-        double fillRatio = calculateFillRatio(this.totalLength, size);
+    QueueStats getStatistics() {
+        int size = Math.max(0, this.size.get());
+        double fillRatio = calculateFillRatio(Math.max(0, this.totalLength.get()), size);
         int processingTime = this.lastDurationMillis;
         if (processingTime == 0 && size > 0) {
             // We get in here when this method is invoked prior to any operation being completed. Since lastDurationMillis
             // is only set when an item is completed, in this special case we just estimate based on the amount of time
             // the first item in the queue has been added.
-            processingTime = (int) ((this.timeSupplier.get() - this.writes.peekFirst().getQueueAddedTimestamp()) / AbstractTimer.NANOS_TO_MILLIS);
+            Write first = this.writes.peek();
+            if (first != null) {
+                processingTime = (int) ((this.timeSupplier.get() - first.getQueueAddedTimestamp()) / AbstractTimer.NANOS_TO_MILLIS);
+            }
         }
 
         return new QueueStats(size, fillRatio, processingTime);
@@ -94,11 +103,21 @@ class WriteQueue {
      *
      * @param write The write to add.
      */
-    synchronized void add(Write write) {
+    void add(Write write) {
         Exceptions.checkNotClosed(this.closed, this);
-        this.writes.addLast(write);
-        this.totalLength += write.data.getLength();
         write.setQueueAddedTimestamp(this.timeSupplier.get());
+
+        // Update the counters before publishing the write, so they never go negative if it is removed right away.
+        int length = write.data.getLength();
+        this.size.incrementAndGet();
+        this.totalLength.addAndGet(length);
+        this.writes.offer(write);
+        if (this.closed && this.writes.remove(write)) {
+            // We raced with close() and it did not pick up our write. Undo everything and fail the call. If the removal
+            // did not succeed, close() has already taken the write and it is its responsibility to handle it.
+            onRemoved(write);
+            throw new ObjectClosedException(this);
+        }
     }
 
     /**
@@ -106,11 +125,15 @@ class WriteQueue {
      *
      * @return A new List with the contents of the queue (prior to cleanup), in the same order.
      */
-    synchronized List<Write> close() {
-        List<Write> items = new ArrayList<>(this.writes);
-        this.writes.clear();
-        this.totalLength = 0;
+    List<Write> close() {
         this.closed = true;
+        List<Write> items = new ArrayList<>();
+        Write w;
+        while ((w = this.writes.poll()) != null) {
+            onRemoved(w);
+            items.add(w);
+        }
+
         return items;
     }
 
@@ -126,13 +149,17 @@ class WriteQueue {
      *                               no further writes are returned.
      * @return The result.
      */
-    synchronized List<Write> getWritesToExecute(long maximumAccumulatedSize) {
+    List<Write> getWritesToExecute(long maximumAccumulatedSize) {
         Exceptions.checkNotClosed(this.closed, this);
-        long accumulatedSize = 0;
+        Write first = this.writes.peek();
+        if (first == null) {
+            return Collections.emptyList();
+        }
 
         // Collect all remaining writes, as long as they are not currently in-progress and have the same ledger id
-        // as the first item in the ledger.
-        long firstLedgerId = this.writes.peekFirst().getWriteLedger().metadata.getLedgerId();
+        // as the first item in the ledger. Writes added concurrently may or may not be picked up by this iteration.
+        long accumulatedSize = 0;
+        long firstLedgerId = first.getWriteLedger().metadata.getLedgerId();
         boolean canSkip = true;
 
         List<Write> result = new ArrayList<>();
@@ -171,15 +198,20 @@ class WriteQueue {
      *
      * @return True if there are items left in the queue, false otherwise.
      */
-    synchronized EnumSet<CleanupStatus> removeFinishedWrites() {
+    EnumSet<CleanupStatus> removeFinishedWrites() {
         Exceptions.checkNotClosed(this.closed, this);
         long currentTime = this.timeSupplier.get();
         long totalElapsed = 0;
         int removedCount = 0;
         boolean failedWrite = false;
-        while (!this.writes.isEmpty() && this.writes.peekFirst().isDone()) {
-            Write w = this.writes.removeFirst();
-            this.totalLength = Math.max(0, this.totalLength - w.data.getLength());
+        Write w;
+        while ((w = this.writes.peek()) != null && w.isDone()) {
+            if (!this.writes.remove(w)) {
+                // A concurrent call to close() has already taken it.
+                break;
+            }
+
+            onRemoved(w);
             removedCount++;
             totalElapsed += currentTime - w.getQueueAddedTimestamp();
             failedWrite |= w.getFailureCause() != null;
@@ -193,6 +225,11 @@ class WriteQueue {
         return failedWrite ? EnumSet.of(CleanupStatus.WriteFailed, empty) : EnumSet.of(empty);
     }
 
+    private void onRemoved(Write write) {
+        this.size.decrementAndGet();
+        this.totalLength.addAndGet(-write.data.getLength());
+    }
+
     /**
      * Calculates the FillRatio, which is a number between [0, 1] that represents the average fill of each
      * write with respect to the maximum BookKeeper write allowance.
@@ -0,0 +1,287 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.impl.directmemory;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.Exceptions;
+import io.pravega.common.ObjectClosedException;
+import io.pravega.common.function.Callbacks;
+import io.pravega.common.util.ByteArraySegment;
+import io.pravega.segmentstore.storage.Cache;
+import io.pravega.segmentstore.storage.CacheException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import javax.annotation.concurrent.ThreadSafe;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache backed by direct (off-heap) memory, which is allocated in fixed-size blocks via a SlabAllocator.
+ *
+ * Each entry is stored as a singly-linked chain of blocks. Every block begins with the handle of the next block in the
+ * chain (or SlabAllocator.NO_BLOCK if it is the last one); the first block additionally stores the length of the entry.
+ * The only per-entry heap structure is the mapping from Cache Key to the handle of the first block.
+ */
+@Slf4j
+@ThreadSafe
+class DirectMemoryCache implements Cache {
+    //region Members
+
+    private static final int NEXT_HANDLE_LENGTH = Long.BYTES;
+    private static final int ENTRY_LENGTH_LENGTH = Integer.BYTES;
+    private static final int LOCK_STRIPE_COUNT = 64;
+
+    @Getter
+    private final String id;
+    private final SlabAllocator allocator;
+    private final ConcurrentHashMap<Key, Long> entries;
+    private final Object[] locks;
+    private final AtomicLong storedBytes;
+    private final AtomicLong usedBytes;
+    private final AtomicBoolean closed;
+    private final String logId;
+    private final Consumer<String> closeCallback;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the DirectMemoryCache class.
+     *
+     * @param id            The Cache Id.
+     * @param allocator     The SlabAllocator to allocate blocks from. This may be shared with other instances.
+     * @param closeCallback A callback to invoke when the cache is closed.
+     */
+    DirectMemoryCache(String id, SlabAllocator allocator, Consumer<String> closeCallback) {
+        Exceptions.checkNotNullOrEmpty(id, "id");
+        Preconditions.checkNotNull(allocator, "allocator");
+
+        this.id = id;
+        this.logId = String.format("DirectMemoryCache[%s]", id);
+        this.allocator = allocator;
+        this.closeCallback = closeCallback;
+        this.entries = new ConcurrentHashMap<>();
+        this.locks = new Object[LOCK_STRIPE_COUNT];
+        for (int i = 0; i < this.locks.length; i++) {
+            this.locks[i] = new Object();
+        }
+
+        this.storedBytes = new AtomicLong();
+        this.usedBytes = new AtomicLong();
+        this.closed = new AtomicBoolean();
+        log.info("{}: Initialized.", this.logId);
+    }
+
+    //endregion
+
+    //region AutoCloseable Implementation
+
+    @Override
+    public void close() {
+        if (this.closed.compareAndSet(false, true)) {
+            // Return all our blocks to the allocator, since it may be shared with other caches. This is done one lock
+            // stripe at a time, while holding that stripe's lock: any concurrent insert either completed before we got
+            // the lock (so its entry is visible to us here) or will observe that we are closed once it gets it.
+            for (int i = 0; i < this.locks.length; i++) {
+                synchronized (this.locks[i]) {
+                    for (Key key : new ArrayList<>(this.entries.keySet())) {
+                        if (getLockIndex(key) == i) {
+                            releaseChain(this.entries.remove(key));
+                        }
+                    }
+                }
+            }
+
+            log.info("{}: Closed.", this.logId);
+            Consumer<String> callback = this.closeCallback;
+            if (callback != null) {
+                Callbacks.invokeSafely(callback, this.id, null);
+            }
+        }
+    }
+
+    //endregion
+
+    //region Cache Implementation
+
+    @Override
+    public void insert(Key key, byte[] data) {
+        insert(key, new ByteArraySegment(data));
+    }
+
+    @Override
+    public void insert(Key key, ByteArraySegment data) {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        long handle = write(data);
+        synchronized (getLock(key)) {
+            if (this.closed.get()) {
+                // We were closed while writing the data; nobody else will release these blocks.
+                releaseChain(handle);
+                throw new ObjectClosedException(this);
+            }
+
+            Long oldHandle = this.entries.put(key, handle);
+            if (oldHandle != null) {
+                releaseChain(oldHandle);
+            }
+        }
+    }
+
+    @Override
+    public byte[] get(Key key) {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        synchronized (getLock(key)) {
+            Long handle = this.entries.get(key);
+            return handle == null ? null : read(handle);
+        }
+    }
+
+    @Override
+    public void remove(Key key) {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        synchronized (getLock(key)) {
+            Long handle = this.entries.remove(key);
+            if (handle != null) {
+                releaseChain(handle);
+            }
+        }
+    }
+
+    //endregion
+
+    //region Properties
+
+    /**
+     * Gets a value indicating the total number of payload bytes stored in this Cache.
+     */
+    long getStoredBytes() {
+        return this.storedBytes.get();
+    }
+
+    /**
+     * Gets a value indicating the total number of bytes occupied by the blocks used by this Cache. This value is always
+     * greater than or equal to getStoredBytes(), as it includes block headers and partially filled blocks.
+     */
+    long getUsedBytes() {
+        return this.usedBytes.get();
+    }
+
+    //endregion
+
+    //region Helpers
+
+    /**
+     * Writes the given data into a new chain of blocks.
+     *
+     * @param data The data to write.
+     * @return The handle of the first block in the chain.
+     */
+    private long write(ByteArraySegment data) {
+        int blockSize = this.allocator.getBlockSize();
+        int length = data.getLength();
+        long firstHandle = SlabAllocator.NO_BLOCK;
+        ByteBuffer previousBlock = null;
+        int dataOffset = 0;
+        this.storedBytes.addAndGet(length);
+        do {
+            long handle = this.allocator.allocate();
+            if (handle == SlabAllocator.NO_BLOCK) {
+                if (firstHandle == SlabAllocator.NO_BLOCK) {
+                    this.storedBytes.addAndGet(-length);
+                } else {
+                    releaseChain(firstHandle);
+                }
+
+                throw new CacheException(String.format("Unable to insert entry of length %d (CacheId=%s): Cache is full.", length, this.id));
+            }
+
+            this.usedBytes.addAndGet(blockSize);
+            ByteBuffer block = this.allocator.getBlock(handle);
+            block.putLong(SlabAllocator.NO_BLOCK);
+            if (previousBlock == null) {
+                firstHandle = handle;
+                block.putInt(length);
+            } else {
+                previousBlock.putLong(0, handle);
+            }
+
+            int toCopy = Math.min(length - dataOffset, block.remaining());
+            block.put(data.array(), data.arrayOffset() + dataOffset, toCopy);
+            dataOffset += toCopy;
+            previousBlock = block;
+        } while (dataOffset < length);
+
+        return firstHandle;
+    }
+
+    /**
+     * Reads the contents of the chain of blocks beginning with the given handle.
+     *
+     * @param firstHandle The handle of the first block in the chain.
+     * @return A byte array containing the data.
+     */
+    private byte[] read(long firstHandle) {
+        ByteBuffer block = this.allocator.getBlock(firstHandle);
+        long nextHandle = block.getLong();
+        byte[] result = new byte[block.getInt()];
+        int resultOffset = 0;
+        while (true) {
+            int toCopy = Math.min(result.length - resultOffset, block.remaining());
+            block.get(result, resultOffset, toCopy);
+            resultOffset += toCopy;
+            if (nextHandle == SlabAllocator.NO_BLOCK) {
+                break;
+            }
+
+            block = this.allocator.getBlock(nextHandle);
+            nextHandle = block.getLong();
+        }
+
+        assert resultOffset == result.length : "block chain is shorter than the entry length";
+        return result;
+    }
+
+    /**
+     * Releases all the blocks in the chain beginning with the given handle.
+     *
+     * @param firstHandle The handle of the first block in the chain.
+     */
+    private void releaseChain(long firstHandle) {
+        ByteBuffer block = this.allocator.getBlock(firstHandle);
+        long handle = firstHandle;
+        long nextHandle = block.getLong();
+        this.storedBytes.addAndGet(-block.getInt());
+        while (true) {
+            this.allocator.release(handle);
+            this.usedBytes.addAndGet(-this.allocator.getBlockSize());
+            if (nextHandle == SlabAllocator.NO_BLOCK) {
+                break;
+            }
+
+            handle = nextHandle;
+            nextHandle = this.allocator.getBlock(handle).getLong();
+        }
+    }
+
+    private Object getLock(Key key) {
+        return this.locks[getLockIndex(key)];
+    }
+
+    private int getLockIndex(Key key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % this.locks.length;
+    }
+
+    //endregion
+}
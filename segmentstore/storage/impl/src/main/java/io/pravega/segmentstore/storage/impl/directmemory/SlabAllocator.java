@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.impl.directmemory;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.Exceptions;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import lombok.Getter;
+
+/**
+ * Allocates fixed-size blocks out of large, lazily allocated, direct-memory Slabs.
+ *
+ * Every block is addressed by a primitive long handle, which encodes the Slab index in the upper 32 bits and the block
+ * index (within that Slab) in the lower 32 bits. Slabs are never released back to the JVM while this allocator is open;
+ * freed blocks are reused before any new Slab is allocated.
+ */
+@ThreadSafe
+class SlabAllocator implements AutoCloseable {
+    //region Members
+
+    /**
+     * Handle value that does not point to any block.
+     */
+    static final long NO_BLOCK = -1L;
+    @Getter
+    private final int blockSize;
+    private final int slabSize;
+    private final int blocksPerSlab;
+    private final int maxSlabCount;
+    private final AtomicReferenceArray<ByteBuffer> slabs;
+    private final Object lock = new Object();
+    @GuardedBy("lock")
+    private long[] freeBlocks;
+    @GuardedBy("lock")
+    private int freeBlockCount;
+    @GuardedBy("lock")
+    private int slabCount;
+    @GuardedBy("lock")
+    private long usedBlockCount;
+    @GuardedBy("lock")
+    private boolean closed;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the SlabAllocator class.
+     *
+     * @param config The DirectMemoryCacheConfig to use.
+     */
+    SlabAllocator(DirectMemoryCacheConfig config) {
+        Preconditions.checkNotNull(config, "config");
+        this.blockSize = config.getBlockSize();
+        this.slabSize = config.getSlabSize();
+        this.blocksPerSlab = this.slabSize / this.blockSize;
+        this.maxSlabCount = (int) Math.min(Integer.MAX_VALUE, config.getMaxSize() / this.slabSize);
+        this.slabs = new AtomicReferenceArray<>(this.maxSlabCount);
+        this.freeBlocks = new long[0];
+    }
+
+    //endregion
+
+    //region AutoCloseable Implementation
+
+    @Override
+    public void close() {
+        synchronized (this.lock) {
+            if (!this.closed) {
+                this.closed = true;
+                for (int i = 0; i < this.slabCount; i++) {
+                    // Drop our references to the Slabs; the JVM will release the direct memory once they are collected.
+                    this.slabs.set(i, null);
+                }
+
+                this.freeBlocks = new long[0];
+                this.freeBlockCount = 0;
+                this.usedBlockCount = 0;
+            }
+        }
+    }
+
+    //endregion
+
+    //region Operations
+
+    /**
+     * Allocates a new block.
+     *
+     * @return The handle of the newly allocated block, or NO_BLOCK if the maximum allowed size has been reached and
+     * there are no more free blocks.
+     */
+    long allocate() {
+        synchronized (this.lock) {
+            Exceptions.checkNotClosed(this.closed, this);
+            if (this.freeBlockCount == 0 && !allocateSlab()) {
+                return NO_BLOCK;
+            }
+
+            this.usedBlockCount++;
+            return this.freeBlocks[--this.freeBlockCount];
+        }
+    }
+
+    /**
+     * Releases the block with the given handle and makes it available for reuse.
+     *
+     * @param handle The handle of the block to release.
+     */
+    void release(long handle) {
+        synchronized (this.lock) {
+            if (this.closed) {
+                // Nothing to do; all memory has already been released.
+                return;
+            }
+
+            assert this.freeBlockCount < this.freeBlocks.length : "more blocks released than allocated";
+            this.freeBlocks[this.freeBlockCount++] = handle;
+            this.usedBlockCount--;
+        }
+    }
+
+    /**
+     * Gets a ByteBuffer that maps exactly onto the block with the given handle. The returned ByteBuffer has its own
+     * position and limit, so it is safe to use concurrently with other callers accessing other blocks.
+     *
+     * @param handle The handle of the block.
+     * @return A ByteBuffer with position 0 and capacity equal to BlockSize.
+     */
+    ByteBuffer getBlock(long handle) {
+        int slabIndex = (int) (handle >>> 32);
+        int blockIndex = (int) handle;
+        ByteBuffer slab = this.slabs.get(slabIndex);
+        Exceptions.checkNotClosed(slab == null, this);
+        ByteBuffer result = slab.duplicate();
+        int offset = blockIndex * this.blockSize;
+        result.position(offset);
+        result.limit(offset + this.blockSize);
+        return result.slice();
+    }
+
+    /**
+     * Gets a value indicating the number of bytes occupied by blocks that are currently in use.
+     */
+    long getUsedBytes() {
+        synchronized (this.lock) {
+            return this.usedBlockCount * this.blockSize;
+        }
+    }
+
+    /**
+     * Gets a value indicating the number of bytes of direct memory allocated by this instance.
+     */
+    long getAllocatedBytes() {
+        synchronized (this.lock) {
+            return (long) this.slabCount * this.slabSize;
+        }
+    }
+
+    @GuardedBy("lock")
+    private boolean allocateSlab() {
+        if (this.slabCount >= this.maxSlabCount) {
+            return false;
+        }
+
+        int slabIndex = this.slabCount;
+        this.slabs.set(slabIndex, ByteBuffer.allocateDirect(this.slabSize));
+        this.slabCount++;
+        if (this.freeBlocks.length < this.slabCount * this.blocksPerSlab) {
+            this.freeBlocks = Arrays.copyOf(this.freeBlocks, this.slabCount * this.blocksPerSlab);
+        }
+
+        // Add blocks in reverse order so that lower blocks are handed out first.
+        long slabHandle = (long) slabIndex << 32;
+        for (int blockIndex = this.blocksPerSlab - 1; blockIndex >= 0; blockIndex--) {
+            this.freeBlocks[this.freeBlockCount++] = slabHandle | blockIndex;
+        }
+
+        return true;
+    }
+
+    //endregion
+}
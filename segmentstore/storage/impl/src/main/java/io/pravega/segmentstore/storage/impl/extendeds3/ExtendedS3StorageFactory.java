@@ -13,9 +13,11 @@ import com.emc.object.s3.S3Config;
 import com.emc.object.s3.jersey.S3JerseyClient;
 import com.google.common.base.Preconditions;
 import io.pravega.segmentstore.storage.AsyncStorageWrapper;
+import io.pravega.segmentstore.storage.SegmentRollingPolicy;
 import io.pravega.segmentstore.storage.Storage;
 import io.pravega.segmentstore.storage.StorageFactory;
 import io.pravega.segmentstore.storage.rolling.RollingStorage;
+import io.pravega.segmentstore.storage.rolling.RollingStorageConfig;
 import java.util.concurrent.ExecutorService;
 
 /**
@@ -23,18 +25,32 @@ import java.util.concurrent.ExecutorService;
  */
 public class ExtendedS3StorageFactory implements StorageFactory {
     private final ExtendedS3StorageConfig config;
+    private final RollingStorageConfig rollingConfig;
     private final ExecutorService executor;
 
     /**
-     * Creates a new instance of the NFSStorageFactory class.
+     * Creates a new instance of the ExtendedS3StorageFactory class, with a default RollingStorageConfig.
      *
      * @param config   The Configuration to use.
      * @param executor An executor to use for background operations.
      */
     public ExtendedS3StorageFactory(ExtendedS3StorageConfig config, ExecutorService executor) {
+        this(config, RollingStorageConfig.builder().build(), executor);
+    }
+
+    /**
+     * Creates a new instance of the ExtendedS3StorageFactory class.
+     *
+     * @param config        The Configuration to use.
+     * @param rollingConfig The Configuration for the RollingStorage layer.
+     * @param executor      An executor to use for background operations.
+     */
+    public ExtendedS3StorageFactory(ExtendedS3StorageConfig config, RollingStorageConfig rollingConfig, ExecutorService executor) {
         Preconditions.checkNotNull(config, "config");
+        Preconditions.checkNotNull(rollingConfig, "rollingConfig");
         Preconditions.checkNotNull(executor, "executor");
         this.config = config;
+        this.rollingConfig = rollingConfig;
         this.executor = executor;
     }
 
@@ -47,6 +63,6 @@ public class ExtendedS3StorageFactory implements StorageFactory {
 
         S3JerseyClient client = new S3JerseyClient(s3Config);
         ExtendedS3Storage s = new ExtendedS3Storage(client, this.config);
-        return new AsyncStorageWrapper(new RollingStorage(s), this.executor);
+        return new AsyncStorageWrapper(new RollingStorage(s, SegmentRollingPolicy.NO_ROLLING, this.rollingConfig.getPackingPolicy()), this.executor);
     }
 }
@@ -11,9 +11,11 @@ package io.pravega.segmentstore.storage.impl.filesystem;
 
 import com.google.common.base.Preconditions;
 import io.pravega.segmentstore.storage.AsyncStorageWrapper;
+import io.pravega.segmentstore.storage.SegmentRollingPolicy;
 import io.pravega.segmentstore.storage.Storage;
 import io.pravega.segmentstore.storage.StorageFactory;
 import io.pravega.segmentstore.storage.rolling.RollingStorage;
+import io.pravega.segmentstore.storage.rolling.RollingStorageConfig;
 import java.util.concurrent.ExecutorService;
 
 /**
@@ -21,24 +23,38 @@ import java.util.concurrent.ExecutorService;
  */
 public class FileSystemStorageFactory implements StorageFactory {
     private final FileSystemStorageConfig config;
+    private final RollingStorageConfig rollingConfig;
     private final ExecutorService executor;
 
     /**
-     * Creates a new instance of the FileSystemStorageFactory class.
+     * Creates a new instance of the FileSystemStorageFactory class, with a default RollingStorageConfig.
      *
      * @param config   The Configuration to use.
      * @param executor An executor to use for background operations.
      */
     public FileSystemStorageFactory(FileSystemStorageConfig config, ExecutorService executor) {
+        this(config, RollingStorageConfig.builder().build(), executor);
+    }
+
+    /**
+     * Creates a new instance of the FileSystemStorageFactory class.
+     *
+     * @param config        The Configuration to use.
+     * @param rollingConfig The Configuration for the RollingStorage layer.
+     * @param executor      An executor to use for background operations.
+     */
+    public FileSystemStorageFactory(FileSystemStorageConfig config, RollingStorageConfig rollingConfig, ExecutorService executor) {
         Preconditions.checkNotNull(config, "config");
+        Preconditions.checkNotNull(rollingConfig, "rollingConfig");
         Preconditions.checkNotNull(executor, "executor");
         this.config = config;
+        this.rollingConfig = rollingConfig;
         this.executor = executor;
     }
 
     @Override
     public Storage createStorageAdapter() {
         FileSystemStorage s = new FileSystemStorage(this.config);
-        return new AsyncStorageWrapper(new RollingStorage(s), this.executor);
+        return new AsyncStorageWrapper(new RollingStorage(s, SegmentRollingPolicy.NO_ROLLING, this.rollingConfig.getPackingPolicy()), this.executor);
     }
 }
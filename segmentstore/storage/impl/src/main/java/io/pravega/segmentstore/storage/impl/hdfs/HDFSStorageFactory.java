@@ -10,10 +10,12 @@
 package io.pravega.segmentstore.storage.impl.hdfs;
 
 import io.pravega.segmentstore.storage.AsyncStorageWrapper;
+import io.pravega.segmentstore.storage.SegmentRollingPolicy;
 import io.pravega.segmentstore.storage.Storage;
 import io.pravega.segmentstore.storage.StorageFactory;
 import com.google.common.base.Preconditions;
 import io.pravega.segmentstore.storage.rolling.RollingStorage;
+import io.pravega.segmentstore.storage.rolling.RollingStorageConfig;
 import java.util.concurrent.Executor;
 
 /**
@@ -21,24 +23,38 @@ import java.util.concurrent.Executor;
  */
 public class HDFSStorageFactory implements StorageFactory {
     private final HDFSStorageConfig config;
+    private final RollingStorageConfig rollingConfig;
     private final Executor executor;
 
     /**
-     * Creates a new instance of the HDFSStorageFactory class.
+     * Creates a new instance of the HDFSStorageFactory class, with a default RollingStorageConfig.
      *
      * @param config   The Configuration to use.
      * @param executor An executor to use for background operations.
      */
     public HDFSStorageFactory(HDFSStorageConfig config, Executor executor) {
+        this(config, RollingStorageConfig.builder().build(), executor);
+    }
+
+    /**
+     * Creates a new instance of the HDFSStorageFactory class.
+     *
+     * @param config        The Configuration to use.
+     * @param rollingConfig The Configuration for the RollingStorage layer.
+     * @param executor      An executor to use for background operations.
+     */
+    public HDFSStorageFactory(HDFSStorageConfig config, RollingStorageConfig rollingConfig, Executor executor) {
         Preconditions.checkNotNull(config, "config");
+        Preconditions.checkNotNull(rollingConfig, "rollingConfig");
         Preconditions.checkNotNull(executor, "executor");
         this.config = config;
+        this.rollingConfig = rollingConfig;
         this.executor = executor;
     }
 
     @Override
     public Storage createStorageAdapter() {
         HDFSStorage s = new HDFSStorage(this.config);
-        return new AsyncStorageWrapper(new RollingStorage(s), this.executor);
+        return new AsyncStorageWrapper(new RollingStorage(s, SegmentRollingPolicy.NO_ROLLING, this.rollingConfig.getPackingPolicy()), this.executor);
     }
 }
@@ -144,6 +144,7 @@ public abstract class BookKeeperLogTests extends DurableDataLogTestBase {
                 .with(BookKeeperConfig.BK_ACK_QUORUM_SIZE, BOOKIE_COUNT)
                 .with(BookKeeperConfig.BK_TLS_ENABLED, isSecure())
                 .with(BookKeeperConfig.BK_WRITE_TIMEOUT, 1000) // This is the minimum we can set anyway.
+                .with(BookKeeperConfig.BK_READ_AHEAD_LEDGER_COUNT, getReadAheadLedgerCount())
                 .build());
 
         // Create default factory.
@@ -368,6 +369,10 @@ public abstract class BookKeeperLogTests extends DurableDataLogTestBase {
         return THREAD_POOL_SIZE;
     }
 
+    protected int getReadAheadLedgerCount() {
+        return 1;
+    }
+
     private static void stopFirstBookie() {
         BK_SERVICE.get().stopBookie(0);
     }
@@ -424,4 +429,16 @@ public abstract class BookKeeperLogTests extends DurableDataLogTestBase {
             setUpBookKeeper(false);
         }
     }
+
+    public static class ReadAheadBookKeeperLogTests extends BookKeeperLogTests {
+        @BeforeClass
+        public static void startUp() throws Exception {
+            setUpBookKeeper(false);
+        }
+
+        @Override
+        protected int getReadAheadLedgerCount() {
+            return 3;
+        }
+    }
 }
\ No newline at end of file
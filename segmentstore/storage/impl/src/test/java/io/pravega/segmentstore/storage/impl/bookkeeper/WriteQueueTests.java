@@ -16,6 +16,7 @@ import io.pravega.test.common.AssertExtensions;
 import io.pravega.test.common.IntentionalException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
@@ -237,6 +238,54 @@ public class WriteQueueTests {
                 writes.subList(ledgerChangeIndex, writes.size()), result4, Object::equals);
     }
 
+    /**
+     * Tests the ability to add writes from multiple threads concurrently, while they are being processed and removed by
+     * a single consumer thread.
+     */
+    @Test
+    public void testConcurrentAddAndRemove() throws Exception {
+        final int producerCount = 4;
+        val q = new WriteQueue();
+        val producers = new ArrayList<Thread>();
+        for (int p = 0; p < producerCount; p++) {
+            final int producerId = p;
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < ITEM_COUNT; i++) {
+                    // Each producer writes into its own "ledger", which we use to verify per-producer ordering.
+                    q.add(new Write(new ByteArraySegment(new byte[]{(byte) i}), new TestWriteLedger(producerId), new CompletableFuture<>()));
+                }
+            }));
+        }
+
+        producers.forEach(Thread::start);
+        val lastSeen = new int[producerCount];
+        Arrays.fill(lastSeen, -1);
+        int completedCount = 0;
+        while (completedCount < producerCount * ITEM_COUNT) {
+            q.removeFinishedWrites();
+            for (Write w : q.getWritesToExecute(Long.MAX_VALUE)) {
+                int producerId = (int) w.getWriteLedger().metadata.getLedgerId();
+                int value = w.data.get(0);
+                Assert.assertEquals("Unexpected order for producer " + producerId, lastSeen[producerId] + 1, value);
+                lastSeen[producerId] = value;
+                w.setEntryId(completedCount++);
+                w.complete();
+            }
+        }
+
+        for (Thread t : producers) {
+            t.join();
+        }
+
+        val status = q.removeFinishedWrites();
+        AssertExtensions.assertContainsSameElements("Unexpected result from removeFinishedWrites after processing everything.",
+                EnumSet.of(WriteQueue.CleanupStatus.QueueEmpty), status);
+        val stats = q.getStatistics();
+        Assert.assertEquals("Unexpected size after processing everything.", 0, stats.getSize());
+        Assert.assertEquals("Unexpected fill ratio after processing everything.", 0, stats.getAverageItemFillRatio(), 0);
+        Assert.assertEquals("Unexpected number of items returned by close().", 0, q.close().size());
+    }
+
     private static class TestWriteLedger extends WriteLedger {
         TestWriteLedger(int ledgerId) {
             super(null, new LedgerMetadata(ledgerId, ledgerId));
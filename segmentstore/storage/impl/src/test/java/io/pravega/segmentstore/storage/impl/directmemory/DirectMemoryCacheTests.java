@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.impl.directmemory;
+
+import io.pravega.common.ObjectClosedException;
+import io.pravega.segmentstore.storage.Cache;
+import io.pravega.segmentstore.storage.CacheException;
+import io.pravega.segmentstore.storage.CacheTestBase;
+import io.pravega.test.common.AssertExtensions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.Cleanup;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/**
+ * Unit tests for DirectMemoryCache.
+ */
+public class DirectMemoryCacheTests extends CacheTestBase {
+    private static final int BLOCK_SIZE = 64;
+    private static final int SLAB_SIZE = 1024 * 1024;
+    private static final long MAX_SIZE = 32 * SLAB_SIZE;
+    @Rule
+    public Timeout globalTimeout = Timeout.seconds(30);
+    private final AtomicReference<DirectMemoryCacheFactory> factory = new AtomicReference<>();
+
+    @Before
+    public void setUp() {
+        this.factory.set(new DirectMemoryCacheFactory(createConfig(MAX_SIZE)));
+    }
+
+    @After
+    public void tearDown() {
+        this.factory.getAndSet(null).close();
+    }
+
+    @Override
+    protected Cache createCache(String cacheId) {
+        return this.factory.get().getCache(cacheId);
+    }
+
+    /**
+     * Tests the ability to store and retrieve entries that span multiple blocks, as well as replacing existing entries.
+     */
+    @Test
+    public void testMultiBlockEntries() {
+        @Cleanup
+        Cache cache = createCache("cache");
+        Random rnd = new Random(0);
+        for (int length = 0; length < BLOCK_SIZE * 5; length++) {
+            TestKey key = new TestKey(length % 7);
+            byte[] data = new byte[length];
+            rnd.nextBytes(data);
+            cache.insert(key, data);
+            Assert.assertArrayEquals("Unexpected contents for entry of length " + length, data, cache.get(key));
+        }
+    }
+
+    /**
+     * Tests the used and allocated byte accounting, both in the Cache and in the Factory.
+     */
+    @Test
+    public void testAccounting() {
+        DirectMemoryCache cache = (DirectMemoryCache) createCache("cache");
+        Assert.assertEquals("Unexpected AllocatedBytes before any insertion.", 0, this.factory.get().getAllocatedBytes());
+
+        // Header is 12 bytes for the first block and 8 bytes for each subsequent one, so this should span 3 blocks.
+        byte[] data = new byte[BLOCK_SIZE * 2];
+        cache.insert(new TestKey(1), data);
+        Assert.assertEquals("Unexpected StoredBytes.", data.length, cache.getStoredBytes());
+        Assert.assertEquals("Unexpected UsedBytes.", 3 * BLOCK_SIZE, cache.getUsedBytes());
+        Assert.assertEquals("Unexpected Factory UsedBytes.", 3 * BLOCK_SIZE, this.factory.get().getUsedBytes());
+        Assert.assertEquals("Unexpected AllocatedBytes.", SLAB_SIZE, this.factory.get().getAllocatedBytes());
+
+        // Replace the entry with a smaller one.
+        cache.insert(new TestKey(1), new byte[1]);
+        Assert.assertEquals("Unexpected StoredBytes after replacement.", 1, cache.getStoredBytes());
+        Assert.assertEquals("Unexpected UsedBytes after replacement.", BLOCK_SIZE, cache.getUsedBytes());
+
+        cache.remove(new TestKey(1));
+        Assert.assertEquals("Unexpected StoredBytes after removal.", 0, cache.getStoredBytes());
+        Assert.assertEquals("Unexpected UsedBytes after removal.", 0, cache.getUsedBytes());
+        Assert.assertEquals("Unexpected Factory UsedBytes after removal.", 0, this.factory.get().getUsedBytes());
+        Assert.assertEquals("Slab was released after removal.", SLAB_SIZE, this.factory.get().getAllocatedBytes());
+
+        // Closing the cache should return all its blocks to the (shared) allocator.
+        cache.insert(new TestKey(2), data);
+        cache.close();
+        Assert.assertEquals("Unexpected Factory UsedBytes after closing the cache.", 0, this.factory.get().getUsedBytes());
+    }
+
+    /**
+     * Tests that closing the cache while inserts are in progress returns all their blocks to the (shared) allocator.
+     */
+    @Test
+    public void testCloseWithConcurrentInserts() throws Exception {
+        final int threadCount = 4;
+        DirectMemoryCache cache = (DirectMemoryCache) createCache("cache");
+        byte[] data = new byte[BLOCK_SIZE * 3];
+        AtomicInteger insertCount = new AtomicInteger();
+        @Cleanup("shutdownNow")
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        List<Future<?>> inserts = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            final int threadId = i;
+            inserts.add(executor.submit(() -> {
+                try {
+                    while (true) {
+                        cache.insert(new TestKey(threadId * 1000 + insertCount.incrementAndGet() % 1000), data);
+                    }
+                } catch (ObjectClosedException ex) {
+                    // This is how we know we're done.
+                }
+            }));
+        }
+
+        while (insertCount.get() < 1000) {
+            Thread.sleep(1);
+        }
+
+        cache.close();
+        for (Future<?> f : inserts) {
+            f.get();
+        }
+
+        Assert.assertEquals("Unexpected Factory UsedBytes after closing the cache.", 0, this.factory.get().getUsedBytes());
+    }
+
+    /**
+     * Tests the behavior when the cache is full.
+     */
+    @Test
+    public void testFull() {
+        @Cleanup
+        DirectMemoryCacheFactory factory = new DirectMemoryCacheFactory(createConfig(SLAB_SIZE));
+        DirectMemoryCache cache = (DirectMemoryCache) factory.getCache("cache");
+        byte[] data = new byte[SLAB_SIZE / 4];
+        int count = 0;
+        while (true) {
+            try {
+                cache.insert(new TestKey(count), data);
+                count++;
+            } catch (CacheException ex) {
+                break;
+            }
+        }
+
+        Assert.assertEquals("Unexpected number of entries inserted before the cache was full.", 3, count);
+        Assert.assertEquals("Unexpected StoredBytes after failed insertion.", count * data.length, cache.getStoredBytes());
+        long usedBytes = cache.getUsedBytes();
+        final int fullCount = count;
+        AssertExtensions.assertThrows(
+                "Insertion succeeded even though the cache is full.",
+                () -> cache.insert(new TestKey(fullCount), data),
+                ex -> ex instanceof CacheException);
+        Assert.assertEquals("Failed insertion did not release its blocks.", usedBytes, cache.getUsedBytes());
+
+        // Removing an entry should free up enough space for another one.
+        cache.remove(new TestKey(0));
+        cache.insert(new TestKey(count), data);
+        Assert.assertArrayEquals("Unexpected contents after re-insertion.", data, cache.get(new TestKey(count)));
+    }
+
+    private DirectMemoryCacheConfig createConfig(long maxSize) {
+        return DirectMemoryCacheConfig
+                .builder()
+                .with(DirectMemoryCacheConfig.BLOCK_SIZE, BLOCK_SIZE)
+                .with(DirectMemoryCacheConfig.SLAB_SIZE, SLAB_SIZE)
+                .with(DirectMemoryCacheConfig.MAX_SIZE, maxSize)
+                .build();
+    }
+
+    @RequiredArgsConstructor
+    @EqualsAndHashCode(callSuper = false)
+    private static class TestKey extends Cache.Key {
+        private final int id;
+
+        @Override
+        public byte[] serialize() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
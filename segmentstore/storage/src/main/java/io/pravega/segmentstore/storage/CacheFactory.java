@@ -20,6 +20,22 @@ public interface CacheFactory extends AutoCloseable {
      */
     Cache getCache(String id);
 
+    /**
+     * Gets a value indicating the number of bytes currently used by all the Caches created by this factory, including
+     * any per-entry overhead. Implementations that do not track this will return 0.
+     */
+    default long getUsedBytes() {
+        return 0;
+    }
+
+    /**
+     * Gets a value indicating the number of bytes currently reserved by this factory for its Caches, whether used or
+     * not. Implementations that do not track this will return 0.
+     */
+    default long getAllocatedBytes() {
+        return 0;
+    }
+
     @Override
     void close();
 }
@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.rolling;
+
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+
+/**
+ * Defines how RollingStorage packs data from multiple small Segments into shared Storage objects.
+ */
+public final class ChunkPackingPolicy {
+    public static final ChunkPackingPolicy NO_PACKING = new ChunkPackingPolicy(0, 1);
+
+    /**
+     * Maximum length of a Segment for its data to be packed. Writes that would take a Segment beyond this length are
+     * written into the Segment's own SegmentChunks (and so are all subsequent ones). If 0, packing is disabled.
+     */
+    @Getter
+    private final long maxSegmentLength;
+
+    /**
+     * Maximum length of a shared Storage object holding packed SegmentChunks. Once this is exceeded, a new one is created.
+     */
+    @Getter
+    private final long maxPackLength;
+
+    /**
+     * Creates a new instance of the ChunkPackingPolicy class.
+     *
+     * @param maxSegmentLength The maximum length of a Segment for its data to be packed. If 0, packing is disabled.
+     * @param maxPackLength    The maximum length of a shared Storage object holding packed SegmentChunks.
+     */
+    public ChunkPackingPolicy(long maxSegmentLength, long maxPackLength) {
+        Preconditions.checkArgument(maxSegmentLength >= 0, "maxSegmentLength must be a non-negative number.");
+        Preconditions.checkArgument(maxPackLength > 0, "maxPackLength must be a positive number.");
+        this.maxSegmentLength = maxSegmentLength;
+        this.maxPackLength = maxPackLength;
+    }
+
+    /**
+     * Gets a value indicating whether packing is enabled.
+     */
+    public boolean isEnabled() {
+        return this.maxSegmentLength > 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MaxSegmentLength = %d, MaxPackLength = %d", this.maxSegmentLength, this.maxPackLength);
+    }
+}
@@ -34,6 +34,8 @@ final class HandleSerializer {
     private static final Charset ENCODING = Charsets.UTF_8;
     private static final String KEY_POLICY_MAX_SIZE = "maxsize";
     private static final String KEY_CONCAT = "concat";
+    private static final String KEY_PACKED = "packed";
+    private static final String KEY_TRUNCATE = "truncate";
     private static final String KEY_VALUE_SEPARATOR = "=";
     private static final String SEPARATOR = "&";
     private static final String CONCAT_SEPARATOR = "@";
@@ -56,6 +58,7 @@ final class HandleSerializer {
         SegmentRollingPolicy policy = null;
         OffsetAdjuster om = new OffsetAdjuster();
         long lastOffset = 0;
+        long truncationOffset = 0;
         ArrayList<SegmentChunk> segmentChunks = new ArrayList<>();
         while (st.hasMoreTokens()) {
             val entry = parse(st.nextToken());
@@ -69,11 +72,22 @@ final class HandleSerializer {
                 // Concat entry header. This contains information about an upcoming concat.
                 val concatInfo = parseConcat(entry.getValue());
                 om.set(concatInfo.getKey(), concatInfo.getValue());
+            } else if (entry.getKey().equalsIgnoreCase(KEY_TRUNCATE)) {
+                // Truncation entry. This only affects packed SegmentChunks (the others are deleted when truncated).
+                Preconditions.checkArgument(isValidLong(entry.getValue()), "Invalid entry value for '%s'.", entry);
+                truncationOffset = Math.max(truncationOffset, Long.parseLong(entry.getValue()));
             } else {
-                // Regular offset->file entry.
-                Preconditions.checkArgument(isValidLong(entry.getKey()), "Invalid key value for '%s'.", entry);
-                long offset = om.adjustOffset(Long.parseLong(entry.getKey()));
-                SegmentChunk s = new SegmentChunk(entry.getValue(), offset);
+                SegmentChunk s;
+                if (entry.getKey().equalsIgnoreCase(KEY_PACKED)) {
+                    // Packed offset->(pack, position, owner) entry.
+                    s = parsePacked(entry.getValue(), om);
+                } else {
+                    // Regular offset->file entry.
+                    Preconditions.checkArgument(isValidLong(entry.getKey()), "Invalid key value for '%s'.", entry);
+                    long offset = om.adjustOffset(Long.parseLong(entry.getKey()));
+                    s = new SegmentChunk(entry.getValue(), offset);
+                }
+
                 Preconditions.checkArgument(lastOffset <= s.getStartOffset(),
                         "SegmentChunk Entry '%s' has out-of-order offset (previous=%s).", s, lastOffset);
                 segmentChunks.add(s);
@@ -83,6 +97,7 @@ final class HandleSerializer {
 
         RollingSegmentHandle h = new RollingSegmentHandle(headerHandle, policy, segmentChunks);
         h.setHeaderLength(serialization.length);
+        h.setPackedTruncationOffset(truncationOffset);
         return h;
     }
 
@@ -104,13 +119,29 @@ final class HandleSerializer {
     }
 
     /**
-     * Serializes a single SegmentChunk.
+     * Serializes a single SegmentChunk. Packed SegmentChunks only record the location of their first PackRecord; their
+     * length is not serialized, as that may change after this is written (see RollingStorage).
      *
      * @param segmentChunk The SegmentChunk to serialize.
      * @return A byte array containing the serialization.
      */
     static byte[] serializeChunk(SegmentChunk segmentChunk) {
-        return combine(Long.toString(segmentChunk.getStartOffset()), segmentChunk.getName());
+        if (segmentChunk.isPacked()) {
+            return combine(KEY_PACKED, segmentChunk.getStartOffset() + CONCAT_SEPARATOR + segmentChunk.getChunkOffset()
+                    + CONCAT_SEPARATOR + segmentChunk.getName() + CONCAT_SEPARATOR + segmentChunk.getOwner());
+        } else {
+            return combine(Long.toString(segmentChunk.getStartOffset()), segmentChunk.getName());
+        }
+    }
+
+    /**
+     * Serializes an entry that indicates that all packed SegmentChunks before the given offset have been truncated.
+     *
+     * @param truncationOffset The truncation offset.
+     * @return A byte array containing the serialization.
+     */
+    static byte[] serializeTruncate(long truncationOffset) {
+        return combine(KEY_TRUNCATE, Long.toString(truncationOffset));
     }
 
     /**
@@ -153,6 +184,15 @@ final class HandleSerializer {
         }
     }
 
+    private static SegmentChunk parsePacked(String packed, OffsetAdjuster om) {
+        // Pack names never contain the separator, but the owner (Segment name) may, which is why it is the last one.
+        String[] parts = packed.split(CONCAT_SEPARATOR, 4);
+        Preconditions.checkArgument(parts.length == 4 && isValidLong(parts[0]) && isValidLong(parts[1])
+                && !Strings.isNullOrEmpty(parts[2]) && !Strings.isNullOrEmpty(parts[3]), "%s value '%s' is invalid.", KEY_PACKED, packed);
+        long offset = om.adjustOffset(Long.parseLong(parts[0]));
+        return SegmentChunk.forPack(parts[2], parts[3], offset, Long.parseLong(parts[1]));
+    }
+
     private static boolean isValidLong(String s) {
         try {
             Long.parseLong(s);
@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.rolling;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.util.BitConverter;
+import io.pravega.segmentstore.contracts.StreamSegmentException;
+import io.pravega.segmentstore.contracts.StreamSegmentExistsException;
+import io.pravega.segmentstore.contracts.StreamSegmentNotExistsException;
+import io.pravega.segmentstore.storage.SyncStorage;
+import io.pravega.shared.segment.StreamSegmentNameUtils;
+import java.io.ByteArrayInputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.concurrent.ThreadSafe;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+/**
+ * Keeps track of how much of each pack is garbage (PackRecords of packed SegmentChunks that have been truncated or
+ * deleted) and deletes packs that are sealed and contain nothing but garbage.
+ * <p>
+ * The accounting information for a pack is stored in a separate Storage object, as a sequence of 8-byte entries, each
+ * recording the number of bytes freed by a single operation. Since this is only written when Segments are truncated or
+ * deleted, it adds no overhead to writes.
+ * <p>
+ * PackRecords must be reported as garbage exactly once: the caller must have durably recorded the removal of their
+ * SegmentChunks (in the Segment Header) before reporting them, so that they cannot be reported again. Any failure to
+ * report garbage (i.e., a crash right after updating the Header, or PackRecords that were written as part of a failed
+ * write) will only cause the affected pack to be retained longer than necessary; it will never cause a pack that is
+ * still in use to be deleted.
+ */
+@Slf4j
+@ThreadSafe
+class PackGarbageTracker {
+    //region Members
+
+    private static final int ENTRY_LENGTH = Long.BYTES;
+    private final SyncStorage baseStorage;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the PackGarbageTracker class.
+     *
+     * @param baseStorage The SyncStorage to use.
+     */
+    PackGarbageTracker(SyncStorage baseStorage) {
+        this.baseStorage = Preconditions.checkNotNull(baseStorage, "baseStorage");
+    }
+
+    //endregion
+
+    //region Operations
+
+    /**
+     * Records the PackRecords of the given packed SegmentChunks as garbage, and deletes any packs that are sealed and
+     * contain only garbage as a result. Failures are logged and otherwise ignored.
+     *
+     * @param chunks The SegmentChunks that have been truncated or deleted. Non-packed SegmentChunks are ignored.
+     */
+    synchronized void recordGarbage(Collection<SegmentChunk> chunks) {
+        Map<String, Long> garbage = new HashMap<>();
+        for (SegmentChunk chunk : chunks) {
+            for (PackRecord r : chunk.getPackRecords()) {
+                garbage.merge(r.getPackName(), r.getRecordLength(), Long::sum);
+            }
+        }
+
+        for (val e : garbage.entrySet()) {
+            try {
+                recordGarbage(e.getKey(), e.getValue());
+                deleteIfGarbage(e.getKey());
+            } catch (Exception ex) {
+                log.warn("Unable to record {} bytes of garbage for pack '{}'.", e.getValue(), e.getKey(), ex);
+            }
+        }
+    }
+
+    /**
+     * Deletes the given pack if it is sealed and contains only garbage. Failures are logged and otherwise ignored.
+     *
+     * @param packName The name of the pack.
+     */
+    synchronized void packSealed(String packName) {
+        try {
+            deleteIfGarbage(packName);
+        } catch (Exception ex) {
+            log.warn("Unable to check garbage for pack '{}'.", packName, ex);
+        }
+    }
+
+    /**
+     * Gets the number of bytes in the given pack that are known to be garbage.
+     *
+     * @param packName The name of the pack.
+     * @return The number of bytes, or -1 if the accounting information is corrupted.
+     * @throws StreamSegmentException If an exception occurred.
+     */
+    synchronized long getGarbageLength(String packName) throws StreamSegmentException {
+        String garbageName = StreamSegmentNameUtils.getPackGarbageName(packName);
+        byte[] entries;
+        try {
+            val info = this.baseStorage.getStreamSegmentInfo(garbageName);
+            if (info.getLength() % ENTRY_LENGTH != 0) {
+                // Most likely a failed write; we cannot trust this anymore.
+                return -1;
+            }
+
+            entries = new byte[(int) info.getLength()];
+            val handle = this.baseStorage.openRead(garbageName);
+            int bytesRead = 0;
+            while (bytesRead < entries.length) {
+                bytesRead += this.baseStorage.read(handle, bytesRead, entries, bytesRead, entries.length - bytesRead);
+            }
+        } catch (StreamSegmentNotExistsException ex) {
+            return 0;
+        }
+
+        long result = 0;
+        for (int i = 0; i < entries.length; i += ENTRY_LENGTH) {
+            result += BitConverter.readLong(entries, i);
+        }
+
+        return result;
+    }
+
+    private void recordGarbage(String packName, long length) throws StreamSegmentException {
+        String garbageName = StreamSegmentNameUtils.getPackGarbageName(packName);
+        try {
+            this.baseStorage.create(garbageName);
+        } catch (StreamSegmentExistsException ex) {
+            // Already have some garbage for this pack.
+        }
+
+        val handle = this.baseStorage.openWrite(garbageName);
+        long offset = this.baseStorage.getStreamSegmentInfo(garbageName).getLength();
+        Preconditions.checkState(offset % ENTRY_LENGTH == 0, "Garbage accounting for pack '%s' is corrupted.", packName);
+        byte[] entry = new byte[ENTRY_LENGTH];
+        BitConverter.writeLong(entry, 0, length);
+        this.baseStorage.write(handle, offset, new ByteArrayInputStream(entry), entry.length);
+        log.debug("Recorded {} bytes of garbage for pack '{}'.", length, packName);
+    }
+
+    private void deleteIfGarbage(String packName) throws StreamSegmentException {
+        val packInfo = this.baseStorage.getStreamSegmentInfo(packName);
+        if (!packInfo.isSealed()) {
+            // Still being written to (or it was abandoned before it could be sealed).
+            return;
+        }
+
+        long garbageLength = getGarbageLength(packName);
+        if (garbageLength >= 0 && garbageLength >= packInfo.getLength()) {
+            if (garbageLength > packInfo.getLength()) {
+                log.warn("Pack '{}' has more garbage ({}) than its length ({}).", packName, garbageLength, packInfo.getLength());
+            }
+
+            this.baseStorage.delete(this.baseStorage.openWrite(packName));
+            try {
+                this.baseStorage.delete(this.baseStorage.openWrite(StreamSegmentNameUtils.getPackGarbageName(packName)));
+            } catch (StreamSegmentNotExistsException ex) {
+                // Empty pack, so there was no garbage to record for it.
+            }
+
+            log.info("Deleted pack '{}' ({} bytes) since it only contained garbage.", packName, packInfo.getLength());
+        }
+    }
+
+    //endregion
+}
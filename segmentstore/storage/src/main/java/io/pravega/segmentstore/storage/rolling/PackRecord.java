@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.rolling;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import io.pravega.common.util.BitConverter;
+import io.pravega.segmentstore.contracts.StreamSegmentException;
+import io.pravega.segmentstore.storage.SegmentHandle;
+import io.pravega.segmentstore.storage.SyncStorage;
+import java.nio.charset.Charset;
+import java.util.function.Predicate;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+/**
+ * A record within a pack (a shared Storage object holding data from multiple Segments).
+ * <p>
+ * Records are self-describing: each one begins with a header that identifies the Segment (owner) it belongs to and its
+ * offset within that Segment, immediately followed by the data itself. This allows the Segment Headers to only point to
+ * the first record of a Segment within a pack (see HandleSerializer), with all subsequent records being located by
+ * scanning the pack.
+ * <p>
+ * Serialization format: [OwnerLength(4)][SegmentOffset(8)][DataLength(4)][Owner(OwnerLength)][Data(DataLength)].
+ */
+@Slf4j
+@Getter
+@RequiredArgsConstructor
+class PackRecord {
+    //region Members
+
+    private static final Charset ENCODING = Charsets.UTF_8;
+    private static final int FIXED_HEADER_LENGTH = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int SCAN_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * The name of the pack this record is in.
+     */
+    private final String packName;
+    /**
+     * The name of the Segment this record belongs to (at the time it was written).
+     */
+    private final String owner;
+    /**
+     * The offset within the owning Segment where this record's data begins.
+     */
+    private final long segmentOffset;
+    /**
+     * The offset within the pack where this record (including its header) begins.
+     */
+    private final long recordOffset;
+    /**
+     * The length of the record header.
+     */
+    private final int headerLength;
+    /**
+     * The length of the data.
+     */
+    private final int length;
+
+    //endregion
+
+    //region Properties
+
+    /**
+     * Gets a value indicating the offset within the pack where this record's data begins.
+     */
+    long getDataOffset() {
+        return this.recordOffset + this.headerLength;
+    }
+
+    /**
+     * Gets a value indicating the total length of this record (header and data) within the pack.
+     */
+    long getRecordLength() {
+        return this.headerLength + this.length;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[%d]: %s (%d+%d)", this.packName, this.recordOffset, this.owner, this.segmentOffset, this.length);
+    }
+
+    //endregion
+
+    //region Serialization
+
+    /**
+     * Serializes a record header.
+     *
+     * @param owner         The name of the Segment the record belongs to.
+     * @param segmentOffset The offset within the Segment where the record's data begins.
+     * @param length        The length of the record's data.
+     * @return A byte array containing the serialization.
+     */
+    static byte[] serializeHeader(String owner, long segmentOffset, int length) {
+        byte[] ownerBytes = owner.getBytes(ENCODING);
+        byte[] result = new byte[FIXED_HEADER_LENGTH + ownerBytes.length];
+        int offset = BitConverter.writeInt(result, 0, ownerBytes.length);
+        offset += BitConverter.writeLong(result, offset, segmentOffset);
+        offset += BitConverter.writeInt(result, offset, length);
+        System.arraycopy(ownerBytes, 0, result, offset, ownerBytes.length);
+        return result;
+    }
+
+    /**
+     * Scans the given pack for records, beginning at the given offset, and invokes the given visitor for each one,
+     * in order. The pack is read in large blocks, and the data of records that extend beyond the current block is skipped
+     * over. The scan stops when the visitor returns false, when reaching the end of the pack or upon encountering a record
+     * that has not been fully written.
+     *
+     * @param storage     The SyncStorage to read from.
+     * @param packName    The name of the pack.
+     * @param startOffset The offset within the pack where a record begins.
+     * @param visitor     A Predicate that will be invoked for every record and which returns whether to continue.
+     * @throws StreamSegmentException If an exception occurred. Notably, a StreamSegmentNotExistsException is thrown
+     *                                if the pack does not exist.
+     */
+    static void scan(SyncStorage storage, String packName, long startOffset, Predicate<PackRecord> visitor) throws StreamSegmentException {
+        Preconditions.checkArgument(startOffset >= 0, "startOffset must be a non-negative number.");
+        val handle = storage.openRead(packName);
+        long packLength = storage.getStreamSegmentInfo(packName).getLength();
+        byte[] buffer = new byte[(int) Math.min(SCAN_BUFFER_SIZE, Math.max(0, packLength - startOffset))];
+        long bufferOffset = startOffset;
+        int bufferLength = 0;
+        long offset = startOffset;
+        while (offset + FIXED_HEADER_LENGTH <= packLength) {
+            if (offset + FIXED_HEADER_LENGTH > bufferOffset + bufferLength) {
+                bufferOffset = offset;
+                bufferLength = fill(storage, handle, offset, buffer, packLength);
+            }
+
+            int bufferPosition = (int) (offset - bufferOffset);
+            int ownerLength = BitConverter.readInt(buffer, bufferPosition);
+            long segmentOffset = BitConverter.readLong(buffer, bufferPosition + Integer.BYTES);
+            int length = BitConverter.readInt(buffer, bufferPosition + Integer.BYTES + Long.BYTES);
+            if (ownerLength <= 0 || ownerLength > buffer.length - FIXED_HEADER_LENGTH || segmentOffset < 0 || length <= 0
+                    || offset + FIXED_HEADER_LENGTH + ownerLength + length > packLength) {
+                // Either a partially written record (which can only be at the end of the pack) or something we cannot
+                // interpret. Either way, we cannot go on.
+                log.debug("Stopped scanning pack '{}' at offset {} (length {}).", packName, offset, packLength);
+                break;
+            }
+
+            int headerLength = FIXED_HEADER_LENGTH + ownerLength;
+            if (offset + headerLength > bufferOffset + bufferLength) {
+                // The owner name is only partially in the buffer.
+                bufferOffset = offset;
+                bufferLength = fill(storage, handle, offset, buffer, packLength);
+                bufferPosition = 0;
+            }
+
+            String owner = new String(buffer, bufferPosition + FIXED_HEADER_LENGTH, ownerLength, ENCODING);
+            if (!visitor.test(new PackRecord(packName, owner, segmentOffset, offset, headerLength, length))) {
+                break;
+            }
+
+            offset += (long) headerLength + length;
+        }
+    }
+
+    private static int fill(SyncStorage storage, SegmentHandle handle, long offset, byte[] buffer, long packLength) throws StreamSegmentException {
+        int length = (int) Math.min(buffer.length, packLength - offset);
+        int bytesRead = 0;
+        while (bytesRead < length) {
+            int count = storage.read(handle, offset + bytesRead, buffer, bytesRead, length - bytesRead);
+            Preconditions.checkState(count > 0, "Unable to read from pack '%s' at offset %s.", handle.getSegmentName(), offset + bytesRead);
+            bytesRead += count;
+        }
+
+        return bytesRead;
+    }
+
+    //endregion
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.rolling;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.Exceptions;
+import io.pravega.segmentstore.contracts.StreamSegmentException;
+import io.pravega.segmentstore.storage.SegmentHandle;
+import io.pravega.segmentstore.storage.SyncStorage;
+import io.pravega.shared.segment.StreamSegmentNameUtils;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+/**
+ * Appends data from multiple Segments into shared Storage objects (packs), as PackRecords, and locates the PackRecords
+ * that make up packed SegmentChunks.
+ * <p>
+ * All writes are serialized and appended to the current pack; once the pack exceeds its maximum length it is sealed
+ * and a new one is created (a single write is never split across packs). Each instance uses its own, randomly named,
+ * packs, so multiple instances (i.e., from different owners) never write into the same pack.
+ */
+@Slf4j
+@ThreadSafe
+class PackedChunkWriter {
+    //region Members
+
+    private final SyncStorage baseStorage;
+    private final long maxPackLength;
+    private final PackGarbageTracker garbageTracker;
+    @GuardedBy("this")
+    private SegmentHandle packHandle;
+    @GuardedBy("this")
+    private long packLength;
+    /**
+     * All the PackRecords in the current pack, in order. This saves us from having to scan the current pack (which is
+     * the one most likely to be needed) when loading packed SegmentChunks.
+     */
+    @GuardedBy("this")
+    private final List<PackRecord> packRecords;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the PackedChunkWriter class.
+     *
+     * @param baseStorage    The SyncStorage to write to.
+     * @param maxPackLength  The maximum length of a pack.
+     * @param garbageTracker The PackGarbageTracker to notify whenever a pack is sealed.
+     */
+    PackedChunkWriter(SyncStorage baseStorage, long maxPackLength, PackGarbageTracker garbageTracker) {
+        Preconditions.checkArgument(maxPackLength > 0, "maxPackLength must be a positive number.");
+        this.baseStorage = Preconditions.checkNotNull(baseStorage, "baseStorage");
+        this.garbageTracker = Preconditions.checkNotNull(garbageTracker, "garbageTracker");
+        this.maxPackLength = maxPackLength;
+        this.packRecords = new ArrayList<>();
+    }
+
+    //endregion
+
+    //region Operations
+
+    /**
+     * Appends the given data, as a new PackRecord, to the current pack.
+     *
+     * @param owner         The name of the Segment the data belongs to.
+     * @param segmentOffset The offset within the Segment where the data begins.
+     * @param data          An InputStream representing the data to write.
+     * @param length        The length of the data.
+     * @return The PackRecord that was written. The caller is responsible for adding it to a packed SegmentChunk and, if
+     * this is the first PackRecord in that SegmentChunk, for recording the SegmentChunk in the Segment's Header.
+     * @throws StreamSegmentException If an exception occurred.
+     */
+    synchronized PackRecord write(String owner, long segmentOffset, InputStream data, int length) throws StreamSegmentException {
+        Preconditions.checkArgument(length > 0, "length must be a positive number.");
+        byte[] header = PackRecord.serializeHeader(owner, segmentOffset, length);
+        int recordLength = header.length + length;
+        if (this.packHandle == null || (this.packLength > 0 && this.packLength + recordLength > this.maxPackLength)) {
+            rollover();
+        }
+
+        long recordOffset = this.packLength;
+        try {
+            this.baseStorage.write(this.packHandle, recordOffset, new SequenceInputStream(new ByteArrayInputStream(header), data), recordLength);
+        } catch (Exception ex) {
+            // We do not know how much (if anything) has been written to the pack; abandon it and use a new one next time.
+            // A partial PackRecord at the end of the pack is ignored when scanning it. A full one is excluded from its
+            // SegmentChunk as soon as the next attempt (which will be made into a new pack) is recorded in the Segment's
+            // Header; until then, it is no different from a regular SegmentChunk write that failed after writing data.
+            // We make an attempt to seal the pack so that it may eventually be reclaimed, but this is not going to
+            // happen if anything was written to it.
+            SegmentHandle failedHandle = this.packHandle;
+            log.warn("Unable to write to pack '{}'; abandoning it.", failedHandle.getSegmentName(), ex);
+            abandon();
+            try {
+                this.baseStorage.seal(failedHandle);
+            } catch (Exception sealEx) {
+                ex.addSuppressed(sealEx);
+            }
+
+            throw ex;
+        }
+
+        PackRecord record = new PackRecord(this.packHandle.getSegmentName(), owner, segmentOffset, recordOffset, header.length, length);
+        this.packRecords.add(record);
+        this.packLength += recordLength;
+        return record;
+    }
+
+    /**
+     * Locates the PackRecords that make up a packed SegmentChunk.
+     *
+     * @param chunk     The (packed) SegmentChunk. The PackRecords are looked up in its pack, beginning at its chunkOffset
+     *                  (which must point to a PackRecord with the same owner as the SegmentChunk), and must all be in
+     *                  continuity of each other.
+     * @param maxLength The maximum total length of the PackRecords to return.
+     * @return An ordered List of PackRecords, the first of which begins at the SegmentChunk's chunkOffset.
+     * @throws StreamSegmentException If an exception occurred. Notably, a StreamSegmentNotExistsException is thrown
+     *                                if the pack does not exist.
+     */
+    List<PackRecord> getPackRecords(SegmentChunk chunk, long maxLength) throws StreamSegmentException {
+        Preconditions.checkArgument(chunk.isPacked(), "SegmentChunk '%s' is not packed.", chunk);
+        val collector = new RecordCollector(chunk.getOwner(), chunk.getChunkOffset(), maxLength);
+        synchronized (this) {
+            if (this.packHandle != null && this.packHandle.getSegmentName().equals(chunk.getName())) {
+                for (PackRecord r : this.packRecords) {
+                    if (r.getRecordOffset() >= chunk.getChunkOffset() && !collector.test(r)) {
+                        break;
+                    }
+                }
+
+                return collector.records;
+            }
+        }
+
+        PackRecord.scan(this.baseStorage, chunk.getName(), chunk.getChunkOffset(), collector);
+        return collector.records;
+    }
+
+    @GuardedBy("this")
+    private void rollover() throws StreamSegmentException {
+        if (this.packHandle != null) {
+            // Clear out the current pack first; should sealing fail, it's still not going to be used anymore.
+            SegmentHandle oldHandle = this.packHandle;
+            abandon();
+            this.baseStorage.seal(oldHandle);
+            log.debug("Sealed pack '{}' at length {}.", oldHandle.getSegmentName(), this.packLength);
+
+            // Segments may have been truncated or deleted while we were still writing to this pack.
+            this.garbageTracker.packSealed(oldHandle.getSegmentName());
+        }
+
+        String packName = StreamSegmentNameUtils.getPackedChunkName(UUID.randomUUID());
+        this.baseStorage.create(packName);
+        this.packHandle = this.baseStorage.openWrite(packName);
+        this.packLength = 0;
+        log.debug("Created pack '{}'.", packName);
+    }
+
+    @GuardedBy("this")
+    private void abandon() {
+        this.packHandle = null;
+        this.packRecords.clear();
+    }
+
+    //endregion
+
+    //region RecordCollector
+
+    /**
+     * Collects the PackRecords for a packed SegmentChunk.
+     */
+    private static class RecordCollector implements Predicate<PackRecord> {
+        private final String owner;
+        private final long startOffset;
+        private final long maxLength;
+        private final List<PackRecord> records = new ArrayList<>();
+        private long length;
+
+        RecordCollector(String owner, long startOffset, long maxLength) {
+            this.owner = Exceptions.checkNotNullOrEmpty(owner, "owner");
+            this.startOffset = startOffset;
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        public boolean test(PackRecord record) {
+            if (this.records.isEmpty()) {
+                // The first PackRecord must be exactly where the SegmentChunk points to.
+                if (record.getRecordOffset() != this.startOffset || !record.getOwner().equals(this.owner)) {
+                    return false;
+                }
+            } else if (!record.getOwner().equals(this.owner)) {
+                // Belongs to some other Segment.
+                return true;
+            } else {
+                // PackRecords are in order of their offsets in the pack. The only case when we'd encounter a PackRecord
+                // for our owner that is not in continuity is if it belongs to a different SegmentChunk.
+                PackRecord last = this.records.get(this.records.size() - 1);
+                if (record.getSegmentOffset() != last.getSegmentOffset() + last.getLength()) {
+                    return false;
+                }
+            }
+
+            if (this.length + record.getLength() > this.maxLength) {
+                return false;
+            }
+
+            this.records.add(record);
+            this.length += record.getLength();
+            return this.length < this.maxLength;
+        }
+    }
+
+    //endregion
+}
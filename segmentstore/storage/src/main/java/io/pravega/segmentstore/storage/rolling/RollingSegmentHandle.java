@@ -52,6 +52,8 @@ class RollingSegmentHandle implements SegmentHandle {
     private boolean deleted;
     @GuardedBy("this")
     private SegmentHandle activeChunkHandle;
+    @GuardedBy("this")
+    private long packedTruncationOffset;
 
     //endregion
 
@@ -93,6 +95,7 @@ class RollingSegmentHandle implements SegmentHandle {
         this.headerHandle = source.headerHandle;
         this.segmentChunks = new ArrayList<>(source.chunks());
         setHeaderLength(source.getHeaderLength());
+        setPackedTruncationOffset(source.getPackedTruncationOffset());
         if (source.isSealed()) {
             markSealed();
         }
@@ -266,6 +269,20 @@ class RollingSegmentHandle implements SegmentHandle {
         this.headerLength += value;
     }
 
+    /**
+     * Gets a value indicating the offset (as recorded in the Header) below which all packed SegmentChunks are truncated.
+     */
+    synchronized long getPackedTruncationOffset() {
+        return this.packedTruncationOffset;
+    }
+
+    /**
+     * Sets the offset below which all packed SegmentChunks are truncated.
+     */
+    synchronized void setPackedTruncationOffset(long value) {
+        this.packedTruncationOffset = value;
+    }
+
     @Override
     public synchronized String toString() {
         if (this.deleted) {
@@ -53,6 +53,18 @@ import lombok.val;
  * any SegmentChunks (freshly created), it is considered to exist.
  * * A Segment is considered to be Sealed if its Header is sealed.
  *
+ * Packed SegmentChunks (optional, see ChunkPackingPolicy):
+ * * Writes to small Segments may be appended to shared Storage objects (packs) that contain data from many Segments,
+ * instead of each Segment having its own SegmentChunks. Each such write is a self-describing PackRecord.
+ * * A packed SegmentChunk is made up of consecutive PackRecords of the same Segment within a pack. Only its first
+ * PackRecord is recorded in the Header (when the Segment begins writing to that pack); the others are located by scanning
+ * the pack when the Segment is opened. As such, most writes to a packed Segment do not need to update its Header.
+ * * Once a Segment grows beyond the maximum packed length, all subsequent writes go to its own SegmentChunks, as described
+ * above.
+ * * Since packs are shared, truncating or deleting a Segment does not delete any packs. Truncation is recorded in the
+ * Header instead (if the Segment is not sealed) and the freed PackRecords are reported to a PackGarbageTracker, which
+ * deletes packs once they contain nothing but garbage.
+ *
  * A note about compatibility:
  * * The RollingStorage wrapper is fully compatible with data and Segments that were created before RollingStorage was
  * applied. That means that it can access and modify existing Segments that were created without a Header, but all new
@@ -69,6 +81,9 @@ public class RollingStorage implements SyncStorage {
 
     private final SyncStorage baseStorage;
     private final SegmentRollingPolicy defaultRollingPolicy;
+    private final ChunkPackingPolicy packingPolicy;
+    private final PackedChunkWriter packedChunkWriter;
+    private final PackGarbageTracker garbageTracker;
     private final AtomicBoolean closed;
 
     //endregion
@@ -92,8 +107,26 @@ public class RollingStorage implements SyncStorage {
      *                             defined.
      */
     public RollingStorage(SyncStorage baseStorage, SegmentRollingPolicy defaultRollingPolicy) {
+        this(baseStorage, defaultRollingPolicy, ChunkPackingPolicy.NO_PACKING);
+    }
+
+    /**
+     * Creates a new instance of the RollingStorage class.
+     *
+     * @param baseStorage          A SyncStorage that will be used to execute operations.
+     * @param defaultRollingPolicy A SegmentRollingPolicy to apply to every StreamSegment that does not have its own policy
+     *                             defined.
+     * @param packingPolicy        A ChunkPackingPolicy that determines whether (and how) data from small Segments is
+     *                             packed into shared Storage objects.
+     */
+    public RollingStorage(SyncStorage baseStorage, SegmentRollingPolicy defaultRollingPolicy, ChunkPackingPolicy packingPolicy) {
         this.baseStorage = Preconditions.checkNotNull(baseStorage, "baseStorage");
         this.defaultRollingPolicy = Preconditions.checkNotNull(defaultRollingPolicy, "defaultRollingPolicy");
+        this.packingPolicy = Preconditions.checkNotNull(packingPolicy, "packingPolicy");
+        this.garbageTracker = new PackGarbageTracker(baseStorage);
+
+        // We need this even if packing is disabled, in order to be able to read packed Segments.
+        this.packedChunkWriter = new PackedChunkWriter(baseStorage, packingPolicy.getMaxPackLength(), this.garbageTracker);
         this.closed = new AtomicBoolean();
     }
 
@@ -170,14 +203,16 @@ public class RollingStorage implements SyncStorage {
                     continue;
                 }
 
+                // Packed SegmentChunks are made up of multiple PackRecords, so we may only be able to read part of it at once.
                 long readOffset = offset + bytesRead - current.getStartOffset();
-                int readLength = (int) Math.min(length - bytesRead, current.getLength() - readOffset);
+                int readLength = (int) Math.min(length - bytesRead, current.getContiguousLength(readOffset));
                 assert readOffset >= 0 && readLength >= 0 : "negative readOffset or readLength";
 
                 // Read from the actual SegmentChunk into the given buffer.
                 try {
                     val sh = this.baseStorage.openRead(current.getName());
-                    int count = this.baseStorage.read(sh, readOffset, buffer, bufferOffset + bytesRead, readLength);
+                    int count = this.baseStorage.read(sh, current.getStorageOffset(readOffset), buffer, bufferOffset + bytesRead,
+                            readLength);
                     bytesRead += count;
                     if (readOffset + count >= current.getLength()) {
                         currentIndex++;
@@ -306,6 +341,11 @@ public class RollingStorage implements SyncStorage {
         ensureNotSealed(h);
         ensureOffset(h, offset);
         long traceId = LoggerHelpers.traceEnter(log, "write", handle, offset, length);
+        if (shouldPack(h, length)) {
+            writePacked(h, offset, data, length);
+            LoggerHelpers.traceLeave(log, "write", traceId, handle, offset, length);
+            return;
+        }
 
         // We run this in a loop because we may have to split the write over multiple SegmentChunks in order to avoid exceeding
         // any SegmentChunk's maximum length.
@@ -445,6 +485,11 @@ public class RollingStorage implements SyncStorage {
                 seal(writeHandle);
             }
 
+            // Packed SegmentChunks cannot be deleted, so we report them as garbage after deleting the Header. We use the
+            // (now sealed) Header to find them, since this handle may not reflect truncations made using other handles.
+            val packedChunks = h.chunks().stream().anyMatch(SegmentChunk::isPacked)
+                    ? getPackedChunks((RollingSegmentHandle) openRead(handle.getSegmentName()), s -> true)
+                    : Collections.<SegmentChunk>emptyList();
             deleteChunks(h, s -> true);
             try {
                 this.baseStorage.delete(headerHandle);
@@ -453,6 +498,9 @@ public class RollingStorage implements SyncStorage {
                 h.markDeleted();
                 throw ex;
             }
+
+            h.chunks().stream().filter(SegmentChunk::isPacked).forEach(SegmentChunk::markInexistent);
+            this.garbageTracker.recordGarbage(packedChunks);
         }
 
         LoggerHelpers.traceLeave(log, "delete", traceId, handle);
@@ -472,13 +520,33 @@ public class RollingStorage implements SyncStorage {
         Preconditions.checkArgument(truncationOffset >= 0 && truncationOffset <= h.length(),
                 "truncationOffset must be non-negative and at most the length of the Segment.");
         val last = h.lastChunk();
-        if (last != null && canTruncate(last, truncationOffset)) {
+        if (last != null && !last.isPacked() && canTruncate(last, truncationOffset)) {
             // If we were asked to truncate the entire Segment, then rollover at this point so we can delete all existing
-            // data.
+            // data. The length of a truncated packed SegmentChunk can be inferred from the truncation offset recorded in
+            // the Header, so we do not need to do this for them.
             rollover(h);
         }
 
         deleteChunks(h, s -> canTruncate(s, truncationOffset));
+        val truncatedPacked = getPackedChunks(h, s -> canTruncate(s, truncationOffset));
+        if (!truncatedPacked.isEmpty()) {
+            // Packed SegmentChunks cannot be deleted, so we need to record the truncation in the Header. We cannot do
+            // that for a sealed Header, in which case the truncation will only be reflected in this handle.
+            boolean recorded = !h.isSealed();
+            if (recorded) {
+                updateHandle(h, HandleSerializer.serializeTruncate(truncationOffset));
+                h.setPackedTruncationOffset(truncationOffset);
+            }
+
+            // Seal them too, so that any further writes go to new SegmentChunks.
+            truncatedPacked.forEach(SegmentChunk::markSealed);
+            truncatedPacked.forEach(SegmentChunk::markInexistent);
+            if (recorded) {
+                // Only report garbage if the truncation is durable, otherwise we may end up reporting it again later.
+                this.garbageTracker.recordGarbage(truncatedPacked);
+            }
+        }
+
         LoggerHelpers.traceLeave(log, "truncate", traceId, h, truncationOffset);
     }
 
@@ -513,7 +581,7 @@ public class RollingStorage implements SyncStorage {
 
     private void unsealLastChunkIfNecessary(RollingSegmentHandle handle) throws StreamSegmentException {
         SegmentChunk last = handle.lastChunk();
-        if (last == null || !last.isSealed()) {
+        if (last == null || !last.isSealed() || last.isPacked()) {
             // Nothing to do.
             return;
         }
@@ -560,7 +628,8 @@ public class RollingStorage implements SyncStorage {
 
     private void deleteChunks(RollingSegmentHandle handle, Predicate<SegmentChunk> canDelete) throws StreamSegmentException {
         for (SegmentChunk s : handle.chunks()) {
-            if (s.exists() && canDelete.test(s)) {
+            // Packed SegmentChunks share their Storage object with other Segments, so they cannot be deleted.
+            if (s.exists() && !s.isPacked() && canDelete.test(s)) {
                 try {
                     val subHandle = this.baseStorage.openWrite(s.getName());
                     this.baseStorage.delete(subHandle);
@@ -574,6 +643,45 @@ public class RollingStorage implements SyncStorage {
         }
     }
 
+    private List<SegmentChunk> getPackedChunks(RollingSegmentHandle handle, Predicate<SegmentChunk> filter) {
+        return handle.chunks().stream()
+                     .filter(s -> s.exists() && s.isPacked() && filter.test(s))
+                     .collect(Collectors.toList());
+    }
+
+    private void writePacked(RollingSegmentHandle handle, long offset, InputStream data, int length) throws StreamSegmentException {
+        // Append the data to the current pack, and only then (if needed) record it in the Header.
+        PackRecord record = this.packedChunkWriter.write(handle.getSegmentName(), offset, data, length);
+        SegmentChunk last = handle.lastChunk();
+        if (last != null && last.isPacked() && !last.isSealed() && last.getName().equals(record.getPackName())
+                && last.getOwner().equals(record.getOwner())) {
+            // Same pack as our last write. This PackRecord will be found by scanning the pack, so the Header need not
+            // be updated.
+            last.addPackRecord(record);
+        } else {
+            // First write into this pack: record a new packed SegmentChunk in the Header.
+            SegmentChunk packedChunk = SegmentChunk.forPack(record.getPackName(), record.getOwner(), offset, record.getRecordOffset());
+            packedChunk.addPackRecord(record);
+            serializeNewChunk(handle, packedChunk);
+            if (last != null) {
+                last.markSealed();
+            }
+
+            handle.addChunks(Collections.singletonList(packedChunk));
+            log.debug("Created packed SegmentChunk '{}' for '{}'.", packedChunk, handle);
+        }
+    }
+
+    private boolean shouldPack(RollingSegmentHandle handle, int length) {
+        // Only pack data for Segments with a Header which have not yet begun using their own SegmentChunks.
+        SegmentChunk last = handle.lastChunk();
+        return this.packingPolicy.isEnabled()
+                && length > 0
+                && handle.getHeaderHandle() != null
+                && (last == null || last.isPacked())
+                && handle.length() + length <= this.packingPolicy.getMaxSegmentLength();
+    }
+
     private boolean canTruncate(SegmentChunk segmentChunk, long truncationOffset) {
         // We should only truncate those SegmentChunks that are entirely before the truncationOffset. An empty SegmentChunk
         // that starts exactly at the truncationOffset should be spared (this means we truncate the entire Segment), as
@@ -584,8 +692,9 @@ public class RollingStorage implements SyncStorage {
 
     private void refreshChunkExistence(RollingSegmentHandle handle) {
         // We check all SegmentChunks that we assume exist for actual existence (since once deleted, they can't come back).
+        // Packed SegmentChunks share their pack with other Segments; their truncation status is recorded in the Header.
         for (SegmentChunk s : handle.chunks()) {
-            if (s.exists() && !this.baseStorage.exists(s.getName())) {
+            if (s.exists() && !s.isPacked() && !this.baseStorage.exists(s.getName())) {
                 s.markInexistent();
             }
         }
@@ -617,7 +726,7 @@ public class RollingStorage implements SyncStorage {
 
         SegmentChunk lastSource = source.lastChunk();
         SegmentChunk lastTarget = target.lastChunk();
-        return lastSource != null && lastSource.getStartOffset() == 0
+        return lastSource != null && lastSource.getStartOffset() == 0 && !lastSource.isPacked()
                 && lastTarget != null && !lastTarget.isSealed()
                 && lastTarget.getLength() + lastSource.getLength() <= target.getRollingPolicy().getMaxLength();
     }
@@ -642,15 +751,25 @@ public class RollingStorage implements SyncStorage {
         SegmentChunk last = null;
         for (SegmentChunk s : handle.chunks()) {
             if (last != null) {
-                last.setLength(s.getStartOffset() - last.getStartOffset());
+                long length = s.getStartOffset() - last.getStartOffset();
+                if (last.isPacked()) {
+                    loadPackedChunk(handle, last, length);
+                } else {
+                    last.setLength(length);
+                }
+
                 last.markSealed();
             }
 
             last = s;
         }
 
-        // For the last one, we need to actually check the file and update its info.
-        if (last != null) {
+        // For the last one, we need to actually check the file (or the pack) and update its info. We never append to a
+        // packed SegmentChunk that we did not create ourselves, so we seal it too.
+        if (last != null && last.isPacked()) {
+            loadPackedChunk(handle, last, Long.MAX_VALUE);
+            last.markSealed();
+        } else if (last != null) {
             val si = this.baseStorage.getStreamSegmentInfo(last.getName());
             last.setLength(si.getLength());
             if (si.isSealed()) {
@@ -664,6 +783,40 @@ public class RollingStorage implements SyncStorage {
         return handle;
     }
 
+    private void loadPackedChunk(RollingSegmentHandle handle, SegmentChunk chunk, long maxLength) throws StreamSegmentException {
+        boolean isLast = maxLength == Long.MAX_VALUE;
+        long truncationOffset = handle.getPackedTruncationOffset();
+        if (!isLast && chunk.getStartOffset() + maxLength <= truncationOffset) {
+            // Truncated SegmentChunk. We already know its length and we have no use for its PackRecords.
+            chunk.setLength(maxLength);
+            chunk.markInexistent();
+            return;
+        }
+
+        try {
+            this.packedChunkWriter.getPackRecords(chunk, maxLength).forEach(chunk::addPackRecord);
+        } catch (StreamSegmentNotExistsException ex) {
+            if (isLast && chunk.getStartOffset() >= truncationOffset) {
+                // Same as for the last non-packed SegmentChunk: the Segment does not exist anymore.
+                throw ex;
+            }
+
+            // The pack has been deleted, which can only happen if this SegmentChunk has been truncated.
+            log.debug("Pack for SegmentChunk '{}' ({}) does not exist anymore.", chunk, handle);
+            chunk.setLength(isLast ? truncationOffset - chunk.getStartOffset() : maxLength);
+            chunk.markInexistent();
+            return;
+        }
+
+        if (!isLast && chunk.getLength() != maxLength) {
+            log.warn("Unable to locate all PackRecords for SegmentChunk '{}' ({}); expected length {}.", chunk, handle, maxLength);
+            chunk.setLength(maxLength);
+            chunk.markInexistent();
+        } else if (chunk.getStartOffset() < truncationOffset && chunk.getLastOffset() <= truncationOffset) {
+            chunk.markInexistent();
+        }
+    }
+
     private SegmentProperties getHeaderInfo(String segmentName) throws StreamSegmentException {
         String headerSegment = StreamSegmentNameUtils.getHeaderSegmentName(segmentName);
         val headerInfo = this.baseStorage.getStreamSegmentInfo(headerSegment);
@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.rolling;
+
+import io.pravega.common.util.ConfigBuilder;
+import io.pravega.common.util.ConfigurationException;
+import io.pravega.common.util.Property;
+import io.pravega.common.util.TypedProperties;
+import lombok.Getter;
+
+/**
+ * Configuration for the RollingStorage layer.
+ */
+public class RollingStorageConfig {
+    //region Config Names
+
+    public static final Property<Long> PACKED_SEGMENT_MAX_LENGTH = Property.named("packedSegmentMaxLength", 0L);
+    public static final Property<Long> PACK_MAX_LENGTH = Property.named("packMaxLength", 64 * 1024 * 1024L);
+    public static final String COMPONENT_CODE = "rollingstorage";
+
+    //endregion
+
+    //region Members
+
+    /**
+     * The ChunkPackingPolicy to use. Packing is disabled unless a positive PACKED_SEGMENT_MAX_LENGTH is configured.
+     */
+    @Getter
+    private final ChunkPackingPolicy packingPolicy;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the RollingStorageConfig class.
+     *
+     * @param properties The TypedProperties object to read Properties from.
+     */
+    private RollingStorageConfig(TypedProperties properties) throws ConfigurationException {
+        long packedSegmentMaxLength = properties.getLong(PACKED_SEGMENT_MAX_LENGTH);
+        if (packedSegmentMaxLength < 0) {
+            throw new ConfigurationException(String.format("Property '%s' must be a non-negative integer.", PACKED_SEGMENT_MAX_LENGTH));
+        }
+
+        long packMaxLength = properties.getLong(PACK_MAX_LENGTH);
+        if (packMaxLength <= 0) {
+            throw new ConfigurationException(String.format("Property '%s' must be a positive integer.", PACK_MAX_LENGTH));
+        }
+
+        this.packingPolicy = new ChunkPackingPolicy(packedSegmentMaxLength, packMaxLength);
+    }
+
+    /**
+     * Creates a new ConfigBuilder that can be used to create instances of this class.
+     *
+     * @return A new Builder for this class.
+     */
+    public static ConfigBuilder<RollingStorageConfig> builder() {
+        return new ConfigBuilder<>(COMPONENT_CODE, RollingStorageConfig::new);
+    }
+
+    //endregion
+}
@@ -11,7 +11,11 @@ package io.pravega.segmentstore.storage.rolling;
 
 import com.google.common.base.Preconditions;
 import io.pravega.common.Exceptions;
+import io.pravega.common.util.CollectionHelpers;
 import io.pravega.shared.segment.StreamSegmentNameUtils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 import lombok.Getter;
@@ -33,6 +37,26 @@ class SegmentChunk {
      */
     @Getter
     private final long startOffset;
+    /**
+     * The offset within the underlying Storage object where this SegmentChunk begins. This is always 0 for SegmentChunks
+     * that have their own Storage object. For packed SegmentChunks, this is the offset of their first PackRecord.
+     */
+    @Getter
+    private final long chunkOffset;
+    /**
+     * Whether this SegmentChunk shares its underlying Storage object (pack) with SegmentChunks of other Segments. Packed
+     * SegmentChunks are made up of one or more PackRecords, which are not necessarily adjacent within the pack.
+     */
+    @Getter
+    private final boolean packed;
+    /**
+     * For packed SegmentChunks, the name of the Segment that wrote the PackRecords (this may be different from the Segment
+     * that currently owns this SegmentChunk, if it was concatenated into another Segment). Null otherwise.
+     */
+    @Getter
+    private final String owner;
+    @GuardedBy("this")
+    private final List<PackRecord> packRecords;
     @GuardedBy("this")
     private long length;
     @GuardedBy("this")
@@ -51,9 +75,18 @@ class SegmentChunk {
      * @param startOffset The offset within the owning Segment where this SegmentChunk starts at.
      */
     SegmentChunk(String chunkName, long startOffset) {
+        this(chunkName, startOffset, 0, null);
+    }
+
+    private SegmentChunk(String chunkName, long startOffset, long chunkOffset, String owner) {
         this.name = Exceptions.checkNotNullOrEmpty(chunkName, "chunkName");
         Preconditions.checkArgument(startOffset >= 0, "startOffset must be a non-negative number.");
+        Preconditions.checkArgument(chunkOffset >= 0, "chunkOffset must be a non-negative number.");
         this.startOffset = startOffset;
+        this.chunkOffset = chunkOffset;
+        this.owner = owner;
+        this.packed = owner != null;
+        this.packRecords = this.packed ? new ArrayList<>() : Collections.emptyList();
     }
 
     /**
@@ -67,6 +100,20 @@ class SegmentChunk {
         return new SegmentChunk(StreamSegmentNameUtils.getSegmentChunkName(segmentName, startOffset), startOffset);
     }
 
+    /**
+     * Creates a new instance of the SegmentChunk class that refers to PackRecords within a shared Storage object (pack).
+     * The result is empty; PackRecords need to be added using addPackRecord().
+     *
+     * @param packName    The name of the pack.
+     * @param owner       The name of the Segment that wrote the PackRecords.
+     * @param startOffset The offset within the owning Segment where this SegmentChunk starts at.
+     * @param chunkOffset The offset within the pack where this SegmentChunk's first PackRecord begins.
+     * @return A new SegmentChunk.
+     */
+    static SegmentChunk forPack(String packName, String owner, long startOffset, long chunkOffset) {
+        return new SegmentChunk(packName, startOffset, chunkOffset, Exceptions.checkNotNullOrEmpty(owner, "owner"));
+    }
+
     /**
      * Creates a new instance of the SegmentChunk class with the same information as this one, but with a new offset.
      *
@@ -74,7 +121,11 @@ class SegmentChunk {
      * @return A new SegmentChunk.
      */
     SegmentChunk withNewOffset(long newOffset) {
-        SegmentChunk ns = new SegmentChunk(this.name, newOffset);
+        SegmentChunk ns = new SegmentChunk(this.name, newOffset, this.chunkOffset, this.owner);
+        if (this.packed) {
+            ns.packRecords.addAll(getPackRecords());
+        }
+
         ns.setLength(getLength());
         if (isSealed()) {
             ns.markSealed();
@@ -153,6 +204,86 @@ class SegmentChunk {
         this.length = length;
     }
 
+    /**
+     * Adds a PackRecord to this (packed) SegmentChunk and increases its length accordingly.
+     *
+     * @param record The PackRecord to add. This must be in the same pack, for the same owner and (if not the first one)
+     *               in continuity of the last PackRecord.
+     */
+    synchronized void addPackRecord(PackRecord record) {
+        Preconditions.checkState(this.packed, "Cannot add PackRecords to a non-packed SegmentChunk.");
+        Preconditions.checkState(!this.sealed, "Cannot add PackRecords to a sealed SegmentChunk.");
+        Preconditions.checkArgument(this.name.equals(record.getPackName()) && this.owner.equals(record.getOwner()),
+                "PackRecord '%s' does not belong to SegmentChunk '%s'.", record, this);
+        if (this.packRecords.isEmpty()) {
+            Preconditions.checkArgument(record.getRecordOffset() == this.chunkOffset,
+                    "First PackRecord '%s' must begin at offset %s.", record, this.chunkOffset);
+        } else {
+            PackRecord last = this.packRecords.get(this.packRecords.size() - 1);
+            Preconditions.checkArgument(record.getRecordOffset() > last.getRecordOffset()
+                            && record.getSegmentOffset() == last.getSegmentOffset() + last.getLength(),
+                    "PackRecord '%s' is not in continuity of '%s'.", record, last);
+        }
+
+        this.packRecords.add(record);
+        this.length += record.getLength();
+    }
+
+    /**
+     * Gets an unmodifiable List of the PackRecords that make up this SegmentChunk. This is empty for non-packed
+     * SegmentChunks.
+     */
+    synchronized List<PackRecord> getPackRecords() {
+        return Collections.unmodifiableList(new ArrayList<>(this.packRecords));
+    }
+
+    /**
+     * Gets the offset within the underlying Storage object where the data at the given offset (within this SegmentChunk)
+     * is located.
+     *
+     * @param offset The offset within this SegmentChunk.
+     * @return The offset within the underlying Storage object.
+     */
+    synchronized long getStorageOffset(long offset) {
+        if (!this.packed) {
+            return this.chunkOffset + offset;
+        }
+
+        PackRecord record = getPackRecord(offset);
+        return record.getDataOffset() + offset - getRelativeOffset(record);
+    }
+
+    /**
+     * Gets the number of bytes that can be read, in one go, from the underlying Storage object, beginning at the given
+     * offset (within this SegmentChunk). For packed SegmentChunks, this does not exceed the PackRecord containing the offset.
+     *
+     * @param offset The offset within this SegmentChunk.
+     * @return The number of bytes.
+     */
+    synchronized long getContiguousLength(long offset) {
+        if (!this.packed) {
+            return this.length - offset;
+        }
+
+        PackRecord record = getPackRecord(offset);
+        return getRelativeOffset(record) + record.getLength() - offset;
+    }
+
+    @GuardedBy("this")
+    private PackRecord getPackRecord(long offset) {
+        int index = CollectionHelpers.binarySearch(this.packRecords, r -> {
+            long recordOffset = getRelativeOffset(r);
+            return offset < recordOffset ? -1 : (offset >= recordOffset + r.getLength() ? 1 : 0);
+        });
+        Preconditions.checkArgument(index >= 0, "No PackRecord found for offset %s in SegmentChunk '%s'.", offset, this);
+        return this.packRecords.get(index);
+    }
+
+    @GuardedBy("this")
+    private long getRelativeOffset(PackRecord record) {
+        return record.getSegmentOffset() - this.packRecords.get(0).getSegmentOffset();
+    }
+
     /**
      * Gets a value indicating the last Offset of this SegmentChunk.
      */
@@ -162,8 +293,8 @@ class SegmentChunk {
 
     @Override
     public synchronized String toString() {
-        return String.format("%s (%d+%d%s)", this.name, this.startOffset, this.length,
-                this.exists ? (this.sealed ? ", sealed" : "") : ", deleted");
+        return String.format("%s%s (%d+%d%s)", this.name, this.packed ? "@" + this.chunkOffset : "", this.startOffset,
+                this.length, this.exists ? (this.sealed ? ", sealed" : "") : ", deleted");
     }
 
     //endregion
@@ -19,7 +19,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Objects;
 import java.util.Random;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import lombok.Data;
 import lombok.SneakyThrows;
@@ -87,6 +89,42 @@ public class HandleSerializerTests {
         Assert.assertEquals("getHeaderLength", serialization.length, newHandle.getHeaderLength());
     }
 
+    /**
+     * Tests the Serialization-Deserialization for a Handle with packed SegmentChunks, including a truncation entry.
+     */
+    @Test
+    public void testPacked() throws IOException {
+        final int chunkCount = 10;
+        final int truncateAfter = 4;
+        val source = newHandle(0);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        os.write(serialize(source));
+        val rnd = new Random(0);
+        long truncationOffset = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            // Owners (Segment names) may contain the separator (i.e., after a concat), so make sure we can handle that.
+            val chunk = SegmentChunk.forPack(StreamSegmentNameUtils.getPackedChunkName(new UUID(0, i % 3)),
+                    "Owner@" + (i % 2), source.length(), rnd.nextInt(10000));
+            chunk.setLength(rnd.nextInt(1000) + 1);
+            source.addChunks(Collections.singletonList(chunk));
+            os.write(HandleSerializer.serializeChunk(chunk));
+            if (i == truncateAfter) {
+                truncationOffset = source.length();
+            }
+        }
+
+        os.write(HandleSerializer.serializeTruncate(truncationOffset));
+        val serialization = os.toByteArray();
+        val newHandle = HandleSerializer.deserialize(serialization, source.getHeaderHandle());
+        assertHandleEquals(source, newHandle, source.getHeaderHandle());
+        Assert.assertEquals("Unexpected truncation offset.", truncationOffset, newHandle.getPackedTruncationOffset());
+        for (val chunk : newHandle.chunks()) {
+            // PackRecords (and thus lengths) can only be loaded from the packs themselves.
+            Assert.assertTrue("Expected a packed SegmentChunk.", chunk.isPacked());
+            Assert.assertEquals("Not expecting a length for " + chunk, 0, chunk.getLength());
+        }
+    }
+
     private void assertHandleEquals(RollingSegmentHandle expected, RollingSegmentHandle actual, SegmentHandle headerHandle) {
         Assert.assertEquals("getSegmentName", expected.getSegmentName(), actual.getSegmentName());
         AssertExtensions.assertListEquals("chunks", expected.chunks(), actual.chunks(), this::chunkEquals);
@@ -97,7 +135,10 @@ public class HandleSerializerTests {
 
     private boolean chunkEquals(SegmentChunk s1, SegmentChunk s2) {
         return s1.getName().equals(s2.getName())
-                && s1.getStartOffset() == s2.getStartOffset();
+                && s1.getStartOffset() == s2.getStartOffset()
+                && s1.isPacked() == s2.isPacked()
+                && s1.getChunkOffset() == s2.getChunkOffset()
+                && Objects.equals(s1.getOwner(), s2.getOwner());
     }
 
     @SneakyThrows(IOException.class)
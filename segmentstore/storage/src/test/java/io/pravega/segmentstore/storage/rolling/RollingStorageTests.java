@@ -23,8 +23,11 @@ import io.pravega.test.common.AssertExtensions;
 import io.pravega.test.common.IntentionalException;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Random;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.Cleanup;
 import lombok.val;
 import org.junit.Assert;
@@ -39,6 +42,7 @@ public class RollingStorageTests extends RollingStorageTestBase {
     private static final int SMALL_WRITE_LENGTH = (int) (DEFAULT_ROLLING_POLICY.getMaxLength() * 0.24);
     private static final int LARGE_WRITE_LENGTH = (int) (DEFAULT_ROLLING_POLICY.getMaxLength() * 1.8);
     private static final int WRITE_COUNT = APPENDS_PER_SEGMENT * 2;
+    private static final ChunkPackingPolicy PACKING_POLICY = new ChunkPackingPolicy(DEFAULT_ROLLING_POLICY.getMaxLength() * 5, 500);
 
     /**
      * Tests the ability to roll over Segments.
@@ -385,6 +389,260 @@ public class RollingStorageTests extends RollingStorageTestBase {
         checkWrittenData(writeStream.toByteArray(), s.openRead(SEGMENT_NAME), s);
     }
 
+    /**
+     * Tests the ability to pack data from multiple Segments into shared Storage objects, as well as switching to
+     * dedicated SegmentChunks once a Segment outgrows the ChunkPackingPolicy.
+     */
+    @Test
+    public void testPacking() throws Exception {
+        final int segmentCount = 10;
+        final int writeLength = SMALL_WRITE_LENGTH;
+        final int packedWriteCount = (int) (PACKING_POLICY.getMaxSegmentLength() / writeLength);
+        @Cleanup
+        val baseStorage = new InMemoryStorage();
+        @Cleanup
+        val s = new RollingStorage(baseStorage, DEFAULT_ROLLING_POLICY, PACKING_POLICY);
+        s.initialize(1);
+        val handles = new ArrayList<RollingSegmentHandle>();
+        val writeStreams = new ArrayList<ByteArrayOutputStream>();
+        for (int i = 0; i < segmentCount; i++) {
+            String segmentName = SEGMENT_NAME + i;
+            s.create(segmentName);
+            handles.add((RollingSegmentHandle) s.openWrite(segmentName));
+            writeStreams.add(new ByteArrayOutputStream());
+        }
+
+        // Interleave the writes, so that each pack contains data from multiple Segments.
+        for (int i = 0; i < packedWriteCount; i++) {
+            for (int j = 0; j < segmentCount; j++) {
+                populate(s, handles.get(j), 1, writeLength, writeLength, writeStreams.get(j));
+            }
+        }
+
+        val packNames = new HashSet<String>();
+        for (int i = 0; i < segmentCount; i++) {
+            val h = handles.get(i);
+            Assert.assertFalse("Not expecting a dedicated SegmentChunk for a packed Segment.",
+                    baseStorage.exists(StreamSegmentNameUtils.getSegmentChunkName(h.getSegmentName(), 0)));
+            Assert.assertTrue("Expecting only packed SegmentChunks.", h.chunks().stream().allMatch(SegmentChunk::isPacked));
+            h.chunks().forEach(c -> packNames.add(c.getName()));
+        }
+
+        long totalLength = (long) segmentCount * packedWriteCount * writeLength;
+        AssertExtensions.assertLessThanOrEqual("Too many packs created.",
+                totalLength / (PACKING_POLICY.getMaxPackLength() - writeLength) + 1, packNames.size());
+        for (String packName : packNames) {
+            val packInfo = baseStorage.getStreamSegmentInfo(packName);
+            AssertExtensions.assertLessThanOrEqual("Pack exceeded its maximum length: " + packName,
+                    PACKING_POLICY.getMaxPackLength(), packInfo.getLength());
+        }
+
+        // Grow the first Segment beyond the packing threshold; this should switch it to dedicated SegmentChunks.
+        val first = handles.get(0);
+        long packedLength = first.length();
+        populate(s, first, writeStreams.get(0));
+        Assert.assertFalse("Expected the last SegmentChunk to be dedicated.", first.lastChunk().isPacked());
+        Assert.assertTrue("Expected a dedicated SegmentChunk at the end of the packed data.",
+                baseStorage.exists(StreamSegmentNameUtils.getSegmentChunkName(first.getSegmentName(), packedLength)));
+
+        // Verify that all data can be read back, both with the existing handles and with a new RollingStorage instance.
+        val s2 = new RollingStorage(baseStorage, DEFAULT_ROLLING_POLICY, PACKING_POLICY);
+        for (int i = 0; i < segmentCount; i++) {
+            String segmentName = handles.get(i).getSegmentName();
+            byte[] writtenData = writeStreams.get(i).toByteArray();
+            checkWrittenData(writtenData, s.openRead(segmentName), s);
+            checkWrittenData(writtenData, s2.openRead(segmentName), s2);
+            Assert.assertEquals("Unexpected length after recovery.", writtenData.length, s2.getStreamSegmentInfo(segmentName).getLength());
+        }
+    }
+
+    /**
+     * Tests the ability to truncate and delete Segments made up of packed SegmentChunks.
+     */
+    @Test
+    public void testPackedTruncate() throws Exception {
+        final int writeCount = 10;
+        @Cleanup
+        val baseStorage = new InMemoryStorage();
+        @Cleanup
+        val s = new RollingStorage(baseStorage, DEFAULT_ROLLING_POLICY, PACKING_POLICY);
+        s.initialize(1);
+        s.create(SEGMENT_NAME);
+        val writeHandle = (RollingSegmentHandle) s.openWrite(SEGMENT_NAME);
+        val writeStream = new ByteArrayOutputStream();
+        populate(s, writeHandle, writeCount, SMALL_WRITE_LENGTH, SMALL_WRITE_LENGTH, writeStream);
+        byte[] writtenData = writeStream.toByteArray();
+
+        for (int truncateOffset = 0; truncateOffset <= writtenData.length; truncateOffset += SMALL_WRITE_LENGTH * 3 / 2) {
+            s.truncate(writeHandle, truncateOffset);
+
+            // Verify the truncation is reflected both in the current handle and in a freshly loaded one.
+            val readHandle = (RollingSegmentHandle) s.openRead(SEGMENT_NAME);
+            checkWrittenData(writtenData, truncateOffset, readHandle, s);
+            for (SegmentChunk segmentChunk : readHandle.chunks()) {
+                boolean expectedExists = segmentChunk.getLastOffset() > truncateOffset;
+                Assert.assertEquals("Unexpected SegmentChunk truncation status for " + segmentChunk + ", truncation offset = " + truncateOffset,
+                        expectedExists, segmentChunk.exists());
+                if (expectedExists) {
+                    Assert.assertTrue("Not expecting packs in use to be deleted.", baseStorage.exists(segmentChunk.getName()));
+                } else {
+                    AssertExtensions.assertThrows(
+                            "Not expecting a read from a truncated SegmentChunk to work.",
+                            () -> s.read(readHandle, segmentChunk.getLastOffset() - 1, new byte[1], 0, 1),
+                            ex -> ex instanceof StreamSegmentTruncatedException);
+                }
+            }
+        }
+
+        // Writes after truncation must still work.
+        int startOffset = writtenData.length;
+        populate(s, writeHandle, writeCount, SMALL_WRITE_LENGTH, SMALL_WRITE_LENGTH, writeStream);
+        writtenData = writeStream.toByteArray();
+        checkWrittenData(writtenData, startOffset, s.openRead(SEGMENT_NAME), s);
+
+        // Delete and verify that all packs have been deleted, except the one that is still being written to.
+        val packNames = writeHandle.chunks().stream().map(SegmentChunk::getName).distinct().collect(Collectors.toList());
+        String activePack = writeHandle.lastChunk().getName();
+        s.delete(writeHandle);
+        Assert.assertFalse("Segment still exists after deletion.", s.exists(SEGMENT_NAME));
+        for (String packName : packNames) {
+            boolean expectedExists = packName.equals(activePack);
+            Assert.assertEquals("Unexpected pack existence for " + packName, expectedExists, baseStorage.exists(packName));
+            Assert.assertEquals("Unexpected garbage existence for " + packName, expectedExists,
+                    baseStorage.exists(StreamSegmentNameUtils.getPackGarbageName(packName)));
+        }
+    }
+
+    /**
+     * Tests that writes to a packed Segment only update its Header when they go to a different pack.
+     */
+    @Test
+    public void testPackedHeaderUpdates() throws Exception {
+        final int writeCount = (int) (PACKING_POLICY.getMaxSegmentLength() / SMALL_WRITE_LENGTH);
+        @Cleanup
+        val baseStorage = new InMemoryStorage();
+        @Cleanup
+        val s = new RollingStorage(baseStorage, DEFAULT_ROLLING_POLICY, PACKING_POLICY);
+        s.initialize(1);
+        s.create(SEGMENT_NAME);
+        val writeHandle = (RollingSegmentHandle) s.openWrite(SEGMENT_NAME);
+        val writeStream = new ByteArrayOutputStream();
+        populate(s, writeHandle, writeCount, SMALL_WRITE_LENGTH, SMALL_WRITE_LENGTH, writeStream);
+
+        // Each pack should have been recorded in the Header exactly once.
+        long packCount = writeHandle.chunks().stream().map(SegmentChunk::getName).distinct().count();
+        Assert.assertEquals("Expected a single SegmentChunk per pack.", packCount, writeHandle.chunks().size());
+        AssertExtensions.assertLessThan("Expected fewer SegmentChunks than writes.", writeCount, writeHandle.chunks().size());
+        val headerInfo = baseStorage.getStreamSegmentInfo(StreamSegmentNameUtils.getHeaderSegmentName(SEGMENT_NAME));
+        Assert.assertEquals("Unexpected Header length.", writeHandle.getHeaderLength(), headerInfo.getLength());
+
+        // Verify that all the PackRecords can be located when loading the Segment from scratch.
+        val s2 = new RollingStorage(baseStorage, DEFAULT_ROLLING_POLICY, PACKING_POLICY);
+        val readHandle = (RollingSegmentHandle) s2.openRead(SEGMENT_NAME);
+        Assert.assertEquals("Unexpected SegmentChunk count after recovery.", writeHandle.chunks().size(), readHandle.chunks().size());
+        Assert.assertEquals("Unexpected length after recovery.", writeHandle.length(), readHandle.length());
+        checkWrittenData(writeStream.toByteArray(), readHandle, s2);
+    }
+
+    /**
+     * Tests that packs are deleted once all the data in them has been truncated or deleted, but not before.
+     */
+    @Test
+    public void testPackedGarbageCollection() throws Exception {
+        final int segmentCount = 5;
+        final int writeCount = 10;
+        @Cleanup
+        val baseStorage = new InMemoryStorage();
+        @Cleanup
+        val s = new RollingStorage(baseStorage, DEFAULT_ROLLING_POLICY, PACKING_POLICY);
+        s.initialize(1);
+        val handles = new ArrayList<RollingSegmentHandle>();
+        for (int i = 0; i < segmentCount; i++) {
+            s.create(SEGMENT_NAME + i);
+            handles.add((RollingSegmentHandle) s.openWrite(SEGMENT_NAME + i));
+        }
+
+        // Interleave the writes, so that each pack contains data from multiple Segments. The first Segment only writes
+        // for a while, so that some packs do not contain any of its data.
+        val keptData = new ByteArrayOutputStream();
+        for (int i = 0; i < writeCount; i++) {
+            if (i < writeCount / 2) {
+                populate(s, handles.get(0), 1, SMALL_WRITE_LENGTH, SMALL_WRITE_LENGTH, keptData);
+            }
+
+            for (int j = 1; j < segmentCount; j++) {
+                populate(s, handles.get(j), 1, SMALL_WRITE_LENGTH, SMALL_WRITE_LENGTH, new ByteArrayOutputStream());
+            }
+        }
+
+        val packNames = new HashSet<String>();
+        handles.forEach(h -> h.chunks().forEach(c -> packNames.add(c.getName())));
+        val keptPacks = handles.get(0).chunks().stream().map(SegmentChunk::getName).collect(Collectors.toSet());
+        String activePack = handles.get(segmentCount - 1).lastChunk().getName();
+        keptPacks.add(activePack);
+
+        // Keep the first Segment, entirely truncate half of the others and delete the rest.
+        for (int i = 1; i < segmentCount; i++) {
+            val h = handles.get(i);
+            if (i % 2 == 0) {
+                s.truncate(h, h.length());
+            } else {
+                s.delete(h);
+            }
+        }
+
+        AssertExtensions.assertLessThan("Expected some packs to be deleted.", packNames.size(), keptPacks.size());
+        for (String packName : packNames) {
+            Assert.assertEquals("Unexpected pack existence for " + packName, keptPacks.contains(packName), baseStorage.exists(packName));
+        }
+
+        // Verify the data in the first Segment is unaffected, including after a reload.
+        val s2 = new RollingStorage(baseStorage, DEFAULT_ROLLING_POLICY, PACKING_POLICY);
+        checkWrittenData(keptData.toByteArray(), s.openRead(handles.get(0).getSegmentName()), s);
+        checkWrittenData(keptData.toByteArray(), s2.openRead(handles.get(0).getSegmentName()), s2);
+
+        // Delete the first Segment, which should free up all the packs, except the one that is still being written to.
+        s.delete(handles.get(0));
+        for (String packName : packNames) {
+            Assert.assertEquals("Unexpected pack existence after deleting all Segments for " + packName,
+                    packName.equals(activePack), baseStorage.exists(packName));
+        }
+    }
+
+    /**
+     * Tests the ability to concat Segments made up of packed SegmentChunks.
+     */
+    @Test
+    public void testPackedConcat() throws Exception {
+        final String sourceSegmentName = "SourceSegment";
+        final int writeCount = 4;
+        @Cleanup
+        val baseStorage = new InMemoryStorage();
+        @Cleanup
+        val s = new RollingStorage(baseStorage, DEFAULT_ROLLING_POLICY, PACKING_POLICY);
+        s.initialize(1);
+
+        s.create(SEGMENT_NAME);
+        val targetHandle = (RollingSegmentHandle) s.openWrite(SEGMENT_NAME);
+        val writeStream = new ByteArrayOutputStream();
+        populate(s, targetHandle, writeCount, SMALL_WRITE_LENGTH, SMALL_WRITE_LENGTH, writeStream);
+        s.create(sourceSegmentName);
+        val sourceHandle = (RollingSegmentHandle) s.openWrite(sourceSegmentName);
+        populate(s, sourceHandle, writeCount, SMALL_WRITE_LENGTH, SMALL_WRITE_LENGTH, writeStream);
+        s.seal(sourceHandle);
+
+        // Packed SegmentChunks cannot be concatenated natively, so this must be a Header merge.
+        int expectedLength = (int) (targetHandle.length() + sourceHandle.length());
+        int expectedChunkCount = targetHandle.chunks().size() + sourceHandle.chunks().size();
+        s.concat(targetHandle, targetHandle.length(), sourceSegmentName);
+        checkConcatResult(s, targetHandle, sourceSegmentName, expectedChunkCount, expectedLength);
+        checkWrittenData(writeStream.toByteArray(), s.openRead(SEGMENT_NAME), s);
+
+        // Verify we can continue writing to the target.
+        populate(s, targetHandle, writeCount, SMALL_WRITE_LENGTH, SMALL_WRITE_LENGTH, writeStream);
+        checkWrittenData(writeStream.toByteArray(), s.openRead(SEGMENT_NAME), s);
+    }
+
     /**
      * Tests the ability to handle Segment files with no header, which simulates a scenario where we add RollingStorage
      * to a Storage adapter that did not previously handle files this way.
@@ -43,6 +43,7 @@ public final class MetricsNames {
     public static final String CONTAINER_UPDATE_ATTRIBUTES_COUNT = "container_update_attributes_count";
     public static final String CONTAINER_READ_COUNT = "container_read_count";
     public static final String CONTAINER_GET_INFO_COUNT = "container_get_info_count";
+    public static final String CONTAINER_GET_ATTRIBUTES_COUNT = "container_get_attributes_count";
     public static final String CONTAINER_CREATE_SEGMENT_COUNT = "container_create_segment_count";
     public static final String CONTAINER_DELETE_SEGMENT_COUNT = "container_delete_segment_count";
     public static final String CONTAINER_CREATE_TXN_COUNT = "container_create_txn_count";
@@ -55,6 +56,10 @@ public final class MetricsNames {
     public static final String OPERATION_PROCESSOR_IN_FLIGHT = "operation_processor_in_flight";
     public static final String OPERATION_QUEUE_WAIT_TIME = "operation_queue_wait_time";
     public static final String OPERATION_PROCESSOR_DELAY_MILLIS = "operation_processor_delay_ms";
+    public static final String OPERATION_PROCESSOR_FRAME_LENGTH = "operation_processor_frame_length";
+    public static final String OPERATION_PROCESSOR_FRAME_CLOSED = "operation_processor_frame_closed";
+    public static final String OPERATION_PROCESSOR_TARGET_FRAME_LENGTH = "operation_processor_target_frame_length";
+    public static final String OPERATION_PROCESSOR_LINGER_DELAY_MILLIS = "operation_processor_linger_delay_ms";
     public static final String OPERATION_COMMIT_LATENCY = "operation_commit_latency_ms";
     public static final String OPERATION_LATENCY = "operation_latency_ms";
     public static final String OPERATION_COMMIT_METADATA_TXN_COUNT = "operation_commit_metadata_txn_count";
@@ -65,6 +70,8 @@ public final class MetricsNames {
     // General metrics
     public static final String CACHE_TOTAL_SIZE_BYTES = "cache_size_bytes";
     public static final String CACHE_GENERATION_SPREAD = "cache_gen";
+    public static final String CACHE_USED_BYTES = "cache_used_bytes";
+    public static final String CACHE_ALLOCATED_BYTES = "cache_allocated_bytes";
     public static final String THREAD_POOL_QUEUE_SIZE = "thread_pool_queue_size";
     public static final String THREAD_POOL_ACTIVE_THREADS = "thread_pool_active_threads";
 
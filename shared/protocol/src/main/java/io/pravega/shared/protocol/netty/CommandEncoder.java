@@ -17,6 +17,7 @@ import io.pravega.shared.protocol.netty.WireCommands.Flush;
 import io.pravega.shared.protocol.netty.WireCommands.Padding;
 import io.pravega.shared.protocol.netty.WireCommands.PartialEvent;
 import io.pravega.shared.protocol.netty.WireCommands.SetupAppend;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
@@ -31,9 +32,12 @@ import static io.pravega.shared.protocol.netty.WireCommands.TYPE_PLUS_LENGTH_SIZ
 import static io.pravega.shared.protocol.netty.WireCommands.TYPE_SIZE;
 import static io.netty.buffer.Unpooled.wrappedBuffer;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.MessageToByteEncoder;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
@@ -63,6 +67,9 @@ import lombok.extern.slf4j.Slf4j;
  * need to be parsed out of individual messages. Notably this includes the event number of the last
  * event in the block, so that it can be acknowledged.
  *
+ * Commands that carry data payloads (WireCommandWithPayload, such as SegmentRead) are not copied into a single output
+ * buffer. Instead they are written out as a composite buffer, made up of the encoded fields and the payloads themselves.
+ *
  */
 @NotThreadSafe
 @RequiredArgsConstructor
@@ -83,6 +90,16 @@ public class CommandEncoder extends MessageToByteEncoder<Object> {
         private int eventCount;
     }
 
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof WireCommandWithPayload) {
+            log.trace("Encoding message to send over the wire {}", msg);
+            ctx.write(encodeWithPayload((WireCommandWithPayload) msg, ctx.alloc()), promise);
+        } else {
+            super.write(ctx, msg, promise);
+        }
+    }
+
     @Override
     protected void encode(ChannelHandlerContext ctx, Object msg, ByteBuf out) throws Exception {
         log.trace("Encoding message to send over the wire {}", msg);
@@ -180,6 +197,49 @@ public class CommandEncoder extends MessageToByteEncoder<Object> {
         segmentBeingAppendedTo = null;
     }
 
+    /**
+     * Encodes the given WireCommandWithPayload into a composite buffer, which references its payloads instead of
+     * holding copies of them. The payloads are retained until the result is released.
+     */
+    @VisibleForTesting
+    @SneakyThrows(IOException.class)
+    ByteBuf encodeWithPayload(WireCommandWithPayload msg, ByteBufAllocator allocator) {
+        ByteBuf fields = allocator.buffer();
+        // Do not let the composite consolidate its components, as that would copy them.
+        CompositeByteBuf result = allocator.compositeBuffer(Integer.MAX_VALUE);
+        try {
+            breakFromAppend(fields);
+            int startIdx = fields.writerIndex();
+            int[] fieldsIdx = new int[]{0};
+            long[] payloadLength = new long[1];
+            ByteBufOutputStream bout = new ByteBufOutputStream(fields);
+            bout.writeInt(msg.getType().getCode());
+            bout.write(LENGTH_PLACEHOLDER);
+            msg.writeFields(bout, payload -> {
+                // Slices of 'fields' reference it (not a copy of it), so they also see the length, which is set last.
+                result.addComponent(true, fields.retainedSlice(fieldsIdx[0], fields.writerIndex() - fieldsIdx[0]));
+                result.addComponent(true, payload.retainedSlice());
+                fieldsIdx[0] = fields.writerIndex();
+                payloadLength[0] += payload.readableBytes();
+            });
+            bout.flush();
+            bout.close();
+            if (fields.writerIndex() > fieldsIdx[0]) {
+                result.addComponent(true, fields.retainedSlice(fieldsIdx[0], fields.writerIndex() - fieldsIdx[0]));
+            }
+
+            long length = fields.writerIndex() - startIdx - TYPE_PLUS_LENGTH_SIZE + payloadLength[0];
+            Preconditions.checkState(length <= Integer.MAX_VALUE, "Message too large: %s bytes.", length);
+            fields.setInt(startIdx + TYPE_SIZE, (int) length);
+            return result;
+        } catch (Throwable ex) {
+            result.release();
+            throw ex;
+        } finally {
+            fields.release();
+        }
+    }
+
     @SneakyThrows(IOException.class)
     private byte[] serializeMessage(WireCommand msg) {
         ByteArrayOutputStream bout = new ByteArrayOutputStream();
@@ -19,6 +19,7 @@ import io.pravega.shared.protocol.netty.WireCommands.GetStreamSegmentInfo;
 import io.pravega.shared.protocol.netty.WireCommands.GetTransactionInfo;
 import io.pravega.shared.protocol.netty.WireCommands.KeepAlive;
 import io.pravega.shared.protocol.netty.WireCommands.ReadSegment;
+import io.pravega.shared.protocol.netty.WireCommands.ReadSegments;
 import io.pravega.shared.protocol.netty.WireCommands.SealSegment;
 import io.pravega.shared.protocol.netty.WireCommands.SetupAppend;
 import io.pravega.shared.protocol.netty.WireCommands.TruncateSegment;
@@ -48,6 +49,11 @@ public abstract class DelegatingRequestProcessor implements RequestProcessor {
         getNextRequestProcessor().readSegment(readSegment);
     }
 
+    @Override
+    public void readSegments(ReadSegments readSegments) {
+        getNextRequestProcessor().readSegments(readSegments);
+    }
+
     @Override
     public void updateSegmentAttribute(UpdateSegmentAttribute updateSegmentAttribute) {
         getNextRequestProcessor().updateSegmentAttribute(updateSegmentAttribute);
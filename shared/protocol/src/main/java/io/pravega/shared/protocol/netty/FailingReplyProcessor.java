@@ -112,6 +112,11 @@ public abstract class FailingReplyProcessor implements ReplyProcessor {
     public void segmentRead(SegmentRead data) {
         throw new IllegalStateException("Unexpected operation: " + data);
     }
+
+    @Override
+    public void segmentsRead(WireCommands.SegmentsRead data) {
+        throw new IllegalStateException("Unexpected operation: " + data);
+    }
     
     @Override
     public void segmentAttributeUpdated(WireCommands.SegmentAttributeUpdated segmentAttributeUpdated) {
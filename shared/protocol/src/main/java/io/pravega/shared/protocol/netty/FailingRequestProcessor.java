@@ -20,6 +20,7 @@ import io.pravega.shared.protocol.netty.WireCommands.GetTransactionInfo;
 import io.pravega.shared.protocol.netty.WireCommands.Hello;
 import io.pravega.shared.protocol.netty.WireCommands.KeepAlive;
 import io.pravega.shared.protocol.netty.WireCommands.ReadSegment;
+import io.pravega.shared.protocol.netty.WireCommands.ReadSegments;
 import io.pravega.shared.protocol.netty.WireCommands.SealSegment;
 import io.pravega.shared.protocol.netty.WireCommands.SetupAppend;
 import io.pravega.shared.protocol.netty.WireCommands.TruncateSegment;
@@ -52,6 +53,11 @@ public class FailingRequestProcessor implements RequestProcessor {
     public void readSegment(ReadSegment readSegment) {
         throw new IllegalStateException("Unexpected operation");
     }
+
+    @Override
+    public void readSegments(ReadSegments readSegments) {
+        throw new IllegalStateException("Unexpected operation");
+    }
     
     @Override
     public void updateSegmentAttribute(UpdateSegmentAttribute updateSegmentAttribute) {
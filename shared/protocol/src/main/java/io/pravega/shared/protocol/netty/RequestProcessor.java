@@ -20,6 +20,7 @@ import io.pravega.shared.protocol.netty.WireCommands.GetTransactionInfo;
 import io.pravega.shared.protocol.netty.WireCommands.Hello;
 import io.pravega.shared.protocol.netty.WireCommands.KeepAlive;
 import io.pravega.shared.protocol.netty.WireCommands.ReadSegment;
+import io.pravega.shared.protocol.netty.WireCommands.ReadSegments;
 import io.pravega.shared.protocol.netty.WireCommands.SealSegment;
 import io.pravega.shared.protocol.netty.WireCommands.SetupAppend;
 import io.pravega.shared.protocol.netty.WireCommands.TruncateSegment;
@@ -37,6 +38,8 @@ public interface RequestProcessor {
     void append(Append append);
 
     void readSegment(ReadSegment readSegment);
+
+    void readSegments(ReadSegments readSegments);
     
     void updateSegmentAttribute(UpdateSegmentAttribute updateSegmentAttribute);
     
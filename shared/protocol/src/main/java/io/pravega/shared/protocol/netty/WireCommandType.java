@@ -48,6 +48,9 @@ public enum WireCommandType {
     GET_TRANSACTION_INFO(13, WireCommands.GetTransactionInfo::readFrom),
     TRANSACTION_INFO(14, WireCommands.TransactionInfo::readFrom),
 
+    READ_SEGMENTS(15, WireCommands.ReadSegments::readFrom),
+    SEGMENTS_READ(16, WireCommands.SegmentsRead::readFrom),
+
     CREATE_SEGMENT(20, WireCommands.CreateSegment::readFrom),
     SEGMENT_CREATED(21, WireCommands.SegmentCreated::readFrom),
 
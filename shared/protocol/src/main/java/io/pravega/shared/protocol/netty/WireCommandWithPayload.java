@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.shared.protocol.netty;
+
+import io.netty.buffer.ByteBuf;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A WireCommand that carries one or more (potentially large) data payloads. The CommandEncoder writes these payloads
+ * out as they are, instead of copying them into its output buffer.
+ */
+public interface WireCommandWithPayload extends WireCommand {
+    /**
+     * Writes the fields of this command to the given DataOutput, except for the payloads, which are passed to the given
+     * PayloadWriter instead, at the point where they would have been written.
+     *
+     * @param out           The DataOutput to write to.
+     * @param payloadWriter A PayloadWriter that will be invoked for each payload, in order.
+     * @throws IOException If an exception occurred.
+     */
+    void writeFields(DataOutput out, PayloadWriter payloadWriter) throws IOException;
+
+    /**
+     * Receives the payloads of a WireCommandWithPayload.
+     */
+    @FunctionalInterface
+    interface PayloadWriter {
+        /**
+         * Writes the given payload, which must follow whatever has been written to the DataOutput so far.
+         *
+         * @param payload The payload. Its readable bytes are to be written out; its reader index must not be changed.
+         * @throws IOException If an exception occurred.
+         */
+        void write(ByteBuf payload) throws IOException;
+    }
+}
@@ -18,10 +18,13 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import lombok.Data;
@@ -64,6 +67,49 @@ public final class WireCommands {
         return MAPPING.get(value);
     }
 
+    /**
+     * Writes the readable bytes of the given buffer to the given output. This works for heap, direct (i.e., pooled) and
+     * composite buffers alike, and does not modify the buffer's reader index.
+     */
+    private static void writeBuffer(ByteBuf data, DataOutput out) throws IOException {
+        int length = data.readableBytes();
+        if (out instanceof OutputStream) {
+            data.getBytes(data.readerIndex(), (OutputStream) out, length);
+        } else if (data.hasArray()) {
+            out.write(data.array(), data.arrayOffset() + data.readerIndex(), length);
+        } else {
+            byte[] copy = new byte[length];
+            data.getBytes(data.readerIndex(), copy);
+            out.write(copy);
+        }
+    }
+
+    /**
+     * Gets the number of bytes that DataOutput.writeUTF() uses to encode the given String (including its length prefix).
+     */
+    private static int getUTFLength(String s) {
+        int result = Short.BYTES;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                result++;
+            } else if (c > 0x07FF) {
+                result += 3;
+            } else {
+                result += 2;
+            }
+        }
+        return result;
+    }
+
+    private static int readCount(DataInput in, int length) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > length) {
+            throw new CorruptedFrameException("Invalid item count: " + count);
+        }
+        return count;
+    }
+
     @FunctionalInterface
     interface Constructor {
         WireCommand readFrom(ByteBufInputStream in, int length) throws IOException;
@@ -407,7 +453,7 @@ public final class WireCommands {
 
         @Override
         public void writeFields(DataOutput out) throws IOException {
-            out.write(data.array(), data.arrayOffset(), data.readableBytes());
+            writeBuffer(data, out);
         }
 
         public static WireCommand readFrom(DataInput in, int length) throws IOException {
@@ -424,7 +470,7 @@ public final class WireCommands {
 
         @Override
         public void writeFields(DataOutput out) throws IOException {
-            out.write(data.array(), data.arrayOffset(), data.readableBytes());
+            writeBuffer(data, out);
         }
 
         public static WireCommand readFrom(DataInput in, int length) throws IOException {
@@ -515,7 +561,7 @@ public final class WireCommands {
                 out.writeInt(0);
             } else {
                 out.writeInt(data.readableBytes());
-                out.write(data.array(), data.arrayOffset(), data.readableBytes());
+                writeBuffer(data, out);
             }
             out.writeInt(numEvents);
             out.writeLong(lastEventNumber);
@@ -559,7 +605,7 @@ public final class WireCommands {
                 out.writeInt(0);
             } else {
                 out.writeInt(data.readableBytes());
-                out.write(data.array(), data.arrayOffset(), data.readableBytes());
+                writeBuffer(data, out);
             }
         }
 
@@ -688,6 +734,11 @@ public final class WireCommands {
         }
     }
 
+    /**
+     * Reads from a Segment. If minLength is positive and the read reaches the tail of the Segment, the server will wait
+     * (for up to maxWaitMillis) until at least minLength bytes are available before replying (long poll). Otherwise
+     * the server replies as soon as any data is available.
+     */
     @Data
     public static final class ReadSegment implements Request, WireCommand {
         final WireCommandType type = WireCommandType.READ_SEGMENT;
@@ -695,6 +746,21 @@ public final class WireCommands {
         final long offset;
         final int suggestedLength;
         final String delegationToken;
+        final int minLength;
+        final long maxWaitMillis;
+
+        public ReadSegment(String segment, long offset, int suggestedLength, String delegationToken) {
+            this(segment, offset, suggestedLength, delegationToken, 0, 0);
+        }
+
+        public ReadSegment(String segment, long offset, int suggestedLength, String delegationToken, int minLength, long maxWaitMillis) {
+            this.segment = segment;
+            this.offset = offset;
+            this.suggestedLength = suggestedLength;
+            this.delegationToken = delegationToken;
+            this.minLength = minLength;
+            this.maxWaitMillis = maxWaitMillis;
+        }
 
         @Override
         public void process(RequestProcessor cp) {
@@ -707,14 +773,23 @@ public final class WireCommands {
             out.writeLong(offset);
             out.writeInt(suggestedLength);
             out.writeUTF(delegationToken == null ? "" : delegationToken);
+            out.writeInt(minLength);
+            out.writeLong(maxWaitMillis);
         }
 
-        public static WireCommand readFrom(DataInput in, int length) throws IOException {
+        public static <T extends InputStream & DataInput> WireCommand readFrom(T in, int length) throws IOException {
             String segment = in.readUTF();
             long offset = in.readLong();
             int suggestedLength = in.readInt();
             String delegationToken = in.readUTF();
-            return new ReadSegment(segment, offset, suggestedLength, delegationToken);
+            int minLength = 0;
+            long maxWaitMillis = 0;
+            if (in.available() >= Integer.BYTES + Long.BYTES) {
+                // Versioning workaround until PDP-21 is implemented (https://github.com/pravega/pravega/issues/1948).
+                minLength = in.readInt();
+                maxWaitMillis = in.readLong();
+            }
+            return new ReadSegment(segment, offset, suggestedLength, delegationToken, minLength, maxWaitMillis);
         }
 
         @Override
@@ -724,13 +799,25 @@ public final class WireCommands {
     }
 
     @Data
-    public static final class SegmentRead implements Reply, WireCommand {
+    public static final class SegmentRead implements Reply, WireCommandWithPayload {
         final WireCommandType type = WireCommandType.SEGMENT_READ;
         final String segment;
         final long offset;
         final boolean atTail; //TODO: Is sometimes false when actual state is unknown.
         final boolean endOfSegment;
-        final ByteBuffer data;
+        final ByteBuf data;
+
+        public SegmentRead(String segment, long offset, boolean atTail, boolean endOfSegment, ByteBuf data) {
+            this.segment = segment;
+            this.offset = offset;
+            this.atTail = atTail;
+            this.endOfSegment = endOfSegment;
+            this.data = data;
+        }
+
+        public SegmentRead(String segment, long offset, boolean atTail, boolean endOfSegment, ByteBuffer data) {
+            this(segment, offset, atTail, endOfSegment, wrappedBuffer(data));
+        }
 
         @Override
         public void process(ReplyProcessor cp) {
@@ -739,13 +826,18 @@ public final class WireCommands {
 
         @Override
         public void writeFields(DataOutput out) throws IOException {
+            // Data may be a composite of multiple buffers; it is written out without merging them first.
+            writeFields(out, data -> writeBuffer(data, out));
+        }
+
+        @Override
+        public void writeFields(DataOutput out, PayloadWriter payloadWriter) throws IOException {
             out.writeUTF(segment);
             out.writeLong(offset);
             out.writeBoolean(atTail);
             out.writeBoolean(endOfSegment);
-            int dataLength = data.remaining();
-            out.writeInt(dataLength);
-            out.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+            out.writeInt(data.readableBytes());
+            payloadWriter.write(data);
         }
 
         public static WireCommand readFrom(DataInput in, int length) throws IOException {
@@ -759,7 +851,7 @@ public final class WireCommands {
             }
             byte[] data = new byte[dataLength];
             in.readFully(data);
-            return new SegmentRead(segment, offset, atTail, endOfSegment, ByteBuffer.wrap(data));
+            return new SegmentRead(segment, offset, atTail, endOfSegment, wrappedBuffer(data));
         }
 
         @Override
@@ -768,6 +860,96 @@ public final class WireCommands {
         }
     }
 
+    /**
+     * Reads from multiple Segments at once. Each of the reads is encoded the same way as a standalone ReadSegment.
+     * The data that is readily available is returned in a single SegmentsRead reply.
+     */
+    @Data
+    public static final class ReadSegments implements Request, WireCommand {
+        final WireCommandType type = WireCommandType.READ_SEGMENTS;
+        final long requestId;
+        final List<ReadSegment> reads;
+
+        @Override
+        public void process(RequestProcessor cp) {
+            cp.readSegments(this);
+        }
+
+        @Override
+        public void writeFields(DataOutput out) throws IOException {
+            out.writeLong(requestId);
+            out.writeInt(reads.size());
+            for (ReadSegment read : reads) {
+                read.writeFields(out);
+            }
+        }
+
+        public static <T extends InputStream & DataInput> WireCommand readFrom(T in, int length) throws IOException {
+            long requestId = in.readLong();
+            int count = readCount(in, length);
+            List<ReadSegment> reads = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                reads.add((ReadSegment) ReadSegment.readFrom(in, length));
+            }
+            return new ReadSegments(requestId, reads);
+        }
+    }
+
+    /**
+     * Reply to ReadSegments. Each of the results is encoded the same way as a standalone SegmentRead.
+     */
+    @Data
+    public static final class SegmentsRead implements Reply, WireCommandWithPayload {
+        final WireCommandType type = WireCommandType.SEGMENTS_READ;
+        final long requestId;
+        final List<SegmentRead> reads;
+
+        @Override
+        public void process(ReplyProcessor cp) {
+            cp.segmentsRead(this);
+        }
+
+        /**
+         * Calculates the encoded length (including the type and length prefix) of a SegmentsRead that contains one
+         * SegmentRead for each of the given Segments, excluding the data itself.
+         *
+         * @param segments The names of the Segments that will be included.
+         * @return The encoded length, in bytes.
+         */
+        public static long getOverhead(List<String> segments) {
+            long result = TYPE_PLUS_LENGTH_SIZE + Long.BYTES + Integer.BYTES;
+            for (String segment : segments) {
+                // Segment (UTF), Offset, AtTail, EndOfSegment, DataLength.
+                result += getUTFLength(segment) + Long.BYTES + 2 + Integer.BYTES;
+            }
+            return result;
+        }
+
+        @Override
+        public void writeFields(DataOutput out) throws IOException {
+            writeFields(out, data -> writeBuffer(data, out));
+        }
+
+        @Override
+        public void writeFields(DataOutput out, PayloadWriter payloadWriter) throws IOException {
+            out.writeLong(requestId);
+            out.writeInt(reads.size());
+            for (SegmentRead read : reads) {
+                read.writeFields(out, payloadWriter);
+            }
+        }
+
+        public static WireCommand readFrom(DataInput in, int length) throws IOException {
+            long requestId = in.readLong();
+            int count = readCount(in, length);
+            List<SegmentRead> reads = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                reads.add((SegmentRead) SegmentRead.readFrom(in, length));
+            }
+            return new SegmentsRead(requestId, reads);
+        }
+    }
+
     @Data
     public static final class GetSegmentAttribute implements Request, WireCommand {
         final WireCommandType type = WireCommandType.GET_SEGMENT_ATTRIBUTE;
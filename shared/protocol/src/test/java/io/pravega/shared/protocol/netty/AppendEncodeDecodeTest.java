@@ -17,6 +17,8 @@ import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.util.ResourceLeakDetector;
 import io.netty.util.ResourceLeakDetector.Level;
 import io.pravega.shared.protocol.netty.WireCommands.KeepAlive;
+import io.pravega.shared.protocol.netty.WireCommands.SegmentRead;
+import io.pravega.shared.protocol.netty.WireCommands.SegmentsRead;
 import io.pravega.shared.protocol.netty.WireCommands.SetupAppend;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -31,6 +33,7 @@ import org.junit.Test;
 import static io.pravega.shared.protocol.netty.WireCommandType.EVENT;
 import static io.pravega.shared.protocol.netty.WireCommands.TYPE_PLUS_LENGTH_SIZE;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 public class AppendEncodeDecodeTest {
@@ -259,6 +262,36 @@ public class AppendEncodeDecodeTest {
         sendAndVerifyEvents(streamName, writerId, 2, size, 2);
     }
 
+    @Test
+    public void testSegmentsReadNotCopied() throws Exception {
+        byte[] content1 = new byte[100];
+        Arrays.fill(content1, (byte) 1);
+        byte[] content2 = new byte[50];
+        Arrays.fill(content2, (byte) 2);
+        ByteBuf data1 = Unpooled.wrappedBuffer(content1);
+        ByteBuf data2 = Unpooled.wrappedBuffer(content2);
+        SegmentsRead msg = new SegmentsRead(1, Arrays.asList(
+                new SegmentRead("segment1", 0, false, false, data1),
+                new SegmentRead("segment2", 10, true, false, data2),
+                new SegmentRead("segment3", 20, true, true, Unpooled.EMPTY_BUFFER)));
+
+        @Cleanup("release")
+        ByteBuf copied = ByteBufAllocator.DEFAULT.buffer();
+        encoder.encode(null, msg, copied);
+        ByteBuf encoded = encoder.encodeWithPayload(msg, ByteBufAllocator.DEFAULT);
+        assertEquals("Expected the same encoding as when copying the payloads.", copied, encoded);
+        assertEquals("Expected the payloads to be retained.", 2, data1.refCnt());
+
+        // The encoded message references the payloads, so it sees any changes made to them.
+        content1[0] = 3;
+        content2[content2.length - 1] = 4;
+        assertNotEquals("Expected the payloads not to be copied.", copied, encoded);
+        assertEquals(msg, CommandDecoder.parseCommand(encoded));
+        encoded.release();
+        assertEquals("Expected the payloads to be released along with the encoded message.", 1, data1.refCnt());
+        assertEquals(1, data2.refCnt());
+    }
+
     private ArrayList<Object> setupAppend(String testStream, UUID writerId, ByteBuf fakeNetwork) throws Exception {
         SetupAppend setupAppend = new SetupAppend(1, writerId, testStream, "");
         encoder.encode(null, setupAppend, fakeNetwork);
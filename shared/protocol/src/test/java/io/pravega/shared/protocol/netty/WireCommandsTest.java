@@ -17,6 +17,8 @@ import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicReference;
 import lombok.Data;
@@ -137,12 +139,45 @@ public class WireCommandsTest {
     @Test
     public void testReadSegment() throws IOException {
         testCommand(new WireCommands.ReadSegment(testString1, l, i, ""));
+        testCommand(new WireCommands.ReadSegment(testString1, l, i, "", i + 1, l + 1));
+
+        // Test that we are able to decode a message from a previous version (without the long-poll fields).
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bout);
+        out.writeUTF(testString1);
+        out.writeLong(l);
+        out.writeInt(i);
+        out.writeUTF("");
+        testCommandFromByteArray(bout.toByteArray(), new WireCommands.ReadSegment(testString1, l, i, "", 0, 0));
     }
 
     @Test
     public void testSegmentRead() throws IOException {
         testCommand(new WireCommands.SegmentRead(testString1, l, true, false, buffer));
     }
+
+    @Test
+    public void testSegmentReadComposite() throws IOException {
+        ByteBuf composite = Unpooled.wrappedBuffer(Unpooled.wrappedBuffer(new byte[] { 1, 2 }),
+                Unpooled.wrappedBuffer(new byte[] { 0, 3, 4, 5, 0 }, 1, 3));
+        testCommand(new WireCommands.SegmentRead(testString1, l, true, false, composite));
+    }
+
+    @Test
+    public void testReadSegments() throws IOException {
+        testCommand(new WireCommands.ReadSegments(l, Arrays.asList(
+                new WireCommands.ReadSegment(testString1, l, i, ""),
+                new WireCommands.ReadSegment("testString2", l + 1, i + 1, testString1))));
+        testCommand(new WireCommands.ReadSegments(l, Collections.emptyList()));
+    }
+
+    @Test
+    public void testSegmentsRead() throws IOException {
+        testCommand(new WireCommands.SegmentsRead(l, Arrays.asList(
+                new WireCommands.SegmentRead(testString1, l, true, false, buffer),
+                new WireCommands.SegmentRead("testString2", l + 1, false, true, ByteBuffer.allocate(0)))));
+        testCommand(new WireCommands.SegmentsRead(l, Collections.emptyList()));
+    }
     
     @Test
     public void testUpdateSegmentAttribute() throws IOException {
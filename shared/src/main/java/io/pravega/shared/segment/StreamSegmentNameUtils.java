@@ -23,6 +23,11 @@ public final class StreamSegmentNameUtils {
      */
     private static final String STATE_SUFFIX = "$state";
 
+    /**
+     * This is appended to the end of the Segment/Transaction name to indicate it stores its Attribute Index.
+     */
+    private static final String ATTRIBUTE_SUFFIX = "$attributes";
+
     /**
      * This is appended to the end of the Segment/Transaction name to indicate it stores its Rolling Storage Header.
      */
@@ -53,6 +58,21 @@ public final class StreamSegmentNameUtils {
      */
     private static final String FULL_HEX_FORMAT = "%0" + TRANSACTION_PART_LENGTH + "x";
 
+    /**
+     * The prefix of the names of the Segments that store the Metadata Table of a Segment Container.
+     */
+    private static final String CONTAINER_METADATA_SEGMENT_PREFIX = "_system/containers/metadata_";
+
+    /**
+     * The prefix of the names of the Storage objects that hold packed SegmentChunks of multiple Segments.
+     */
+    private static final String PACKED_CHUNK_PREFIX = "_system/packs/";
+
+    /**
+     * This is appended to the end of the name of a pack to indicate it stores garbage accounting information for it.
+     */
+    private static final String PACK_GARBAGE_SUFFIX = "$garbage";
+
     //endregion
 
     /**
@@ -99,6 +119,52 @@ public final class StreamSegmentNameUtils {
         return segmentName + STATE_SUFFIX;
     }
 
+    /**
+     * Gets the name of the meta-Segment mapped to the given Segment Name that is responsible with storing its Attribute Index.
+     *
+     * @param segmentName The name of the Segment to get the Attribute segment name for.
+     * @return The result.
+     */
+    public static String getAttributeSegmentName(String segmentName) {
+        Preconditions.checkArgument(!segmentName.contains(ATTRIBUTE_SUFFIX), "segmentName is already an attribute segment name");
+        return segmentName + ATTRIBUTE_SUFFIX;
+    }
+
+    /**
+     * Gets the name of the Segment that is responsible with storing the Metadata Table (the state of all its Segments)
+     * for the given Segment Container.
+     *
+     * @param containerId The Id of the Segment Container.
+     * @return The result.
+     */
+    public static String getContainerMetadataSegmentName(int containerId) {
+        Preconditions.checkArgument(containerId >= 0, "containerId must be a non-negative number.");
+        return CONTAINER_METADATA_SEGMENT_PREFIX + containerId;
+    }
+
+    /**
+     * Gets the name of a Storage object that holds packed SegmentChunks (data from multiple Segments).
+     *
+     * @param packId A unique identifier for the pack.
+     * @return The result.
+     */
+    public static String getPackedChunkName(UUID packId) {
+        Preconditions.checkNotNull(packId, "packId");
+        return PACKED_CHUNK_PREFIX + packId;
+    }
+
+    /**
+     * Gets the name of the Storage object that holds garbage accounting information for the given pack.
+     *
+     * @param packName The name of the pack.
+     * @return The result.
+     */
+    public static String getPackGarbageName(String packName) {
+        Preconditions.checkArgument(packName.startsWith(PACKED_CHUNK_PREFIX) && !packName.endsWith(PACK_GARBAGE_SUFFIX),
+                "packName is not a valid pack name.");
+        return packName + PACK_GARBAGE_SUFFIX;
+    }
+
     /**
      * Gets the name of the meta-Segment mapped to the given Segment Name that is responsible with storing its Rollover
      * information.
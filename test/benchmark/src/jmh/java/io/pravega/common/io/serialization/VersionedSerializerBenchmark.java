@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.common.io.serialization;
+
+import io.pravega.common.ObjectBuilder;
+import io.pravega.common.util.ByteArraySegment;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures VersionedSerializer.WithBuilder serialization and deserialization of a record shaped like the ones the
+ * Segment Store persists (a few scalars, a payload and an attribute map).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class VersionedSerializerBenchmark {
+    private static final RecordSerializer SERIALIZER = new RecordSerializer();
+
+    @Param({"0", "1024"})
+    private int payloadSize;
+
+    @Param({"0", "100"})
+    private int attributeCount;
+
+    private Record record;
+    private ByteArraySegment serialized;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Random random = new Random(0);
+        byte[] payload = new byte[this.payloadSize];
+        random.nextBytes(payload);
+        Map<UUID, Long> attributes = new HashMap<>();
+        for (int i = 0; i < this.attributeCount; i++) {
+            attributes.put(new UUID(random.nextLong(), random.nextLong()), random.nextLong());
+        }
+
+        this.record = new Record(random.nextLong(), "Scope/Stream/0", payload, attributes);
+        this.serialized = SERIALIZER.serialize(this.record);
+    }
+
+    @Benchmark
+    public ByteArraySegment serialize() throws IOException {
+        return SERIALIZER.serialize(this.record);
+    }
+
+    @Benchmark
+    public Record deserialize() throws IOException {
+        return SERIALIZER.deserialize(this.serialized);
+    }
+
+    @Benchmark
+    public Record roundTrip() throws IOException {
+        return SERIALIZER.deserialize(SERIALIZER.serialize(this.record));
+    }
+
+    //region Record
+
+    static class Record {
+        private final long id;
+        private final String name;
+        private final byte[] payload;
+        private final Map<UUID, Long> attributes;
+
+        Record(long id, String name, byte[] payload, Map<UUID, Long> attributes) {
+            this.id = id;
+            this.name = name;
+            this.payload = payload;
+            this.attributes = attributes;
+        }
+    }
+
+    static class RecordBuilder implements ObjectBuilder<Record> {
+        private long id;
+        private String name;
+        private byte[] payload;
+        private Map<UUID, Long> attributes;
+
+        @Override
+        public Record build() {
+            return new Record(this.id, this.name, this.payload, this.attributes);
+        }
+    }
+
+    private static class RecordSerializer extends VersionedSerializer.WithBuilder<Record, RecordBuilder> {
+        @Override
+        protected RecordBuilder newBuilder() {
+            return new RecordBuilder();
+        }
+
+        @Override
+        protected byte getWriteVersion() {
+            return 0;
+        }
+
+        @Override
+        protected void declareVersions() {
+            version(0).revision(0, this::write00, this::read00);
+        }
+
+        private void write00(Record r, RevisionDataOutput output) throws IOException {
+            output.writeLong(r.id);
+            output.writeUTF(r.name);
+            output.writeArray(r.payload);
+            output.writeMap(r.attributes, RevisionDataOutput::writeUUID, RevisionDataOutput::writeLong);
+        }
+
+        private void read00(RevisionDataInput input, RecordBuilder builder) throws IOException {
+            builder.id = input.readLong();
+            builder.name = input.readUTF();
+            builder.payload = input.readArray();
+            builder.attributes = input.readMap(RevisionDataInput::readUUID, RevisionDataInput::readLong);
+        }
+    }
+
+    //endregion
+}
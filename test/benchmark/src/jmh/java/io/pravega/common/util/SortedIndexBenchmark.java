@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.common.util;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the AvlTreeIndex and RedBlackTreeIndex SortedIndex implementations for inserts and the lookups performed
+ * by the ReadIndex (exact, ceiling and floor).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SortedIndexBenchmark {
+    /**
+     * Keys are spaced out so that ceiling/floor lookups can target values in between existing entries.
+     */
+    private static final int KEY_SPACING = 10;
+    private static final int LOOKUP_COUNT = 1024;
+
+    @Param({"AVL", "RBT"})
+    private IndexType indexType;
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private TestEntry[] entries;
+    private long[] lookupKeys;
+    private SortedIndex<TestEntry> index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(0);
+        this.entries = new TestEntry[this.size];
+        for (int i = 0; i < this.size; i++) {
+            this.entries[i] = new TestEntry((long) i * KEY_SPACING);
+        }
+
+        // Shuffle the insertion order so we do not only measure the (degenerate) sequential insert case.
+        for (int i = this.entries.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            TestEntry t = this.entries[i];
+            this.entries[i] = this.entries[j];
+            this.entries[j] = t;
+        }
+
+        this.lookupKeys = new long[LOOKUP_COUNT];
+        for (int i = 0; i < this.lookupKeys.length; i++) {
+            this.lookupKeys[i] = (long) random.nextInt(this.size * KEY_SPACING);
+        }
+
+        this.index = this.indexType.create();
+        for (TestEntry e : this.entries) {
+            this.index.put(e);
+        }
+    }
+
+    @Benchmark
+    public SortedIndex<TestEntry> insert() {
+        SortedIndex<TestEntry> newIndex = this.indexType.create();
+        for (TestEntry e : this.entries) {
+            newIndex.put(e);
+        }
+
+        return newIndex;
+    }
+
+    @Benchmark
+    public void get(Blackhole blackhole) {
+        for (long key : this.lookupKeys) {
+            blackhole.consume(this.index.get(key - key % KEY_SPACING));
+        }
+    }
+
+    @Benchmark
+    public void getCeiling(Blackhole blackhole) {
+        for (long key : this.lookupKeys) {
+            blackhole.consume(this.index.getCeiling(key));
+        }
+    }
+
+    @Benchmark
+    public void getFloor(Blackhole blackhole) {
+        for (long key : this.lookupKeys) {
+            blackhole.consume(this.index.getFloor(key));
+        }
+    }
+
+    //region Helper Classes
+
+    public enum IndexType {
+        AVL(AvlTreeIndex::new),
+        RBT(RedBlackTreeIndex::new);
+
+        private final Supplier<SortedIndex<TestEntry>> factory;
+
+        IndexType(Supplier<SortedIndex<TestEntry>> factory) {
+            this.factory = factory;
+        }
+
+        SortedIndex<TestEntry> create() {
+            return this.factory.get();
+        }
+    }
+
+    static class TestEntry implements SortedIndex.IndexEntry {
+        private final long key;
+
+        TestEntry(long key) {
+            this.key = key;
+        }
+
+        @Override
+        public long key() {
+            return this.key;
+        }
+    }
+
+    //endregion
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.controller.store.stream.tables;
+
+import io.pravega.controller.store.stream.Segment;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.tuple.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the TableHelper scans over the history and index tables of a Stream that has gone through many scale
+ * operations. Each epoch replaces all the segments of the previous one with the same number of new segments.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TableHelperBenchmark {
+    private static final long START_TIME = 1000L;
+    private static final long EPOCH_DURATION = 1000L;
+
+    @Param({"10", "1000"})
+    private int epochCount;
+
+    @Param({"10"})
+    private int segmentsPerEpoch;
+
+    private byte[] segmentTable;
+    private byte[] historyTable;
+    private byte[] indexTable;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<AbstractMap.SimpleEntry<Double, Double>> ranges = new ArrayList<>();
+        double rangeSize = 1.0 / this.segmentsPerEpoch;
+        for (int i = 0; i < this.segmentsPerEpoch; i++) {
+            ranges.add(new AbstractMap.SimpleEntry<>(i * rangeSize, i == this.segmentsPerEpoch - 1 ? 1.0 : (i + 1) * rangeSize));
+        }
+
+        this.segmentTable = TableHelper.createSegmentTable(ranges, START_TIME);
+        this.historyTable = TableHelper.createHistoryTable(START_TIME, getSegments(0));
+        this.indexTable = TableHelper.createIndexTable(START_TIME);
+        for (int epoch = 1; epoch < this.epochCount; epoch++) {
+            long timestamp = getEpochTime(epoch);
+            this.segmentTable = TableHelper.updateSegmentTable(epoch * this.segmentsPerEpoch, epoch, this.segmentTable, ranges, timestamp);
+            this.indexTable = TableHelper.updateIndexTable(this.indexTable, timestamp, this.historyTable.length);
+            this.historyTable = TableHelper.addPartialRecordToHistoryTable(this.historyTable, getSegments(epoch));
+            HistoryRecord partial = HistoryRecord.readLatestRecord(this.historyTable, false).get();
+            this.historyTable = TableHelper.completePartialRecordInHistoryTable(this.historyTable, partial, timestamp);
+        }
+
+        this.random = new Random(0);
+    }
+
+    @Benchmark
+    public List<Integer> getLatestActiveSegments() {
+        return TableHelper.getActiveSegments(this.historyTable);
+    }
+
+    @Benchmark
+    public List<Integer> getActiveSegmentsAtTime() {
+        long timestamp = getEpochTime(this.random.nextInt(this.epochCount)) + EPOCH_DURATION / 2;
+        return TableHelper.getActiveSegments(timestamp, this.indexTable, this.historyTable, this.segmentTable, null);
+    }
+
+    @Benchmark
+    public Optional<HistoryRecord> readEpochHistoryRecord() {
+        return TableHelper.readEpochHistoryRecord(this.random.nextInt(this.epochCount), this.indexTable, this.historyTable);
+    }
+
+    @Benchmark
+    public List<Integer> findSegmentSuccessorCandidates() {
+        // Pick a segment that has been sealed, so that the lookup needs to locate the following epoch.
+        int segmentNumber = this.random.nextInt(Math.max(1, (this.epochCount - 1) * this.segmentsPerEpoch));
+        Segment segment = TableHelper.getSegment(segmentNumber, this.segmentTable);
+        return TableHelper.findSegmentSuccessorCandidates(segment, this.indexTable, this.historyTable);
+    }
+
+    @Benchmark
+    public List<Pair<Long, List<Integer>>> getScaleMetadata() {
+        return TableHelper.getScaleMetadata(this.historyTable);
+    }
+
+    private List<Integer> getSegments(int epoch) {
+        List<Integer> result = new ArrayList<>(this.segmentsPerEpoch);
+        for (int i = 0; i < this.segmentsPerEpoch; i++) {
+            result.add(epoch * this.segmentsPerEpoch + i);
+        }
+
+        return result;
+    }
+
+    private long getEpochTime(int epoch) {
+        return START_TIME + epoch * EPOCH_DURATION;
+    }
+}
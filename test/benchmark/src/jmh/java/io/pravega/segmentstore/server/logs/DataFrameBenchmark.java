@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.logs;
+
+import io.pravega.common.concurrent.ExecutorServiceHelpers;
+import io.pravega.common.function.Callbacks;
+import io.pravega.segmentstore.server.logs.operations.Operation;
+import io.pravega.segmentstore.server.logs.operations.OperationSerializer;
+import io.pravega.segmentstore.server.logs.operations.StreamSegmentAppendOperation;
+import io.pravega.segmentstore.storage.DurableDataLog;
+import io.pravega.segmentstore.storage.mocks.InMemoryDurableDataLogFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the cost of serializing Operations into DataFrames (DataFrameBuilder) and of reading them back
+ * (DataFrameReader), using an in-memory DurableDataLog so that only the framing and serialization cost is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DataFrameBenchmark {
+    private static final int CONTAINER_ID = 0;
+    private static final long SEGMENT_ID = 1;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Param({"100", "1024", "102400"})
+    private int appendSize;
+
+    @Param({"1000"})
+    private int operationCount;
+
+    private ScheduledExecutorService executor;
+    private List<Operation> operations;
+    private InMemoryDurableDataLogFactory readLogFactory;
+    private DurableDataLog readLog;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        this.executor = ExecutorServiceHelpers.newScheduledThreadPool(2, "benchmark");
+        this.operations = new ArrayList<>(this.operationCount);
+        Random random = new Random(0);
+        long offset = 0;
+        for (int i = 0; i < this.operationCount; i++) {
+            byte[] data = new byte[this.appendSize];
+            random.nextBytes(data);
+            Operation op = new StreamSegmentAppendOperation(SEGMENT_ID, offset, data, Collections.emptyList());
+            op.setSequenceNumber(i);
+            this.operations.add(op);
+            offset += data.length;
+        }
+
+        // Pre-populate a log that will be used by the read benchmark.
+        this.readLogFactory = new InMemoryDurableDataLogFactory(this.executor);
+        this.readLog = this.readLogFactory.createDurableDataLog(CONTAINER_ID);
+        this.readLog.initialize(TIMEOUT);
+        writeAll(this.readLog);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        this.readLog.close();
+        this.readLogFactory.close();
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Serializes all the operations into a fresh DurableDataLog and waits for all DataFrames to be committed.
+     */
+    @Benchmark
+    public void write() throws Exception {
+        try (InMemoryDurableDataLogFactory factory = new InMemoryDurableDataLogFactory(this.executor);
+             DurableDataLog log = factory.createDurableDataLog(CONTAINER_ID)) {
+            log.initialize(TIMEOUT);
+            writeAll(log);
+        }
+    }
+
+    /**
+     * Reads and deserializes all the operations from a pre-populated DurableDataLog.
+     */
+    @Benchmark
+    public void read(Blackhole blackhole) throws Exception {
+        try (DataFrameReader<Operation> reader = new DataFrameReader<>(this.readLog, OperationSerializer.DEFAULT, CONTAINER_ID)) {
+            DataFrameRecord<Operation> record;
+            while ((record = reader.getNext()) != null) {
+                blackhole.consume(record.getItem());
+            }
+        }
+    }
+
+    private void writeAll(DurableDataLog log) throws Exception {
+        long lastSequenceNumber = this.operations.get(this.operations.size() - 1).getSequenceNumber();
+        CompletableFuture<Void> allCommitted = new CompletableFuture<>();
+        DataFrameBuilder.Args args = new DataFrameBuilder.Args(
+                Callbacks::doNothing,
+                commitArgs -> {
+                    if (commitArgs.getLastFullySerializedSequenceNumber() >= lastSequenceNumber) {
+                        allCommitted.complete(null);
+                    }
+                },
+                (ex, commitArgs) -> allCommitted.completeExceptionally(ex),
+                this.executor);
+        try (DataFrameBuilder<Operation> builder = new DataFrameBuilder<>(log, OperationSerializer.DEFAULT, args)) {
+            for (Operation op : this.operations) {
+                builder.append(op);
+            }
+
+            builder.flush();
+            allCommitted.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+}
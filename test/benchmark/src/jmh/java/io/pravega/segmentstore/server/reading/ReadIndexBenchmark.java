@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.server.reading;
+
+import io.pravega.common.concurrent.ExecutorServiceHelpers;
+import io.pravega.segmentstore.contracts.ReadResult;
+import io.pravega.segmentstore.server.UpdateableSegmentMetadata;
+import io.pravega.segmentstore.server.containers.StreamSegmentContainerMetadata;
+import io.pravega.segmentstore.storage.CacheFactory;
+import io.pravega.segmentstore.storage.Storage;
+import io.pravega.segmentstore.storage.mocks.InMemoryCacheFactory;
+import io.pravega.segmentstore.storage.mocks.InMemoryStorageFactory;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures tail reads served by the ContainerReadIndex (and its StreamSegmentReadIndex) from an in-memory cache.
+ * All the data is appended (but never flushed to Storage) in the setup phase, so every read is a cache hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ReadIndexBenchmark {
+    private static final int CONTAINER_ID = 0;
+    private static final long SEGMENT_ID = 1;
+    private static final int SEGMENT_LENGTH = 16 * 1024 * 1024;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Param({"100", "1024", "65536"})
+    private int appendSize;
+
+    @Param({"4096", "1048576"})
+    private int readLength;
+
+    private ScheduledExecutorService executor;
+    private CacheFactory cacheFactory;
+    private Storage storage;
+    private CacheManager cacheManager;
+    private ContainerReadIndex readIndex;
+    private Random random;
+    private byte[] readBuffer;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        this.executor = ExecutorServiceHelpers.newScheduledThreadPool(2, "benchmark");
+        ReadIndexConfig config = ReadIndexConfig.builder()
+                                                .with(ReadIndexConfig.CACHE_POLICY_MAX_SIZE, Long.MAX_VALUE)
+                                                .with(ReadIndexConfig.CACHE_POLICY_MAX_TIME, Integer.MAX_VALUE)
+                                                .build();
+        StreamSegmentContainerMetadata metadata = new StreamSegmentContainerMetadata(CONTAINER_ID, 1000);
+        this.cacheFactory = new InMemoryCacheFactory();
+        this.storage = InMemoryStorageFactory.newStorage(this.executor);
+        this.storage.initialize(1);
+        this.cacheManager = new CacheManager(config.getCachePolicy(), this.cacheFactory, this.executor);
+        this.readIndex = new ContainerReadIndex(config, metadata, this.cacheFactory, this.storage, this.cacheManager, this.executor);
+
+        UpdateableSegmentMetadata segmentMetadata = metadata.mapStreamSegmentId("Segment", SEGMENT_ID);
+        segmentMetadata.setLength(0);
+        segmentMetadata.setStorageLength(0);
+
+        this.random = new Random(0);
+        byte[] appendData = new byte[this.appendSize];
+        long offset = 0;
+        while (offset < SEGMENT_LENGTH) {
+            this.random.nextBytes(appendData);
+            segmentMetadata.setLength(offset + appendData.length);
+            this.readIndex.append(SEGMENT_ID, offset, appendData);
+            offset += appendData.length;
+        }
+
+        this.readBuffer = new byte[this.readLength];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.readIndex.close();
+        this.cacheManager.close();
+        this.storage.close();
+        this.cacheFactory.close();
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Reads 'readLength' bytes from a random offset in the segment.
+     */
+    @Benchmark
+    public int read() throws Exception {
+        long offset = this.random.nextInt(SEGMENT_LENGTH - this.readLength);
+        try (ReadResult result = this.readIndex.read(SEGMENT_ID, offset, this.readLength, TIMEOUT)) {
+            return result.readRemaining(this.readBuffer, TIMEOUT);
+        }
+    }
+}
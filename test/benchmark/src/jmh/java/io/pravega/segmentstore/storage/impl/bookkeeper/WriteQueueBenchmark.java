@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.segmentstore.storage.impl.bookkeeper;
+
+import io.pravega.common.util.ByteArraySegment;
+import io.pravega.segmentstore.storage.QueueStats;
+import java.util.EnumSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the WriteQueue under the same access pattern as the BookKeeperLog: multiple threads appending Writes, a single
+ * Write Processor thread picking up Writes to execute (completing them right away) and cleaning up finished ones, and
+ * another thread periodically collecting statistics.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WriteQueueBenchmark {
+    private static final int WRITE_LENGTH = 100;
+    private static final long MAX_BATCH_SIZE = 1024 * 1024;
+
+    private final ByteArraySegment data = new ByteArraySegment(new byte[WRITE_LENGTH]);
+    private final WriteLedger ledger = new WriteLedger(null, new LedgerMetadata(1, 1));
+    private WriteQueue queue;
+    private long nextEntryId;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        this.queue = new WriteQueue();
+        this.nextEntryId = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        this.queue.close().forEach(w -> w.fail(new CancellationException(), true));
+    }
+
+    @Benchmark
+    @Group("writeQueue")
+    @GroupThreads(4)
+    public void add() {
+        this.queue.add(new Write(this.data, this.ledger, new CompletableFuture<>()));
+    }
+
+    @Benchmark
+    @Group("writeQueue")
+    @GroupThreads(1)
+    public EnumSet<WriteQueue.CleanupStatus> process() {
+        for (Write w : this.queue.getWritesToExecute(MAX_BATCH_SIZE)) {
+            w.beginAttempt();
+            w.setEntryId(this.nextEntryId++);
+            w.complete();
+        }
+
+        return this.queue.removeFinishedWrites();
+    }
+
+    @Benchmark
+    @Group("writeQueue")
+    @GroupThreads(1)
+    public QueueStats getStatistics() {
+        return this.queue.getStatistics();
+    }
+}
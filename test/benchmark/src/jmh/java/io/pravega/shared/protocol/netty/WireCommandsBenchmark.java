@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.pravega.shared.protocol.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the client-side encoding of Appends (CommandEncoder) and the server-side decoding of the resulting
+ * AppendBlocks (CommandDecoder and AppendDecoder), as well as the round-trip of SegmentRead replies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WireCommandsBenchmark {
+    private static final String SEGMENT = "Scope/Stream/0";
+    private static final UUID WRITER_ID = new UUID(1, 1);
+    private static final int APPEND_BLOCK_SIZE = 256 * 1024;
+    private static final int MAX_FRAME_LENGTH = 16 * 1024 * 1024;
+
+    @Param({"100", "1024", "65536"})
+    private int eventSize;
+
+    @Param({"1000"})
+    private int eventCount;
+
+    private byte[] eventData;
+    private ByteBuf encodeTarget;
+    private byte[] encodedAppends;
+    private byte[] encodedSegmentRead;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        this.eventData = new byte[this.eventSize];
+        new Random(0).nextBytes(this.eventData);
+        this.encodeTarget = Unpooled.buffer(this.eventCount * (this.eventSize + 64) + APPEND_BLOCK_SIZE);
+
+        encodeAppends();
+        this.encodedAppends = new byte[this.encodeTarget.readableBytes()];
+        this.encodeTarget.getBytes(this.encodeTarget.readerIndex(), this.encodedAppends);
+
+        ByteBuf segmentRead = Unpooled.buffer();
+        new CommandEncoder(new FixedBatchSizeTracker(APPEND_BLOCK_SIZE))
+                .encode(null, newSegmentRead(), segmentRead);
+        this.encodedSegmentRead = new byte[segmentRead.readableBytes()];
+        segmentRead.getBytes(segmentRead.readerIndex(), this.encodedSegmentRead);
+        segmentRead.release();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.encodeTarget.release();
+    }
+
+    /**
+     * Encodes a SetupAppend followed by 'eventCount' Appends, as the client would do on a single connection.
+     */
+    @Benchmark
+    public int encodeAppends() throws Exception {
+        this.encodeTarget.clear();
+        CommandEncoder encoder = new CommandEncoder(new FixedBatchSizeTracker(APPEND_BLOCK_SIZE));
+        encoder.encode(null, new WireCommands.SetupAppend(1, WRITER_ID, SEGMENT, ""), this.encodeTarget);
+        for (int i = 0; i < this.eventCount; i++) {
+            Append append = new Append(SEGMENT, WRITER_ID, i, Unpooled.wrappedBuffer(this.eventData), null);
+            encoder.encode(null, append, this.encodeTarget);
+        }
+
+        // Any non-append command closes the current AppendBlock.
+        encoder.encode(null, new WireCommands.KeepAlive(), this.encodeTarget);
+        return this.encodeTarget.readableBytes();
+    }
+
+    /**
+     * Decodes the output of encodeAppends() back into Appends, as the Segment Store would do.
+     */
+    @Benchmark
+    public void decodeAppends(Blackhole blackhole) throws Exception {
+        ByteBuf in = Unpooled.wrappedBuffer(this.encodedAppends);
+        FrameDecoder frameDecoder = new FrameDecoder();
+        AppendDecoder appendDecoder = new AppendDecoder();
+        ByteBuf frame;
+        while ((frame = frameDecoder.decode(in)) != null) {
+            WireCommand command = CommandDecoder.parseCommand(frame);
+            if (appendDecoder.acceptInboundMessage(command)) {
+                blackhole.consume(appendDecoder.processCommand(command));
+            } else {
+                blackhole.consume(command);
+            }
+
+            frame.release();
+        }
+    }
+
+    @Benchmark
+    public int encodeSegmentRead() throws Exception {
+        ByteBuf encoded = new CommandEncoder(new FixedBatchSizeTracker(APPEND_BLOCK_SIZE))
+                .encodeWithPayload(newSegmentRead(), ByteBufAllocator.DEFAULT);
+        try {
+            return encoded.readableBytes();
+        } finally {
+            encoded.release();
+        }
+    }
+
+    @Benchmark
+    public WireCommand decodeSegmentRead() throws Exception {
+        ByteBuf in = Unpooled.wrappedBuffer(this.encodedSegmentRead);
+        ByteBuf frame = new FrameDecoder().decode(in);
+        try {
+            return CommandDecoder.parseCommand(frame);
+        } finally {
+            frame.release();
+        }
+    }
+
+    private WireCommands.SegmentRead newSegmentRead() {
+        return new WireCommands.SegmentRead(SEGMENT, 0, true, false, Unpooled.wrappedBuffer(this.eventData));
+    }
+
+    //region Helper Classes
+
+    private static final class FixedBatchSizeTracker implements AppendBatchSizeTracker {
+        private final int appendBlockSize;
+
+        FixedBatchSizeTracker(int appendBlockSize) {
+            this.appendBlockSize = appendBlockSize;
+        }
+
+        @Override
+        public int getAppendBlockSize() {
+            return this.appendBlockSize;
+        }
+
+        @Override
+        public void recordAppend(long eventNumber, int size) {
+        }
+
+        @Override
+        public void recordAck(long eventNumber) {
+        }
+
+        @Override
+        public int getBatchTimeout() {
+            return 10;
+        }
+    }
+
+    private static final class FrameDecoder extends LengthFieldBasedFrameDecoder {
+        FrameDecoder() {
+            super(MAX_FRAME_LENGTH, 4, 4);
+        }
+
+        ByteBuf decode(ByteBuf in) throws Exception {
+            return (ByteBuf) decode((ChannelHandlerContext) null, in);
+        }
+    }
+
+    //endregion
+}
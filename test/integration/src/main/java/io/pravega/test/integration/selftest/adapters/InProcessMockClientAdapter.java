@@ -15,6 +15,7 @@ import io.pravega.client.admin.StreamManager;
 import io.pravega.client.stream.mock.MockStreamManager;
 import io.pravega.common.concurrent.Futures;
 import io.pravega.segmentstore.contracts.AttributeUpdate;
+import io.pravega.segmentstore.contracts.ReadRequest;
 import io.pravega.segmentstore.contracts.ReadResult;
 import io.pravega.segmentstore.contracts.SegmentProperties;
 import io.pravega.segmentstore.contracts.StreamSegmentExistsException;
@@ -27,6 +28,8 @@ import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -157,11 +160,21 @@ class InProcessMockClientAdapter extends ClientAdapterBase {
             throw new UnsupportedOperationException("updateAttributes");
         }
 
+        @Override
+        public CompletableFuture<Map<UUID, Long>> getAttributes(String streamSegmentName, Collection<UUID> attributeIds, boolean waitForPendingOps, Duration timeout) {
+            throw new UnsupportedOperationException("getAttributes");
+        }
+
         @Override
         public CompletableFuture<ReadResult> read(String streamSegmentName, long offset, int maxLength, Duration timeout) {
             throw new UnsupportedOperationException("updateAttributes");
         }
 
+        @Override
+        public List<CompletableFuture<ReadResult>> read(List<ReadRequest> reads, Duration timeout) {
+            throw new UnsupportedOperationException("read");
+        }
+
         @Override
         public CompletableFuture<String> createTransaction(String parentStreamSegmentName, UUID transactionId, Collection<AttributeUpdate> attributes, Duration timeout) {
             throw new UnsupportedOperationException("updateAttributes");
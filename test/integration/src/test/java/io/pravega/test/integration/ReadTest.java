@@ -148,7 +148,7 @@ public class ReadTest {
             assertEquals(result.getOffset(), actual.position());
             assertTrue(result.isAtTail());
             assertFalse(result.isEndOfSegment());
-            actual.put(result.getData());
+            actual.put(result.getData().nioBuffer());
             if (actual.position() < actual.capacity()) {
                 // Prevent entering a tight loop by giving the store a bit of time to process al the appends internally
                 // before trying again.